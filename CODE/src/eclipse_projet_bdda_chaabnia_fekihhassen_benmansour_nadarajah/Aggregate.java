@@ -0,0 +1,103 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.Locale;
+
+/**
+ * Une fonction d'agrégation d'une requête : COUNT(*), COUNT(col), SUM(col),
+ * AVG(col), MIN(col) ou MAX(col). SUM, AVG, MIN et MAX portent sur une colonne
+ * INT ou FLOAT.
+ */
+public class Aggregate {
+  static final int COUNT = 0;
+  static final int SUM = 1;
+  static final int AVG = 2;
+  static final int MIN = 3;
+  static final int MAX = 4;
+
+  private static final String[] NAMES = { "COUNT", "SUM", "AVG", "MIN", "MAX" };
+
+  private final int function;
+  private final String columnName; // null pour COUNT(*)
+
+  /**
+   * Crée une fonction d'agrégation.
+   *
+   * @param function   Le code de la fonction (COUNT, SUM, AVG, MIN ou MAX).
+   * @param columnName La colonne agrégée, ou null pour COUNT(*).
+   */
+  public Aggregate(int function, String columnName) {
+    this.function = function;
+    this.columnName = columnName;
+  }
+
+  /**
+   * Analyse un élément de la liste d'un SELECT.
+   *
+   * @param item L'élément, par exemple "SUM(A)" ou "count(*)".
+   * @return La fonction d'agrégation, ou null si l'élément est une simple
+   *         colonne.
+   * @throws IllegalArgumentException Si la fonction est mal formée.
+   */
+  public static Aggregate parse(String item) {
+    String trimmed = item.trim();
+    int open = trimmed.indexOf('(');
+    if (open == -1 || !trimmed.endsWith(")")) {
+      return null;
+    }
+    String name = trimmed.substring(0, open).trim().toUpperCase(Locale.ROOT);
+    String argument = trimmed.substring(open + 1, trimmed.length() - 1).trim();
+    for (int function = 0; function < NAMES.length; function++) {
+      if (NAMES[function].equals(name)) {
+        if (argument.equals("*")) {
+          if (function != COUNT) {
+            throw new IllegalArgumentException(name + "(*) n'est pas permis");
+          }
+          return new Aggregate(COUNT, null);
+        }
+        if (argument.isEmpty()) {
+          throw new IllegalArgumentException("Colonne manquante dans : " + trimmed);
+        }
+        return new Aggregate(function, argument);
+      }
+    }
+    throw new IllegalArgumentException("Fonction inconnue : " + name);
+  }
+
+  int getFunction() {
+    return function;
+  }
+
+  /**
+   * Obtient la colonne agrégée.
+   *
+   * @return Le nom de la colonne, ou null pour COUNT(*).
+   */
+  public String getColumnName() {
+    return columnName;
+  }
+
+  /**
+   * Obtient le type de la colonne produite, d'après le type de la colonne
+   * agrégée. SUM donne toujours un FLOAT : la somme d'une colonne INT peut
+   * dépasser la capacité d'un INT.
+   *
+   * @param inputType Le code du type de la colonne agrégée (RecordLayout).
+   * @return "INT" ou "FLOAT".
+   */
+  String getResultType(int inputType) {
+    if (function == COUNT || ((function == MIN || function == MAX) && inputType == RecordLayout.INT)) {
+      return "INT";
+    }
+    return "FLOAT";
+  }
+
+  /**
+   * Obtient le nom de la colonne produite, tel qu'il s'écrit dans le SELECT.
+   *
+   * @return Le nom normalisé, par exemple "SUM(A)".
+   */
+  @Override
+  public String toString() {
+    return NAMES[function] + "(" + (columnName == null ? "*" : columnName) + ")";
+  }
+}
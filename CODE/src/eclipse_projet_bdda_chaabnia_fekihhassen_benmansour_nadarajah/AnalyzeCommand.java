@@ -0,0 +1,66 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Commande pour collecter les statistiques d'une table (ou de toutes les
+ * tables) utilisées par le planificateur des jointures : ANALYZE [nom_table].
+ * Les statistiques sont gardées dans le TableInfo jusqu'à la prochaine
+ * analyse.
+ */
+public class AnalyzeCommand {
+  private String relationName; // null pour toutes les tables
+
+  /**
+   * Crée une instance de la commande ANALYZE en analysant la commande fournie.
+   *
+   * @param command La commande ANALYZE sous forme de chaîne de caractères.
+   */
+  public AnalyzeCommand(String command) {
+    String[] commandParts = command.trim().split("\\s+");
+    this.relationName = commandParts.length > 1 ? commandParts[1] : null;
+  }
+
+  /**
+   * Exécute l'analyse de la ou des tables concernées et affiche un résumé des
+   * statistiques.
+   */
+  public void execute() {
+    try {
+      DataBaseInfo databaseInfo = DataBaseInfo.getInstance();
+      List<TableInfo> tables = new ArrayList<>();
+
+      if (relationName == null) {
+        tables.addAll(databaseInfo.getTableInfoList());
+      } else {
+        TableInfo tableInfo = databaseInfo.getTableInfo(relationName);
+        if (tableInfo == null) {
+          System.out.println("La Table \"" + relationName + "\" n'existe pas.");
+          return;
+        }
+        tables.add(tableInfo);
+      }
+
+      for (TableInfo tableInfo : tables) {
+        TableStatistics statistics = TableStatistics.collect(tableInfo);
+        tableInfo.setStatistics(statistics);
+        System.out.println("ANALYZE " + tableInfo.getNom_relation() + " : " + statistics.getRowCount()
+            + " enregistrement(s), " + statistics.getPageCount() + " page(s).");
+        List<ColInfo> cols = tableInfo.getColInfoList();
+        for (int col = 0; col < cols.size(); col++) {
+          ColumnStatistics column = statistics.getColumn(col);
+          String range = tableInfo.getLayout().isString(col) || column.getBucketCount() == 0 ? ""
+              : ", de " + column.getMin() + " à " + column.getMax();
+          System.out.println("  " + cols.get(col).getName() + " : " + column.getDistinctCount()
+              + " valeur(s) distincte(s)" + range);
+        }
+      }
+    } catch (IOException e) {
+      System.out.println("An IOException occurred while executing the ANALYZE command: " + e.getMessage());
+    } catch (PageNotFoundException e) {
+      System.out.println("A PageNotFoundException occurred while executing the ANALYZE command: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+
+/**
+ * Filtre vectorisé : réduit le vecteur de sélection de chaque lot aux lignes
+ * qui satisfont un prédicat. Chaque feuille du prédicat est évaluée par une
+ * boucle serrée sur le tableau de sa colonne, sans appel par ligne, et ne voit
+ * que les lignes encore sélectionnées.
+ */
+public class BatchFilter implements BatchOperator {
+  private final BatchOperator child;
+  private final Predicate predicate;
+
+  /**
+   * Crée un filtre vectorisé au-dessus d'un opérateur.
+   *
+   * @param child     L'opérateur qui produit les lots.
+   * @param predicate Le prédicat, compilé pour le schéma du fils.
+   */
+  public BatchFilter(BatchOperator child, Predicate predicate) {
+    this.child = child;
+    this.predicate = predicate;
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    child.open();
+  }
+
+  @Override
+  public ColumnBatch nextBatch() throws IOException, PageNotFoundException {
+    ColumnBatch batch;
+    while ((batch = child.nextBatch()) != null) {
+      int selected = predicate.filter(batch, batch.getSelection(), batch.getSelectedCount());
+      batch.setSelectedCount(selected);
+      if (selected > 0) {
+        return batch;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    child.close();
+  }
+
+  @Override
+  public String describe() {
+    return "BatchFilter(" + child.describe() + ")";
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return child.getSchema();
+  }
+}
@@ -0,0 +1,53 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+
+/**
+ * Un opérateur physique vectorisé : comme un Operator, mais chaque appel à
+ * nextBatch renvoie un lot d'au plus ColumnBatch.CAPACITY lignes rangées par
+ * colonnes, pour que les filtres travaillent en boucles serrées sur des
+ * tableaux plutôt qu'enregistrement par enregistrement.
+ */
+public interface BatchOperator {
+
+  /**
+   * Prépare l'opérateur et ses fils avant le premier appel à nextBatch.
+   *
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si une page n'a pas pu être trouvée.
+   */
+  void open() throws IOException, PageNotFoundException;
+
+  /**
+   * Obtient le prochain lot. Le lot renvoyé peut être réutilisé par l'opérateur
+   * au prochain appel ; il contient au moins une ligne sélectionnée.
+   *
+   * @return Le prochain lot, ou null s'il n'y en a plus.
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si une page n'a pas pu être trouvée.
+   */
+  ColumnBatch nextBatch() throws IOException, PageNotFoundException;
+
+  /**
+   * Libère les ressources de l'opérateur et de ses fils.
+   *
+   * @throws PageNotFoundException Si une page n'a pas pu être trouvée.
+   */
+  void close() throws PageNotFoundException;
+
+  /**
+   * Obtient le schéma des lignes produites par l'opérateur.
+   *
+   * @return Les informations de table décrivant les colonnes produites.
+   */
+  TableInfo getSchema();
+
+  /**
+   * Décrit l'opérateur sur une ligne, pour afficher le plan (EXPLAIN).
+   *
+   * @return La description de l'opérateur.
+   */
+  default String describe() {
+    return getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,257 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parcours vectorisé d'une table : remplit des lots de lignes colonne par
+ * colonne. Les positions des lignes vivantes d'une page sont d'abord relevées,
+ * puis les colonnes du prédicat sont décodées d'une traite pour toutes ces
+ * lignes et filtrées ; les autres colonnes de la projection ne sont décodées
+ * que pour les lignes retenues. Une seule page reste épinglée à la fois.
+ */
+public class BatchScan implements BatchOperator {
+  private final TableInfo tabInfo;
+  private final Predicate predicate;
+  private final boolean filterRows;
+  private final boolean pax;
+  private final RecordLayout layout;
+  private final RecordView view;
+  private final boolean[] filterColumns;
+  private final boolean[] outputColumns;
+  private final int[] positions = new int[ColumnBatch.CAPACITY];
+  private final int[] chunk = new int[ColumnBatch.CAPACITY];
+  private ColumnBatch batch;
+  private List<PageId> dataPageIds;
+  private int pageIndex;
+  private ByteBuffer page;
+  private int rowInPage;
+
+  /**
+   * Crée un parcours vectorisé de la table qui produit toutes les lignes et
+   * toutes les colonnes.
+   *
+   * @param tabInfo   Les informations de la table à parcourir.
+   * @param predicate Le prédicat qui sert à écarter des pages d'après leur zone
+   *                  map, ou null. Il ne filtre pas les lignes : c'est le rôle
+   *                  d'un BatchFilter.
+   */
+  public BatchScan(TableInfo tabInfo, Predicate predicate) {
+    this(tabInfo, predicate, false, null);
+  }
+
+  /**
+   * Crée un parcours vectorisé qui filtre lui-même les lignes et ne décode que
+   * les colonnes utiles. Les lots renvoyés sont rangés selon le schéma de la
+   * table, mais seules les colonnes du prédicat et de la projection y sont
+   * remplies.
+   *
+   * @param tabInfo    Les informations de la table à parcourir.
+   * @param predicate  Le prédicat compilé pour la table, ou null.
+   * @param projection Les colonnes à produire, ou null pour toutes.
+   */
+  public BatchScan(TableInfo tabInfo, Predicate predicate, Projection projection) {
+    this(tabInfo, predicate, true, projection);
+  }
+
+  private BatchScan(TableInfo tabInfo, Predicate predicate, boolean filterRows, Projection projection) {
+    this.tabInfo = tabInfo;
+    this.predicate = predicate;
+    this.filterRows = filterRows && predicate != null;
+    this.pax = tabInfo.getFormat() == PageFormat.PAX;
+    this.layout = tabInfo.getLayout();
+    this.view = new RecordView(tabInfo);
+
+    int colCount = layout.getColumnCount();
+    this.filterColumns = new boolean[colCount];
+    this.outputColumns = new boolean[colCount];
+    if (this.filterRows) {
+      predicate.addColumns(filterColumns);
+    }
+    if (projection == null) {
+      Arrays.fill(outputColumns, true);
+    } else {
+      projection.addColumns(outputColumns);
+    }
+    for (int col = 0; col < colCount; col++) {
+      // une colonne déjà décodée pour le filtre n'est pas relue
+      outputColumns[col] &= !filterColumns[col];
+    }
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    dataPageIds = FileManager.getInstance().getDataPages(tabInfo, predicate);
+    pageIndex = 0;
+    page = null;
+    batch = new ColumnBatch(tabInfo);
+  }
+
+  @Override
+  public ColumnBatch nextBatch() throws IOException, PageNotFoundException {
+    int[] sel = batch.getSelection();
+    int size = 0;
+    int selected = 0;
+    while (size < ColumnBatch.CAPACITY) {
+      if (page == null) {
+        if (pageIndex >= dataPageIds.size()) {
+          break;
+        }
+        page = BufferManager.getInstance().getPage(dataPageIds.get(pageIndex));
+        rowInPage = 0;
+      }
+      int filled = collectRows(ColumnBatch.CAPACITY - size);
+      if (filled > 0) {
+        selected += decodeChunk(size, filled, sel, selected);
+        size += filled;
+      }
+      if (rowInPage >= getRowCount()) {
+        releasePage();
+      }
+      if (selected == 0 && size == ColumnBatch.CAPACITY) {
+        // aucune ligne retenue : le lot est réutilisé sans être renvoyé
+        size = 0;
+      }
+    }
+    if (selected == 0) {
+      return null;
+    }
+    batch.setSize(size, selected);
+    return batch;
+  }
+
+  private int getRowCount() {
+    return pax ? PaxPage.getRowCount(page) : page.getInt(DBParams.SGBDPageSize - 8);
+  }
+
+  /**
+   * Relève les positions des prochaines lignes vivantes de la page courante.
+   */
+  private int collectRows(int max) {
+    int rowCount = getRowCount();
+    int pageSize = DBParams.SGBDPageSize;
+    int filled = 0;
+    while (rowInPage < rowCount && filled < max) {
+      int row = rowInPage++;
+      if (pax) {
+        if (PaxPage.isLive(page, row)) {
+          positions[filled++] = row;
+        }
+      } else {
+        int slotStart = page.getInt(pageSize - (8 + (row + 1) * 8));
+        if (slotStart != FileManager.TOMBSTONE) {
+          positions[filled++] = slotStart;
+        }
+      }
+    }
+    return filled;
+  }
+
+  /**
+   * Décode les lignes relevées à partir de la ligne from du lot : d'abord les
+   * colonnes du prédicat pour toutes les lignes, puis les autres colonnes pour
+   * les seules lignes retenues, ajoutées au vecteur de sélection du lot.
+   *
+   * @return Le nombre de lignes retenues.
+   */
+  private int decodeChunk(int from, int filled, int[] sel, int selected)
+      throws IOException, PageNotFoundException {
+    int n = filled;
+    for (int k = 0; k < filled; k++) {
+      chunk[k] = k;
+    }
+    for (int col = 0; col < filterColumns.length; col++) {
+      if (filterColumns[col]) {
+        decodeColumn(col, from, chunk, n);
+      }
+    }
+    if (filterRows) {
+      for (int k = 0; k < n; k++) {
+        chunk[k] += from;
+      }
+      n = predicate.filter(batch, chunk, n);
+      for (int k = 0; k < n; k++) {
+        chunk[k] -= from;
+      }
+    }
+    for (int col = 0; col < outputColumns.length; col++) {
+      if (outputColumns[col]) {
+        decodeColumn(col, from, chunk, n);
+      }
+    }
+    for (int k = 0; k < n; k++) {
+      sel[selected + k] = from + chunk[k];
+    }
+    return n;
+  }
+
+  /**
+   * Décode une colonne pour les lignes rows[0..n) de la page, écrites à partir
+   * de la ligne from du lot.
+   */
+  private void decodeColumn(int col, int from, int[] rows, int n) throws IOException, PageNotFoundException {
+    int type = layout.getType(col);
+    if (pax && type != RecordLayout.STRING && type != RecordLayout.VARSTRING) {
+      // les valeurs de largeur fixe sont lues directement dans la mini-page
+      int base = page.getInt(12 + 4 * col);
+      if (type == RecordLayout.FLOAT) {
+        float[] values = batch.getFloats(col);
+        for (int k = 0; k < n; k++) {
+          values[from + rows[k]] = page.getFloat(base + positions[rows[k]] * Float.BYTES);
+        }
+      } else {
+        int[] values = batch.getInts(col);
+        for (int k = 0; k < n; k++) {
+          values[from + rows[k]] = page.getInt(base + positions[rows[k]] * Integer.BYTES);
+        }
+      }
+    } else if (type == RecordLayout.INT || type == RecordLayout.DICTIONARY) {
+      // le code d'une colonne encodée reste un int, décodé à la demande
+      int[] values = batch.getInts(col);
+      for (int k = 0; k < n; k++) {
+        view.moveTo(page, positions[rows[k]]);
+        values[from + rows[k]] = view.getInt(col);
+      }
+    } else if (type == RecordLayout.FLOAT) {
+      float[] values = batch.getFloats(col);
+      for (int k = 0; k < n; k++) {
+        view.moveTo(page, positions[rows[k]]);
+        values[from + rows[k]] = view.getFloat(col);
+      }
+    } else {
+      String[] values = batch.getStrings(col);
+      for (int k = 0; k < n; k++) {
+        view.moveTo(page, positions[rows[k]]);
+        values[from + rows[k]] = view.getString(col);
+      }
+    }
+  }
+
+  private void releasePage() throws PageNotFoundException {
+    BufferManager.getInstance().freePage(dataPageIds.get(pageIndex), 0);
+    page = null;
+    pageIndex++;
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    if (page != null) {
+      releasePage();
+    }
+    if (dataPageIds != null) {
+      pageIndex = dataPageIds.size();
+    }
+  }
+
+  @Override
+  public String describe() {
+    return "BatchScan " + tabInfo.getNom_relation() + (predicate != null ? " [filtre]" : "");
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return tabInfo;
+  }
+}
@@ -0,0 +1,80 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Écrit le résultat dans un fichier binaire compact, en big-endian.
+ * L'en-tête contient MAGIC (int), le nombre de colonnes (short) puis, pour
+ * chaque colonne, son type (octet INT, FLOAT ou STRING) et son nom. Chaque
+ * enregistrement suit, sans séparateur : un INT ou un FLOAT sur 4 octets, une
+ * chaîne (ou un nom de colonne) comme sa longueur en octets UTF-8, par
+ * groupes de 7 bits en commençant par les poids faibles (1 à 5 octets, le bit
+ * de poids fort indiquant qu'un octet suit), puis ses octets. Le fichier se termine après le dernier enregistrement.
+ */
+public class BinarySink extends FileSink {
+  static final int MAGIC = 0x42444452; // "BDDR"
+  static final byte INT = 0;
+  static final byte FLOAT = 1;
+  static final byte STRING = 2;
+
+  private byte[] types;
+
+  /**
+   * Crée une destination vers un fichier binaire, remplacé s'il existe déjà.
+   *
+   * @param path Le chemin du fichier.
+   */
+  public BinarySink(Path path) {
+    super(path);
+  }
+
+  @Override
+  protected void writeHeader(TableInfo schema) throws IOException {
+    RecordLayout layout = schema.getLayout();
+    List<ColInfo> cols = schema.getColInfoList();
+    types = new byte[cols.size()];
+    reserve(6).putInt(MAGIC).putShort((short) cols.size());
+    for (int i = 0; i < types.length; i++) {
+      if (layout.isString(i)) {
+        types[i] = STRING;
+      } else {
+        types[i] = layout.getType(i) == RecordLayout.INT ? INT : FLOAT;
+      }
+      reserve(1).put(types[i]);
+      writeString(cols.get(i).getName());
+    }
+  }
+
+  @Override
+  protected void writeRecord(Record record) throws IOException {
+    for (int i = 0; i < types.length; i++) {
+      switch (types[i]) {
+        case INT:
+          reserve(4).putInt(record.getInt(i));
+          break;
+        case FLOAT:
+          reserve(4).putFloat(record.getFloat(i));
+          break;
+        default:
+          writeString(record.getString(i));
+          break;
+      }
+    }
+  }
+
+  private void writeString(String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = reserve(5);
+    int length = bytes.length;
+    while (length >= 0x80) {
+      buffer.put((byte) (length | 0x80));
+      length >>>= 7;
+    }
+    buffer.put((byte) length);
+    write(bytes);
+  }
+}
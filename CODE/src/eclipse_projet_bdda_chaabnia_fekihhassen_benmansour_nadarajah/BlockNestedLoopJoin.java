@@ -0,0 +1,271 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Opérateur de jointure par boucles imbriquées par blocs, pour une condition
+ * quelconque (R.a < S.b ...) ou un produit cartésien. La relation externe est
+ * une table : ses pages de données sont épinglées dans le BufferManager par
+ * blocs, d'autant de pages que le tampon en laisse libres, et l'entrée interne
+ * est parcourue une fois par bloc. Chaque enregistrement interne est comparé
+ * aux enregistrements du bloc directement dans les pages épinglées, en ne
+ * décodant que les colonnes de la condition.
+ * Les enregistrements produits sont rangés comme ceux d'une HashJoin (colonnes
+ * de gauche puis de droite, sous leur nom qualifié), quel que soit le côté de
+ * la relation externe.
+ */
+public class BlockNestedLoopJoin implements Operator {
+  // frames laissées à l'entrée interne : une page de données et une page de
+  // répertoire ou de débordement
+  private static final int INNER_FRAMES = 2;
+
+  private final TableInfo outerTable;
+  private final Predicate outerPredicate;
+  private final Projection outerProjection;
+  private final Operator inner;
+  private final Predicate joinPredicate;
+  private final TableInfo schema;
+  private final int[] outerColumns; // colonne de la table pour chaque colonne externe produite
+  private final int outerOffset; // position des colonnes externes dans le schéma joint
+  private final int innerOffset;
+  private final boolean[] joinColumns; // colonnes externes lues par la condition
+  private final RecordView view;
+
+  private List<PageId> outerPages;
+  private int nextPage;
+  private int blockPages;
+  private final List<PageId> block = new ArrayList<>(); // pages épinglées
+  private final List<ByteBuffer> buffers = new ArrayList<>();
+  private final List<int[]> rows = new ArrayList<>(); // positions retenues par page
+  private boolean innerOpen;
+  private boolean finished;
+  private Record innerRecord;
+  private Record scratch; // enregistrement joint sur lequel la condition est évaluée
+  private int blockPage;
+  private int blockRow;
+
+  /**
+   * Crée une jointure par boucles imbriquées par blocs.
+   *
+   * @param outerTable      La table externe, lue par blocs de pages épinglées.
+   * @param outerPredicate  Le prédicat sur la table externe, ou null.
+   * @param outerProjection Les colonnes gardées de la table externe, ou null
+   *                        pour toutes.
+   * @param inner           L'entrée interne, ouverte une fois par bloc.
+   * @param outerIsLeft     true si la table externe est l'entrée gauche de la
+   *                        jointure.
+   * @param joinPredicate   La condition de jointure, compilée sur le schéma
+   *                        joint (JoinPlanner.joinSchema de la gauche et de la
+   *                        droite), ou null pour un produit cartésien.
+   */
+  public BlockNestedLoopJoin(TableInfo outerTable, Predicate outerPredicate, Projection outerProjection,
+      Operator inner, boolean outerIsLeft, Predicate joinPredicate) {
+    this.outerTable = outerTable;
+    this.outerPredicate = outerPredicate;
+    this.outerProjection = outerProjection;
+    this.inner = inner;
+    this.joinPredicate = joinPredicate;
+    this.view = new RecordView(outerTable);
+
+    TableInfo outerSchema = outerProjection != null ? outerProjection.getSchema() : outerTable;
+    if (outerIsLeft) {
+      schema = JoinPlanner.joinSchema(outerSchema, inner.getSchema());
+      outerOffset = 0;
+      innerOffset = outerSchema.getNb_colonnes();
+    } else {
+      schema = JoinPlanner.joinSchema(inner.getSchema(), outerSchema);
+      outerOffset = inner.getSchema().getNb_colonnes();
+      innerOffset = 0;
+    }
+    if (outerProjection != null) {
+      outerColumns = outerProjection.getColumns();
+    } else {
+      outerColumns = new int[outerTable.getNb_colonnes()];
+      for (int i = 0; i < outerColumns.length; i++) {
+        outerColumns[i] = i;
+      }
+    }
+    joinColumns = new boolean[outerColumns.length];
+    if (joinPredicate != null) {
+      boolean[] used = new boolean[schema.getNb_colonnes()];
+      joinPredicate.addColumns(used);
+      for (int k = 0; k < outerColumns.length; k++) {
+        joinColumns[k] = used[outerOffset + k];
+      }
+    }
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    outerPages = FileManager.getInstance().getDataPages(outerTable, outerPredicate);
+    nextPage = 0;
+    blockPages = Math.max(1,
+        DBParams.FrameCount - BufferManager.getInstance().getPinnedFrameCount() - INNER_FRAMES);
+    scratch = new Record(schema);
+    innerRecord = null;
+    finished = !loadBlock();
+  }
+
+  /**
+   * Épingle le bloc suivant de pages externes, qui contient au moins un
+   * enregistrement retenu, et rouvre l'entrée interne.
+   *
+   * @return false s'il ne reste aucune page externe.
+   */
+  private boolean loadBlock() throws IOException, PageNotFoundException {
+    unpinBlock();
+    BufferManager bm = BufferManager.getInstance();
+    boolean pax = outerTable.getFormat() == PageFormat.PAX;
+    int pageSize = DBParams.SGBDPageSize;
+    while (nextPage < outerPages.size() && block.size() < blockPages) {
+      PageId pageId = outerPages.get(nextPage++);
+      ByteBuffer page = bm.getPage(pageId);
+      int count = pax ? PaxPage.getRowCount(page) : page.getInt(pageSize - 8);
+      int[] positions = new int[count];
+      int n = 0;
+      for (int row = 0; row < count; row++) {
+        int position;
+        if (pax) {
+          if (!PaxPage.isLive(page, row)) {
+            continue;
+          }
+          position = row;
+        } else {
+          position = page.getInt(pageSize - (8 + (row + 1) * 8));
+          if (position == FileManager.TOMBSTONE) {
+            continue;
+          }
+        }
+        view.moveTo(page, position);
+        if (outerPredicate == null || outerPredicate.test(view)) {
+          positions[n++] = position;
+        }
+      }
+      if (n == 0) {
+        // rien à joindre : la frame est rendue tout de suite
+        bm.freePage(pageId, 0);
+        continue;
+      }
+      block.add(pageId);
+      buffers.add(page);
+      rows.add(n == count ? positions : Arrays.copyOf(positions, n));
+    }
+    if (block.isEmpty()) {
+      return false;
+    }
+    inner.open();
+    innerOpen = true;
+    return true;
+  }
+
+  private void unpinBlock() throws PageNotFoundException {
+    BufferManager bm = BufferManager.getInstance();
+    for (PageId pageId : block) {
+      bm.freePage(pageId, 0);
+    }
+    block.clear();
+    buffers.clear();
+    rows.clear();
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    while (!finished) {
+      if (innerRecord != null) {
+        while (blockPage < block.size()) {
+          int[] positions = rows.get(blockPage);
+          if (blockRow == positions.length) {
+            blockPage++;
+            blockRow = 0;
+            continue;
+          }
+          view.moveTo(buffers.get(blockPage), positions[blockRow++]);
+          if (matches()) {
+            return join();
+          }
+        }
+        innerRecord = null;
+      }
+
+      innerRecord = inner.next();
+      if (innerRecord != null) {
+        for (int col = 0; col < innerRecord.getTabInfo().getNb_colonnes(); col++) {
+          scratch.copyValue(innerOffset + col, innerRecord, col);
+        }
+        blockPage = 0;
+        blockRow = 0;
+      } else {
+        inner.close();
+        innerOpen = false;
+        finished = !loadBlock();
+      }
+    }
+    return null;
+  }
+
+  private boolean matches() throws IOException, PageNotFoundException {
+    if (joinPredicate == null) {
+      return true;
+    }
+    for (int k = 0; k < outerColumns.length; k++) {
+      if (joinColumns[k]) {
+        readOuter(scratch, k);
+      }
+    }
+    return joinPredicate.test(scratch);
+  }
+
+  private void readOuter(Record target, int k) throws IOException, PageNotFoundException {
+    int col = outerColumns[k];
+    if (view.isInt(col)) {
+      target.setInt(outerOffset + k, view.getInt(col));
+    } else if (view.isFloat(col)) {
+      target.setFloat(outerOffset + k, view.getFloat(col));
+    } else {
+      target.setString(outerOffset + k, view.getString(col));
+    }
+  }
+
+  private Record join() throws IOException, PageNotFoundException {
+    Record record = new Record(schema);
+    for (int col = 0; col < innerRecord.getTabInfo().getNb_colonnes(); col++) {
+      record.copyValue(innerOffset + col, innerRecord, col);
+    }
+    for (int k = 0; k < outerColumns.length; k++) {
+      readOuter(record, k);
+    }
+    return record;
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    unpinBlock();
+    if (innerOpen) {
+      inner.close();
+      innerOpen = false;
+    }
+    finished = true;
+    innerRecord = null;
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return List.of(inner);
+  }
+
+  @Override
+  public String describe() {
+    return "BlockNestedLoopJoin (externe : " + outerTable.getNom_relation() + (outerPredicate != null ? " [filtre]" : "")
+        + (outerProjection != null ? " " + Operator.columnList(outerProjection.getSchema()) : "")
+        + (joinPredicate != null ? ", condition" : ", produit cartésien") + ")";
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return schema;
+  }
+}
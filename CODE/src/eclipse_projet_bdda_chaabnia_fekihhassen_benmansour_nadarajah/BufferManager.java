@@ -1,23 +1,28 @@
 package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
 
 import java.nio.ByteBuffer;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Cette classe gère le tampon de mémoire utilisé pour stocker les pages de
- * données en mémoire.
+ * données en mémoire. Ses méthodes sont synchronisées pour que plusieurs
+ * threads de parcours puissent épingler et libérer des pages en même temps.
  */
 public class BufferManager {
 	private static BufferManager instance; // Instance unique du Buffer Manager
 	public Map<PageId, Frame> bufferPool; // Tampon de mémoire pour stocker les pages
+	private long hitCount; // pages demandées déjà présentes dans le tampon
+	private long missCount; // pages demandées lues sur le disque
 
 	/**
 	 * Constructeur privé de la classe BufferManager.
-	 * Initialise le tampon de mémoire sous forme de HashMap.
+	 * Initialise le tampon de mémoire sous forme de LinkedHashMap ordonnée par
+	 * accès, ce qui donne directement l'ordre LRU pour le remplacement.
 	 */
 	private BufferManager() {
-		bufferPool = new HashMap<>();
+		bufferPool = new LinkedHashMap<>(16, 0.75f, true);
 	}
 
 	/**
@@ -25,7 +30,7 @@ public class BufferManager {
 	 *
 	 * @return L'instance unique du Buffer Manager.
 	 */
-	public static BufferManager getInstance() {
+	public static synchronized BufferManager getInstance() {
 		if (instance == null) {
 			instance = new BufferManager();
 		}
@@ -35,7 +40,7 @@ public class BufferManager {
 	/**
 	 * Initialise le tampon de mémoire en vidant son contenu.
 	 */
-	public void init() {
+	public synchronized void init() {
 		bufferPool.clear();
 	}
 
@@ -49,11 +54,12 @@ public class BufferManager {
 	 * @param pageId L'identifiant de la page à obtenir.
 	 * @return Le ByteBuffer contenant les données de la page.
 	 */
-	public ByteBuffer getPage(PageId pageId, ByteBuffer buff) {
+	public synchronized ByteBuffer getPage(PageId pageId, ByteBuffer buff) {
 		try {
 			if (bufferPool.containsKey(pageId)) {
 				Frame frame = bufferPool.get(pageId);
 				frame.incrementerPinCount();
+				hitCount++;
 				return frame.getBuffer();
 			} else {
 				ByteBuffer pageData = DiskManager.getInstance().readPage(pageId);
@@ -66,6 +72,8 @@ public class BufferManager {
 					// System.out.println("PageData n'est pas null pour getPage dans getPage: " +
 					// pageId);
 				}
+				missCount++;
+				evictIfNeeded();
 				Frame newFrame = new Frame(pageData);
 				bufferPool.put(pageId, newFrame);
 				return newFrame.getBuffer();
@@ -91,12 +99,13 @@ public class BufferManager {
 	 *               page.
 	 * @return Le ByteBuffer contenant les données de la page.
 	 */
-	public ByteBuffer getPage(PageId pageId) {
+	public synchronized ByteBuffer getPage(PageId pageId) {
 		try {
 
 			if (bufferPool.containsKey(pageId)) {
 				Frame frame = bufferPool.get(pageId);
 				frame.incrementerPinCount();
+				hitCount++;
 				return frame.getBuffer();
 			} else {
 				ByteBuffer pageData = DiskManager.getInstance().readPage(pageId);
@@ -106,6 +115,8 @@ public class BufferManager {
 					// System.out.println("PageData n'est pas null dans getPage pour getPage " +
 					// pageId);
 				}
+				missCount++;
+				evictIfNeeded();
 				Frame newFrame = new Frame(pageData);
 				bufferPool.put(pageId, newFrame);
 				return newFrame.getBuffer();
@@ -120,37 +131,99 @@ public class BufferManager {
 	}
 
 	/**
-	 * Libère une page du tampon de mémoire et la désalloue si nécessaire.
+	 * Libère une page du tampon de mémoire. La frame reste dans le tampon tant
+	 * qu'elle n'est pas choisie pour un remplacement, ce qui permet de retrouver
+	 * la page sans relecture disque.
 	 *
 	 * @param pageId   L'identifiant de la page à libérer.
 	 * @param valDirty Une valeur indiquant si la page est marquée comme "dirty" (1
 	 *                 pour vrai, 0 pour faux).
 	 */
-	public void freePage(PageId pageId, int valDirty) {
-		if (bufferPool.containsKey(pageId)) {
-			Frame frame = bufferPool.get(pageId);
+	public synchronized void freePage(PageId pageId, int valDirty) {
+		Frame frame = bufferPool.get(pageId);
+		if (frame != null) {
 			frame.decrementerPinCount();
-			;
 
 			if (valDirty == 1) {
 				frame.setDirty(true);
 			}
+		}
+	}
+
+	/**
+	 * Retire une page du tampon sans la réécrire sur le disque. Utilisé lorsque
+	 * la page est rendue au DiskManager et que son contenu n'a plus d'intérêt.
+	 *
+	 * @param pageId L'identifiant de la page à retirer.
+	 */
+	public synchronized void discardPage(PageId pageId) {
+		bufferPool.remove(pageId);
+	}
 
+	/**
+	 * Libère une frame non épinglée (la moins récemment utilisée) lorsque le
+	 * tampon a atteint FrameCount frames. Une page dirty est réécrite dans le
+	 * DiskManager avant d'être retirée. Si toutes les frames sont épinglées, le
+	 * tampon dépasse temporairement sa taille.
+	 */
+	private void evictIfNeeded() {
+		if (bufferPool.size() < DBParams.FrameCount) {
+			return;
+		}
+		Iterator<Map.Entry<PageId, Frame>> it = bufferPool.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<PageId, Frame> entry = it.next();
+			Frame frame = entry.getValue();
 			if (frame.getPinCount() == 0) {
-				// Si le pinCount est egale à 0, supprime la page de la mémoire tampon
-				bufferPool.remove(pageId);
+				if (frame.getDirty()) {
+					DiskManager.getInstance().writePage(entry.getKey(), frame.getBuffer());
+				}
+				it.remove();
+				return;
+			}
+		}
+	}
 
-				// Desallouer la page dans le DiskManager
-				DiskManager.getInstance().deallocatePage(pageId);
+	/**
+	 * Obtient le nombre de demandes de pages satisfaites par le tampon depuis le
+	 * démarrage. Chaque demande épingle la page.
+	 *
+	 * @return Le nombre de succès.
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * Obtient le nombre de demandes de pages qui ont dû lire la page sur le
+	 * disque depuis le démarrage.
+	 *
+	 * @return Le nombre de défauts.
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Compte les frames dont la page est actuellement épinglée.
+	 *
+	 * @return Le nombre de frames épinglées.
+	 */
+	public synchronized int getPinnedFrameCount() {
+		int count = 0;
+		for (Frame frame : bufferPool.values()) {
+			if (frame.getPinCount() > 0) {
+				count++;
 			}
 		}
+		return count;
 	}
 
 	/**
 	 * Écrit toutes les pages dirty du tampon de mémoire dans le gestionnaire de
 	 * disque et vide le tampon.
 	 */
-	public void flushAll() {
+	public synchronized void flushAll() {
 		for (Map.Entry<PageId, Frame> entry : bufferPool.entrySet()) {
 			Frame frame = entry.getValue();
 			if (frame.getDirty()) {
@@ -169,7 +242,7 @@ public class BufferManager {
 	 * et les états dirty
 	 * et en réalloue de nouveaux ByteBuffer aux frames.
 	 */
-	public void reset() {
+	public synchronized void reset() {
 		for (Frame frame : bufferPool.values()) {
 			frame.setPinCount(0);
 			frame.setDirty(false);
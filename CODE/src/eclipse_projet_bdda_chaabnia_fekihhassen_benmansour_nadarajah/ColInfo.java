@@ -6,6 +6,7 @@ package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
 public class ColInfo {
     private String name; // nom de la colonne
     private String type; // le type de données de la colonne
+    private StringDictionary dictionary; // null si la colonne n'est pas encodée par dictionnaire
 
     /**
      * Constructeur de ColInfo
@@ -59,4 +60,30 @@ public class ColInfo {
         this.type = type;
     }
 
-}
\ No newline at end of file
+
+    /**
+     * Obtient le dictionnaire de la colonne.
+     * 
+     * @return Le dictionnaire, ou null si la colonne n'est pas encodée par
+     *         dictionnaire.
+     */
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Active l'encodage par dictionnaire de la colonne : les pages ne stockeront
+     * plus que le code entier de chaque valeur.
+     * 
+     * @throws IllegalArgumentException Si la colonne ne contient pas de chaînes.
+     */
+    public void enableDictionary() {
+        if (!type.toUpperCase().startsWith("STRING") && !type.toUpperCase().startsWith("VARSTRING")) {
+            throw new IllegalArgumentException("Dictionnaire impossible pour la colonne " + name + " de type " + type);
+        }
+        if (dictionary == null) {
+            int length = Integer.parseInt(type.substring(type.indexOf("(") + 1, type.indexOf(")")).trim());
+            dictionary = new StringDictionary(length);
+        }
+    }
+}
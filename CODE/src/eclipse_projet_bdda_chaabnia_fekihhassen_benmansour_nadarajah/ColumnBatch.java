@@ -0,0 +1,140 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+/**
+ * Un lot d'enregistrements rangé par colonnes, échangé entre les opérateurs
+ * vectorisés. Chaque colonne est un tableau de valeurs primitives : int[] pour
+ * INT et pour les codes des colonnes encodées par dictionnaire, float[] pour
+ * FLOAT, String[] pour les autres chaînes. Les lignes retenues par les filtres
+ * sont données par le vecteur de sélection, pour ne jamais recopier les
+ * colonnes : une ligne éliminée disparaît simplement de la sélection.
+ */
+public class ColumnBatch {
+  static final int CAPACITY = 1024;
+
+  private final TableInfo schema;
+  private final RecordLayout layout;
+  private final int[][] ints;
+  private final float[][] floats;
+  private final String[][] strings;
+  private final int[] selection;
+  private int size;
+  private int selectedCount;
+
+  /**
+   * Crée un lot vide pour les enregistrements d'une table.
+   *
+   * @param schema Les informations de la table.
+   */
+  public ColumnBatch(TableInfo schema) {
+    this.schema = schema;
+    this.layout = schema.getLayout();
+    int colCount = layout.getColumnCount();
+    this.ints = new int[colCount][];
+    this.floats = new float[colCount][];
+    this.strings = new String[colCount][];
+    for (int i = 0; i < colCount; i++) {
+      int type = layout.getType(i);
+      if (type == RecordLayout.INT || type == RecordLayout.DICTIONARY) {
+        ints[i] = new int[CAPACITY];
+      } else if (type == RecordLayout.FLOAT) {
+        floats[i] = new float[CAPACITY];
+      } else {
+        strings[i] = new String[CAPACITY];
+      }
+    }
+    this.selection = new int[CAPACITY];
+  }
+
+  /**
+   * Termine le remplissage du lot, dont le vecteur de sélection a déjà été
+   * écrit.
+   *
+   * @param size          Le nombre de lignes écrites.
+   * @param selectedCount Le nombre de lignes sélectionnées.
+   */
+  void setSize(int size, int selectedCount) {
+    this.size = size;
+    this.selectedCount = selectedCount;
+  }
+
+  public TableInfo getSchema() {
+    return schema;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Obtient le vecteur de sélection : les selectedCount premières cases donnent,
+   * dans l'ordre, les index des lignes retenues.
+   *
+   * @return Le vecteur de sélection, modifiable par les filtres.
+   */
+  int[] getSelection() {
+    return selection;
+  }
+
+  public int getSelectedCount() {
+    return selectedCount;
+  }
+
+  void setSelectedCount(int selectedCount) {
+    this.selectedCount = selectedCount;
+  }
+
+  /**
+   * Obtient les valeurs d'une colonne INT, ou les codes d'une colonne encodée
+   * par dictionnaire.
+   *
+   * @param col L'index de la colonne.
+   * @return Le tableau des valeurs, indexé par ligne.
+   */
+  int[] getInts(int col) {
+    return ints[col];
+  }
+
+  float[] getFloats(int col) {
+    return floats[col];
+  }
+
+  String[] getStrings(int col) {
+    return strings[col];
+  }
+
+  /**
+   * Obtient la valeur d'une colonne de chaînes, décodée si la colonne est
+   * encodée par dictionnaire.
+   *
+   * @param col L'index de la colonne.
+   * @param row L'index de la ligne dans le lot.
+   * @return La valeur de la colonne.
+   */
+  public String getString(int col, int row) {
+    if (layout.getType(col) == RecordLayout.DICTIONARY) {
+      return layout.getDictionary(col).decode(ints[col][row]);
+    }
+    return strings[col][row];
+  }
+
+  /**
+   * Construit un Record avec les valeurs d'une ligne du lot.
+   *
+   * @param row L'index de la ligne dans le lot.
+   * @return Le Record construit.
+   */
+  public Record toRecord(int row) {
+    Record record = new Record(schema);
+    for (int i = 0; i < layout.getColumnCount(); i++) {
+      int type = layout.getType(i);
+      if (type == RecordLayout.INT) {
+        record.setInt(i, ints[i][row]);
+      } else if (type == RecordLayout.FLOAT) {
+        record.setFloat(i, floats[i][row]);
+      } else {
+        record.setString(i, getString(i, row));
+      }
+    }
+    return record;
+  }
+}
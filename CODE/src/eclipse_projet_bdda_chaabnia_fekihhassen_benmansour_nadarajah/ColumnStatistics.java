@@ -0,0 +1,238 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.Arrays;
+
+/**
+ * Statistiques d'une colonne, collectées par ANALYZE : une estimation du
+ * nombre de valeurs distinctes et un histogramme équilibré (equi-depth), dont
+ * chaque intervalle contient la même part des lignes. Elles servent à estimer
+ * la sélectivité des conditions.
+ * Pour une colonne numérique, la position d'une valeur dans son intervalle est
+ * interpolée linéairement ; pour une colonne de chaînes, un intervalle partiel
+ * compte pour moitié.
+ */
+public class ColumnStatistics {
+  private final long distinctCount;
+  private final double[] numericBounds; // null pour une colonne de chaînes
+  private final String[] stringBounds; // null pour une colonne numérique
+
+  /**
+   * Crée les statistiques d'une colonne numérique.
+   *
+   * @param distinctCount Le nombre estimé de valeurs distinctes.
+   * @param bounds        Les bornes des intervalles de l'histogramme, de la
+   *                      plus petite valeur à la plus grande, ou un tableau
+   *                      vide pour une table vide.
+   */
+  ColumnStatistics(long distinctCount, double[] bounds) {
+    this.distinctCount = distinctCount;
+    this.numericBounds = bounds;
+    this.stringBounds = null;
+  }
+
+  /**
+   * Crée les statistiques d'une colonne de chaînes.
+   *
+   * @param distinctCount Le nombre estimé de valeurs distinctes.
+   * @param bounds        Les bornes des intervalles de l'histogramme, dans
+   *                      l'ordre de String.compareTo, ou un tableau vide.
+   */
+  ColumnStatistics(long distinctCount, String[] bounds) {
+    this.distinctCount = distinctCount;
+    this.numericBounds = null;
+    this.stringBounds = bounds;
+  }
+
+  /**
+   * Construit l'histogramme équilibré d'un échantillon de valeurs numériques.
+   *
+   * @param distinctCount Le nombre estimé de valeurs distinctes.
+   * @param sample        L'échantillon, trié sur place.
+   * @param buckets       Le nombre maximal d'intervalles.
+   * @return Les statistiques de la colonne.
+   */
+  static ColumnStatistics ofNumbers(long distinctCount, double[] sample, int buckets) {
+    Arrays.sort(sample);
+    int count = Math.min(buckets, sample.length);
+    double[] bounds = new double[count == 0 ? 0 : count + 1];
+    for (int i = 0; i < bounds.length; i++) {
+      bounds[i] = sample[(int) ((long) i * (sample.length - 1) / count)];
+    }
+    return new ColumnStatistics(distinctCount, bounds);
+  }
+
+  /**
+   * Construit l'histogramme équilibré d'un échantillon de chaînes.
+   *
+   * @param distinctCount Le nombre estimé de valeurs distinctes.
+   * @param sample        L'échantillon, trié sur place.
+   * @param buckets       Le nombre maximal d'intervalles.
+   * @return Les statistiques de la colonne.
+   */
+  static ColumnStatistics ofStrings(long distinctCount, String[] sample, int buckets) {
+    Arrays.sort(sample);
+    int count = Math.min(buckets, sample.length);
+    String[] bounds = new String[count == 0 ? 0 : count + 1];
+    for (int i = 0; i < bounds.length; i++) {
+      bounds[i] = sample[(int) ((long) i * (sample.length - 1) / count)];
+    }
+    return new ColumnStatistics(distinctCount, bounds);
+  }
+
+  /**
+   * Obtient le nombre estimé de valeurs distinctes de la colonne.
+   *
+   * @return Le nombre de valeurs distinctes, au moins 1.
+   */
+  public long getDistinctCount() {
+    return Math.max(1, distinctCount);
+  }
+
+  /**
+   * Obtient le nombre d'intervalles de l'histogramme.
+   *
+   * @return Le nombre d'intervalles, 0 pour une table vide.
+   */
+  public int getBucketCount() {
+    int bounds = numericBounds != null ? numericBounds.length : stringBounds.length;
+    return Math.max(0, bounds - 1);
+  }
+
+  /**
+   * Obtient la plus petite valeur vue d'une colonne numérique.
+   *
+   * @return La plus petite valeur, ou NaN pour une table vide.
+   */
+  public double getMin() {
+    return numericBounds.length == 0 ? Double.NaN : numericBounds[0];
+  }
+
+  /**
+   * Obtient la plus grande valeur vue d'une colonne numérique.
+   *
+   * @return La plus grande valeur, ou NaN pour une table vide.
+   */
+  public double getMax() {
+    return numericBounds.length == 0 ? Double.NaN : numericBounds[numericBounds.length - 1];
+  }
+
+  /**
+   * Estime la part des lignes égales à une valeur donnée, en supposant les
+   * valeurs distinctes également fréquentes.
+   *
+   * @return La part des lignes, entre 0 et 1.
+   */
+  public double equalFraction() {
+    return 1.0 / getDistinctCount();
+  }
+
+  /**
+   * Estime la part des lignes strictement inférieures à une valeur numérique.
+   *
+   * @param value La valeur.
+   * @return La part des lignes, entre 0 et 1.
+   */
+  public double fractionBelow(double value) {
+    int buckets = getBucketCount();
+    if (buckets == 0) {
+      return 0;
+    }
+    double below = 0;
+    for (int i = 0; i < buckets; i++) {
+      double low = numericBounds[i];
+      double high = numericBounds[i + 1];
+      if (value > high) {
+        below += 1;
+      } else if (value > low) {
+        below += (value - low) / (high - low);
+      }
+    }
+    return below / buckets;
+  }
+
+  /**
+   * Estime la part des lignes strictement inférieures à une chaîne.
+   *
+   * @param value La chaîne.
+   * @return La part des lignes, entre 0 et 1.
+   */
+  public double fractionBelow(String value) {
+    int buckets = getBucketCount();
+    if (buckets == 0) {
+      return 0;
+    }
+    double below = 0;
+    for (int i = 0; i < buckets; i++) {
+      if (value.compareTo(stringBounds[i + 1]) > 0) {
+        below += 1;
+      } else if (value.compareTo(stringBounds[i]) > 0) {
+        below += 0.5;
+      }
+    }
+    return below / buckets;
+  }
+
+  /**
+   * Estime la part des lignes qui satisfont une comparaison à une valeur, à
+   * partir de la part des lignes inférieures à cette valeur.
+   *
+   * @param op      L'opérateur (Predicate.EQ à Predicate.GE).
+   * @param below   La part des lignes strictement inférieures à la valeur.
+   * @param inRange false si la valeur est hors des bornes de la colonne, ce
+   *                qui exclut toute égalité.
+   * @return La part des lignes, entre 0 et 1.
+   */
+  private double fraction(int op, double below, boolean inRange) {
+    double equal = inRange ? equalFraction() : 0;
+    double fraction;
+    switch (op) {
+      case Predicate.EQ:
+        fraction = equal;
+        break;
+      case Predicate.NE:
+        fraction = 1 - equal;
+        break;
+      case Predicate.LT:
+        fraction = below;
+        break;
+      case Predicate.LE:
+        fraction = below + equal;
+        break;
+      case Predicate.GT:
+        fraction = 1 - below - equal;
+        break;
+      default:
+        fraction = 1 - below;
+        break;
+    }
+    return Math.max(0, Math.min(1, fraction));
+  }
+
+  /**
+   * Estime la part des lignes qui satisfont la comparaison de la colonne
+   * numérique à une valeur.
+   *
+   * @param op    L'opérateur (Predicate.EQ à Predicate.GE).
+   * @param value La valeur.
+   * @return La part des lignes, entre 0 et 1.
+   */
+  public double compareFraction(int op, double value) {
+    boolean inRange = getBucketCount() > 0 && value >= getMin() && value <= getMax();
+    return fraction(op, fractionBelow(value), inRange);
+  }
+
+  /**
+   * Estime la part des lignes qui satisfont la comparaison de la colonne de
+   * chaînes à une valeur.
+   *
+   * @param op    L'opérateur (Predicate.EQ à Predicate.GE).
+   * @param value La valeur.
+   * @return La part des lignes, entre 0 et 1.
+   */
+  public double compareFraction(int op, String value) {
+    int buckets = getBucketCount();
+    boolean inRange = buckets > 0 && value.compareTo(stringBounds[0]) >= 0
+        && value.compareTo(stringBounds[buckets]) <= 0;
+    return fraction(op, fractionBelow(value), inRange);
+  }
+}
@@ -0,0 +1,49 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+/**
+ * Affiche chaque enregistrement du résultat sur la sortie standard, une ligne
+ * par enregistrement : les valeurs séparées par " ; " et terminées par ".".
+ * Les lignes sont accumulées et écrites par blocs d'environ BUFFER_CHARS
+ * caractères : un seul appel, synchronisé, à System.out par bloc plutôt que
+ * par enregistrement.
+ */
+public class ConsoleSink implements ResultSink {
+  static final int BUFFER_CHARS = 1 << 16;
+
+  private final StringBuilder buffer = new StringBuilder(BUFFER_CHARS + 256);
+  private int count;
+
+  @Override
+  public void open(TableInfo schema) {
+    buffer.setLength(0);
+    count = 0;
+  }
+
+  @Override
+  public void consume(Record record) {
+    for (int i = 0; i < record.getTabInfo().getNb_colonnes(); i++) {
+      buffer.append(record.getValueAsString(i)).append(" ; ");
+    }
+    buffer.append('.').append(System.lineSeparator());
+    count++;
+    if (buffer.length() >= BUFFER_CHARS) {
+      flush();
+    }
+  }
+
+  private void flush() {
+    System.out.print(buffer);
+    buffer.setLength(0);
+  }
+
+  @Override
+  public void close() {
+    flush();
+    System.out.flush();
+  }
+
+  @Override
+  public int getCount() {
+    return count;
+  }
+}
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 public class CreateTableCommand {
   private String nom_relation; // le no de la relation à créer
   private ArrayList<ColInfo> colInfoList; // liste des informations sur les colonnes de la table
+  private PageFormat format = PageFormat.NSM; // format des pages, choisi avec WITH (FORMAT=...)
   FileManager fileManager = FileManager.getInstance();
 
   /**
@@ -46,11 +47,42 @@ public class CreateTableCommand {
         ColInfo col = new ColInfo(colName, colType);
         colInfoList.add(col);
       }
+
+      // options de la table : WITH (FORMAT=NSM|PAX, DICTIONARY=colonne, ...)
+      if (cmd.length > 4) {
+        String options = command.substring(command.indexOf(cmd[3]) + cmd[3].length()).trim();
+        String compactOptions = options.replace(" ", "");
+        if (!compactOptions.toUpperCase().startsWith("WITH(") || !compactOptions.endsWith(")")) {
+          throw new IllegalArgumentException("Option de table non supportée : " + options);
+        }
+        for (String option : compactOptions.substring(5, compactOptions.length() - 1).split(",")) {
+          String[] keyValue = option.split("=");
+          if (keyValue.length != 2) {
+            throw new IllegalArgumentException("Option de table non supportée : " + option);
+          }
+          if (keyValue[0].equalsIgnoreCase("FORMAT")) {
+            this.format = PageFormat.valueOf(keyValue[1].toUpperCase());
+          } else if (keyValue[0].equalsIgnoreCase("DICTIONARY")) {
+            getColumn(keyValue[1]).enableDictionary();
+          } else {
+            throw new IllegalArgumentException("Option de table non supportée : " + option);
+          }
+        }
+      }
     } catch (Exception e) {
       System.out.println("Erreur lors du parsing de la commande : " + e.getMessage());
     }
   }
 
+  private ColInfo getColumn(String colName) {
+    for (ColInfo colInfo : colInfoList) {
+      if (colInfo.getName().equals(colName)) {
+        return colInfo;
+      }
+    }
+    throw new IllegalArgumentException("Colonne inconnue : " + colName);
+  }
+
   /**
    * Execute la commande de création de table.
    */
@@ -65,6 +97,7 @@ public class CreateTableCommand {
 
       PageId headerPageId = fileManager.createNewHeaderPage();
       TableInfo tableInfo = new TableInfo(nom_relation, colInfoList, headerPageId);
+      tableInfo.setFormat(format);
       databaseInfo.addTableInfo(tableInfo);
       System.out.println("Table \"" + nom_relation + "\" a bien été créé avec succès.");
       tableInfo.printTableInfo();
@@ -0,0 +1,77 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Écrit le résultat dans un fichier CSV encodé en UTF-8 : une ligne d'en-tête
+ * avec les noms des colonnes, puis une ligne par enregistrement, les valeurs
+ * séparées par des virgules et les lignes terminées par "\r\n" (RFC 4180).
+ * Une valeur qui contient une virgule, un guillemet ou un saut de ligne est
+ * entourée de guillemets, ses guillemets étant doublés.
+ */
+public class CsvSink extends FileSink {
+  private final StringBuilder line = new StringBuilder();
+
+  /**
+   * Crée une destination vers un fichier CSV, remplacé s'il existe déjà.
+   *
+   * @param path Le chemin du fichier.
+   */
+  public CsvSink(Path path) {
+    super(path);
+  }
+
+  @Override
+  protected void writeHeader(TableInfo schema) throws IOException {
+    line.setLength(0);
+    List<ColInfo> cols = schema.getColInfoList();
+    for (int i = 0; i < cols.size(); i++) {
+      if (i > 0) {
+        line.append(',');
+      }
+      appendValue(cols.get(i).getName());
+    }
+    writeLine();
+  }
+
+  @Override
+  protected void writeRecord(Record record) throws IOException {
+    line.setLength(0);
+    for (int i = 0; i < record.getTabInfo().getNb_colonnes(); i++) {
+      if (i > 0) {
+        line.append(',');
+      }
+      appendValue(record.getValueAsString(i));
+    }
+    writeLine();
+  }
+
+  private void appendValue(String value) {
+    boolean quoted = false;
+    for (int i = 0; i < value.length() && !quoted; i++) {
+      char c = value.charAt(i);
+      quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quoted) {
+      line.append(value);
+      return;
+    }
+    line.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        line.append('"');
+      }
+      line.append(c);
+    }
+    line.append('"');
+  }
+
+  private void writeLine() throws IOException {
+    line.append("\r\n");
+    write(line.toString().getBytes(StandardCharsets.UTF_8));
+  }
+}
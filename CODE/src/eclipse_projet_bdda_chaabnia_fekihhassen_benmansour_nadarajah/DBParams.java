@@ -12,4 +12,28 @@ public class DBParams {
     public static int DMFileCount;
     // Nombre de frames
     public static int FrameCount;
+    // Nombre de threads d'un parcours parallèle (1 = pas de parcours parallèle)
+    public static int ScanParallelism = 1;
+    // Parcours vectorisé, par lots de colonnes, permis ; le chemin d'accès de
+    // chaque table est choisi selon son coût estimé
+    public static boolean VectorizedExecution = false;
+    // Nombre maximal de groupes gardés en mémoire par une agrégation, au-delà
+    // duquel les lignes des nouveaux groupes sont écrites dans des pages
+    // temporaires
+    public static int AggregationMaxGroups = 100000;
+    // Nombre maximal d'enregistrements du côté construit d'une jointure par
+    // hachage gardés en mémoire, au-delà duquel les deux entrées sont
+    // partitionnées dans des tables temporaires
+    public static int JoinMaxBuildRows = 100000;
+    // Nombre de pages de mémoire d'un tri : taille des runs gardés en mémoire
+    // avant d'être écrits sur le disque, et nombre de runs fusionnés à la fois
+    // (moins un). Cette mémoire est prise sur le tas Java, pas sur les frames
+    // du BufferManager (FrameCount)
+    public static int SortMemoryPages = 64;
+    // Nombre de lignes échantillonnées par ANALYZE pour construire les
+    // histogrammes des colonnes
+    public static int AnalyzeSampleRows = 30000;
+    // Réordonnancement des conditions reliées par AND d'après leur coût et
+    // leur sélectivité observés pendant l'exécution
+    public static boolean AdaptivePredicateOrder = true;
 }
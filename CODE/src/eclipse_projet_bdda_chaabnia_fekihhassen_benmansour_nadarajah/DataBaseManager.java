@@ -87,7 +87,41 @@ public class DataBaseManager {
             selectCommand.execute();
           } else {
             System.out
-                .println("Syntaxe incorrecte pour SELECT. Usage attendu : SELECT * FROM nom_table WHERE condition");
+                .println("Syntaxe incorrecte pour SELECT. Usage attendu : SELECT * | col1, SUM(col2), ... FROM nom_table [WHERE condition] [GROUP BY col1, ...] [ORDER BY col1 [DESC], ...] [LIMIT n] [INTO CSV|BINARY fichier]");
+          }
+          break;
+        case "DELETE":
+          if (commande.length >= 3) {
+            DeleteCommand deleteCommand = new DeleteCommand(chaineCommande);
+            deleteCommand.execute();
+          } else {
+            System.out.println(
+                "Syntaxe incorrecte pour DELETE. Usage attendu : DELETE FROM nom_table WHERE condition");
+          }
+          break;
+        case "UPDATE":
+          if (commande.length >= 4) {
+            UpdateCommand updateCommand = new UpdateCommand(chaineCommande);
+            updateCommand.execute();
+          } else {
+            System.out.println(
+                "Syntaxe incorrecte pour UPDATE. Usage attendu : UPDATE nom_table SET col=val, ... WHERE condition");
+          }
+          break;
+        case "VACUUM":
+          VacuumCommand vacuumCommand = new VacuumCommand(chaineCommande);
+          vacuumCommand.execute();
+          break;
+        case "ANALYZE":
+          AnalyzeCommand analyzeCommand = new AnalyzeCommand(chaineCommande);
+          analyzeCommand.execute();
+          break;
+        case "EXPLAIN":
+          if (commande.length >= 5) {
+            ExplainCommand explainCommand = new ExplainCommand(chaineCommande);
+            explainCommand.execute();
+          } else {
+            System.out.println("Syntaxe incorrecte pour EXPLAIN. Usage attendu : EXPLAIN [ANALYZE] SELECT ...");
           }
           break;
         default:
@@ -0,0 +1,87 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Commande pour supprimer les enregistrements d'une table qui satisfont les
+ * conditions d'une clause WHERE : DELETE FROM nom_table WHERE condition.
+ */
+public class DeleteCommand {
+  private String relationName;
+  private String whereClause; // null si la commande n'a pas de WHERE
+
+  /**
+   * Crée une instance de la commande DELETE en analysant la commande fournie.
+   *
+   * @param command La commande DELETE sous forme de chaîne de caractères.
+   * @throws IllegalArgumentException Si la commande est mal formée.
+   */
+  public DeleteCommand(String command) {
+    String[] commandParts = command.trim().split("\\s+");
+    if (commandParts.length < 3 || !commandParts[1].equalsIgnoreCase("FROM")) {
+      throw new IllegalArgumentException("Commande mal formée");
+    }
+    this.relationName = commandParts[2];
+
+    int whereIndex = command.indexOf(" WHERE ");
+    if (whereIndex != -1) {
+      this.whereClause = command.substring(whereIndex + 7).trim();
+    }
+  }
+
+  /**
+   * Exécute la suppression : les enregistrements qui satisfont la clause WHERE
+   * sont marqués comme supprimés dans leur page.
+   */
+  public void execute() {
+    try {
+      TableInfo tableInfo = DataBaseInfo.getInstance().getTableInfo(relationName);
+
+      if (tableInfo == null) {
+        System.out.println("La Table \"" + relationName + "\" n'existe pas.");
+        return;
+      }
+
+      FileManager fileManager = FileManager.getInstance();
+      int deleted = 0;
+      Predicate predicate = PredicateParser.parse(whereClause, tableInfo);
+      for (RecordId recordId : findMatchingRecords(tableInfo, predicate)) {
+        if (fileManager.deleteRecord(tableInfo, recordId)) {
+          deleted++;
+        }
+      }
+
+      System.out.println(deleted + " enregistrement(s) supprimé(s) de " + relationName + ".");
+    } catch (IOException e) {
+      System.out.println("An IOException occurred while executing the DELETE command: " + e.getMessage());
+    } catch (PageNotFoundException e) {
+      System.out.println("A PageNotFoundException occurred while executing the DELETE command: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Parcourt les pages de données de la table et renvoie les identifiants des
+   * enregistrements qui satisfont le prédicat.
+   *
+   * @param tableInfo Les informations de la table.
+   * @param predicate Le prédicat compilé, ou null pour tous les
+   *                  enregistrements.
+   * @return Les identifiants des enregistrements retenus.
+   * @throws IOException           En cas d'erreur d'entrée/sortie.
+   * @throws PageNotFoundException Si une page n'est pas trouvée.
+   */
+  static List<RecordId> findMatchingRecords(TableInfo tableInfo, Predicate predicate)
+      throws IOException, PageNotFoundException {
+    List<RecordId> recordIds = new ArrayList<>();
+
+    TableScan scan = new TableScan(tableInfo, FileManager.getInstance().getDataPages(tableInfo, predicate),
+        predicate);
+    while (scan.getNextView() != null) {
+      recordIds.add(scan.getCurrentRecordId());
+    }
+
+    return recordIds;
+  }
+}
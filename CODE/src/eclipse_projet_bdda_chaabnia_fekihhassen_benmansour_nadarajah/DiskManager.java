@@ -59,12 +59,6 @@ public class DiskManager {
 			int fileNumber = getMinFile();
 			int pageNumber = fileSize[fileNumber] / pageSize;
 
-			// check la limite d'espace fichier
-			if (fileSize[fileNumber] + pageSize > fileSize[fileNumber + 1]) {
-				fileNumber++;
-				pageNumber = 0;
-			}
-
 			pageId = new PageId(fileNumber, pageNumber);
 			fileSize[fileNumber] += pageSize; // incrémente page count
 		}
@@ -91,13 +85,12 @@ public class DiskManager {
 			// page a été attribuée.");
 		}
 
-		int copyLength = Math.min(page.remaining(), pageSize);
-		ByteBuffer resultBuffer = ByteBuffer.allocate(copyLength);
-		// met la position à 0 avant de mettre les données
-		page.position(0);
-		page.limit(copyLength);
-		resultBuffer.put(page);
-		resultBuffer.flip();
+		ByteBuffer resultBuffer = ByteBuffer.allocate(pageSize);
+		// copie la page entière sans toucher à la position du buffer stocké
+		ByteBuffer source = page.duplicate();
+		source.clear();
+		resultBuffer.put(source);
+		resultBuffer.clear();
 		// System.out.println("Lecture de la page avec id: " + pageId);
 		return resultBuffer;
 	}
@@ -116,12 +109,13 @@ public class DiskManager {
 			return;
 		}
 
-		int copyLength = Math.min(buff.remaining(), pageSize);
-		// met la position à 0 avant de mettre les données
-		buff.position(0);
-		buff.limit(copyLength);
-		page.put(buff);
-		page.flip(); // Flip page buffer
+		// copie la page entière, quelle que soit la position courante de buff
+		ByteBuffer source = buff.duplicate();
+		source.clear();
+		source.limit(Math.min(source.capacity(), pageSize));
+		page.clear();
+		page.put(source);
+		page.clear();
 		// System.out.println("A écrit sur la page avec id: " + pageId);
 	}
 
@@ -163,7 +157,8 @@ public class DiskManager {
 		int minFileSize = Integer.MAX_VALUE;
 		int fileNumber = 0;
 
-		for (int i = 0; i < fileSize.length; i++) {
+		int fileCount = Math.min(Math.max(DBParams.DMFileCount, 1), fileSize.length);
+		for (int i = 0; i < fileCount; i++) {
 			if (fileSize[i] < minFileSize) {
 				minFileSize = fileSize[i];
 				fileNumber = i;
@@ -0,0 +1,100 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.UnaryOperator;
+
+/**
+ * Commande pour afficher le plan d'exécution d'une requête :
+ * EXPLAIN [ANALYZE] SELECT ...
+ * Sans ANALYZE, l'arbre des opérateurs choisi est affiché sans être exécuté.
+ * Avec ANALYZE, la requête est exécutée (ses résultats ne sont pas affichés)
+ * et chaque opérateur est suivi de ses mesures : enregistrements reçus et
+ * produits, pages épinglées (trouvées dans le tampon ou lues sur le disque) et
+ * temps écoulé et CPU.
+ */
+public class ExplainCommand {
+  private final boolean analyze;
+  private final SelectCommand select;
+
+  /**
+   * Crée une instance de la commande EXPLAIN en analysant la commande fournie.
+   *
+   * @param command La commande EXPLAIN sous forme de chaîne de caractères.
+   * @throws IllegalArgumentException Si la requête expliquée est mal formée.
+   */
+  public ExplainCommand(String command) {
+    String rest = command.trim().substring("EXPLAIN".length()).trim();
+    if (rest.toUpperCase().startsWith("ANALYZE ")) {
+      this.analyze = true;
+      rest = rest.substring("ANALYZE".length()).trim();
+    } else {
+      this.analyze = false;
+    }
+    this.select = new SelectCommand(rest);
+  }
+
+  /**
+   * Construit le plan de la requête et l'affiche, après l'avoir exécuté avec
+   * ANALYZE.
+   */
+  public void execute() {
+    try {
+      List<TableInfo> tables = select.getTables();
+      if (tables == null) {
+        return;
+      }
+      if (!analyze) {
+        print(select.plan(tables, UnaryOperator.identity()), 0);
+        return;
+      }
+
+      ProfiledOperator plan = (ProfiledOperator) select.plan(tables, ProfiledOperator::new);
+      plan.open();
+      try {
+        while (plan.next() != null) {
+          // les enregistrements sont comptés par les opérateurs
+        }
+      } finally {
+        plan.close();
+      }
+      print(plan, 0);
+      System.out.println("Total : " + plan.getRows() + " enregistrement(s), " + format(plan.getWallNanos())
+          + " ms, " + (plan.getHits() + plan.getMisses()) + " page(s) épinglée(s) (" + plan.getMisses()
+          + " lue(s) sur le disque).");
+    } catch (IOException e) {
+      System.out.println("An IOException occurred while executing the EXPLAIN command: " + e.getMessage());
+    } catch (PageNotFoundException e) {
+      System.out.println("A PageNotFoundException occurred while executing the EXPLAIN command: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Affiche un opérateur puis ses fils, décalés d'un niveau.
+   *
+   * @param operator L'opérateur.
+   * @param depth    Sa profondeur dans l'arbre.
+   */
+  private static void print(Operator operator, int depth) {
+    String indent = "  ".repeat(depth) + (depth > 0 ? "-> " : "");
+    String line = indent + operator.describe();
+    if (operator instanceof ProfiledOperator) {
+      ProfiledOperator profiled = (ProfiledOperator) operator;
+      long cpu = profiled.getCpuNanos();
+      line += "  (lignes : " + (operator.getChildren().isEmpty() ? "" : profiled.getRowsIn() + " -> ")
+          + profiled.getRows() + (profiled.getLoops() > 1 ? ", ouvertures : " + profiled.getLoops() : "")
+          + ", pages : " + (profiled.getOwnHits() + profiled.getOwnMisses()) + " (succès " + profiled.getOwnHits()
+          + ", défauts " + profiled.getOwnMisses() + "), temps : " + format(profiled.getWallNanos()) + " ms, CPU : "
+          + (cpu < 0 ? "n/a" : format(cpu) + " ms") + ")";
+    }
+    System.out.println(line);
+    for (Operator child : operator.getChildren()) {
+      print(child, depth + 1);
+    }
+  }
+
+  private static String format(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+  }
+}
@@ -0,0 +1,199 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tri externe d'enregistrements d'un même schéma. Les enregistrements sont
+ * accumulés en mémoire jusqu'à occuper le nombre de pages permis ; ce run est
+ * alors trié et écrit dans un fichier temporaire (SpillFile). À la fin, les
+ * runs sont fusionnés par un arbre des perdants, autant à la fois qu'il y a de
+ * pages permises moins une (une page lue par run), en plusieurs passes s'il
+ * le faut. Le dernier run reste en mémoire et entre directement dans la
+ * fusion finale ; si tout tient en mémoire, rien n'est écrit.
+ * La mémoire d'un run est comptée en objets Java : les octets sérialisés de
+ * chaque enregistrement plus une estimation de ses en-têtes d'objets et de
+ * ses tableaux. Elle ne prend pas de frames au BufferManager (les pages
+ * temporaires sont lues et écrites directement par le DiskManager), c'est
+ * pourquoi elle est fixée par DBParams.SortMemoryPages et non par
+ * DBParams.FrameCount.
+ * Utilisation : add pour chaque enregistrement, finish, puis next jusqu'à
+ * null, et close.
+ */
+public class ExternalSorter {
+  // en-tête d'objet, référence dans le run et champs d'un Record
+  private static final int RECORD_OVERHEAD = 64;
+  // en-tête d'un tableau, et place de chaque colonne dans les quatre tableaux
+  // de valeurs d'un Record
+  private static final int ARRAY_OVERHEAD = 16;
+  private static final int COLUMN_OVERHEAD = 4 * Integer.BYTES;
+  // objet String et tableau de ses caractères, pour une colonne de chaîne
+  private static final int STRING_OVERHEAD = 40;
+
+  private final TableInfo schema;
+  private final Comparator<Record> comparator;
+  private final long memoryBytes;
+  private final int fanIn;
+  private final int recordOverhead; // octets en mémoire en plus de getSize
+  private List<Record> run;
+  private long runBytes;
+  private final List<SpillFile> runs;
+  private int spilledRuns;
+  private byte[] scratch;
+  private Iterator<Record> memory; // quand aucun run n'a été écrit
+  private LoserTree merge;
+
+  /**
+   * Crée un tri vide.
+   *
+   * @param schema      Le schéma des enregistrements triés.
+   * @param comparator  L'ordre du tri.
+   * @param memoryPages Le nombre de pages de mémoire permises (au moins 3).
+   */
+  public ExternalSorter(TableInfo schema, Comparator<Record> comparator, int memoryPages) {
+    this.schema = schema;
+    this.comparator = comparator;
+    this.memoryBytes = (long) Math.max(3, memoryPages) * DBParams.SGBDPageSize;
+    this.fanIn = Math.max(3, memoryPages) - 1;
+    this.run = new ArrayList<>();
+    this.runs = new ArrayList<>();
+    this.scratch = new byte[DBParams.SGBDPageSize];
+    RecordLayout layout = schema.getLayout();
+    int overhead = RECORD_OVERHEAD + 4 * ARRAY_OVERHEAD;
+    for (int col = 0; col < layout.getColumnCount(); col++) {
+      overhead += COLUMN_OVERHEAD;
+      if (layout.getType(col) != RecordLayout.INT && layout.getType(col) != RecordLayout.FLOAT) {
+        overhead += STRING_OVERHEAD;
+      }
+    }
+    this.recordOverhead = overhead;
+  }
+
+  /**
+   * Ajoute un enregistrement à trier. Le run en mémoire est écrit sur le disque
+   * s'il dépasse la mémoire permise.
+   *
+   * @param record L'enregistrement, du schéma du tri.
+   */
+  public void add(Record record) {
+    run.add(record);
+    runBytes += record.getSize() + recordOverhead;
+    if (runBytes > memoryBytes) {
+      run.sort(comparator);
+      SpillFile file = new SpillFile();
+      for (Record r : run) {
+        write(file, r);
+      }
+      runs.add(file);
+      spilledRuns++;
+      run = new ArrayList<>();
+      runBytes = 0;
+    }
+  }
+
+  private void write(SpillFile file, Record record) {
+    int size = record.getSize();
+    if (scratch.length < size) {
+      scratch = new byte[size];
+    }
+    file.append(scratch, record.writeToBuffer(scratch, 0));
+  }
+
+  private LoserTree.Source read(SpillFile file) {
+    SpillFile.Reader reader = file.read();
+    return () -> {
+      ByteBuffer row = reader.next();
+      if (row == null) {
+        return null;
+      }
+      Record record = new Record(schema);
+      record.readFromBuffer(row.array(), row.arrayOffset() + row.position());
+      // une valeur débordée reste dans les pages de débordement de sa table
+      record.loadOverflowValues();
+      return record;
+    };
+  }
+
+  /**
+   * Termine les ajouts et prépare la lecture dans l'ordre : les runs écrits
+   * sont fusionnés jusqu'à ce qu'il en reste assez peu pour la fusion finale.
+   *
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée.
+   */
+  public void finish() throws IOException, PageNotFoundException {
+    run.sort(comparator);
+    if (runs.isEmpty()) {
+      memory = run.iterator();
+      return;
+    }
+    // le run en mémoire occupe une des entrées de la fusion finale
+    while (runs.size() + 1 > fanIn) {
+      List<SpillFile> group = new ArrayList<>(runs.subList(0, fanIn));
+      runs.subList(0, fanIn).clear();
+      List<LoserTree.Source> sources = new ArrayList<>();
+      for (SpillFile file : group) {
+        sources.add(read(file));
+      }
+      LoserTree tree = new LoserTree(sources, comparator);
+      SpillFile merged = new SpillFile();
+      Record record;
+      while ((record = tree.next()) != null) {
+        write(merged, record);
+      }
+      for (SpillFile file : group) {
+        file.free();
+      }
+      runs.add(merged);
+    }
+
+    List<LoserTree.Source> sources = new ArrayList<>();
+    for (SpillFile file : runs) {
+      sources.add(read(file));
+    }
+    Iterator<Record> last = run.iterator();
+    sources.add(() -> last.hasNext() ? last.next() : null);
+    merge = new LoserTree(sources, comparator);
+  }
+
+  /**
+   * Renvoie l'enregistrement suivant dans l'ordre du tri.
+   *
+   * @return L'enregistrement, ou null à la fin.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée.
+   */
+  public Record next() throws IOException, PageNotFoundException {
+    if (memory != null) {
+      return memory.hasNext() ? memory.next() : null;
+    }
+    return merge.next();
+  }
+
+  /**
+   * Obtient le nombre de runs écrits sur le disque pendant les ajouts.
+   *
+   * @return Le nombre de runs, 0 si tout a tenu en mémoire.
+   */
+  public int getSpilledRunCount() {
+    return spilledRuns;
+  }
+
+  /**
+   * Rend les pages des runs au DiskManager et oublie les enregistrements en
+   * mémoire.
+   */
+  public void close() {
+    for (SpillFile file : runs) {
+      file.free();
+    }
+    runs.clear();
+    run = new ArrayList<>();
+    memory = null;
+    merge = null;
+  }
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.BiPredicate;
 
 /**
  * Cette classe gère la création et la gestion des pages de fichiers sur le
@@ -21,6 +22,19 @@ public class FileManager {
   // instance unique
   private static FileManager instance;
 
+  // valeur du début de slot marquant un enregistrement supprimé (tombstone)
+  static final int TOMBSTONE = -1;
+
+  // une page est compactée dès que ses octets morts dépassent cette fraction
+  private static final int COMPACTION_THRESHOLD_DIVISOR = 4;
+
+  // un enregistrement NSM plus grand que cette fraction de page range ses plus
+  // grandes valeurs VARSTRING dans des pages de débordement
+  private static final int OVERFLOW_THRESHOLD_DIVISOR = 4;
+
+  // en-tête d'une page de répertoire : nombre d'entrées, puis page suivante
+  private static final int DIRECTORY_HEADER_SIZE = 12;
+
   private FileManager() {
 
   }
@@ -39,11 +53,16 @@ public class FileManager {
   }
 
   /**
-   * Crée une nouvelle page d'en-tête pour une table. Cette page contient des
-   * informations sur la table,
-   * telles que les index des pages de données associées. Cette méthode alloue une
-   * nouvelle page dans le DiskManager,
-   * initialise les informations de l'en-tête et la libère dans le BufferManager.
+   * Crée une nouvelle page d'en-tête pour une table. Cette page est la première
+   * page du répertoire des pages de données de la table. Une page de répertoire
+   * contient le nombre d'entrées (int), le PageId de la page de répertoire
+   * suivante (-1, -1 s'il n'y en a pas), puis une entrée par page de données :
+   * fileIdx, pageIdx, espace libre (en octets, ou en lignes pour une table
+   * PAX), et pour chaque colonne le minimum et le
+   * maximum des valeurs insérées dans la page (zone map, utilisée seulement
+   * pour les colonnes INT et FLOAT).
+   * Cette méthode alloue une nouvelle page dans le DiskManager, initialise le
+   * répertoire vide et la libère dans le BufferManager.
    *
    * @return L'identifiant (PageId) de la nouvelle page d'en-tête créée.
    * @throws IOException           En cas d'erreur lors de l'accès au disque.
@@ -51,27 +70,166 @@ public class FileManager {
    *                               BufferManager.
    */
   public PageId createNewHeaderPage() throws IOException, PageNotFoundException {
+    return createDirectoryPage();
+  }
+
+  /**
+   * Alloue et initialise une page de répertoire vide.
+   *
+   * @return L'identifiant de la page de répertoire.
+   */
+  private PageId createDirectoryPage() {
     DiskManager dm = DiskManager.getInstance();
-    PageId newHeaderPageId = dm.allocatePage();
+    PageId newDirectoryPageId = dm.allocatePage();
 
     BufferManager bm = BufferManager.getInstance();
-    ByteBuffer headerPageBuffer = bm.getPage(newHeaderPageId);
+    ByteBuffer directoryPageBuffer = bm.getPage(newDirectoryPageId);
 
-    headerPageBuffer.putInt(-1);
-    headerPageBuffer.putInt(-1);
+    directoryPageBuffer.putInt(0, 0); // aucune page de données
+    directoryPageBuffer.putInt(4, -1); // pas de page de répertoire suivante
+    directoryPageBuffer.putInt(8, -1);
 
-    bm.freePage(newHeaderPageId, 1);
+    bm.freePage(newDirectoryPageId, 1);
 
-    return newHeaderPageId;
+    return newDirectoryPageId;
+  }
+
+  /**
+   * Calcule la taille d'une entrée du répertoire des pages de données : 12
+   * octets pour le PageId et l'espace libre, puis 8 octets de zone map par
+   * colonne.
+   *
+   * @param tabInfo Les informations de la table.
+   * @return La taille d'une entrée en octets.
+   */
+  private int getDirectoryEntrySize(TableInfo tabInfo) {
+    return 12 + 8 * tabInfo.getNb_colonnes();
+  }
+
+  /**
+   * Parcourt les entrées du répertoire des pages de données d'une table, page de
+   * répertoire après page de répertoire, jusqu'à ce que le visiteur renvoie
+   * true.
+   *
+   * @param tabInfo Les informations de la table.
+   * @param dirty   true si le visiteur modifie les entrées.
+   * @param visitor Le visiteur, appelé avec le buffer de la page de répertoire et
+   *                la position de l'entrée.
+   * @return true si le visiteur a interrompu le parcours.
+   */
+  private boolean visitDirectory(TableInfo tabInfo, boolean dirty, BiPredicate<ByteBuffer, Integer> visitor) {
+    BufferManager bm = BufferManager.getInstance();
+    int entrySize = getDirectoryEntrySize(tabInfo);
+    PageId directoryPageId = tabInfo.getHeaderPageId();
+
+    while (directoryPageId != null) {
+      ByteBuffer directoryPageBuffer = bm.getPage(directoryPageId);
+      int entryCount = directoryPageBuffer.getInt(0);
+      boolean stop = false;
+
+      for (int i = 0; i < entryCount && !stop; i++) {
+        stop = visitor.test(directoryPageBuffer, DIRECTORY_HEADER_SIZE + i * entrySize);
+      }
+
+      PageId nextPageId = getNextDirectoryPage(directoryPageBuffer);
+      bm.freePage(directoryPageId, dirty ? 1 : 0);
+      if (stop) {
+        return true;
+      }
+      directoryPageId = nextPageId;
+    }
+    return false;
+  }
+
+  private PageId getNextDirectoryPage(ByteBuffer directoryPageBuffer) {
+    int nextFileIdx = directoryPageBuffer.getInt(4);
+    return nextFileIdx == -1 ? null : new PageId(nextFileIdx, directoryPageBuffer.getInt(8));
+  }
+
+  /**
+   * Réinitialise la zone map d'une entrée du répertoire : minimum à la plus
+   * grande valeur possible et maximum à la plus petite, ce qui représente une
+   * page sans valeur.
+   *
+   * @param tabInfo             Les informations de la table.
+   * @param directoryPageBuffer Le buffer de la page de répertoire.
+   * @param entryPos            La position de l'entrée.
+   */
+  private void resetZoneMap(TableInfo tabInfo, ByteBuffer directoryPageBuffer, int entryPos) {
+    RecordLayout layout = tabInfo.getLayout();
+    for (int i = 0; i < layout.getColumnCount(); i++) {
+      int zonePos = entryPos + 12 + i * 8;
+      if (layout.getType(i) == RecordLayout.FLOAT) {
+        directoryPageBuffer.putFloat(zonePos, Float.POSITIVE_INFINITY);
+        directoryPageBuffer.putFloat(zonePos + 4, Float.NEGATIVE_INFINITY);
+      } else {
+        directoryPageBuffer.putInt(zonePos, Integer.MAX_VALUE);
+        directoryPageBuffer.putInt(zonePos + 4, Integer.MIN_VALUE);
+      }
+    }
+  }
+
+  /**
+   * Élargit la zone map d'une entrée du répertoire pour qu'elle couvre les
+   * valeurs numériques d'un enregistrement.
+   *
+   * @param directoryPageBuffer Le buffer de la page de répertoire.
+   * @param entryPos            La position de l'entrée.
+   * @param record              L'enregistrement écrit dans la page.
+   */
+  private void widenZoneMap(ByteBuffer directoryPageBuffer, int entryPos, Record record) {
+    RecordLayout layout = record.getTabInfo().getLayout();
+    for (int i = 0; i < layout.getColumnCount(); i++) {
+      int zonePos = entryPos + 12 + i * 8;
+      int type = layout.getType(i);
+      if (type == RecordLayout.INT) {
+        int value = record.getInt(i);
+        directoryPageBuffer.putInt(zonePos, Math.min(directoryPageBuffer.getInt(zonePos), value));
+        directoryPageBuffer.putInt(zonePos + 4, Math.max(directoryPageBuffer.getInt(zonePos + 4), value));
+      } else if (type == RecordLayout.FLOAT) {
+        float value = record.getFloat(i);
+        directoryPageBuffer.putFloat(zonePos, Math.min(directoryPageBuffer.getFloat(zonePos), value));
+        directoryPageBuffer.putFloat(zonePos + 4, Math.max(directoryPageBuffer.getFloat(zonePos + 4), value));
+      }
+    }
+  }
+
+  /**
+   * Indique si une page de données peut contenir un enregistrement satisfaisant
+   * le prédicat, d'après la zone map de son entrée du répertoire. Une page dans
+   * laquelle rien n'a été inséré ne peut rien contenir.
+   *
+   * @param tabInfo             Les informations de la table.
+   * @param directoryPageBuffer Le buffer de la page de répertoire.
+   * @param entryPos            La position de l'entrée.
+   * @param predicate           Le prédicat compilé.
+   * @param mins                Tableau de travail pour les minimums.
+   * @param maxs                Tableau de travail pour les maximums.
+   * @return false si aucune ligne de la page ne peut satisfaire le prédicat.
+   */
+  private boolean zoneMapMayMatch(TableInfo tabInfo, ByteBuffer directoryPageBuffer, int entryPos,
+      Predicate predicate, double[] mins, double[] maxs) {
+    RecordLayout layout = tabInfo.getLayout();
+    for (int i = 0; i < layout.getColumnCount(); i++) {
+      int zonePos = entryPos + 12 + i * 8;
+      if (layout.getType(i) == RecordLayout.INT) {
+        mins[i] = directoryPageBuffer.getInt(zonePos);
+        maxs[i] = directoryPageBuffer.getInt(zonePos + 4);
+      } else if (layout.getType(i) == RecordLayout.FLOAT) {
+        mins[i] = directoryPageBuffer.getFloat(zonePos);
+        maxs[i] = directoryPageBuffer.getFloat(zonePos + 4);
+      }
+    }
+    return predicate.mayMatchRange(mins, maxs);
   }
 
   /**
    * Ajoute une nouvelle page de données à une table donnée. Cette méthode alloue
-   * une nouvelle page de données dans le DiskManager, initialise les emplacements
-   * de la nouvelle page,
-   * met à jour l'en-tête de la table pour refléter la nouvelle page de données,
-   * et la libère dans le
-   * BufferManager.
+   * une nouvelle page de données dans le DiskManager, initialise son répertoire
+   * de slots (situé en fin de page : nombre de slots en SGBDPageSize - 8 et
+   * position de l'espace libre en SGBDPageSize - 4), ajoute une entrée dans la
+   * dernière page du répertoire de la table, en chaînant une nouvelle page de
+   * répertoire si elle est pleine, et la libère dans le BufferManager.
    *
    * @param tabInfo Informations sur la table à laquelle ajouter la page de
    *                données.
@@ -81,61 +239,65 @@ public class FileManager {
    *                               BufferManager.
    */
   public PageId addDataPage(TableInfo tabInfo) throws IOException, PageNotFoundException {
-    DiskManager dm = DiskManager.getInstance();
-    PageId newDataPageId = dm.allocatePage();
-
     BufferManager bm = BufferManager.getInstance();
-    ByteBuffer newDataPageBuffer = bm.getPage(newDataPageId);
+    DiskManager dm = DiskManager.getInstance();
+    int entrySize = getDirectoryEntrySize(tabInfo);
+    int entriesPerPage = (DBParams.SGBDPageSize - DIRECTORY_HEADER_SIZE) / entrySize;
+
+    // cherche la dernière page du répertoire
+    PageId directoryPageId = tabInfo.getHeaderPageId();
+    ByteBuffer directoryPageBuffer = bm.getPage(directoryPageId);
+    PageId nextPageId = getNextDirectoryPage(directoryPageBuffer);
+    while (nextPageId != null) {
+      bm.freePage(directoryPageId, 0);
+      directoryPageId = nextPageId;
+      directoryPageBuffer = bm.getPage(directoryPageId);
+      nextPageId = getNextDirectoryPage(directoryPageBuffer);
+    }
 
-    // initialise la nouvelle page de données
-    int slotCount = (DBParams.SGBDPageSize - 4) / 8; // calcule le nombre total d'emplacements en fonction de l'espace
-                                                     // disponible
+    int entryCount = directoryPageBuffer.getInt(0);
+    if (entryCount >= entriesPerPage) {
+      PageId newDirectoryPageId = createDirectoryPage();
+      directoryPageBuffer.putInt(4, newDirectoryPageId.getFileIdx());
+      directoryPageBuffer.putInt(8, newDirectoryPageId.getPageIdx());
+      bm.freePage(directoryPageId, 1);
 
-    for (int i = 0; i < slotCount; i++) {
-      newDataPageBuffer.putInt(4 + i * 8, 0); // initialise slots
-      newDataPageBuffer.putInt(8 + i * 8, 0); // initialise sizes
+      directoryPageId = newDirectoryPageId;
+      directoryPageBuffer = bm.getPage(directoryPageId);
+      entryCount = 0;
     }
-    bm.freePage(newDataPageId, 1);
 
-    PageId headerPageId = tabInfo.getHeaderPageId();
-    ByteBuffer headerPageBuffer = bm.getPage(headerPageId);
-
-    int firstFreePageFileIdx = headerPageBuffer.getInt(0);
-    int firstFreePagePageIdx = headerPageBuffer.getInt(4);
+    PageId newDataPageId = dm.allocatePage();
+    ByteBuffer newDataPageBuffer = bm.getPage(newDataPageId);
 
-    if (firstFreePageFileIdx == -1 && firstFreePagePageIdx == 0) {
-      headerPageBuffer.putInt(0, newDataPageId.getFileIdx());
-      headerPageBuffer.putInt(4, newDataPageId.getPageIdx());
+    // initialise la nouvelle page de données : aucun slot, espace libre en 0
+    int freeSpace;
+    if (tabInfo.getFormat() == PageFormat.PAX) {
+      PaxPage.init(newDataPageBuffer, tabInfo);
+      freeSpace = PaxPage.getFreeRows(newDataPageBuffer);
     } else {
-      PageId lastPageId = new PageId(firstFreePageFileIdx, firstFreePagePageIdx);
-      ByteBuffer lastPageBuffer = bm.getPage(lastPageId);
-
-      int nextPageFileIdx = lastPageBuffer.getInt(0);
-      int nextPagePageIdx = lastPageBuffer.getInt(4);
-
-      while (nextPageFileIdx != -1 && nextPagePageIdx != 0) {
-        lastPageId = new PageId(nextPageFileIdx, nextPagePageIdx);
-        lastPageBuffer = bm.getPage(lastPageId);
-        nextPageFileIdx = lastPageBuffer.getInt(0);
-        nextPagePageIdx = lastPageBuffer.getInt(4);
-      }
-
-      lastPageBuffer.putInt(0, newDataPageId.getFileIdx());
-      lastPageBuffer.putInt(4, newDataPageId.getPageIdx());
-      bm.freePage(lastPageId, 1);
+      newDataPageBuffer.putInt(DBParams.SGBDPageSize - 4, 0);
+      newDataPageBuffer.putInt(DBParams.SGBDPageSize - 8, 0);
+      freeSpace = DBParams.SGBDPageSize - 8;
     }
+    bm.freePage(newDataPageId, 1);
 
-    bm.freePage(headerPageId, 1);
+    int entryPos = DIRECTORY_HEADER_SIZE + entryCount * entrySize;
+    directoryPageBuffer.putInt(entryPos, newDataPageId.getFileIdx());
+    directoryPageBuffer.putInt(entryPos + 4, newDataPageId.getPageIdx());
+    directoryPageBuffer.putInt(entryPos + 8, freeSpace);
+    resetZoneMap(tabInfo, directoryPageBuffer, entryPos);
+    directoryPageBuffer.putInt(0, entryCount + 1);
+
+    bm.freePage(directoryPageId, 1);
     return newDataPageId;
   }
 
   /**
    * Obtient l'identifiant d'une page de données libre dans une table donnée,
-   * pouvant accueillir un enregistrement
-   * de la taille spécifiée. Cette méthode parcourt les pages de données associées
-   * à la table à partir de son en-tête,
-   * recherche une page avec suffisamment d'espace libre pour stocker
-   * l'enregistrement, puis renvoie l'identifiant de cette page.
+   * pouvant accueillir un enregistrement de la taille spécifiée. Cette méthode
+   * parcourt uniquement le répertoire de la table, qui conserve l'espace libre
+   * de chaque page : aucune page de données n'est chargée.
    *
    * @param tabInfo    Informations sur la table à laquelle ajouter la page de
    *                   données.
@@ -147,107 +309,43 @@ public class FileManager {
    *                               BufferManager.
    */
   public PageId getFreeDataPageId(TableInfo tabInfo, int sizeRecord) throws IOException, PageNotFoundException {
-    BufferManager bm = BufferManager.getInstance();
-    PageId headerPageId = tabInfo.getHeaderPageId();
-    ByteBuffer headerPageBuffer = bm.getPage(headerPageId);
-
-    int numDataPages = headerPageBuffer.getInt(0);
-
-    for (int i = 0; i < numDataPages; i++) {
-      int dataPageFileIdx = headerPageBuffer.getInt(4 + i * 12);
-      int dataPagePageIdx = headerPageBuffer.getInt(8 + i * 12);
-      int freeSpace = headerPageBuffer.getInt(12 + i * 12);
-
-      PageId dataPageId = new PageId(dataPageFileIdx, dataPagePageIdx);
-      ByteBuffer dataPageBuffer = bm.getPage(dataPageId);
-
-      int slotCount = (DBParams.SGBDPageSize - 8) / 8;
-      boolean pageHasSpace = false;
-
-      for (int j = 0; j < slotCount; j++) {
-        int slotStart = dataPageBuffer.getInt(4 + j * 8);
-        int slotSize = dataPageBuffer.getInt(8 + j * 8);
-
-        if (slotStart == 0 && slotSize == 0) {
-          if (sizeRecord <= freeSpace) {
-            pageHasSpace = true;
-            break;
-          }
-        }
-      }
-
-      if (pageHasSpace) {
-        bm.freePage(headerPageId, 0);
-        bm.freePage(dataPageId, 0);
-        return dataPageId;
+    PageId[] found = new PageId[1];
+    // une page PAX compte son espace libre en lignes
+    int needed = tabInfo.getFormat() == PageFormat.PAX ? 1 : sizeRecord + 8;
+
+    visitDirectory(tabInfo, false, (directoryPageBuffer, entryPos) -> {
+      // l'enregistrement et son slot (8 octets) doivent tenir dans la page
+      if (needed <= directoryPageBuffer.getInt(entryPos + 8)) {
+        found[0] = new PageId(directoryPageBuffer.getInt(entryPos), directoryPageBuffer.getInt(entryPos + 4));
+        return true;
       }
+      return false;
+    });
 
-      bm.freePage(dataPageId, 0);
-    }
-
-    bm.freePage(headerPageId, 0);
-    return null;
+    return found[0];
   }
 
   /**
-   * Écrit un enregistrement record sur une page de données spécifiée. Cette
-   * méthode recherche un emplacement
-   * libre sur la page de données pour stocker l'enregistrement, l'écrit à cet
-   * emplacement et met à jour les informations
-   * de slot correspondantes. Elle renvoie l'identifiant (RecordId) de
-   * l'emplacement où l'enregistrement a été écrit.
+   * Met à jour l'entrée d'une page de données dans le répertoire de la table :
+   * son espace libre et, si un enregistrement vient d'y être écrit, sa zone map.
    *
-   * @param record L'enregistrement (Record) à écrire sur la page de données.
-   * @param pageId L'identifiant (PageId) de la page de données sur laquelle
-   *               écrire l'enregistrement.
-   * @return L'identifiant (RecordId) de l'emplacement où l'enregistrement a été
-   *         écrit.
-   * @throws IOException           En cas d'erreur lors de l'accès au disque.
-   * @throws PageNotFoundException En cas d'indisponibilité de la page dans le
-   *                               BufferManager.
-   * @throws IOException           Si aucun emplacement libre n'est disponible sur
-   *                               la page de données.
+   * @param tabInfo   Les informations de la table.
+   * @param pageId    La page de données concernée.
+   * @param freeSpace Le nouvel espace libre de la page.
+   * @param record    L'enregistrement écrit dans la page, ou null.
    */
-  public RecordId writeRecordToDataPage(Record record, PageId pageId) throws IOException, PageNotFoundException {
-
-    BufferManager bm = BufferManager.getInstance();
-    ByteBuffer dataPageBuffer = bm.getPage(pageId);
-    byte[] dataPageArray = new byte[dataPageBuffer.capacity()];
-    dataPageBuffer.get(dataPageArray);
-
-    int slotCount = (DBParams.SGBDPageSize - 8) / 8;
-    int freeSlotIndex = -1;
-    int recordStart = -1;
-
-    for (int i = 0; i < slotCount; i++) {
-      int slotStart = ByteBuffer.wrap(dataPageArray, 4 + i * 8, 4).getInt();
-      int slotSize = ByteBuffer.wrap(dataPageArray, 8 + i * 8, 4).getInt();
-
-      if (slotStart == 0 && slotSize == 0) {
-        freeSlotIndex = i;
-        recordStart = 8 + i * 8;
-        break;
+  private void updateDirectoryEntry(TableInfo tabInfo, PageId pageId, int freeSpace, Record record) {
+    visitDirectory(tabInfo, true, (directoryPageBuffer, entryPos) -> {
+      if (directoryPageBuffer.getInt(entryPos) == pageId.getFileIdx()
+          && directoryPageBuffer.getInt(entryPos + 4) == pageId.getPageIdx()) {
+        directoryPageBuffer.putInt(entryPos + 8, freeSpace);
+        if (record != null) {
+          widenZoneMap(directoryPageBuffer, entryPos, record);
+        }
+        return true;
       }
-    }
-
-    if (freeSlotIndex == -1) {
-      bm.freePage(pageId, 0);
-      throw new IOException("Aucun emplacement libre sur la page de données.");
-    }
-
-    byte[] recordArray = new byte[record.getSize()];
-    record.writeToBuffer(recordArray, 0);
-    System.arraycopy(recordArray, 0, dataPageArray, recordStart, recordArray.length);
-
-    ByteBuffer.wrap(dataPageArray).putInt(4 + freeSlotIndex * 8, recordStart);
-    ByteBuffer.wrap(dataPageArray).putInt(8 + freeSlotIndex * 8, recordArray.length);
-
-    dataPageBuffer.clear();
-    dataPageBuffer.put(dataPageArray);
-
-    bm.freePage(pageId, 1);
-
-    return new RecordId(pageId, freeSlotIndex);
+      return false;
+    });
   }
 
   /**
@@ -277,33 +375,33 @@ public class FileManager {
 
     List<Record> records = new ArrayList<>();
     BufferManager bm = BufferManager.getInstance();
-    byte[] dataPageBuffer = bm.getPage(pageId).array();
+    ByteBuffer dataPageBuffer = bm.getPage(pageId);
     if (dataPageBuffer == null) {
       // System.out.println("dataPageBuffer is null");
       return Collections.emptyList();
     }
 
     try {
-      int slotCount = (DBParams.SGBDPageSize - 8) / 8;
-
-      for (int i = 0; i < slotCount; i++) {
-        int slotStart = ByteBuffer.wrap(dataPageBuffer, 4 + i * 8, 4).getInt();
-        int slotSize = ByteBuffer.wrap(dataPageBuffer, 8 + i * 8, 4).getInt();
-
-        // System.out.println("Slot " + i + ": Start = " + slotStart + ", Size = " +
-        // slotSize);
+      if (tabInfo.getFormat() == PageFormat.PAX) {
+        for (int row = 0; row < PaxPage.getRowCount(dataPageBuffer); row++) {
+          if (PaxPage.isLive(dataPageBuffer, row)) {
+            records.add(PaxPage.readRow(dataPageBuffer, tabInfo, row));
+          }
+        }
+        return records;
+      }
 
-        if (slotStart > 0 && slotSize > 0) {
-          byte[] recordBuffer = new byte[slotSize];
-          System.arraycopy(dataPageBuffer, slotStart, recordBuffer, 0, slotSize);
+      int pageSize = DBParams.SGBDPageSize;
+      int slotCount = dataPageBuffer.getInt(pageSize - 8);
 
-          // System.out.println("Record Buffer: " + Arrays.toString(recordBuffer));
+      for (int i = 1; i <= slotCount; i++) {
+        int slotStart = dataPageBuffer.getInt(pageSize - (8 + i * 8));
 
+        if (slotStart != TOMBSTONE) {
           Record record = new Record(tabInfo);
-          record.readFromBuffer(recordBuffer, 0);
+          record.readFromBuffer(dataPageBuffer.array(), slotStart);
+          record.loadOverflowValues();
           records.add(record);
-
-          // System.out.println("Added Record: " + record);
         }
       }
 
@@ -313,6 +411,50 @@ public class FileManager {
     }
   }
 
+  /**
+   * Récupère un seul enregistrement à partir de son identifiant. Seule la page
+   * désignée par le RecordId est épinglée et seul le slot demandé est décodé,
+   * directement depuis le buffer de la frame.
+   *
+   * @param tabInfo  L'information sur la table associée à l'enregistrement.
+   * @param recordId L'identifiant de l'enregistrement à lire.
+   * @return L'enregistrement, ou null si le slot n'existe pas ou a été supprimé.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si la page n'a pas pu être chargée dans le
+   *                               BufferManager.
+   */
+  public Record getRecord(TableInfo tabInfo, RecordId recordId) throws IOException, PageNotFoundException {
+    if (tabInfo == null || recordId == null) {
+      return null;
+    }
+
+    BufferManager bm = BufferManager.getInstance();
+    PageId pageId = recordId.getPageId();
+    ByteBuffer dataPageBuffer = bm.getPage(pageId);
+    if (dataPageBuffer == null) {
+      throw new PageNotFoundException("Page introuvable pour le record : " + pageId);
+    }
+
+    try {
+      if (tabInfo.getFormat() == PageFormat.PAX) {
+        int row = recordId.getSlotIdx() - 1;
+        return PaxPage.isLive(dataPageBuffer, row) ? PaxPage.readRow(dataPageBuffer, tabInfo, row) : null;
+      }
+
+      int slotPos = getSlotPosition(dataPageBuffer, recordId.getSlotIdx());
+      if (slotPos == -1) {
+        return null;
+      }
+
+      Record record = new Record(tabInfo);
+      record.readFromBuffer(dataPageBuffer.array(), dataPageBuffer.getInt(slotPos));
+      record.loadOverflowValues();
+      return record;
+    } finally {
+      bm.freePage(pageId, 0);
+    }
+  }
+
   /**
    * Récupère la liste des PageIds des pages de données associées à une table.
    *
@@ -325,36 +467,58 @@ public class FileManager {
    *                               le gestionnaire de tampons.
    */
   public List<PageId> getDataPages(TableInfo tabInfo) throws IOException, PageNotFoundException {
+    return getDataPages(tabInfo, (Predicate) null);
+  }
+
+  /**
+   * Récupère la liste des PageIds des pages de données d'une table qui peuvent
+   * contenir un enregistrement satisfaisant les conditions. Les pages dont la
+   * zone map exclut une condition sont écartées sans être chargées.
+   *
+   * @param tabInfo    Les informations de la table.
+   * @param conditions Les conditions reliées par AND (vide pour toutes les
+   *                   pages).
+   * @return Une liste de PageIds des pages de données à parcourir.
+   * @throws IOException           En cas d'erreur d'entrée/sortie lors de la
+   *                               lecture des données.
+   * @throws PageNotFoundException Si une page nécessaire n'a pas été trouvée dans
+   *                               le gestionnaire de tampons.
+   */
+  public List<PageId> getDataPages(TableInfo tabInfo, List<SelectCondition> conditions)
+      throws IOException, PageNotFoundException {
+    return getDataPages(tabInfo, tabInfo == null ? null : Predicate.compile(conditions, tabInfo));
+  }
+
+  /**
+   * Récupère la liste des PageIds des pages de données d'une table qui peuvent
+   * contenir un enregistrement satisfaisant un prédicat compilé.
+   *
+   * @param tabInfo   Les informations de la table.
+   * @param predicate Le prédicat, ou null pour toutes les pages.
+   * @return Une liste de PageIds des pages de données à parcourir.
+   * @throws IOException           En cas d'erreur d'entrée/sortie lors de la
+   *                               lecture des données.
+   * @throws PageNotFoundException Si une page nécessaire n'a pas été trouvée dans
+   *                               le gestionnaire de tampons.
+   */
+  public List<PageId> getDataPages(TableInfo tabInfo, Predicate predicate)
+      throws IOException, PageNotFoundException {
     if (tabInfo == null) {
       // System.out.println("tabInfo is null");
       return Collections.emptyList();
     }
 
     List<PageId> dataPageIds = new ArrayList<>();
-    BufferManager bm = BufferManager.getInstance();
-    PageId headerPageId = tabInfo.getHeaderPageId();
-    ByteBuffer headerPageBuffer = bm.getPage(headerPageId);
-    if (headerPageBuffer == null) {
-      // System.out.println("headerPageBuffer is null");
-      return Collections.emptyList();
-    }
-
-    try {
-      int numDataPages = headerPageBuffer.getInt(0);
-      // System.out.println("Number of data pages: " + numDataPages);
-
-      for (int i = 0; i < numDataPages; i++) {
-        int dataPageFileIdx = headerPageBuffer.getInt(4 + i * 12);
-        int dataPagePageIdx = headerPageBuffer.getInt(8 + i * 12);
-        PageId dataPageId = new PageId(dataPageFileIdx, dataPagePageIdx);
-        dataPageIds.add(dataPageId);
-        // System.out.println("Added data page: " + dataPageId);
+    double[] mins = new double[tabInfo.getNb_colonnes()];
+    double[] maxs = new double[tabInfo.getNb_colonnes()];
+    visitDirectory(tabInfo, false, (directoryPageBuffer, entryPos) -> {
+      if (predicate == null || zoneMapMayMatch(tabInfo, directoryPageBuffer, entryPos, predicate, mins, maxs)) {
+        dataPageIds.add(new PageId(directoryPageBuffer.getInt(entryPos), directoryPageBuffer.getInt(entryPos + 4)));
       }
+      return false;
+    });
 
-      return dataPageIds;
-    } finally {
-      bm.freePage(headerPageId, 0);
-    }
+    return dataPageIds;
   }
 
   /**
@@ -368,9 +532,56 @@ public class FileManager {
    *                               le gestionnaire de tampons.
    */
   public RecordId InsertRecordIntoTable(Record record) throws IOException, PageNotFoundException {
+    RecordId recordId = insertTemporaryRecord(record);
+
+    System.out.println("Details du record:");
+    System.out.println("Table: " + record.getTabInfo().getNom_relation());
+    System.out.println("Taille: " + record.getSize());
+    System.out.println("Contenue:");
+    record.printRecordDetails(); // Create a method in Record class to print its details
+
+    return recordId;
+  }
+
+  /**
+   * Insère un enregistrement sans l'afficher, pour les tables temporaires des
+   * opérateurs.
+   *
+   * @param record L'enregistrement à insérer dans la table.
+   * @return L'identifiant de l'enregistrement inséré.
+   * @throws IOException           En cas d'erreur d'entrée/sortie.
+   * @throws PageNotFoundException Si une page nécessaire n'a pas été trouvée dans
+   *                               le gestionnaire de tampons.
+   */
+  RecordId insertTemporaryRecord(Record record) throws IOException, PageNotFoundException {
+    spillLargeValues(record);
+    return insertRecord(record);
+  }
+
+  /**
+   * Insère un enregistrement dans la première page de données de sa table
+   * disposant d'assez d'espace libre contigu, en ajoutant une page si besoin.
+   *
+   * @param record L'enregistrement à insérer.
+   * @return L'identifiant de l'enregistrement inséré.
+   * @throws IOException           Si l'enregistrement ne tient pas dans une page.
+   * @throws PageNotFoundException Si une page nécessaire n'a pas été trouvée dans
+   *                               le gestionnaire de tampons.
+   */
+  private RecordId insertRecord(Record record) throws IOException, PageNotFoundException {
     BufferManager bm = BufferManager.getInstance();
     TableInfo tabInfo = record.getTabInfo();
-    PageId dataPageId = getFreeDataPageId(tabInfo, record.getSize());
+    int pageSize = DBParams.SGBDPageSize;
+    int recordSize = record.getSize();
+
+    if (tabInfo.getFormat() == PageFormat.NSM && recordSize + 16 > pageSize) {
+      throw new IOException("Record trop grand pour une page : " + recordSize + " octets");
+    }
+    if (tabInfo.getFormat() == PageFormat.PAX && PaxPage.getCapacity(tabInfo) < 1) {
+      throw new IOException("Les lignes de " + tabInfo.getNom_relation() + " ne tiennent pas dans une page PAX");
+    }
+
+    PageId dataPageId = getFreeDataPageId(tabInfo, recordSize);
 
     if (dataPageId == null) {
       dataPageId = addDataPage(tabInfo);
@@ -380,59 +591,485 @@ public class FileManager {
     }
 
     ByteBuffer dataPageBuffer = bm.getPage(dataPageId);
-    byte[] dataPageArray = new byte[dataPageBuffer.capacity()];
-    dataPageBuffer.get(dataPageArray);
 
-    int offset = ByteBuffer.wrap(dataPageArray, DBParams.SGBDPageSize - 4, 4).getInt();
-    byte[] recordArray = new byte[record.getSize()];
-    record.writeToBuffer(recordArray, 0);
-    System.arraycopy(recordArray, 0, dataPageArray, offset, recordArray.length);
+    if (tabInfo.getFormat() == PageFormat.PAX) {
+      int row = PaxPage.appendRow(dataPageBuffer, record);
+      int freeRows = PaxPage.getFreeRows(dataPageBuffer);
+      bm.freePage(dataPageId, 1);
+      updateDirectoryEntry(tabInfo, dataPageId, freeRows, record);
+      return new RecordId(dataPageId, row + 1);
+    }
 
-    ByteBuffer.wrap(dataPageArray).putInt(DBParams.SGBDPageSize - 4, offset + recordArray.length);
-    int recordCount = ByteBuffer.wrap(dataPageArray, DBParams.SGBDPageSize - 8, 4).getInt();
-    ByteBuffer.wrap(dataPageArray).putInt(DBParams.SGBDPageSize - 8, recordCount + 1);
-    ByteBuffer.wrap(dataPageArray).putInt(DBParams.SGBDPageSize - (8 + (recordCount + 1) * 8), offset);
-    ByteBuffer.wrap(dataPageArray).putInt(DBParams.SGBDPageSize - (8 + (recordCount + 1) * 8) + 4,
-        recordArray.length);
+    int offset = dataPageBuffer.getInt(pageSize - 4);
+    int recordCount = dataPageBuffer.getInt(pageSize - 8);
+    record.writeToBuffer(dataPageBuffer.array(), offset);
 
-    dataPageBuffer.clear();
-    dataPageBuffer.put(dataPageArray);
+    dataPageBuffer.putInt(pageSize - 4, offset + recordSize);
+    dataPageBuffer.putInt(pageSize - 8, recordCount + 1);
+    dataPageBuffer.putInt(pageSize - (8 + (recordCount + 1) * 8), offset);
+    dataPageBuffer.putInt(pageSize - (8 + (recordCount + 1) * 8) + 4, recordSize);
 
+    int freeSpace = getFreeSpace(dataPageBuffer);
     bm.freePage(dataPageId, 1);
 
-    ByteBuffer headerPageBuffer = bm.getPage(tabInfo.getHeaderPageId());
-    byte[] headerPageArray = new byte[headerPageBuffer.capacity()];
-    headerPageBuffer.get(headerPageArray);
+    updateDirectoryEntry(tabInfo, dataPageId, freeSpace, record);
 
-    int slotCount = (DBParams.SGBDPageSize - 8) / 8;
+    return new RecordId(dataPageId, recordCount + 1);
+  }
 
-    for (int i = 0; i < slotCount; i++) {
-      int slotStart = ByteBuffer.wrap(headerPageArray, 4 + i * 8, 4).getInt();
-      int slotSize = ByteBuffer.wrap(headerPageArray, 8 + i * 8, 4).getInt();
+  /**
+   * Supprime un enregistrement en marquant son slot comme tombstone. Les autres
+   * slots de la page gardent leur index, donc les RecordId existants restent
+   * valides. La page est compactée si la place perdue dépasse le seuil.
+   *
+   * @param tabInfo  Les informations de la table de l'enregistrement.
+   * @param recordId L'identifiant de l'enregistrement à supprimer.
+   * @return true si l'enregistrement existait et a été supprimé, false sinon.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si la page n'a pas pu être chargée dans le
+   *                               BufferManager.
+   */
+  public boolean deleteRecord(TableInfo tabInfo, RecordId recordId) throws IOException, PageNotFoundException {
+    BufferManager bm = BufferManager.getInstance();
+    PageId pageId = recordId.getPageId();
+    ByteBuffer dataPageBuffer = bm.getPage(pageId);
+    if (dataPageBuffer == null) {
+      throw new PageNotFoundException("Page introuvable pour le record : " + pageId);
+    }
 
-      if (slotStart == 0 && slotSize == 0) {
-        ByteBuffer.wrap(headerPageArray).putInt(4 + i * 8, dataPageId.getPageIdx());
-        ByteBuffer.wrap(headerPageArray).putInt(8 + i * 8, record.getSize());
-        break;
+    if (tabInfo.getFormat() == PageFormat.PAX) {
+      int row = recordId.getSlotIdx() - 1;
+      boolean live = PaxPage.isLive(dataPageBuffer, row);
+      if (live) {
+        PaxPage.setDeleted(dataPageBuffer, row);
       }
+      bm.freePage(pageId, live ? 1 : 0);
+      return live;
     }
 
-    System.out.println("Details du record:");
-    System.out.println("Table: " + record.getTabInfo().getNom_relation());
-    System.out.println("Taille: " + record.getSize());
-    System.out.println("Contenue:");
-    record.printRecordDetails(); // Create a method in Record class to print its details
+    int slotPos = getSlotPosition(dataPageBuffer, recordId.getSlotIdx());
+    if (slotPos == -1) {
+      bm.freePage(pageId, 0);
+      return false;
+    }
+
+    freeOverflowChains(tabInfo, dataPageBuffer, dataPageBuffer.getInt(slotPos));
+    dataPageBuffer.putInt(slotPos, TOMBSTONE);
+    boolean compacted = compactIfFragmented(dataPageBuffer);
+    int freeSpace = getFreeSpace(dataPageBuffer);
+    bm.freePage(pageId, 1);
 
-    headerPageBuffer.clear();
-    headerPageBuffer.put(headerPageArray);
+    if (compacted) {
+      updateDirectoryEntry(tabInfo, pageId, freeSpace, null);
+    }
+    return true;
+  }
+
+  /**
+   * Remplace un enregistrement existant par une nouvelle version. Si la
+   * nouvelle version tient dans le slot actuel, elle est réécrite sur place ;
+   * sinon elle est déplacée dans l'espace libre de la même page (après
+   * compaction si nécessaire) ; en dernier recours l'ancien slot devient un
+   * tombstone et l'enregistrement est inséré ailleurs dans la table.
+   *
+   * @param record   La nouvelle version de l'enregistrement.
+   * @param recordId L'identifiant de l'enregistrement à remplacer.
+   * @return L'identifiant de l'enregistrement mis à jour, différent de recordId
+   *         seulement s'il a dû changer de page.
+   * @throws IOException           Si l'enregistrement n'existe pas ou ne tient
+   *                               dans aucune page.
+   * @throws PageNotFoundException Si une page nécessaire n'a pas été trouvée dans
+   *                               le gestionnaire de tampons.
+   */
+  public RecordId updateRecord(Record record, RecordId recordId) throws IOException, PageNotFoundException {
+    BufferManager bm = BufferManager.getInstance();
+    TableInfo tabInfo = record.getTabInfo();
+    PageId pageId = recordId.getPageId();
+    int pageSize = DBParams.SGBDPageSize;
+
+    // la nouvelle version déborde avant que l'ancienne soit modifiée : si
+    // l'écriture de ses pages de débordement échoue, l'ancienne reste intacte
+    spillLargeValues(record);
+    List<PageId> oldChains = Collections.emptyList();
+    RecordId result = recordId;
+    int freeSpace;
+    boolean pinned = false;
+    boolean dirty = false;
+    try {
+      ByteBuffer dataPageBuffer = bm.getPage(pageId);
+      if (dataPageBuffer == null) {
+        throw new PageNotFoundException("Page introuvable pour le record : " + pageId);
+      }
+      pinned = true;
+
+      if (tabInfo.getFormat() == PageFormat.PAX) {
+        // les colonnes ont une largeur fixe : la mise à jour se fait toujours sur place
+        int row = recordId.getSlotIdx() - 1;
+        if (!PaxPage.isLive(dataPageBuffer, row)) {
+          throw new IOException("Record introuvable : ligne " + recordId.getSlotIdx() + " de " + pageId);
+        }
+        PaxPage.writeRow(dataPageBuffer, row, record);
+        dirty = true;
+        freeSpace = PaxPage.getFreeRows(dataPageBuffer);
+      } else {
+        int slotPos = getSlotPosition(dataPageBuffer, recordId.getSlotIdx());
+        if (slotPos == -1) {
+          throw new IOException("Record introuvable : slot " + recordId.getSlotIdx() + " de " + pageId);
+        }
+        // les chaînes de l'ancienne version sont relevées avant d'être écrasées,
+        // et rendues une fois la nouvelle version écrite
+        if (tabInfo.getLayout().hasVariableColumns()) {
+          oldChains = OverflowPages.findChains(tabInfo.getLayout(), dataPageBuffer.array(),
+              dataPageBuffer.getInt(slotPos));
+        }
+        int newSize = record.getSize();
+        int slotSize = dataPageBuffer.getInt(slotPos + 4);
+        dirty = true;
+
+        if (newSize <= slotSize) {
+          // mise à jour sur place
+          record.writeToBuffer(dataPageBuffer.array(), dataPageBuffer.getInt(slotPos));
+          dataPageBuffer.putInt(slotPos + 4, newSize);
+        } else {
+          if (getFreeSpace(dataPageBuffer) < newSize) {
+            compactPage(dataPageBuffer);
+          }
 
-    bm.freePage(tabInfo.getHeaderPageId(), 1);
+          if (getFreeSpace(dataPageBuffer) >= newSize) {
+            // déplacement dans l'espace libre de la même page, le slot est conservé
+            int offset = dataPageBuffer.getInt(pageSize - 4);
+            record.writeToBuffer(dataPageBuffer.array(), offset);
+            dataPageBuffer.putInt(slotPos, offset);
+            dataPageBuffer.putInt(slotPos + 4, newSize);
+            dataPageBuffer.putInt(pageSize - 4, offset + newSize);
+          } else {
+            dataPageBuffer.putInt(slotPos, TOMBSTONE);
+            result = null;
+          }
+        }
 
-    return new RecordId(dataPageId, recordCount + 1);
+        compactIfFragmented(dataPageBuffer);
+        freeSpace = getFreeSpace(dataPageBuffer);
+      }
+    } catch (IOException | PageNotFoundException | RuntimeException e) {
+      // la nouvelle version n'a pas été écrite : ses pages de débordement sont rendues
+      freeSpilledValues(record);
+      throw e;
+    } finally {
+      if (pinned) {
+        bm.freePage(pageId, dirty ? 1 : 0);
+      }
+    }
+
+    // la nouvelle version doit rester couverte par la zone map de sa page
+    updateDirectoryEntry(tabInfo, pageId, freeSpace, result == null ? null : record);
+
+    if (result == null) {
+      result = insertRecord(record);
+    }
+    for (PageId chain : oldChains) {
+      OverflowPages.free(chain);
+    }
+    return result;
+  }
+
+  /**
+   * Rend au DiskManager les pages de débordement écrites pour un enregistrement
+   * qui n'a finalement pas été écrit dans sa page.
+   *
+   * @param record L'enregistrement.
+   * @throws PageNotFoundException Si une page de débordement n'a pas été
+   *                               trouvée dans le gestionnaire de tampons.
+   */
+  private void freeSpilledValues(Record record) throws PageNotFoundException {
+    if (record.getTabInfo().getFormat() != PageFormat.NSM) {
+      return;
+    }
+    for (int i = 0; i < record.getTabInfo().getLayout().getColumnCount(); i++) {
+      PageId chain = record.getOverflowPageId(i);
+      if (chain != null) {
+        OverflowPages.free(chain);
+      }
+    }
+    record.clearOverflow();
+  }
+
+  /**
+   * Compacte toutes les pages de données d'une table et rend au DiskManager les
+   * pages qui ne contiennent plus aucun enregistrement. Les pages rendues sont
+   * retirées du répertoire et la zone map des autres pages est recalculée à
+   * partir des enregistrements restants.
+   *
+   * @param tabInfo Les informations de la table à nettoyer.
+   * @return Le nombre de pages rendues au DiskManager.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page nécessaire n'a pas été trouvée dans
+   *                               le gestionnaire de tampons.
+   */
+  public int vacuum(TableInfo tabInfo) throws IOException, PageNotFoundException {
+    BufferManager bm = BufferManager.getInstance();
+    DiskManager dm = DiskManager.getInstance();
+    int entrySize = getDirectoryEntrySize(tabInfo);
+    int released = 0;
+    PageId directoryPageId = tabInfo.getHeaderPageId();
+
+    while (directoryPageId != null) {
+      ByteBuffer directoryPageBuffer = bm.getPage(directoryPageId);
+      int entryCount = directoryPageBuffer.getInt(0);
+      int kept = 0;
+
+      for (int i = 0; i < entryCount; i++) {
+        int entryPos = DIRECTORY_HEADER_SIZE + i * entrySize;
+        PageId dataPageId = new PageId(directoryPageBuffer.getInt(entryPos), directoryPageBuffer.getInt(entryPos + 4));
+
+        ByteBuffer dataPageBuffer = bm.getPage(dataPageId);
+        int liveCount;
+        int freeSpace;
+        if (tabInfo.getFormat() == PageFormat.PAX) {
+          // les lignes PAX gardent leur position : seules les pages vides sont rendues
+          liveCount = 0;
+          for (int row = 0; row < PaxPage.getRowCount(dataPageBuffer); row++) {
+            if (PaxPage.isLive(dataPageBuffer, row)) {
+              liveCount++;
+            }
+          }
+          freeSpace = PaxPage.getFreeRows(dataPageBuffer);
+        } else {
+          liveCount = compactPage(dataPageBuffer);
+          freeSpace = getFreeSpace(dataPageBuffer);
+        }
+        bm.freePage(dataPageId, 1);
+
+        if (liveCount == 0) {
+          bm.discardPage(dataPageId);
+          dm.deallocatePage(dataPageId);
+          released++;
+          continue;
+        }
+
+        int keptPos = DIRECTORY_HEADER_SIZE + kept * entrySize;
+        directoryPageBuffer.putInt(keptPos, dataPageId.getFileIdx());
+        directoryPageBuffer.putInt(keptPos + 4, dataPageId.getPageIdx());
+        directoryPageBuffer.putInt(keptPos + 8, freeSpace);
+        resetZoneMap(tabInfo, directoryPageBuffer, keptPos);
+        for (Record record : getRecordsInDataPage(tabInfo, dataPageId)) {
+          widenZoneMap(directoryPageBuffer, keptPos, record);
+        }
+        kept++;
+      }
+
+      directoryPageBuffer.putInt(0, kept);
+      PageId nextPageId = getNextDirectoryPage(directoryPageBuffer);
+      bm.freePage(directoryPageId, 1);
+      directoryPageId = nextPageId;
+    }
+
+    return released;
+  }
+
+  /**
+   * Rend au DiskManager toutes les pages d'une table : ses pages de données, les
+   * pages de débordement de ses valeurs et ses pages de répertoire, y compris la
+   * page d'en-tête. La table ne doit plus être utilisée ensuite ; cette méthode
+   * sert surtout aux tables temporaires des opérateurs.
+   *
+   * @param tabInfo Les informations de la table à supprimer.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page nécessaire n'a pas été trouvée dans
+   *                               le gestionnaire de tampons.
+   */
+  public void dropTable(TableInfo tabInfo) throws IOException, PageNotFoundException {
+    BufferManager bm = BufferManager.getInstance();
+    DiskManager dm = DiskManager.getInstance();
+    int entrySize = getDirectoryEntrySize(tabInfo);
+    boolean overflow = tabInfo.getFormat() != PageFormat.PAX && tabInfo.getLayout().hasVariableColumns();
+    PageId directoryPageId = tabInfo.getHeaderPageId();
+
+    while (directoryPageId != null) {
+      ByteBuffer directoryPageBuffer = bm.getPage(directoryPageId);
+      int entryCount = directoryPageBuffer.getInt(0);
+
+      for (int i = 0; i < entryCount; i++) {
+        int entryPos = DIRECTORY_HEADER_SIZE + i * entrySize;
+        PageId dataPageId = new PageId(directoryPageBuffer.getInt(entryPos), directoryPageBuffer.getInt(entryPos + 4));
+        if (overflow) {
+          ByteBuffer dataPageBuffer = bm.getPage(dataPageId);
+          int slotCount = dataPageBuffer.getInt(DBParams.SGBDPageSize - 8);
+          for (int slot = 1; slot <= slotCount; slot++) {
+            int slotPos = getSlotPosition(dataPageBuffer, slot);
+            if (slotPos != -1) {
+              freeOverflowChains(tabInfo, dataPageBuffer, dataPageBuffer.getInt(slotPos));
+            }
+          }
+          bm.freePage(dataPageId, 0);
+        }
+        bm.discardPage(dataPageId);
+        dm.deallocatePage(dataPageId);
+      }
+
+      PageId nextPageId = getNextDirectoryPage(directoryPageBuffer);
+      bm.freePage(directoryPageId, 0);
+      bm.discardPage(directoryPageId);
+      dm.deallocatePage(directoryPageId);
+      directoryPageId = nextPageId;
+    }
+  }
+
+  /**
+   * Range dans des pages de débordement les plus grandes valeurs VARSTRING d'un
+   * enregistrement NSM, jusqu'à ce qu'il ne dépasse plus une fraction de page.
+   * Chaque valeur débordée garde un préfixe et un pointeur dans la page de
+   * données.
+   *
+   * @param record L'enregistrement à écrire.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page de débordement n'a pas été
+   *                               trouvée dans le gestionnaire de tampons.
+   */
+  private void spillLargeValues(Record record) throws IOException, PageNotFoundException {
+    TableInfo tabInfo = record.getTabInfo();
+    if (tabInfo.getFormat() != PageFormat.NSM) {
+      return;
+    }
+    RecordLayout layout = tabInfo.getLayout();
+    int threshold = DBParams.SGBDPageSize / OVERFLOW_THRESHOLD_DIVISOR;
+
+    // les chaînes d'une version précédente de l'enregistrement ne sont pas reprises
+    record.clearOverflow();
+    while (record.getSize() > threshold) {
+      int largest = -1;
+      for (int i = 0; i < layout.getColumnCount(); i++) {
+        if (layout.getType(i) == RecordLayout.VARSTRING && record.getOverflowPageId(i) == null
+            && record.getEncodedString(i).length > OverflowPages.PREFIX_LENGTH + OverflowPages.POINTER_SIZE
+            && (largest == -1 || record.getEncodedString(i).length > record.getEncodedString(largest).length)) {
+          largest = i;
+        }
+      }
+      if (largest == -1) {
+        return;
+      }
+      byte[] bytes = record.getEncodedString(largest);
+      int prefixLength = OverflowPages.getPrefixLength(bytes);
+      record.setOverflow(largest, OverflowPages.write(bytes, prefixLength), prefixLength);
+    }
+  }
+
+  /**
+   * Rend au DiskManager les pages de débordement d'un enregistrement NSM.
+   *
+   * @param tabInfo        Les informations de la table.
+   * @param dataPageBuffer Le buffer de la page de données.
+   * @param recordStart    Le début de l'enregistrement dans la page.
+   * @throws PageNotFoundException Si une page de débordement n'a pas été
+   *                               trouvée dans le gestionnaire de tampons.
+   */
+  private void freeOverflowChains(TableInfo tabInfo, ByteBuffer dataPageBuffer, int recordStart)
+      throws PageNotFoundException {
+    RecordLayout layout = tabInfo.getLayout();
+    if (!layout.hasVariableColumns()) {
+      return;
+    }
+    for (PageId chain : OverflowPages.findChains(layout, dataPageBuffer.array(), recordStart)) {
+      OverflowPages.free(chain);
+    }
+  }
+
+  /**
+   * Renvoie la position du slot demandé dans la page, ou -1 si l'index est hors
+   * du répertoire de slots ou désigne un tombstone.
+   *
+   * @param dataPageBuffer Le buffer de la page de données.
+   * @param slotIdx        L'index (à partir de 1) du slot.
+   * @return La position du slot dans la page, ou -1.
+   */
+  private int getSlotPosition(ByteBuffer dataPageBuffer, int slotIdx) {
+    int pageSize = DBParams.SGBDPageSize;
+    int slotCount = dataPageBuffer.getInt(pageSize - 8);
+    if (slotIdx < 1 || slotIdx > slotCount) {
+      return -1;
+    }
+
+    int slotPos = pageSize - (8 + slotIdx * 8);
+    return dataPageBuffer.getInt(slotPos) == TOMBSTONE ? -1 : slotPos;
+  }
+
+  /**
+   * Calcule l'espace libre contigu d'une page de données, entre la fin des
+   * enregistrements et le début du répertoire de slots.
+   *
+   * @param dataPageBuffer Le buffer de la page de données.
+   * @return L'espace libre contigu en octets.
+   */
+  private int getFreeSpace(ByteBuffer dataPageBuffer) {
+    int pageSize = DBParams.SGBDPageSize;
+    int slotCount = dataPageBuffer.getInt(pageSize - 8);
+    return pageSize - 8 - slotCount * 8 - dataPageBuffer.getInt(pageSize - 4);
+  }
+
+  /**
+   * Compacte la page si les octets qui ne sont plus référencés par un slot
+   * (tombstones et restes de mises à jour) dépassent le seuil de fragmentation.
+   *
+   * @param dataPageBuffer Le buffer de la page de données.
+   * @return true si la page a été compactée.
+   */
+  private boolean compactIfFragmented(ByteBuffer dataPageBuffer) {
+    int pageSize = DBParams.SGBDPageSize;
+    int slotCount = dataPageBuffer.getInt(pageSize - 8);
+    int liveBytes = 0;
+
+    for (int i = 1; i <= slotCount; i++) {
+      int slotPos = pageSize - (8 + i * 8);
+      if (dataPageBuffer.getInt(slotPos) != TOMBSTONE) {
+        liveBytes += dataPageBuffer.getInt(slotPos + 4);
+      }
+    }
+
+    int deadBytes = dataPageBuffer.getInt(pageSize - 4) - liveBytes;
+    if (deadBytes * COMPACTION_THRESHOLD_DIVISOR > pageSize) {
+      compactPage(dataPageBuffer);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Regroupe les enregistrements vivants au début de la page, dans l'ordre des
+   * slots, et met à jour le début de chaque slot. Les index de slot ne changent
+   * pas.
+   *
+   * @param dataPageBuffer Le buffer de la page de données.
+   * @return Le nombre d'enregistrements vivants dans la page.
+   */
+  private int compactPage(ByteBuffer dataPageBuffer) {
+    int pageSize = DBParams.SGBDPageSize;
+    int slotCount = dataPageBuffer.getInt(pageSize - 8);
+    byte[] data = dataPageBuffer.array();
+    byte[] compacted = new byte[dataPageBuffer.getInt(pageSize - 4)];
+    int offset = 0;
+    int liveCount = 0;
+
+    for (int i = 1; i <= slotCount; i++) {
+      int slotPos = pageSize - (8 + i * 8);
+      int slotStart = dataPageBuffer.getInt(slotPos);
+      if (slotStart != TOMBSTONE) {
+        int slotSize = dataPageBuffer.getInt(slotPos + 4);
+        System.arraycopy(data, slotStart, compacted, offset, slotSize);
+        dataPageBuffer.putInt(slotPos, offset);
+        offset += slotSize;
+        liveCount++;
+      }
+    }
+
+    System.arraycopy(compacted, 0, data, 0, offset);
+    dataPageBuffer.putInt(pageSize - 4, offset);
+    return liveCount;
   }
 
   /**
-   * Récupère tous les enregistrements d'une table spécifique.
+   * Récupère tous les enregistrements d'une table spécifique. Cette méthode
+   * matérialise toute la table en mémoire : pour un parcours en flux, utiliser
+   * directement un TableScan.
    *
    * @param tabInfo Les informations de la table à partir de laquelle les
    *                enregistrements sont extraits.
@@ -444,12 +1081,11 @@ public class FileManager {
    */
   public List<Record> GetAllRecords(TableInfo tabInfo) throws IOException, PageNotFoundException {
     List<Record> records = new ArrayList<>();
-    List<PageId> dataPageIds = getDataPages(tabInfo);
-    BufferManager bm = BufferManager.getInstance();
+    TableScan scan = new TableScan(tabInfo);
+    Record record;
 
-    for (PageId dataPageId : dataPageIds) {
-      List<Record> pageRecords = getRecordsInDataPage(tabInfo, dataPageId);
-      records.addAll(pageRecords);
+    while ((record = scan.getNextRecord()) != null) {
+      records.add(record);
     }
 
     return records;
@@ -0,0 +1,130 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base des destinations qui écrivent le résultat dans un fichier. Les octets
+ * sont accumulés dans un tampon direct de BUFFER_SIZE octets, vidé dans un
+ * FileChannel quand il est plein : le fichier est écrit par grands blocs,
+ * quelle que soit la taille des enregistrements.
+ */
+public abstract class FileSink implements ResultSink {
+  static final int BUFFER_SIZE = 1 << 16;
+
+  private final Path path;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  private FileChannel channel;
+  private int count;
+
+  /**
+   * Crée une destination vers un fichier, remplacé s'il existe déjà.
+   *
+   * @param path Le chemin du fichier.
+   */
+  protected FileSink(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Écrit l'en-tête du fichier.
+   *
+   * @param schema Le schéma des enregistrements qui vont arriver.
+   * @throws IOException Si une erreur d'entrée/sortie se produit.
+   */
+  protected abstract void writeHeader(TableInfo schema) throws IOException;
+
+  /**
+   * Écrit un enregistrement.
+   *
+   * @param record L'enregistrement.
+   * @throws IOException Si une erreur d'entrée/sortie se produit.
+   */
+  protected abstract void writeRecord(Record record) throws IOException;
+
+  @Override
+  public void open(TableInfo schema) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE);
+    buffer.clear();
+    count = 0;
+    writeHeader(schema);
+  }
+
+  @Override
+  public void consume(Record record) throws IOException {
+    writeRecord(record);
+    count++;
+  }
+
+  /**
+   * Obtient le tampon d'écriture, avec au moins une place donnée.
+   *
+   * @param bytes Le nombre d'octets à écrire, au plus BUFFER_SIZE.
+   * @return Le tampon, où écrire à la suite.
+   * @throws IOException Si une erreur d'entrée/sortie se produit.
+   */
+  protected ByteBuffer reserve(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush();
+    }
+    return buffer;
+  }
+
+  /**
+   * Écrit des octets à la suite du fichier.
+   *
+   * @param bytes Les octets.
+   * @throws IOException Si une erreur d'entrée/sortie se produit.
+   */
+  protected void write(byte[] bytes) throws IOException {
+    if (bytes.length > BUFFER_SIZE) {
+      // trop grand pour le tampon : écrit directement, après son contenu
+      flush();
+      ByteBuffer large = ByteBuffer.wrap(bytes);
+      while (large.hasRemaining()) {
+        channel.write(large);
+      }
+      return;
+    }
+    reserve(bytes.length).put(bytes);
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel == null) {
+      return;
+    }
+    try {
+      flush();
+    } finally {
+      channel.close();
+      channel = null;
+    }
+  }
+
+  @Override
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Obtient le chemin du fichier écrit.
+   *
+   * @return Le chemin du fichier.
+   */
+  public Path getPath() {
+    return path;
+  }
+}
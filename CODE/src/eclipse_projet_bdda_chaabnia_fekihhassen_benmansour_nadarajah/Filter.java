@@ -0,0 +1,57 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Opérateur de sélection : ne laisse passer que les enregistrements du fils qui
+ * satisfont un prédicat. Les prédicats portant sur une seule table sont de
+ * préférence confiés au SeqScan ; le Filter sert pour ceux qui ne peuvent être
+ * évalués qu'après un autre opérateur.
+ */
+public class Filter implements Operator {
+  private final Operator child;
+  private final Predicate predicate;
+
+  /**
+   * Crée un filtre au-dessus d'un opérateur.
+   *
+   * @param child     L'opérateur qui produit les enregistrements.
+   * @param predicate Le prédicat, compilé pour le schéma du fils.
+   */
+  public Filter(Operator child, Predicate predicate) {
+    this.child = child;
+    this.predicate = predicate;
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    child.open();
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    Record record;
+    while ((record = child.next()) != null) {
+      if (predicate.test(record)) {
+        return record;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    child.close();
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return List.of(child);
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return child.getSchema();
+  }
+}
@@ -0,0 +1,186 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.Arrays;
+
+/**
+ * Table de hachage à adressage ouvert (sondage linéaire) des groupes d'une
+ * agrégation. La clé d'un groupe est une suite d'int (valeur d'une colonne
+ * INT, bits d'un FLOAT ou identifiant d'une chaîne) et ses accumulateurs sont
+ * des double et des long : tout est rangé dans des tableaux primitifs, indexés
+ * par le numéro du groupe, sans aucun objet par groupe.
+ */
+class GroupTable {
+  private final int keyWidth;
+  private final int[] functions;
+  private int[] slots; // numéro du groupe + 1, 0 pour une case libre
+  private int mask;
+  private int[] hashes;
+  private int[] keys;
+  private double[] values;
+  private long[] counts;
+  private int groupCount;
+
+  /**
+   * Crée une table vide.
+   *
+   * @param keyWidth  Le nombre d'int d'une clé.
+   * @param functions Le code de chaque fonction d'agrégation (Aggregate).
+   */
+  GroupTable(int keyWidth, int[] functions) {
+    this.keyWidth = keyWidth;
+    this.functions = functions;
+    this.slots = new int[64];
+    this.mask = slots.length - 1;
+    this.hashes = new int[32];
+    this.keys = new int[32 * keyWidth];
+    this.values = new double[32 * functions.length];
+    this.counts = new long[32 * functions.length];
+  }
+
+  /**
+   * Calcule le hachage d'une clé. Les bits de poids faible servent à la table,
+   * ceux de poids fort à répartir les lignes débordées entre les partitions.
+   *
+   * @param key La clé.
+   * @return Le hachage de la clé.
+   */
+  static int hash(int[] key) {
+    int h = 0x9E3779B9;
+    for (int k : key) {
+      h = (h ^ k) * 0x01000193;
+    }
+    // mélange final de MurmurHash3
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    return h ^ (h >>> 16);
+  }
+
+  int size() {
+    return groupCount;
+  }
+
+  /**
+   * Cherche le groupe d'une clé.
+   *
+   * @param key  La clé.
+   * @param hash Le hachage de la clé.
+   * @return Le numéro du groupe, ou -1 s'il n'existe pas.
+   */
+  int find(int[] key, int hash) {
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      int group = slots[slot] - 1;
+      if (hashes[group] == hash && keyEquals(group, key)) {
+        return group;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private boolean keyEquals(int group, int[] key) {
+    int base = group * keyWidth;
+    for (int i = 0; i < keyWidth; i++) {
+      if (keys[base + i] != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ajoute un groupe, qui ne doit pas déjà exister, avec des accumulateurs
+   * vides.
+   *
+   * @param key  La clé.
+   * @param hash Le hachage de la clé.
+   * @return Le numéro du nouveau groupe.
+   */
+  int insert(int[] key, int hash) {
+    if (groupCount == hashes.length) {
+      grow();
+    }
+    int group = groupCount++;
+    hashes[group] = hash;
+    System.arraycopy(key, 0, keys, group * keyWidth, keyWidth);
+    for (int j = 0; j < functions.length; j++) {
+      int index = group * functions.length + j;
+      counts[index] = 0;
+      values[index] = functions[j] == Aggregate.MIN ? Double.POSITIVE_INFINITY
+          : functions[j] == Aggregate.MAX ? Double.NEGATIVE_INFINITY : 0;
+    }
+
+    // la table des cases reste remplie au plus à moitié
+    if (groupCount * 2 > slots.length) {
+      slots = new int[slots.length * 2];
+      mask = slots.length - 1;
+      for (int g = 0; g < groupCount - 1; g++) {
+        place(g);
+      }
+    }
+    place(group);
+    return group;
+  }
+
+  private void place(int group) {
+    int slot = hashes[group] & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = group + 1;
+  }
+
+  private void grow() {
+    int capacity = hashes.length * 2;
+    hashes = Arrays.copyOf(hashes, capacity);
+    keys = Arrays.copyOf(keys, capacity * keyWidth);
+    values = Arrays.copyOf(values, capacity * functions.length);
+    counts = Arrays.copyOf(counts, capacity * functions.length);
+  }
+
+  /**
+   * Ajoute les valeurs d'une ligne aux accumulateurs d'un groupe.
+   *
+   * @param group  Le numéro du groupe.
+   * @param inputs La valeur de la colonne de chaque fonction d'agrégation.
+   */
+  void accumulate(int group, double[] inputs) {
+    int base = group * functions.length;
+    for (int j = 0; j < functions.length; j++) {
+      double value = inputs[j];
+      counts[base + j]++;
+      switch (functions[j]) {
+        case Aggregate.SUM:
+        case Aggregate.AVG:
+          values[base + j] += value;
+          break;
+        case Aggregate.MIN:
+          if (value < values[base + j]) {
+            values[base + j] = value;
+          }
+          break;
+        case Aggregate.MAX:
+          if (value > values[base + j]) {
+            values[base + j] = value;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  int getKey(int group, int i) {
+    return keys[group * keyWidth + i];
+  }
+
+  double getValue(int group, int aggregate) {
+    return values[group * functions.length + aggregate];
+  }
+
+  long getCount(int group, int aggregate) {
+    return counts[group * functions.length + aggregate];
+  }
+}
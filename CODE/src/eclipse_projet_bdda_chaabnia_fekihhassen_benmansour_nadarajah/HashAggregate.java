@@ -0,0 +1,344 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Opérateur d'agrégation par hachage : GROUP BY sur des colonnes avec COUNT,
+ * SUM, AVG, MIN et MAX. Les groupes sont rangés dans une GroupTable, sans
+ * objet par groupe ; une colonne de chaîne entre dans la clé par l'identifiant
+ * de sa valeur, tiré d'un dictionnaire qui ne contient que les valeurs des
+ * groupes en mémoire.
+ * Au-delà d'un nombre maximal de groupes en mémoire, les groupes déjà présents
+ * continuent d'être agrégés, mais les lignes des nouveaux groupes sont écrites
+ * dans des partitions temporaires (SpillFile), choisies d'après le hachage des
+ * valeurs de leur clé ; les chaînes y sont écrites en toutes lettres. Chaque
+ * partition est ensuite agrégée à son tour, avec un dictionnaire neuf, en se
+ * partageant de nouveau si nécessaire, selon d'autres bits du hachage.
+ * Sans colonne de regroupement, l'opérateur produit un seul enregistrement,
+ * même si le fils n'en produit aucun.
+ */
+public class HashAggregate implements Operator {
+  private static final int PARTITION_BITS = 3;
+  private static final int PARTITIONS = 1 << PARTITION_BITS;
+  // au-delà, les bits du hachage sont épuisés et la limite est ignorée
+  private static final int MAX_DEPTH = 32 / PARTITION_BITS - 1;
+
+  private final Operator child;
+  private final Aggregate[] aggregates;
+  private final int maxGroups;
+  private final TableInfo schema;
+  private final int[] groupColumns;
+  private final int[] groupTypes;
+  private final int[] aggColumns; // -1 pour COUNT(*)
+  private final int[] aggTypes;
+  private final int[] functions;
+
+  private StringIdTable strings;
+  private GroupTable table;
+  private int emitted;
+  private ArrayDeque<SpillFile> partitions;
+  private ArrayDeque<Integer> depths;
+  private String[] values; // valeurs des colonnes de chaîne de la ligne courante
+  private byte[] row; // ligne écrite dans une partition
+
+  /**
+   * Crée une agrégation au-dessus d'un opérateur.
+   *
+   * @param child       L'opérateur qui produit les enregistrements.
+   * @param groupNames  Les colonnes de regroupement (éventuellement aucune).
+   * @param aggregates  Les fonctions d'agrégation.
+   * @param maxGroups   Le nombre maximal de groupes gardés en mémoire.
+   * @throws IllegalArgumentException Si une colonne n'existe pas dans le schéma
+   *                                  du fils, ou si SUM, AVG, MIN ou MAX porte
+   *                                  sur une colonne de chaîne.
+   */
+  public HashAggregate(Operator child, List<String> groupNames, List<Aggregate> aggregates, int maxGroups) {
+    this.child = child;
+    this.aggregates = aggregates.toArray(new Aggregate[0]);
+    this.maxGroups = Math.max(1, maxGroups);
+
+    TableInfo input = child.getSchema();
+    RecordLayout layout = input.getLayout();
+    ArrayList<ColInfo> cols = new ArrayList<>();
+    this.groupColumns = new int[groupNames.size()];
+    this.groupTypes = new int[groupColumns.length];
+    for (int i = 0; i < groupColumns.length; i++) {
+      groupColumns[i] = resolve(layout, groupNames.get(i));
+      groupTypes[i] = layout.getType(groupColumns[i]);
+      cols.add(input.getColInfoList().get(groupColumns[i]));
+    }
+
+    this.aggColumns = new int[this.aggregates.length];
+    this.aggTypes = new int[aggColumns.length];
+    this.functions = new int[aggColumns.length];
+    for (int j = 0; j < aggColumns.length; j++) {
+      Aggregate aggregate = this.aggregates[j];
+      functions[j] = aggregate.getFunction();
+      aggColumns[j] = aggregate.getColumnName() == null ? -1 : resolve(layout, aggregate.getColumnName());
+      aggTypes[j] = aggColumns[j] == -1 ? RecordLayout.INT : layout.getType(aggColumns[j]);
+      if (functions[j] != Aggregate.COUNT && aggTypes[j] != RecordLayout.INT && aggTypes[j] != RecordLayout.FLOAT) {
+        throw new IllegalArgumentException(aggregate + " porte sur une colonne qui n'est pas numérique");
+      }
+      cols.add(new ColInfo(aggregate.toString(), aggregate.getResultType(aggTypes[j])));
+    }
+    this.schema = new TableInfo(input.getNom_relation(), cols, null);
+  }
+
+  private static int resolve(RecordLayout layout, String name) {
+    int col = layout.getColumnIndex(name);
+    if (col < 0) {
+      throw new IllegalArgumentException("Colonne inconnue : " + name);
+    }
+    return col;
+  }
+
+  /**
+   * Consomme tous les enregistrements du fils : les groupes qui tiennent en
+   * mémoire sont agrégés, les autres lignes sont écrites dans les partitions.
+   */
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    partitions = new ArrayDeque<>();
+    depths = new ArrayDeque<>();
+    values = new String[groupColumns.length];
+    row = new byte[Integer.BYTES * groupColumns.length + Double.BYTES * aggColumns.length];
+    reset();
+
+    SpillFile[] spills = new SpillFile[PARTITIONS];
+    int[] key = new int[groupColumns.length];
+    double[] inputs = new double[aggColumns.length];
+    child.open();
+    Record record;
+    while ((record = child.next()) != null) {
+      for (int i = 0; i < key.length; i++) {
+        int col = groupColumns[i];
+        if (groupTypes[i] == RecordLayout.INT) {
+          key[i] = record.getInt(col);
+        } else if (groupTypes[i] == RecordLayout.FLOAT) {
+          key[i] = Float.floatToIntBits(record.getFloat(col));
+        } else {
+          values[i] = record.getString(col);
+        }
+      }
+      for (int j = 0; j < inputs.length; j++) {
+        int col = aggColumns[j];
+        inputs[j] = col == -1 || functions[j] == Aggregate.COUNT ? 0
+            : aggTypes[j] == RecordLayout.INT ? record.getInt(col) : record.getFloat(col);
+      }
+      add(key, inputs, 0, spills);
+    }
+    queue(spills, 0);
+
+    // sans regroupement, une entrée vide donne tout de même un résultat
+    if (groupColumns.length == 0 && table.size() == 0) {
+      table.insert(key, GroupTable.hash(key));
+    }
+  }
+
+  /**
+   * Vide la table des groupes et le dictionnaire des chaînes.
+   */
+  private void reset() {
+    table = new GroupTable(groupColumns.length, functions);
+    strings = new StringIdTable();
+    emitted = 0;
+  }
+
+  /**
+   * Agrège une ligne dans la table, ou l'écrit dans sa partition si son groupe
+   * est nouveau et que la table est pleine. Pour les colonnes de chaîne, la
+   * valeur est lue dans values et la case de key est remplacée par son
+   * identifiant.
+   */
+  private void add(int[] key, double[] inputs, int depth, SpillFile[] spills) {
+    // le hachage porte sur les valeurs : il ne dépend pas du dictionnaire
+    boolean known = true;
+    for (int i = 0; i < key.length; i++) {
+      if (isString(i)) {
+        key[i] = values[i].hashCode();
+      }
+    }
+    int hash = GroupTable.hash(key);
+    for (int i = 0; i < key.length && known; i++) {
+      if (isString(i)) {
+        key[i] = strings.find(values[i]);
+        known = key[i] != -1;
+      }
+    }
+    int group = known ? table.find(key, hash) : -1;
+    if (group == -1) {
+      if (table.size() < maxGroups || depth >= MAX_DEPTH) {
+        for (int i = 0; i < key.length; i++) {
+          if (isString(i)) {
+            key[i] = strings.add(values[i]);
+          }
+        }
+        group = table.insert(key, hash);
+      } else {
+        int partition = (hash >>> (32 - PARTITION_BITS * (depth + 1))) & (PARTITIONS - 1);
+        if (spills[partition] == null) {
+          spills[partition] = new SpillFile();
+        }
+        spill(spills[partition], key, inputs);
+        return;
+      }
+    }
+    table.accumulate(group, inputs);
+  }
+
+  private boolean isString(int i) {
+    return groupTypes[i] != RecordLayout.INT && groupTypes[i] != RecordLayout.FLOAT;
+  }
+
+  /**
+   * Écrit une ligne dans une partition : les clés numériques (int), les
+   * chaînes (longueur puis octets UTF-8), puis les valeurs à agréger (double).
+   */
+  private void spill(SpillFile spill, int[] key, double[] inputs) {
+    byte[][] bytes = new byte[key.length][];
+    int length = Double.BYTES * inputs.length;
+    for (int i = 0; i < key.length; i++) {
+      if (isString(i)) {
+        bytes[i] = values[i].getBytes(StandardCharsets.UTF_8);
+        length += bytes[i].length;
+      }
+      length += Integer.BYTES;
+    }
+    if (length > row.length) {
+      row = new byte[length];
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(row);
+    for (int i = 0; i < key.length; i++) {
+      if (bytes[i] != null) {
+        buffer.putInt(bytes[i].length);
+        buffer.put(bytes[i]);
+      } else {
+        buffer.putInt(key[i]);
+      }
+    }
+    for (double input : inputs) {
+      buffer.putDouble(input);
+    }
+    spill.append(row, length);
+  }
+
+  private void queue(SpillFile[] spills, int depth) {
+    for (SpillFile spill : spills) {
+      if (spill != null) {
+        partitions.add(spill);
+        depths.add(depth + 1);
+      }
+    }
+  }
+
+  /**
+   * Agrège les lignes d'une partition dans une nouvelle table.
+   */
+  private void loadPartition(SpillFile partition, int depth) {
+    reset();
+    SpillFile[] spills = new SpillFile[PARTITIONS];
+    int[] key = new int[groupColumns.length];
+    double[] inputs = new double[aggColumns.length];
+    SpillFile.Reader reader = partition.read();
+    ByteBuffer buffer;
+    while ((buffer = reader.next()) != null) {
+      for (int i = 0; i < key.length; i++) {
+        if (isString(i)) {
+          byte[] bytes = new byte[buffer.getInt()];
+          buffer.get(bytes);
+          values[i] = new String(bytes, StandardCharsets.UTF_8);
+        } else {
+          key[i] = buffer.getInt();
+        }
+      }
+      for (int j = 0; j < inputs.length; j++) {
+        inputs[j] = buffer.getDouble();
+      }
+      add(key, inputs, depth, spills);
+    }
+    partition.free();
+    queue(spills, depth);
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    while (emitted == table.size()) {
+      if (partitions.isEmpty()) {
+        return null;
+      }
+      loadPartition(partitions.poll(), depths.poll());
+    }
+    return toRecord(emitted++);
+  }
+
+  private Record toRecord(int group) {
+    Record record = new Record(schema);
+    for (int i = 0; i < groupColumns.length; i++) {
+      int key = table.getKey(group, i);
+      if (groupTypes[i] == RecordLayout.INT) {
+        record.setInt(i, key);
+      } else if (groupTypes[i] == RecordLayout.FLOAT) {
+        record.setFloat(i, Float.intBitsToFloat(key));
+      } else {
+        record.setString(i, strings.get(key));
+      }
+    }
+    for (int j = 0; j < functions.length; j++) {
+      int col = groupColumns.length + j;
+      long count = table.getCount(group, j);
+      double value = table.getValue(group, j);
+      if (functions[j] == Aggregate.COUNT) {
+        record.setInt(col, (int) count);
+      } else if (functions[j] == Aggregate.AVG) {
+        record.setFloat(col, count == 0 ? Float.NaN : (float) (value / count));
+      } else if (functions[j] != Aggregate.SUM && aggTypes[j] == RecordLayout.INT) {
+        // MIN et MAX d'une entrée vide valent 0, faute de valeur NULL
+        record.setInt(col, count == 0 ? 0 : (int) value);
+      } else {
+        record.setFloat(col, count == 0 ? (functions[j] == Aggregate.SUM ? 0 : Float.NaN) : (float) value);
+      }
+    }
+    return record;
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    if (partitions != null) {
+      for (SpillFile partition : partitions) {
+        partition.free();
+      }
+      partitions.clear();
+      depths.clear();
+    }
+    table = null;
+    strings = null;
+    values = null;
+    row = null;
+    child.close();
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return List.of(child);
+  }
+
+  @Override
+  public String describe() {
+    List<String> groups = new ArrayList<>();
+    for (int col : groupColumns) {
+      groups.add(child.getSchema().getColInfoList().get(col).getName());
+    }
+    return "HashAggregate " + Arrays.toString(aggregates) + (groups.isEmpty() ? "" : " GROUP BY " + groups);
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return schema;
+  }
+}
@@ -0,0 +1,364 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Opérateur de jointure par hachage sur une ou plusieurs égalités de colonnes.
+ * Une entrée, dite construite (en principe la plus petite), est chargée dans
+ * une table de hachage ; l'autre est ensuite parcourue en flux et chaque
+ * enregistrement est joint aux enregistrements de même clé.
+ * Si l'entrée construite dépasse le nombre maximal d'enregistrements en
+ * mémoire, la jointure devient une grace hash join : les deux entrées sont
+ * partitionnées d'après le hachage de leur clé dans des tables temporaires du
+ * FileManager, puis chaque paire de partitions est jointe à son tour, en se
+ * partageant de nouveau selon d'autres bits du hachage si nécessaire.
+ * Les enregistrements produits contiennent les colonnes de l'entrée gauche
+ * puis celles de l'entrée droite, sous leur nom qualifié (table.colonne). Une
+ * clé numérique peut être comparée à une clé numérique de l'autre type.
+ */
+public class HashJoin implements Operator {
+  private static final int PARTITION_BITS = 3;
+  private static final int PARTITIONS = 1 << PARTITION_BITS;
+  // au-delà, les bits du hachage sont épuisés et la limite est ignorée
+  private static final int MAX_DEPTH = 32 / PARTITION_BITS - 1;
+
+  private final Operator left;
+  private final Operator right;
+  private final boolean buildLeft;
+  private final int maxBuildRows;
+  private final TableInfo schema;
+  private final int[] buildKeys;
+  private final int[] probeKeys;
+  private final int[] buildTypes;
+  private final int[] probeTypes;
+
+  // table de hachage par chaînage, dans des tableaux d'int
+  private List<Record> rows;
+  private int[] hashes;
+  private int[] chains;
+  private int[] heads;
+  private int mask;
+
+  private Operator probeSource; // null quand l'entrée sondée est épuisée
+  private TableInfo probeTable; // partition temporaire en cours de sondage
+  private Record probeRecord;
+  private int probeHash;
+  private int chain = -1;
+  private ArrayDeque<Partition> pending;
+
+  /** Une paire de partitions temporaires qui reste à joindre. */
+  private static class Partition {
+    final TableInfo build;
+    final TableInfo probe;
+    final int depth;
+
+    Partition(TableInfo build, TableInfo probe, int depth) {
+      this.build = build;
+      this.probe = probe;
+      this.depth = depth;
+    }
+  }
+
+  /**
+   * Crée une jointure par hachage.
+   *
+   * @param left         L'entrée gauche.
+   * @param right        L'entrée droite.
+   * @param leftKeys     Les noms qualifiés des colonnes de jointure à gauche.
+   * @param rightKeys    Les colonnes à droite, dans le même ordre.
+   * @param buildLeft    true pour charger l'entrée gauche en mémoire, false
+   *                     pour l'entrée droite.
+   * @param maxBuildRows Le nombre maximal d'enregistrements construits gardés
+   *                     en mémoire.
+   * @throws IllegalArgumentException Si une colonne n'existe pas ou si une clé
+   *                                  compare une chaîne à un nombre.
+   */
+  public HashJoin(Operator left, Operator right, List<String> leftKeys, List<String> rightKeys, boolean buildLeft,
+      int maxBuildRows) {
+    this.left = left;
+    this.right = right;
+    this.buildLeft = buildLeft;
+    this.maxBuildRows = Math.max(1, maxBuildRows);
+    this.schema = JoinPlanner.joinSchema(left.getSchema(), right.getSchema());
+
+    TableInfo buildSchema = (buildLeft ? left : right).getSchema();
+    TableInfo probeSchema = (buildLeft ? right : left).getSchema();
+    List<String> buildNames = buildLeft ? leftKeys : rightKeys;
+    List<String> probeNames = buildLeft ? rightKeys : leftKeys;
+    this.buildKeys = new int[buildNames.size()];
+    this.probeKeys = new int[buildKeys.length];
+    this.buildTypes = new int[buildKeys.length];
+    this.probeTypes = new int[buildKeys.length];
+    for (int i = 0; i < buildKeys.length; i++) {
+      buildKeys[i] = JoinPlanner.columnIndex(buildSchema, buildNames.get(i));
+      probeKeys[i] = JoinPlanner.columnIndex(probeSchema, probeNames.get(i));
+      buildTypes[i] = buildSchema.getLayout().getType(buildKeys[i]);
+      probeTypes[i] = probeSchema.getLayout().getType(probeKeys[i]);
+      if (isNumeric(buildTypes[i]) != isNumeric(probeTypes[i])) {
+        throw new IllegalArgumentException(
+            "Jointure impossible entre " + buildNames.get(i) + " et " + probeNames.get(i) + " : types incompatibles");
+      }
+    }
+  }
+
+  private static boolean isNumeric(int type) {
+    return type == RecordLayout.INT || type == RecordLayout.FLOAT;
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    pending = new ArrayDeque<>();
+    start(buildLeft ? left : right, buildLeft ? right : left, 0);
+  }
+
+  /**
+   * Charge l'entrée construite et prépare le sondage. Si elle ne tient pas en
+   * mémoire, les deux entrées sont entièrement partitionnées et les paires de
+   * partitions sont mises en attente.
+   */
+  private void start(Operator build, Operator probe, int depth) throws IOException, PageNotFoundException {
+    clearTable();
+    TableInfo[] buildParts = null;
+    build.open();
+    Record record;
+    while ((record = build.next()) != null) {
+      if (buildParts != null) {
+        spill(buildParts, record, hash(record, buildKeys, buildTypes), depth);
+        continue;
+      }
+      insert(record);
+      if (rows.size() > maxBuildRows && depth < MAX_DEPTH) {
+        buildParts = createPartitions(build.getSchema());
+        for (int row = 0; row < rows.size(); row++) {
+          spill(buildParts, rows.get(row), hashes[row], depth);
+        }
+        clearTable();
+      }
+    }
+
+    probe.open();
+    if (buildParts == null) {
+      probeSource = probe;
+      return;
+    }
+    TableInfo[] probeParts = createPartitions(probe.getSchema());
+    while ((record = probe.next()) != null) {
+      spill(probeParts, record, hash(record, probeKeys, probeTypes), depth);
+    }
+    for (int p = 0; p < PARTITIONS; p++) {
+      pending.add(new Partition(buildParts[p], probeParts[p], depth + 1));
+    }
+    probeSource = null;
+  }
+
+  private TableInfo[] createPartitions(TableInfo source) throws IOException, PageNotFoundException {
+    FileManager fm = FileManager.getInstance();
+    TableInfo[] partitions = new TableInfo[PARTITIONS];
+    for (int p = 0; p < PARTITIONS; p++) {
+      ArrayList<ColInfo> cols = new ArrayList<>();
+      for (ColInfo col : source.getColInfoList()) {
+        cols.add(new ColInfo(col.getName(), col.getType()));
+      }
+      partitions[p] = new TableInfo(source.getNom_relation(), cols, fm.createNewHeaderPage());
+    }
+    return partitions;
+  }
+
+  private void spill(TableInfo[] partitions, Record record, int hash, int depth)
+      throws IOException, PageNotFoundException {
+    TableInfo partition = partitions[(hash >>> (32 - PARTITION_BITS * (depth + 1))) & (PARTITIONS - 1)];
+    Record copy = new Record(partition);
+    for (int col = 0; col < partition.getNb_colonnes(); col++) {
+      copy.copyValue(col, record, col);
+    }
+    FileManager.getInstance().insertTemporaryRecord(copy);
+  }
+
+  private void clearTable() {
+    rows = new ArrayList<>();
+    hashes = new int[64];
+    chains = new int[64];
+    heads = new int[128];
+    Arrays.fill(heads, -1);
+    mask = heads.length - 1;
+  }
+
+  private void insert(Record record) {
+    int row = rows.size();
+    if (row == hashes.length) {
+      hashes = Arrays.copyOf(hashes, row * 2);
+      chains = Arrays.copyOf(chains, row * 2);
+    }
+    rows.add(record);
+    hashes[row] = hash(record, buildKeys, buildTypes);
+
+    // au plus un enregistrement par tête de chaîne en moyenne, sur deux
+    if (rows.size() * 2 > heads.length) {
+      heads = new int[heads.length * 2];
+      Arrays.fill(heads, -1);
+      mask = heads.length - 1;
+      for (int r = 0; r < row; r++) {
+        link(r);
+      }
+    }
+    link(row);
+  }
+
+  private void link(int row) {
+    int bucket = hashes[row] & mask;
+    chains[row] = heads[bucket];
+    heads[bucket] = row;
+  }
+
+  private static int hash(Record record, int[] keys, int[] types) {
+    int h = 1;
+    for (int i = 0; i < keys.length; i++) {
+      int value;
+      if (isNumeric(types[i])) {
+        double number = numericValue(record, keys[i], types[i]);
+        value = number == 0 ? 0 : Double.hashCode(number);
+      } else {
+        value = record.getString(keys[i]).hashCode();
+      }
+      h = 31 * h + value;
+    }
+    // mélange final de MurmurHash3, pour que les bits de poids fort comptent
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    return h ^ (h >>> 16);
+  }
+
+  private static double numericValue(Record record, int col, int type) {
+    return type == RecordLayout.INT ? record.getInt(col) : record.getFloat(col);
+  }
+
+  private boolean keysEqual(Record build, Record probe) {
+    for (int i = 0; i < buildKeys.length; i++) {
+      if (isNumeric(buildTypes[i])) {
+        if (numericValue(build, buildKeys[i], buildTypes[i]) != numericValue(probe, probeKeys[i], probeTypes[i])) {
+          return false;
+        }
+      } else if (!build.getString(buildKeys[i]).equals(probe.getString(probeKeys[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    while (true) {
+      if (probeRecord != null) {
+        while (chain != -1) {
+          int row = chain;
+          chain = chains[row];
+          Record build = rows.get(row);
+          if (hashes[row] == probeHash && keysEqual(build, probeRecord)) {
+            return buildLeft ? join(build, probeRecord) : join(probeRecord, build);
+          }
+        }
+        probeRecord = null;
+      }
+
+      if (probeSource != null) {
+        probeRecord = probeSource.next();
+        if (probeRecord != null) {
+          probeHash = hash(probeRecord, probeKeys, probeTypes);
+          chain = heads[probeHash & mask];
+          continue;
+        }
+        finishProbe();
+      }
+
+      if (pending.isEmpty()) {
+        return null;
+      }
+      Partition partition = pending.poll();
+      SeqScan build = new SeqScan(partition.build);
+      SeqScan probe = new SeqScan(partition.probe);
+      start(build, probe, partition.depth);
+      build.close();
+      FileManager.getInstance().dropTable(partition.build);
+      probeTable = partition.probe;
+      if (probeSource == null) {
+        probe.close();
+        FileManager.getInstance().dropTable(probeTable);
+        probeTable = null;
+      }
+    }
+  }
+
+  /**
+   * Ferme et supprime la partition temporaire sondée ; l'entrée d'origine reste
+   * ouverte jusqu'à la fermeture de la jointure.
+   */
+  private void finishProbe() throws IOException, PageNotFoundException {
+    if (probeTable != null) {
+      probeSource.close();
+      FileManager.getInstance().dropTable(probeTable);
+      probeTable = null;
+    }
+    probeSource = null;
+  }
+
+  private Record join(Record leftRecord, Record rightRecord) {
+    Record record = new Record(schema);
+    int leftCount = leftRecord.getTabInfo().getNb_colonnes();
+    for (int col = 0; col < leftCount; col++) {
+      record.copyValue(col, leftRecord, col);
+    }
+    for (int col = 0; col < rightRecord.getTabInfo().getNb_colonnes(); col++) {
+      record.copyValue(leftCount + col, rightRecord, col);
+    }
+    return record;
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    try {
+      finishProbe();
+      if (pending != null) {
+        for (Partition partition : pending) {
+          FileManager.getInstance().dropTable(partition.build);
+          FileManager.getInstance().dropTable(partition.probe);
+        }
+        pending.clear();
+      }
+    } catch (IOException e) {
+      throw new PageNotFoundException("Suppression d'une partition temporaire impossible", e);
+    }
+    rows = null;
+    probeRecord = null;
+    left.close();
+    right.close();
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return List.of(left, right);
+  }
+
+  @Override
+  public String describe() {
+    TableInfo buildSchema = (buildLeft ? left : right).getSchema();
+    TableInfo probeSchema = (buildLeft ? right : left).getSchema();
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < buildKeys.length; i++) {
+      String build = JoinPlanner.qualifiedName(buildSchema, buildSchema.getColInfoList().get(buildKeys[i]));
+      String probe = JoinPlanner.qualifiedName(probeSchema, probeSchema.getColInfoList().get(probeKeys[i]));
+      keys.add(buildLeft ? build + " = " + probe : probe + " = " + build);
+    }
+    return "HashJoin " + keys + " (construite à " + (buildLeft ? "gauche" : "droite") + ")";
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return schema;
+  }
+}
@@ -0,0 +1,514 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Plan d'une requête sur plusieurs tables : SELECT ... FROM R, S WHERE
+ * R.a = S.b .... Une colonne s'écrit table.colonne, ou simplement colonne si
+ * une seule des tables la contient ; dans les enregistrements joints, elle
+ * porte toujours son nom qualifié.
+ * La clause WHERE est découpée en conditions reliées par AND : une égalité
+ * entre des colonnes de deux tables devient une clé de jointure, une condition
+ * qui ne porte que sur une table est confiée au parcours de cette table, et
+ * les autres sont évaluées dès que leurs tables sont jointes.
+ * L'ordre des jointures et l'algorithme de chacune (hachage, tri-fusion ou
+ * boucles imbriquées par blocs) sont choisis par programmation dynamique sur
+ * les sous-ensembles de tables, en minimisant un coût estimé en lectures de
+ * pages et en lignes traitées. Les cardinalités viennent des statistiques
+ * d'ANALYZE (TableStatistics) ; sans elles, le nombre de lignes d'une table
+ * est déduit de ses pages et les sélectivités prennent des valeurs par défaut.
+ */
+public class JoinPlanner {
+  static final int HASH_JOIN = 0;
+  static final int SORT_MERGE_JOIN = 1;
+  static final int NESTED_LOOP_JOIN = 2;
+  // coût du traitement d'une ligne, relatif à la lecture d'une page
+  static final double ROW_COST = 0.01;
+  // au-delà, les tables sont jointes dans l'ordre du FROM
+  private static final int MAX_REORDERED_TABLES = 10;
+
+  private static final Pattern EQUALITY = Pattern.compile("\\s*([^\\s=<>!()'\",]+)\\s*=\\s*([^\\s=<>!()'\",]+)\\s*");
+
+  private final List<TableInfo> tables;
+  private final List<List<String>> tableConditions;
+  private final List<String[]> joinConditions; // noms qualifiés des deux colonnes
+  private final List<String> residualConditions;
+  private final List<Set<Integer>> residualTables; // tables de chaque condition restante
+  private final List<Double> residualSelectivities;
+  private final Set<String> residualColumns;
+
+  /**
+   * Analyse la clause WHERE d'une requête sur plusieurs tables.
+   *
+   * @param tables Les tables du FROM, dans l'ordre.
+   * @param where  La clause WHERE, ou null.
+   * @throws IllegalArgumentException Si une table apparaît deux fois, ou si une
+   *                                  condition est mal formée ou porte sur une
+   *                                  colonne inconnue ou ambiguë.
+   */
+  public JoinPlanner(List<TableInfo> tables, String where) {
+    this.tables = tables;
+    this.tableConditions = new ArrayList<>();
+    this.joinConditions = new ArrayList<>();
+    this.residualConditions = new ArrayList<>();
+    this.residualTables = new ArrayList<>();
+    this.residualSelectivities = new ArrayList<>();
+    this.residualColumns = new HashSet<>();
+    Set<String> names = new HashSet<>();
+    for (TableInfo table : tables) {
+      if (!names.add(table.getNom_relation())) {
+        throw new IllegalArgumentException("La table " + table.getNom_relation() + " apparaît deux fois");
+      }
+      tableConditions.add(new ArrayList<>());
+    }
+    if (where != null) {
+      for (String conjunct : PredicateParser.splitConjuncts(where)) {
+        classify(conjunct);
+      }
+    }
+  }
+
+  private void classify(String conjunct) {
+    Matcher matcher = EQUALITY.matcher(conjunct);
+    if (matcher.matches()) {
+      String leftName = findColumn(matcher.group(1));
+      String rightName = findColumn(matcher.group(2));
+      if (leftName != null && rightName != null && tableOf(leftName) != tableOf(rightName)) {
+        joinConditions.add(new String[] { leftName, rightName });
+        return;
+      }
+    }
+
+    // compilée une première fois sur toutes les colonnes, pour trouver ses tables
+    TableInfo all = tables.get(0);
+    for (int i = 1; i < tables.size(); i++) {
+      all = joinSchema(all, tables.get(i));
+    }
+    List<String> columns = new ArrayList<>();
+    Predicate compiled = PredicateParser.parse(conjunct, all, name -> {
+      String qualified = qualify(name);
+      columns.add(qualified);
+      return qualified;
+    });
+    Set<Integer> used = new HashSet<>();
+    for (String column : columns) {
+      used.add(tableOf(column));
+    }
+    if (used.size() == 1) {
+      tableConditions.get(used.iterator().next()).add(conjunct);
+    } else {
+      residualConditions.add(conjunct);
+      residualTables.add(used);
+      residualSelectivities.add(compiled.selectivity(null));
+      residualColumns.addAll(columns);
+    }
+  }
+
+  /**
+   * Obtient le nom qualifié d'une colonne écrite dans la requête.
+   *
+   * @param name Le nom, qualifié (table.colonne) ou non.
+   * @return Le nom qualifié.
+   * @throws IllegalArgumentException Si la colonne n'existe pas, ou si elle
+   *                                  n'est pas qualifiée et que plusieurs
+   *                                  tables la contiennent.
+   */
+  public String qualify(String name) {
+    String qualified = findColumn(name);
+    if (qualified == null) {
+      throw new IllegalArgumentException("Colonne inconnue : " + name);
+    }
+    return qualified;
+  }
+
+  private String findColumn(String name) {
+    int dot = name.indexOf('.');
+    String found = null;
+    for (TableInfo table : tables) {
+      String column = name;
+      if (dot != -1) {
+        if (!name.substring(0, dot).equals(table.getNom_relation())) {
+          continue;
+        }
+        column = name.substring(dot + 1);
+      }
+      if (table.getLayout().getColumnIndex(column) >= 0) {
+        if (found != null) {
+          throw new IllegalArgumentException("Colonne ambiguë : " + name);
+        }
+        found = table.getNom_relation() + "." + column;
+      }
+    }
+    return found;
+  }
+
+  private int tableOf(String qualified) {
+    String table = qualified.substring(0, qualified.indexOf('.'));
+    for (int i = 0; i < tables.size(); i++) {
+      if (tables.get(i).getNom_relation().equals(table)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Construit le plan des jointures : un parcours filtré par table, puis une
+   * jointure par table ajoutée, dans l'ordre et avec les algorithmes de plus
+   * faible coût estimé. Une jointure par hachage charge en mémoire l'entrée la
+   * plus petite ; une jointure par boucles imbriquées épingle par blocs les
+   * pages de la table ajoutée, ou de la première table, et ré-exécute l'autre
+   * entrée pour chaque bloc. Les colonnes sont rendues dans l'ordre du FROM.
+   *
+   * @param outputColumns Les noms qualifiés des colonnes utilisées au-dessus
+   *                      des jointures, ou null pour toutes.
+   * @return La racine du plan.
+   * @throws IOException           En cas d'erreur lors de la lecture des
+   *                               répertoires de pages.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée.
+   */
+  public Operator buildPlan(Collection<String> outputColumns) throws IOException, PageNotFoundException {
+    return buildPlan(outputColumns, UnaryOperator.identity());
+  }
+
+  /**
+   * Construit le plan des jointures en passant chaque opérateur créé à une
+   * fonction, qui peut l'envelopper (EXPLAIN ANALYZE).
+   *
+   * @param outputColumns Les noms qualifiés des colonnes utilisées au-dessus
+   *                      des jointures, ou null pour toutes.
+   * @param wrap          Appliquée à chaque opérateur, fils compris.
+   * @return La racine du plan.
+   * @throws IOException           En cas d'erreur lors de la lecture des
+   *                               répertoires de pages.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée.
+   */
+  public Operator buildPlan(Collection<String> outputColumns, UnaryOperator<Operator> wrap)
+      throws IOException, PageNotFoundException {
+    int count = tables.size();
+    Predicate[] predicates = new Predicate[count];
+    Projection[] projections = new Projection[count];
+    for (int i = 0; i < count; i++) {
+      TableInfo table = tables.get(i);
+      String prefix = table.getNom_relation() + ".";
+      if (!tableConditions.get(i).isEmpty()) {
+        predicates[i] = PredicateParser.parse(String.join(" AND ", tableConditions.get(i)), table,
+            name -> qualify(name).substring(prefix.length()));
+      }
+      if (outputColumns != null) {
+        List<String> columns = new ArrayList<>();
+        for (ColInfo col : table.getColInfoList()) {
+          String qualified = prefix + col.getName();
+          if (outputColumns.contains(qualified) || residualColumns.contains(qualified) || isJoinColumn(qualified)) {
+            columns.add(col.getName());
+          }
+        }
+        projections[i] = new Projection(table, columns);
+      }
+    }
+    int[][] steps = chooseJoins(predicates);
+
+    List<String> remaining = new ArrayList<>(residualConditions);
+    List<Set<Integer>> remainingTables = new ArrayList<>(residualTables);
+    Operator plan = null;
+    Set<Integer> joined = new HashSet<>();
+    for (int[] step : steps) {
+      int t = step[0];
+      Operator scan = wrap.apply(SelectCommand.buildScan(tables.get(t), predicates[t], projections[t]));
+      if (plan == null) {
+        plan = scan;
+        joined.add(t);
+        continue;
+      }
+
+      List<String> leftKeys = new ArrayList<>();
+      List<String> rightKeys = new ArrayList<>();
+      for (String[] condition : joinConditions) {
+        if (tableOf(condition[1]) == t && joined.contains(tableOf(condition[0]))) {
+          leftKeys.add(condition[0]);
+          rightKeys.add(condition[1]);
+        } else if (tableOf(condition[0]) == t && joined.contains(tableOf(condition[1]))) {
+          leftKeys.add(condition[1]);
+          rightKeys.add(condition[0]);
+        }
+      }
+      joined.add(t);
+      // conditions restantes dont toutes les tables sont maintenant jointes
+      List<String> theta = new ArrayList<>();
+      for (int c = 0; c < remaining.size(); c++) {
+        if (joined.containsAll(remainingTables.get(c))) {
+          theta.add(remaining.remove(c));
+          remainingTables.remove(c--);
+        }
+      }
+
+      if (step[1] == NESTED_LOOP_JOIN) {
+        for (int k = 0; k < leftKeys.size(); k++) {
+          theta.add(leftKeys.get(k) + " = " + rightKeys.get(k));
+        }
+        // la première table sert de relation externe, la table ajoutée est l'entrée interne
+        boolean outerIsLeft = step[2] == 1;
+        int outer = outerIsLeft ? steps[0][0] : t;
+        Operator inner = outerIsLeft ? scan : plan;
+        TableInfo outerSchema = projections[outer] != null ? projections[outer].getSchema() : tables.get(outer);
+        Predicate condition = null;
+        if (!theta.isEmpty()) {
+          TableInfo schema = outerIsLeft ? joinSchema(outerSchema, inner.getSchema())
+              : joinSchema(inner.getSchema(), outerSchema);
+          condition = PredicateParser.parse("(" + String.join(") AND (", theta) + ")", schema, this::qualify);
+        }
+        plan = wrap.apply(new BlockNestedLoopJoin(tables.get(outer), predicates[outer], projections[outer], inner,
+            outerIsLeft, condition));
+        continue;
+      }
+      if (step[1] == HASH_JOIN) {
+        plan = wrap.apply(new HashJoin(plan, scan, leftKeys, rightKeys, step[2] == 1, DBParams.JoinMaxBuildRows));
+      } else {
+        plan = wrap.apply(new SortMergeJoin(plan, scan, leftKeys, rightKeys));
+      }
+      if (!theta.isEmpty()) {
+        String where = "(" + String.join(") AND (", theta) + ")";
+        plan = wrap.apply(new Filter(plan, PredicateParser.parse(where, plan.getSchema(), this::qualify)));
+      }
+    }
+
+    // les colonnes jointes dans un autre ordre sont remises dans celui du FROM
+    List<String> produced = new ArrayList<>();
+    for (ColInfo col : plan.getSchema().getColInfoList()) {
+      produced.add(col.getName());
+    }
+    List<String> expected = new ArrayList<>();
+    for (TableInfo table : tables) {
+      for (String name : produced) {
+        if (name.startsWith(table.getNom_relation() + ".")) {
+          expected.add(name);
+        }
+      }
+    }
+    return produced.equals(expected) ? plan : wrap.apply(new Project(plan, expected));
+  }
+
+  /**
+   * Choisit l'ordre des jointures et leur algorithme. Pour chaque sous-ensemble
+   * de tables, le plan gauche-profond le moins coûteux est obtenu en ajoutant
+   * une table au meilleur plan d'un sous-ensemble plus petit.
+   *
+   * @param predicates Le prédicat confié au parcours de chaque table, ou null.
+   * @return Une étape par table dans l'ordre des jointures : l'index de la
+   *         table, l'algorithme (HASH_JOIN, SORT_MERGE_JOIN ou
+   *         NESTED_LOOP_JOIN, ignoré pour la première) et une option (1 pour
+   *         construire la table de hachage à gauche, ou pour prendre la
+   *         première table comme relation externe).
+   */
+  private int[][] chooseJoins(Predicate[] predicates) throws IOException, PageNotFoundException {
+    int count = tables.size();
+    FileManager fm = FileManager.getInstance();
+    double[] pages = new double[count]; // pages lues après les zone maps
+    double[] scanned = new double[count]; // lignes de ces pages
+    double[] rows = new double[count]; // lignes retenues par le prédicat
+    double[] widths = new double[count]; // octets par ligne
+    for (int i = 0; i < count; i++) {
+      TableInfo table = tables.get(i);
+      TableStatistics stats = table.getStatistics();
+      pages[i] = fm.getDataPages(table, predicates[i]).size();
+      double totalPages = predicates[i] == null ? pages[i] : fm.getDataPages(table).size();
+      double rowsPerPage = stats != null && stats.getPageCount() > 0
+          ? (double) stats.getRowCount() / stats.getPageCount()
+          : (double) DBParams.SGBDPageSize / table.getLayout().getMaxRecordSize();
+      scanned[i] = pages[i] * rowsPerPage;
+      double selectivity = predicates[i] == null ? 1 : predicates[i].selectivity(stats);
+      rows[i] = Math.max(1, Math.min(scanned[i], totalPages * rowsPerPage * selectivity));
+      widths[i] = DBParams.SGBDPageSize / Math.max(1, rowsPerPage);
+    }
+
+    int full = (1 << count) - 1;
+    double[] cost = new double[full + 1];
+    double[] card = new double[full + 1];
+    double[] width = new double[full + 1];
+    int[] last = new int[full + 1];
+    int[] method = new int[full + 1];
+    int[] option = new int[full + 1];
+    Arrays.fill(cost, Double.POSITIVE_INFINITY);
+    for (int i = 0; i < count; i++) {
+      int set = 1 << i;
+      cost[set] = pages[i] + ROW_COST * scanned[i];
+      card[set] = rows[i];
+      width[set] = widths[i];
+      last[set] = i;
+    }
+    int blockPages = Math.max(1, DBParams.FrameCount - 2);
+    boolean reorder = count <= MAX_REORDERED_TABLES;
+    for (int set = 1; set < full; set++) {
+      if (cost[set] == Double.POSITIVE_INFINITY) {
+        continue;
+      }
+      for (int t = 0; t < count; t++) {
+        if ((set & (1 << t)) != 0 || (!reorder && t != Integer.bitCount(set))) {
+          continue;
+        }
+        int next = set | (1 << t);
+        boolean hasKeys = false;
+        double out = card[set] * rows[t];
+        for (String[] condition : joinConditions) {
+          int a = tableOf(condition[0]);
+          int b = tableOf(condition[1]);
+          if ((a == t && (set & (1 << b)) != 0) || (b == t && (set & (1 << a)) != 0)) {
+            hasKeys = true;
+            out /= Math.max(distinct(condition[0], rows), distinct(condition[1], rows));
+          }
+        }
+        for (int c = 0; c < residualTables.size(); c++) {
+          Set<Integer> used = residualTables.get(c);
+          if (used.contains(t) && used.stream().allMatch(u -> (next & (1 << u)) != 0)) {
+            out *= residualSelectivities.get(c);
+          }
+        }
+        out = Math.max(1, out);
+        double scanCost = pages[t] + ROW_COST * scanned[t];
+        double leftPages = Math.max(1, card[set] * width[set] / DBParams.SGBDPageSize);
+        double rightPages = Math.max(1, rows[t] * widths[t] / DBParams.SGBDPageSize);
+
+        // boucles imbriquées, la table ajoutée étant la relation externe
+        double best = cost[set] * Math.ceil(pages[t] / blockPages) + scanCost + ROW_COST * card[set] * rows[t];
+        int bestMethod = NESTED_LOOP_JOIN;
+        int bestOption = 0;
+        if (Integer.bitCount(set) == 1) {
+          int s = last[set];
+          double swapped = cost[set] + Math.ceil(pages[s] / blockPages) * scanCost + ROW_COST * card[set] * rows[t];
+          if (swapped < best) {
+            best = swapped;
+            bestOption = 1;
+          }
+        }
+        if (hasKeys) {
+          double build = Math.min(card[set], rows[t]);
+          double hash = cost[set] + scanCost + ROW_COST * (card[set] + rows[t] + out)
+              + (build > DBParams.JoinMaxBuildRows ? 2 * (leftPages + rightPages) : 0);
+          if (hash <= best) {
+            best = hash;
+            bestMethod = HASH_JOIN;
+            bestOption = card[set] <= rows[t] ? 1 : 0;
+          }
+          double merge = cost[set] + scanCost + sortCost(card[set], leftPages) + sortCost(rows[t], rightPages)
+              + ROW_COST * out;
+          if (merge < best) {
+            best = merge;
+            bestMethod = SORT_MERGE_JOIN;
+            bestOption = 0;
+          }
+        }
+        if (best < cost[next]) {
+          cost[next] = best;
+          card[next] = out;
+          width[next] = width[set] + widths[t];
+          last[next] = t;
+          method[next] = bestMethod;
+          option[next] = bestOption;
+        }
+      }
+    }
+
+    int[][] steps = new int[count][];
+    int set = full;
+    for (int k = count - 1; k >= 0; k--) {
+      int t = last[set];
+      steps[k] = new int[] { t, method[set], option[set] };
+      set &= ~(1 << t);
+    }
+    return steps;
+  }
+
+  /**
+   * Estime le nombre de valeurs distinctes d'une colonne parmi les lignes
+   * retenues de sa table ; sans statistiques, la colonne est supposée être
+   * une clé.
+   */
+  private double distinct(String qualified, double[] rows) {
+    int t = tableOf(qualified);
+    TableInfo table = tables.get(t);
+    TableStatistics stats = table.getStatistics();
+    if (stats == null) {
+      return rows[t];
+    }
+    int col = table.getLayout().getColumnIndex(qualified.substring(qualified.indexOf('.') + 1));
+    return Math.max(1, Math.min(rows[t], stats.getColumn(col).getDistinctCount()));
+  }
+
+  private static double sortCost(double rows, double pages) {
+    double cost = ROW_COST * rows * Math.log(Math.max(2, rows)) / Math.log(2);
+    int memory = Math.max(3, DBParams.SortMemoryPages);
+    if (pages > memory) {
+      // écriture et relecture des runs, à chaque passe de fusion
+      double runs = Math.ceil(pages / memory);
+      double passes = Math.max(1, Math.ceil(Math.log(runs) / Math.log(memory - 1)));
+      cost += 2 * pages * passes;
+    }
+    return cost;
+  }
+
+  private boolean isJoinColumn(String qualified) {
+    for (String[] condition : joinConditions) {
+      if (condition[0].equals(qualified) || condition[1].equals(qualified)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Obtient le nom qualifié (table.colonne) d'une colonne d'un schéma. Les
+   * colonnes d'un schéma déjà joint sont qualifiées.
+   *
+   * @param schema Le schéma.
+   * @param col    La colonne.
+   * @return Le nom qualifié.
+   */
+  static String qualifiedName(TableInfo schema, ColInfo col) {
+    return col.getName().contains(".") ? col.getName() : schema.getNom_relation() + "." + col.getName();
+  }
+
+  /**
+   * Construit le schéma des enregistrements joints : les colonnes de gauche puis
+   * celles de droite, sous leur nom qualifié.
+   *
+   * @param left  Le schéma de l'entrée gauche.
+   * @param right Le schéma de l'entrée droite.
+   * @return Le schéma joint, sans page d'en-tête.
+   */
+  static TableInfo joinSchema(TableInfo left, TableInfo right) {
+    ArrayList<ColInfo> cols = new ArrayList<>();
+    for (TableInfo schema : List.of(left, right)) {
+      for (ColInfo col : schema.getColInfoList()) {
+        cols.add(new ColInfo(qualifiedName(schema, col), col.getType()));
+      }
+    }
+    return new TableInfo(left.getNom_relation() + "," + right.getNom_relation(), cols, null);
+  }
+
+  /**
+   * Cherche une colonne d'un schéma par son nom qualifié.
+   *
+   * @param schema    Le schéma.
+   * @param qualified Le nom qualifié de la colonne.
+   * @return L'index de la colonne.
+   * @throws IllegalArgumentException Si le schéma n'a pas cette colonne.
+   */
+  static int columnIndex(TableInfo schema, String qualified) {
+    List<ColInfo> cols = schema.getColInfoList();
+    for (int i = 0; i < cols.size(); i++) {
+      if (qualifiedName(schema, cols.get(i)).equals(qualified)) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("Colonne inconnue : " + qualified);
+  }
+}
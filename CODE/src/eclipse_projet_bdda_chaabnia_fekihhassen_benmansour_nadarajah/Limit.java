@@ -0,0 +1,78 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Opérateur qui ne renvoie que les premiers enregistrements de son fils. Le
+ * fils est fermé dès que la limite est atteinte : le parcours s'arrête et
+ * libère ses pages épinglées sans attendre la fin de la requête.
+ */
+public class Limit implements Operator {
+  private final Operator child;
+  private final int limit;
+  private int count;
+  private boolean childOpen;
+
+  /**
+   * Crée une limite au-dessus d'un opérateur.
+   *
+   * @param child L'opérateur qui produit les enregistrements.
+   * @param limit Le nombre maximal d'enregistrements à renvoyer.
+   */
+  public Limit(Operator child, int limit) {
+    this.child = child;
+    this.limit = limit;
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    count = 0;
+    child.open();
+    childOpen = true;
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    if (count >= limit) {
+      closeChild();
+      return null;
+    }
+    Record record = child.next();
+    if (record != null) {
+      count++;
+      if (count >= limit) {
+        // l'enregistrement renvoyé ne dépend plus des pages du fils
+        closeChild();
+      }
+    }
+    return record;
+  }
+
+  private void closeChild() throws PageNotFoundException {
+    if (childOpen) {
+      childOpen = false;
+      child.close();
+    }
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    closeChild();
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return List.of(child);
+  }
+
+  @Override
+  public String describe() {
+    return "Limit " + limit;
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return child.getSchema();
+  }
+}
@@ -0,0 +1,104 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Arbre des perdants d'une fusion à k voies : chaque noeud interne garde la
+ * source qui a perdu le match à ce niveau, la racine celle qui l'a gagné. Après
+ * chaque enregistrement produit, seul le chemin de la source gagnante jusqu'à
+ * la racine est rejoué, soit log2(k) comparaisons.
+ * À égalité, la source de plus petit index gagne, ce qui rend la fusion
+ * stable.
+ */
+class LoserTree {
+  /** Une suite triée d'enregistrements à fusionner. */
+  interface Source {
+    /**
+     * Renvoie l'enregistrement suivant de la source.
+     *
+     * @return L'enregistrement, ou null à la fin de la source.
+     * @throws IOException           En cas d'erreur lors de l'accès au disque.
+     * @throws PageNotFoundException Si une page n'a pas été trouvée.
+     */
+    Record next() throws IOException, PageNotFoundException;
+  }
+
+  private static final int SMALLEST = -1; // source fictive, sert à construire l'arbre
+
+  private final Source[] sources;
+  private final Record[] heads;
+  private final int[] tree;
+  private final Comparator<Record> comparator;
+
+  /**
+   * Construit l'arbre en lisant le premier enregistrement de chaque source.
+   *
+   * @param sources    Les sources, chacune triée selon le comparateur.
+   * @param comparator L'ordre de la fusion.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée.
+   */
+  LoserTree(List<Source> sources, Comparator<Record> comparator) throws IOException, PageNotFoundException {
+    this.sources = sources.toArray(new Source[0]);
+    this.comparator = comparator;
+    this.heads = new Record[this.sources.length];
+    this.tree = new int[Math.max(1, this.sources.length)];
+    for (int i = 0; i < heads.length; i++) {
+      heads[i] = this.sources[i].next();
+    }
+    Arrays.fill(tree, SMALLEST);
+    for (int i = heads.length - 1; i >= 0; i--) {
+      adjust(i);
+    }
+  }
+
+  private boolean wins(int a, int b) {
+    if (a == SMALLEST || b == SMALLEST) {
+      return a == SMALLEST;
+    }
+    if (heads[a] == null || heads[b] == null) {
+      return heads[b] == null && heads[a] != null;
+    }
+    int c = comparator.compare(heads[a], heads[b]);
+    return c < 0 || (c == 0 && a < b);
+  }
+
+  /**
+   * Rejoue les matchs d'une source jusqu'à la racine.
+   */
+  private void adjust(int source) {
+    int winner = source;
+    for (int node = (source + heads.length) / 2; node > 0; node /= 2) {
+      if (wins(tree[node], winner)) {
+        int loser = winner;
+        winner = tree[node];
+        tree[node] = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  /**
+   * Renvoie le plus petit enregistrement qui reste dans les sources.
+   *
+   * @return L'enregistrement, ou null quand toutes les sources sont épuisées.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée.
+   */
+  Record next() throws IOException, PageNotFoundException {
+    if (heads.length == 0) {
+      return null;
+    }
+    int winner = tree[0];
+    Record record = heads[winner];
+    if (record == null) {
+      return null;
+    }
+    heads[winner] = sources[winner].next();
+    adjust(winner);
+    return record;
+  }
+}
@@ -13,6 +13,8 @@ public class Main {
 		DBParams.SGBDPageSize = 4096;
 		DBParams.DMFileCount = 4;
 		DBParams.FrameCount = 2;
+		DBParams.ScanParallelism = Runtime.getRuntime().availableProcessors();
+		DBParams.VectorizedExecution = true;
 
 		// Call the init method
 		DataBaseManager dbManager = DataBaseManager.getInstance();
@@ -23,7 +25,10 @@ public class Main {
 		String upperCaseCommand;
 		String[] commands = { "HELP", "EXIT", "CREATE RELATION <Relation> (c1:type,c2:type,...)", "RESETDB",
 				"INSERT INTO <Relation> VALUES (val1,val2)",
-				"SELECT * FROM <RELATION>", };
+				"SELECT * | c1,AGG(c2),... FROM <Relation> [WHERE <conditions>] [GROUP BY c1,...] [ORDER BY c1 [DESC],...] [LIMIT n] [INTO CSV|BINARY <fichier>]",
+				"DELETE FROM <Relation> WHERE <conditions>",
+				"UPDATE <Relation> SET c1=val1,c2=val2 WHERE <conditions>", "VACUUM [<Relation>]",
+				"ANALYZE [<Relation>]", "EXPLAIN [ANALYZE] SELECT ...", };
 
 		do {
 			System.out.println("Bonjour, Veuillez saisir une commande ?\n(HELP pour l'aide et EXIT pour quitter)\n");
@@ -0,0 +1,72 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+
+/**
+ * Fait le lien entre un plan vectorisé et les opérateurs ligne par ligne : les
+ * lignes sélectionnées de chaque lot sont transformées en Record, dans l'ordre,
+ * au moment où elles sont demandées, avec les seules colonnes de la projection.
+ */
+public class Materialize implements Operator {
+  private final BatchOperator child;
+  private final Projection projection;
+  private ColumnBatch batch;
+  private int position;
+
+  /**
+   * Crée l'opérateur au-dessus d'un plan vectorisé.
+   *
+   * @param child L'opérateur qui produit les lots.
+   */
+  public Materialize(BatchOperator child) {
+    this(child, null);
+  }
+
+  /**
+   * Crée l'opérateur au-dessus d'un plan vectorisé, en ne gardant que certaines
+   * colonnes.
+   *
+   * @param child      L'opérateur qui produit les lots.
+   * @param projection Les colonnes à produire, ou null pour toutes.
+   */
+  public Materialize(BatchOperator child, Projection projection) {
+    this.child = child;
+    this.projection = projection;
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    child.open();
+    batch = null;
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    while (batch == null || position >= batch.getSelectedCount()) {
+      batch = child.nextBatch();
+      if (batch == null) {
+        return null;
+      }
+      position = 0;
+    }
+    int row = batch.getSelection()[position++];
+    return projection == null ? batch.toRecord(row) : projection.project(batch, row);
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    batch = null;
+    child.close();
+  }
+
+  @Override
+  public String describe() {
+    return "Materialize(" + child.describe() + ")"
+        + (projection != null ? " " + Operator.columnList(projection.getSchema()) : "");
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return projection == null ? child.getSchema() : projection.getSchema();
+  }
+}
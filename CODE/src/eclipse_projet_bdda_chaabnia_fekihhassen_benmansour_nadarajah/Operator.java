@@ -0,0 +1,78 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Un opérateur physique d'un plan d'exécution, sur le modèle itérateur
+ * (open/next/close) : chaque appel à next tire un seul enregistrement de
+ * l'opérateur fils, si bien qu'une requête s'exécute en flux avec une mémoire
+ * bornée. Les enregistrements renvoyés suivent le schéma donné par getSchema.
+ */
+public interface Operator {
+
+  /**
+   * Prépare l'opérateur et ses fils avant le premier appel à next.
+   *
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si une page n'a pas pu être trouvée.
+   */
+  void open() throws IOException, PageNotFoundException;
+
+  /**
+   * Obtient le prochain enregistrement produit par l'opérateur.
+   *
+   * @return Le prochain enregistrement, ou null s'il n'y en a plus.
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si une page n'a pas pu être trouvée.
+   */
+  Record next() throws IOException, PageNotFoundException;
+
+  /**
+   * Libère les ressources de l'opérateur et de ses fils, en particulier les
+   * pages encore épinglées. Peut être appelé avant la fin du flux.
+   *
+   * @throws PageNotFoundException Si une page n'a pas pu être trouvée.
+   */
+  void close() throws PageNotFoundException;
+
+  /**
+   * Obtient le schéma des enregistrements produits par l'opérateur.
+   *
+   * @return Les informations de table décrivant les colonnes produites.
+   */
+  TableInfo getSchema();
+
+  /**
+   * Obtient les opérateurs fils, pour afficher le plan (EXPLAIN).
+   *
+   * @return Les fils, de gauche à droite ; aucun pour un parcours.
+   */
+  default List<Operator> getChildren() {
+    return List.of();
+  }
+
+  /**
+   * Décrit l'opérateur sur une ligne, pour afficher le plan (EXPLAIN).
+   *
+   * @return La description de l'opérateur.
+   */
+  default String describe() {
+    return getClass().getSimpleName();
+  }
+
+  /**
+   * Écrit la liste des colonnes d'un schéma, pour une description.
+   *
+   * @param schema Le schéma.
+   * @return Les noms des colonnes, entre crochets.
+   */
+  static String columnList(TableInfo schema) {
+    List<String> names = new ArrayList<>();
+    for (ColInfo col : schema.getColInfoList()) {
+      names.add(col.getName());
+    }
+    return names.toString();
+  }
+}
@@ -0,0 +1,165 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opérations sur les chaînes de pages de débordement. Une valeur VARSTRING trop
+ * grande pour rester dans sa page de données n'y garde qu'un préfixe et un
+ * pointeur (longueur totale, fileIdx, pageIdx) ; la suite de ses octets est
+ * rangée dans des pages allouées par le DiskManager et chaînées entre elles.
+ * Disposition d'une page de débordement : fileIdx puis pageIdx de la page
+ * suivante (-1 s'il n'y en a pas), nombre d'octets utilisés dans la page, puis
+ * les octets de la valeur.
+ * Dans la table d'offsets de l'enregistrement, le début d'une valeur débordée
+ * porte l'indicateur OVERFLOW_FLAG.
+ */
+public class OverflowPages {
+  static final int HEADER_SIZE = 12;
+  static final int OVERFLOW_FLAG = 0x40000000;
+  static final int PREFIX_LENGTH = 16;
+  static final int POINTER_SIZE = 12;
+
+  private OverflowPages() {
+  }
+
+  /**
+   * Calcule la longueur du préfixe gardé dans la page de données, sans couper
+   * de caractère UTF-8.
+   *
+   * @param bytes Les octets de la valeur.
+   * @return La longueur du préfixe.
+   */
+  static int getPrefixLength(byte[] bytes) {
+    int length = Math.min(PREFIX_LENGTH, bytes.length);
+    while (length > 0 && length < bytes.length && (bytes[length] & 0xC0) == 0x80) {
+      length--;
+    }
+    return length;
+  }
+
+  /**
+   * Écrit la fin d'une valeur dans une nouvelle chaîne de pages de débordement.
+   *
+   * @param bytes Les octets de la valeur.
+   * @param from  La position du premier octet à écrire.
+   * @return La première page de la chaîne.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée dans le
+   *                               gestionnaire de tampons.
+   */
+  static PageId write(byte[] bytes, int from) throws IOException, PageNotFoundException {
+    BufferManager bm = BufferManager.getInstance();
+    DiskManager dm = DiskManager.getInstance();
+    int chunkSize = DBParams.SGBDPageSize - HEADER_SIZE;
+
+    PageId firstPageId = dm.allocatePage();
+    PageId pageId = firstPageId;
+    int position = from;
+    do {
+      int length = Math.min(chunkSize, bytes.length - position);
+      PageId nextPageId = position + length < bytes.length ? dm.allocatePage() : null;
+
+      ByteBuffer page = bm.getPage(pageId);
+      if (page == null) {
+        throw new PageNotFoundException("Page de débordement introuvable : " + pageId);
+      }
+      page.putInt(0, nextPageId == null ? -1 : nextPageId.getFileIdx());
+      page.putInt(4, nextPageId == null ? -1 : nextPageId.getPageIdx());
+      page.putInt(8, length);
+      System.arraycopy(bytes, position, page.array(), HEADER_SIZE, length);
+      bm.freePage(pageId, 1);
+
+      position += length;
+      pageId = nextPageId;
+    } while (pageId != null);
+
+    return firstPageId;
+  }
+
+  /**
+   * Lit une chaîne de pages de débordement à la suite d'un préfixe.
+   *
+   * @param firstPageId La première page de la chaîne.
+   * @param dest        Le tableau qui reçoit la valeur complète.
+   * @param from        La position à partir de laquelle écrire dans dest.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée dans le
+   *                               gestionnaire de tampons.
+   */
+  static void read(PageId firstPageId, byte[] dest, int from) throws IOException, PageNotFoundException {
+    BufferManager bm = BufferManager.getInstance();
+    PageId pageId = firstPageId;
+    int position = from;
+    while (pageId != null && position < dest.length) {
+      ByteBuffer page = bm.getPage(pageId);
+      if (page == null) {
+        throw new PageNotFoundException("Page de débordement introuvable : " + pageId);
+      }
+      int length = Math.min(page.getInt(8), dest.length - position);
+      System.arraycopy(page.array(), HEADER_SIZE, dest, position, length);
+      PageId nextPageId = getNextPage(page);
+      bm.freePage(pageId, 0);
+
+      position += length;
+      pageId = nextPageId;
+    }
+    if (position < dest.length) {
+      throw new IOException("Chaîne de débordement tronquée à partir de " + firstPageId);
+    }
+  }
+
+  /**
+   * Rend au DiskManager toutes les pages d'une chaîne de débordement.
+   *
+   * @param firstPageId La première page de la chaîne.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée dans le
+   *                               gestionnaire de tampons.
+   */
+  static void free(PageId firstPageId) throws PageNotFoundException {
+    BufferManager bm = BufferManager.getInstance();
+    DiskManager dm = DiskManager.getInstance();
+    PageId pageId = firstPageId;
+    while (pageId != null) {
+      ByteBuffer page = bm.getPage(pageId);
+      if (page == null) {
+        throw new PageNotFoundException("Page de débordement introuvable : " + pageId);
+      }
+      PageId nextPageId = getNextPage(page);
+      bm.freePage(pageId, 0);
+      bm.discardPage(pageId);
+      dm.deallocatePage(pageId);
+      pageId = nextPageId;
+    }
+  }
+
+  /**
+   * Trouve les chaînes de débordement référencées par un enregistrement NSM.
+   *
+   * @param layout La disposition des colonnes de la table.
+   * @param buff   Le tableau d'octets de la page.
+   * @param pos    Le début de l'enregistrement.
+   * @return La première page de chaque chaîne.
+   */
+  static List<PageId> findChains(RecordLayout layout, byte[] buff, int pos) {
+    List<PageId> chains = new ArrayList<>();
+    for (int i = 0; i < layout.getColumnCount(); i++) {
+      if (layout.getType(i) != RecordLayout.VARSTRING) {
+        continue;
+      }
+      int entry = pos + layout.getOffset(i);
+      if ((Record.getInt(buff, entry) & OVERFLOW_FLAG) != 0) {
+        int end = pos + (Record.getInt(buff, entry + Integer.BYTES) & ~OVERFLOW_FLAG);
+        chains.add(new PageId(Record.getInt(buff, end - 8), Record.getInt(buff, end - 4)));
+      }
+    }
+    return chains;
+  }
+
+  private static PageId getNextPage(ByteBuffer page) {
+    int fileIdx = page.getInt(0);
+    return fileIdx == -1 ? null : new PageId(fileIdx, page.getInt(4));
+  }
+}
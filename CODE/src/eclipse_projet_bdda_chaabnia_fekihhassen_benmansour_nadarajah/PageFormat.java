@@ -0,0 +1,11 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+/**
+ * Format de stockage des pages de données d'une table.
+ */
+public enum PageFormat {
+  // enregistrements rangés les uns après les autres (format par défaut)
+  NSM,
+  // une mini-page par colonne, pour les tables analytiques
+  PAX
+}
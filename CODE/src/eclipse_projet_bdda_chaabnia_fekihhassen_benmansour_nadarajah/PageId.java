@@ -49,4 +49,28 @@ public class PageId {
     public String toString() {
         return "PageId{" + "File Id=" + fileId + ", Numero de page=" + pageId + '}';
     }
+
+    /**
+     * Deux identifiants de page sont égaux s'ils désignent le même fichier et le
+     * même numéro de page.
+     *
+     * @param o L'objet à comparer.
+     * @return true si les deux identifiants désignent la même page.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageId)) {
+            return false;
+        }
+        PageId other = (PageId) o;
+        return fileId == other.fileId && pageId == other.pageId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * fileId + pageId;
+    }
 }
@@ -0,0 +1,95 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Opérateur de parcours parallèle d'une table. Les pages sont traitées par
+ * lots de quelques pages par thread : chaque lot est parcouru et filtré par un
+ * ParallelTableScan, puis ses enregistrements sont renvoyés un à un, dans
+ * l'ordre des pages. La mémoire utilisée reste bornée par la taille d'un lot.
+ */
+public class ParallelSeqScan implements Operator {
+  private static final int PAGES_PER_THREAD = 4;
+
+  private final TableInfo tabInfo;
+  private final Predicate predicate;
+  private final Projection projection;
+  private final int parallelism;
+  private List<PageId> dataPageIds;
+  private int nextPageIndex;
+  private Iterator<Record> batch;
+
+  /**
+   * Crée un parcours parallèle de la table.
+   *
+   * @param tabInfo     Les informations de la table à parcourir.
+   * @param predicate   Le prédicat compilé pour la table, ou null.
+   * @param parallelism Le nombre de threads à utiliser.
+   */
+  public ParallelSeqScan(TableInfo tabInfo, Predicate predicate, int parallelism) {
+    this(tabInfo, predicate, null, parallelism);
+  }
+
+  /**
+   * Crée un parcours parallèle filtré qui ne produit que certaines colonnes.
+   *
+   * @param tabInfo     Les informations de la table à parcourir.
+   * @param predicate   Le prédicat compilé pour la table, ou null.
+   * @param projection  Les colonnes à produire, ou null pour toutes.
+   * @param parallelism Le nombre de threads à utiliser.
+   */
+  public ParallelSeqScan(TableInfo tabInfo, Predicate predicate, Projection projection, int parallelism) {
+    this.tabInfo = tabInfo;
+    this.predicate = predicate;
+    this.projection = projection;
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    dataPageIds = FileManager.getInstance().getDataPages(tabInfo, predicate);
+    nextPageIndex = 0;
+    batch = null;
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    while (batch == null || !batch.hasNext()) {
+      if (nextPageIndex >= dataPageIds.size()) {
+        return null;
+      }
+      int end = Math.min(dataPageIds.size(), nextPageIndex + parallelism * PAGES_PER_THREAD);
+      List<Record> records = new ArrayList<>();
+      new ParallelTableScan(tabInfo, dataPageIds.subList(nextPageIndex, end), predicate, projection,
+          parallelism, true)
+          .scan(record -> true, records::add);
+      nextPageIndex = end;
+      batch = records.iterator();
+    }
+    return batch.next();
+  }
+
+  @Override
+  public void close() {
+    // ParallelTableScan libère chaque page dès qu'elle est parcourue
+    batch = null;
+    if (dataPageIds != null) {
+      nextPageIndex = dataPageIds.size();
+    }
+  }
+
+  @Override
+  public String describe() {
+    return "ParallelSeqScan " + tabInfo.getNom_relation() + " (" + parallelism + " threads)"
+        + (predicate != null ? " [filtre]" : "")
+        + (projection != null ? " " + Operator.columnList(projection.getSchema()) : "");
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return projection == null ? tabInfo : projection.getSchema();
+  }
+}
@@ -0,0 +1,249 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Parcours parallèle d'une table. Les pages de données renvoyées par
+ * FileManager.getDataPages sont découpées en intervalles qui sont parcourus et
+ * filtrés par un ForkJoinPool. Chaque intervalle ne couvre que ses propres
+ * pages, donc deux threads ne lisent jamais la même frame.
+ * Le parcours est en lecture seule : il ne doit pas être mélangé à des
+ * insertions ou suppressions concurrentes.
+ */
+public class ParallelTableScan {
+  // un pool par degré de parallélisme, partagé entre les requêtes ; un pool
+  // inutilisé ne garde pas ses threads
+  private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+  private final TableInfo tabInfo;
+  private final List<PageId> dataPageIds;
+  private final Predicate predicate;
+  private final Projection projection;
+  private final int parallelism;
+  private final boolean ordered;
+
+  /**
+   * Initialise un parcours parallèle de la table spécifiée.
+   *
+   * @param tabInfo     L'information sur la table à parcourir.
+   * @param parallelism Le nombre de threads à utiliser.
+   * @param ordered     true pour renvoyer les enregistrements dans l'ordre des
+   *                    pages, false pour les renvoyer dès qu'ils sont trouvés.
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si la page d'en-tête n'a pas pu être trouvée.
+   */
+  public ParallelTableScan(TableInfo tabInfo, int parallelism, boolean ordered)
+      throws IOException, PageNotFoundException {
+    this(tabInfo, FileManager.getInstance().getDataPages(tabInfo), parallelism, ordered);
+  }
+
+  /**
+   * Initialise un parcours parallèle limité aux pages de données spécifiées.
+   *
+   * @param tabInfo     L'information sur la table à parcourir.
+   * @param dataPageIds Les pages de données à parcourir, dans l'ordre.
+   * @param parallelism Le nombre de threads à utiliser.
+   * @param ordered     true pour renvoyer les enregistrements dans l'ordre des
+   *                    pages, false pour les renvoyer dès qu'ils sont trouvés.
+   */
+  public ParallelTableScan(TableInfo tabInfo, List<PageId> dataPageIds, int parallelism, boolean ordered) {
+    this(tabInfo, dataPageIds, (Predicate) null, parallelism, ordered);
+  }
+
+  /**
+   * Initialise un parcours parallèle limité aux pages de données spécifiées, où
+   * chaque page n'est filtrée que sur les colonnes des conditions avant qu'une
+   * ligne soit entièrement lue.
+   *
+   * @param tabInfo     L'information sur la table à parcourir.
+   * @param dataPageIds Les pages de données à parcourir, dans l'ordre.
+   * @param conditions  Les conditions reliées par AND, ou null.
+   * @param parallelism Le nombre de threads à utiliser.
+   * @param ordered     true pour renvoyer les enregistrements dans l'ordre des
+   *                    pages, false pour les renvoyer dès qu'ils sont trouvés.
+   */
+  public ParallelTableScan(TableInfo tabInfo, List<PageId> dataPageIds, List<SelectCondition> conditions,
+      int parallelism, boolean ordered) {
+    this(tabInfo, dataPageIds, Predicate.compile(conditions, tabInfo), parallelism, ordered);
+  }
+
+  /**
+   * Initialise un parcours parallèle limité aux pages de données spécifiées,
+   * filtré par un prédicat compilé que tous les threads partagent.
+   *
+   * @param tabInfo     L'information sur la table à parcourir.
+   * @param dataPageIds Les pages de données à parcourir, dans l'ordre.
+   * @param predicate   Le prédicat, ou null.
+   * @param parallelism Le nombre de threads à utiliser.
+   * @param ordered     true pour renvoyer les enregistrements dans l'ordre des
+   *                    pages, false pour les renvoyer dès qu'ils sont trouvés.
+   */
+  public ParallelTableScan(TableInfo tabInfo, List<PageId> dataPageIds, Predicate predicate, int parallelism,
+      boolean ordered) {
+    this(tabInfo, dataPageIds, predicate, null, parallelism, ordered);
+  }
+
+  /**
+   * Initialise un parcours parallèle filtré par un prédicat, qui ne construit
+   * pour chaque enregistrement retenu que les colonnes de la projection.
+   *
+   * @param tabInfo     L'information sur la table à parcourir.
+   * @param dataPageIds Les pages de données à parcourir, dans l'ordre.
+   * @param predicate   Le prédicat, ou null.
+   * @param projection  Les colonnes à produire, ou null pour toutes.
+   * @param parallelism Le nombre de threads à utiliser.
+   * @param ordered     true pour renvoyer les enregistrements dans l'ordre des
+   *                    pages, false pour les renvoyer dès qu'ils sont trouvés.
+   */
+  public ParallelTableScan(TableInfo tabInfo, List<PageId> dataPageIds, Predicate predicate, Projection projection,
+      int parallelism, boolean ordered) {
+    this.tabInfo = tabInfo;
+    this.dataPageIds = dataPageIds;
+    this.predicate = predicate;
+    this.projection = projection;
+    this.parallelism = Math.max(1, parallelism);
+    this.ordered = ordered;
+  }
+
+  /**
+   * Obtient le pool partagé d'un degré de parallélisme. Un changement de
+   * DBParams.ScanParallelism crée un autre pool sans arrêter l'ancien, qui
+   * peut servir à un parcours en cours.
+   *
+   * @param parallelism Le nombre de threads souhaité.
+   * @return Le pool de threads.
+   */
+  private static ForkJoinPool getPool(int parallelism) {
+    return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+  }
+
+  /**
+   * Parcourt la table et transmet au consommateur chaque enregistrement qui
+   * satisfait le filtre. Le consommateur est toujours appelé par un seul thread
+   * à la fois.
+   *
+   * @param filter   Le filtre à appliquer à chaque enregistrement.
+   * @param consumer Le consommateur des enregistrements retenus.
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si une page n'a pas pu être trouvée.
+   */
+  public void scan(java.util.function.Predicate<Record> filter, Consumer<Record> consumer)
+      throws IOException, PageNotFoundException {
+    int pageCount = dataPageIds.size();
+    if (pageCount == 0) {
+      return;
+    }
+
+    // plusieurs intervalles par thread pour que le vol de tâches équilibre la
+    // charge quand les pages ne coûtent pas toutes pareil
+    int grain = Math.max(1, pageCount / (parallelism * 4));
+    List<List<Record>> pageResults = new ArrayList<>(pageCount);
+    for (int i = 0; i < pageCount; i++) {
+      pageResults.add(null);
+    }
+
+    try {
+      getPool(parallelism).invoke(new RangeTask(0, pageCount, grain, filter, consumer, pageResults));
+    } catch (ScanException e) {
+      Throwable cause = e.getCause();
+      while (cause instanceof ScanException) {
+        cause = cause.getCause();
+      }
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw (PageNotFoundException) cause;
+    }
+
+    if (ordered) {
+      for (List<Record> records : pageResults) {
+        for (Record record : records) {
+          consumer.accept(record);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tâche qui parcourt un intervalle de pages, ou le coupe en deux s'il est plus
+   * grand que le grain.
+   */
+  private class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final int grain;
+    private final java.util.function.Predicate<Record> filter;
+    private final Consumer<Record> consumer;
+    private final List<List<Record>> pageResults;
+
+    RangeTask(int from, int to, int grain, java.util.function.Predicate<Record> filter, Consumer<Record> consumer,
+        List<List<Record>> pageResults) {
+      this.from = from;
+      this.to = to;
+      this.grain = grain;
+      this.filter = filter;
+      this.consumer = consumer;
+      this.pageResults = pageResults;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > grain) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new RangeTask(from, middle, grain, filter, consumer, pageResults),
+            new RangeTask(middle, to, grain, filter, consumer, pageResults));
+        return;
+      }
+
+      for (int i = from; i < to; i++) {
+        List<Record> matches = scanPage(dataPageIds.get(i));
+        if (ordered) {
+          pageResults.set(i, matches);
+        } else if (!matches.isEmpty()) {
+          synchronized (consumer) {
+            for (Record record : matches) {
+              consumer.accept(record);
+            }
+          }
+        }
+      }
+    }
+
+    private List<Record> scanPage(PageId pageId) {
+      List<Record> matches = new ArrayList<>();
+      RecordIterator iterator = new RecordIterator(tabInfo, pageId, predicate);
+      try {
+        RecordView view;
+        while ((view = iterator.getNextView()) != null) {
+          Record record = projection == null ? view.toRecord() : projection.project(view);
+          if (filter.test(record)) {
+            matches.add(record);
+          }
+        }
+      } catch (IOException | PageNotFoundException e) {
+        throw new ScanException(e);
+      }
+      return matches;
+    }
+  }
+
+  /**
+   * Transporte une exception vérifiée hors d'une tâche du ForkJoinPool.
+   */
+  private static class ScanException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    ScanException(Exception cause) {
+      super(cause);
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Opérations sur une page de données au format PAX. Au lieu de ranger les
+ * enregistrements les uns après les autres, la page est découpée en une
+ * mini-page par colonne : les valeurs d'une même colonne sont contiguës, ce qui
+ * permet de ne lire que les colonnes utilisées par une requête.
+ * Disposition de la page : nombre de lignes écrites (int), capacité en lignes
+ * (int), position de la mini-page des indicateurs de suppression (int), puis la
+ * position de la mini-page de chaque colonne (int par colonne). Chaque colonne
+ * a une largeur fixe : 4 octets pour INT, FLOAT et les chaînes encodées par
+ * dictionnaire, n octets pour STRING(n) et VARSTRING(n).
+ */
+public class PaxPage {
+
+  private PaxPage() {
+  }
+
+  /**
+   * Calcule le nombre de lignes que peut contenir une page PAX de la table.
+   *
+   * @param tabInfo Les informations de la table.
+   * @return La capacité d'une page en lignes.
+   */
+  static int getCapacity(TableInfo tabInfo) {
+    int rowWidth = 1 + tabInfo.getLayout().getRowWidth(); // avec l'indicateur de suppression
+    return (DBParams.SGBDPageSize - 12 - 4 * tabInfo.getNb_colonnes()) / rowWidth;
+  }
+
+  /**
+   * Initialise une page PAX vide pour la table.
+   *
+   * @param page    Le buffer de la page.
+   * @param tabInfo Les informations de la table.
+   */
+  static void init(ByteBuffer page, TableInfo tabInfo) {
+    RecordLayout layout = tabInfo.getLayout();
+    int capacity = getCapacity(tabInfo);
+    int offset = 12 + 4 * layout.getColumnCount();
+
+    page.putInt(0, 0);
+    page.putInt(4, capacity);
+    page.putInt(8, offset);
+    offset += capacity;
+    for (int i = 0; i < layout.getColumnCount(); i++) {
+      page.putInt(12 + 4 * i, offset);
+      offset += capacity * layout.getWidth(i);
+    }
+  }
+
+  static int getRowCount(ByteBuffer page) {
+    return page.getInt(0);
+  }
+
+  static int getFreeRows(ByteBuffer page) {
+    return page.getInt(4) - page.getInt(0);
+  }
+
+  /**
+   * Indique si la ligne existe et n'a pas été supprimée.
+   *
+   * @param page Le buffer de la page.
+   * @param row  L'index de la ligne (à partir de 0).
+   * @return true si la ligne est vivante.
+   */
+  static boolean isLive(ByteBuffer page, int row) {
+    return row >= 0 && row < page.getInt(0) && page.get(page.getInt(8) + row) == 0;
+  }
+
+  static void setDeleted(ByteBuffer page, int row) {
+    page.put(page.getInt(8) + row, (byte) 1);
+  }
+
+  /**
+   * Ajoute une ligne à la fin de la page.
+   *
+   * @param page   Le buffer de la page.
+   * @param record L'enregistrement à écrire.
+   * @return L'index de la ligne écrite, ou -1 si la page est pleine.
+   */
+  static int appendRow(ByteBuffer page, Record record) {
+    int row = page.getInt(0);
+    if (row >= page.getInt(4)) {
+      return -1;
+    }
+    writeRow(page, row, record);
+    page.put(page.getInt(8) + row, (byte) 0);
+    page.putInt(0, row + 1);
+    return row;
+  }
+
+  /**
+   * Écrit toutes les valeurs d'un enregistrement à la ligne indiquée.
+   *
+   * @param page   Le buffer de la page.
+   * @param row    L'index de la ligne.
+   * @param record L'enregistrement à écrire.
+   */
+  static void writeRow(ByteBuffer page, int row, Record record) {
+    RecordLayout layout = record.getTabInfo().getLayout();
+    for (int i = 0; i < layout.getColumnCount(); i++) {
+      int width = layout.getWidth(i);
+      int pos = page.getInt(12 + 4 * i) + row * width;
+
+      if (layout.getType(i) == RecordLayout.INT) {
+        page.putInt(pos, record.getInt(i));
+      } else if (layout.getType(i) == RecordLayout.FLOAT) {
+        page.putFloat(pos, record.getFloat(i));
+      } else if (layout.getType(i) == RecordLayout.DICTIONARY) {
+        page.putInt(pos, layout.getDictionary(i).encode(record.getString(i)));
+      } else {
+        // la valeur est tronquée à la largeur de la colonne et complétée par des 0
+        byte[] bytes = Record.encodeString(record.getString(i), width);
+        for (int b = 0; b < width; b++) {
+          page.put(pos + b, b < bytes.length ? bytes[b] : 0);
+        }
+      }
+    }
+  }
+
+  /**
+   * Lit une seule valeur de la page dans l'enregistrement, sans toucher aux
+   * autres colonnes.
+   *
+   * @param page   Le buffer de la page.
+   * @param record L'enregistrement à compléter.
+   * @param row    L'index de la ligne.
+   * @param col    L'index de la colonne.
+   */
+  static void readValue(ByteBuffer page, Record record, int row, int col) {
+    RecordLayout layout = record.getTabInfo().getLayout();
+    int width = layout.getWidth(col);
+    int pos = page.getInt(12 + 4 * col) + row * width;
+
+    if (layout.getType(col) == RecordLayout.INT) {
+      record.setInt(col, page.getInt(pos));
+    } else if (layout.getType(col) == RecordLayout.FLOAT) {
+      record.setFloat(col, page.getFloat(pos));
+    } else if (layout.getType(col) == RecordLayout.DICTIONARY) {
+      record.setString(col, layout.getDictionary(col).decode(page.getInt(pos)));
+    } else {
+      record.setString(col, Record.decodeString(page.array(), pos, width));
+    }
+  }
+
+  /**
+   * Lit les colonnes demandées d'une ligne dans un enregistrement. Les colonnes
+   * non demandées gardent leur valeur actuelle.
+   *
+   * @param page    Le buffer de la page.
+   * @param record  L'enregistrement à compléter.
+   * @param row     L'index de la ligne.
+   * @param columns Les colonnes à lire, ou null pour toutes.
+   */
+  static void readColumns(ByteBuffer page, Record record, int row, boolean[] columns) {
+    int colCount = record.getTabInfo().getNb_colonnes();
+    for (int i = 0; i < colCount; i++) {
+      if (columns == null || columns[i]) {
+        readValue(page, record, row, i);
+      }
+    }
+  }
+
+  /**
+   * Lit une ligne complète.
+   *
+   * @param page    Le buffer de la page.
+   * @param tabInfo Les informations de la table.
+   * @param row     L'index de la ligne.
+   * @return L'enregistrement lu.
+   */
+  static Record readRow(ByteBuffer page, TableInfo tabInfo, int row) {
+    Record record = new Record(tabInfo);
+    readColumns(page, record, row, null);
+    return record;
+  }
+}
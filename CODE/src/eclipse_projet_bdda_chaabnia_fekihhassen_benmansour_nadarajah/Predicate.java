@@ -0,0 +1,1275 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Une clause WHERE compilée pour une table : un arbre de prédicats typés dont
+ * les feuilles connaissent déjà l'index de leur colonne, son type et la valeur
+ * de comparaison convertie. Rien n'est recherché ni analysé pendant
+ * l'évaluation d'une ligne. Les noeuds AND et OR s'arrêtent dès que le
+ * résultat est connu.
+ * Un prédicat s'évalue sur un Record, sur une RecordView (seules les colonnes
+ * utiles sont décodées) ou sur un lot vectorisé, dont il réduit le vecteur de
+ * sélection. Il sert aussi à écarter des pages d'après leur zone map.
+ * Un noeud AND relève le taux de réussite de chacune de ses conditions
+ * pendant l'exécution et les réordonne régulièrement, pour évaluer d'abord
+ * les moins chères et les plus sélectives. Le coût d'une condition est
+ * chronométré sur les lots vectorisés ; ligne à ligne, où une mesure coûterait
+ * plus que la condition, il est estimé d'après sa forme (cost). Ce sont les
+ * seuls états d'un prédicat compilé, et ils sont protégés : il peut être
+ * partagé par les threads d'un parcours parallèle.
+ */
+public abstract class Predicate {
+  static final int EQ = 0;
+  static final int NE = 1;
+  static final int LT = 2;
+  static final int LE = 3;
+  static final int GT = 4;
+  static final int GE = 5;
+  static final double DEFAULT_EQUAL_SELECTIVITY = 0.1;
+  static final double DEFAULT_RANGE_SELECTIVITY = 1.0 / 3;
+  // coûts estimés de l'évaluation d'une condition sur une ligne
+  static final double NUMERIC_COST = 1;
+  static final double STRING_COST = 4; // la chaîne est décodée puis comparée
+
+  /**
+   * Évalue le prédicat sur un enregistrement.
+   *
+   * @param record L'enregistrement à vérifier.
+   * @return True si l'enregistrement satisfait le prédicat.
+   */
+  public abstract boolean test(Record record);
+
+  /**
+   * Évalue le prédicat sur l'enregistrement pointé par une vue.
+   *
+   * @param view La vue sur l'enregistrement à vérifier.
+   * @return True si l'enregistrement satisfait le prédicat.
+   * @throws IOException           En cas d'erreur lors de la lecture d'une page
+   *                               de débordement.
+   * @throws PageNotFoundException Si une page de débordement n'a pas été
+   *                               trouvée.
+   */
+  public abstract boolean test(RecordView view) throws IOException, PageNotFoundException;
+
+  /**
+   * Réduit une sélection de lignes d'un lot à celles qui satisfont le
+   * prédicat, en gardant leur ordre.
+   *
+   * @param batch Le lot.
+   * @param sel   Les index des lignes sélectionnées, croissants ; le résultat
+   *              est écrit au début du tableau.
+   * @param n     Le nombre de lignes sélectionnées.
+   * @return Le nombre de lignes qui restent sélectionnées.
+   */
+  abstract int filter(ColumnBatch batch, int[] sel, int n);
+
+  /**
+   * Estime le coût de l'évaluation du prédicat sur une ligne, en comparaisons
+   * de nombres. Sert à ordonner les conditions d'un AND évalué ligne à ligne.
+   *
+   * @return Le coût relatif estimé.
+   */
+  double cost() {
+    return NUMERIC_COST;
+  }
+
+  /**
+   * Indique si une page dont les colonnes numériques ont les bornes données
+   * peut contenir une ligne satisfaisant le prédicat. Dans le doute, la
+   * réponse est true.
+   *
+   * @param mins La plus petite valeur de chaque colonne numérique de la page.
+   * @param maxs La plus grande valeur de chaque colonne numérique de la page.
+   * @return false si aucune ligne de la page ne peut satisfaire le prédicat.
+   */
+  boolean mayMatchRange(double[] mins, double[] maxs) {
+    return true;
+  }
+
+  /**
+   * Estime la part des lignes de la table qui satisfont le prédicat, à partir
+   * des statistiques collectées par ANALYZE. Sans statistiques, une égalité
+   * garde une ligne sur dix et une inégalité une ligne sur trois.
+   *
+   * @param stats Les statistiques de la table, ou null si elle n'a pas été
+   *              analysée.
+   * @return La sélectivité estimée, entre 0 et 1.
+   */
+  double selectivity(TableStatistics stats) {
+    return DEFAULT_RANGE_SELECTIVITY;
+  }
+
+  static double defaultSelectivity(int op) {
+    switch (op) {
+      case EQ:
+        return DEFAULT_EQUAL_SELECTIVITY;
+      case NE:
+        return 1 - DEFAULT_EQUAL_SELECTIVITY;
+      default:
+        return DEFAULT_RANGE_SELECTIVITY;
+    }
+  }
+
+  /**
+   * Obtient les conditions reliées par AND au sommet du prédicat, dans leur
+   * ordre d'évaluation actuel.
+   *
+   * @return Les conditions, ou le prédicat lui-même s'il n'est pas un AND.
+   */
+  List<Predicate> getConjuncts() {
+    return List.of(this);
+  }
+
+  /**
+   * Marque les colonnes de la table lues par le prédicat.
+   *
+   * @param used Un indicateur par colonne de la table, complété sur place.
+   */
+  abstract void addColumns(boolean[] used);
+
+  /**
+   * Compile une liste de conditions reliées par AND. Les conditions vides
+   * (sans colonne) sont ignorées.
+   *
+   * @param conditions Les conditions, ou null.
+   * @param tabInfo    La table sur laquelle portent les conditions.
+   * @return Le prédicat compilé, ou null s'il n'y a aucune condition.
+   * @throws IllegalArgumentException Si une condition porte sur une colonne
+   *                                  inconnue ou si sa valeur ne correspond
+   *                                  pas au type de la colonne.
+   */
+  public static Predicate compile(List<SelectCondition> conditions, TableInfo tabInfo) {
+    if (conditions == null) {
+      return null;
+    }
+    Predicate[] leaves = conditions.stream().filter(c -> c.getColumnName() != null)
+        .map(c -> comparison(tabInfo, c.getColumnName(), c.getOperator(), c.getValue()))
+        .toArray(Predicate[]::new);
+    if (leaves.length == 0) {
+      return null;
+    }
+    return leaves.length == 1 ? leaves[0] : new And(leaves);
+  }
+
+  static Predicate and(Predicate[] children) {
+    return children.length == 1 ? children[0] : new And(children);
+  }
+
+  static Predicate or(Predicate[] children) {
+    return children.length == 1 ? children[0] : new Or(children);
+  }
+
+  static Predicate not(Predicate child) {
+    return child instanceof Not ? ((Not) child).child : new Not(child);
+  }
+
+  /**
+   * Compile la comparaison d'une colonne à une valeur.
+   *
+   * @param tabInfo  La table.
+   * @param column   Le nom de la colonne.
+   * @param operator L'opérateur (=, <>, !=, <, <=, >, >=).
+   * @param value    La valeur, sous forme de texte.
+   * @return La feuille compilée.
+   * @throws IllegalArgumentException Si la colonne ou l'opérateur est inconnu,
+   *                                  ou si la valeur n'est pas un nombre pour
+   *                                  une colonne numérique.
+   */
+  static Predicate comparison(TableInfo tabInfo, String column, String operator, String value) {
+    RecordLayout layout = tabInfo.getLayout();
+    int col = resolveColumn(layout, column);
+    int op = parseOperator(operator);
+    int type = layout.getType(col);
+    if (type == RecordLayout.INT || type == RecordLayout.FLOAT) {
+      boolean isInt = type == RecordLayout.INT;
+      return new NumericCompare(col, isInt, op, parseNumber(column, value, isInt));
+    }
+    if (type == RecordLayout.DICTIONARY && (op == EQ || op == NE)) {
+      // une valeur absente du dictionnaire n'est dans aucune ligne
+      StringDictionary dictionary = layout.getDictionary(col);
+      Predicate equal = new CodeIn(col, dictionary, new int[] { dictionary.getCode(value) });
+      return op == EQ ? equal : new Not(equal);
+    }
+    return new StringCompare(col, op, value);
+  }
+
+  /**
+   * Compile la comparaison de deux colonnes d'un même enregistrement, par
+   * exemple les colonnes de deux tables dans un enregistrement joint.
+   *
+   * @param tabInfo  La table.
+   * @param left     Le nom de la colonne de gauche.
+   * @param operator L'opérateur (=, <>, !=, <, <=, >, >=).
+   * @param right    Le nom de la colonne de droite.
+   * @return La feuille compilée.
+   * @throws IllegalArgumentException Si une colonne ou l'opérateur est inconnu,
+   *                                  ou si une chaîne est comparée à un nombre.
+   */
+  static Predicate columnComparison(TableInfo tabInfo, String left, String operator, String right) {
+    RecordLayout layout = tabInfo.getLayout();
+    int leftCol = resolveColumn(layout, left);
+    int rightCol = resolveColumn(layout, right);
+    int leftType = layout.getType(leftCol);
+    int rightType = layout.getType(rightCol);
+    boolean leftNumeric = leftType == RecordLayout.INT || leftType == RecordLayout.FLOAT;
+    boolean rightNumeric = rightType == RecordLayout.INT || rightType == RecordLayout.FLOAT;
+    if (leftNumeric != rightNumeric) {
+      throw new IllegalArgumentException(
+          "Comparaison impossible entre " + left + " et " + right + " : types incompatibles");
+    }
+    return new ColumnCompare(leftCol, leftType, parseOperator(operator), rightCol, rightType);
+  }
+
+  /**
+   * Compile le test d'appartenance d'une colonne à une liste de valeurs.
+   *
+   * @param tabInfo La table.
+   * @param column  Le nom de la colonne.
+   * @param values  Les valeurs, sous forme de texte.
+   * @return La feuille compilée.
+   */
+  static Predicate in(TableInfo tabInfo, String column, List<String> values) {
+    RecordLayout layout = tabInfo.getLayout();
+    int col = resolveColumn(layout, column);
+    int type = layout.getType(col);
+    if (type == RecordLayout.INT || type == RecordLayout.FLOAT) {
+      boolean isInt = type == RecordLayout.INT;
+      double[] numbers = new double[values.size()];
+      for (int i = 0; i < numbers.length; i++) {
+        numbers[i] = parseNumber(column, values.get(i), isInt);
+      }
+      return new NumericIn(col, isInt, numbers);
+    }
+    if (type == RecordLayout.DICTIONARY) {
+      StringDictionary dictionary = layout.getDictionary(col);
+      return new CodeIn(col, dictionary, values.stream().mapToInt(dictionary::getCode).toArray());
+    }
+    return new StringIn(col, new HashSet<>(values));
+  }
+
+  /**
+   * Compile le test low &lt;= colonne &lt;= high.
+   *
+   * @param tabInfo La table.
+   * @param column  Le nom de la colonne.
+   * @param low     La borne inférieure, sous forme de texte.
+   * @param high    La borne supérieure, sous forme de texte.
+   * @return La feuille compilée.
+   */
+  static Predicate between(TableInfo tabInfo, String column, String low, String high) {
+    RecordLayout layout = tabInfo.getLayout();
+    int col = resolveColumn(layout, column);
+    int type = layout.getType(col);
+    if (type == RecordLayout.INT || type == RecordLayout.FLOAT) {
+      boolean isInt = type == RecordLayout.INT;
+      return new NumericBetween(col, isInt, parseNumber(column, low, isInt), parseNumber(column, high, isInt));
+    }
+    return new And(new Predicate[] { new StringCompare(col, GE, low), new StringCompare(col, LE, high) });
+  }
+
+  private static int resolveColumn(RecordLayout layout, String column) {
+    int col = layout.getColumnIndex(column);
+    if (col < 0) {
+      throw new IllegalArgumentException("Colonne inconnue : " + column);
+    }
+    return col;
+  }
+
+  /**
+   * Lit une constante numérique. Pour une colonne FLOAT, la constante est
+   * arrondie au float le plus proche : les valeurs stockées sont des float,
+   * et 1.1 en double n'est égal à aucun float. Une fois arrondie, la
+   * comparaison en double d'un float élargi donne le même résultat qu'une
+   * comparaison entre float, sur tous les chemins (ligne, vue, lot, zone map).
+   */
+  private static double parseNumber(String column, String value, boolean isInt) {
+    try {
+      double number = Double.parseDouble(value);
+      return isInt ? number : (float) number;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Valeur numérique attendue pour " + column + " : " + value);
+    }
+  }
+
+  static int parseOperator(String operator) {
+    switch (operator) {
+      case "=":
+        return EQ;
+      case "<>":
+      case "!=":
+        return NE;
+      case "<":
+        return LT;
+      case "<=":
+        return LE;
+      case ">":
+        return GT;
+      case ">=":
+        return GE;
+      default:
+        throw new IllegalArgumentException("Opérateur inconnu : " + operator);
+    }
+  }
+
+  private static boolean matches(int op, int comparison) {
+    switch (op) {
+      case EQ:
+        return comparison == 0;
+      case NE:
+        return comparison != 0;
+      case LT:
+        return comparison < 0;
+      case LE:
+        return comparison <= 0;
+      case GT:
+        return comparison > 0;
+      default:
+        return comparison >= 0;
+    }
+  }
+
+  /**
+   * Copie les index de a qui ne sont pas dans b ; les deux listes sont
+   * croissantes.
+   */
+  private static int difference(int[] a, int na, int[] b, int nb, int[] out) {
+    int count = 0;
+    int j = 0;
+    for (int i = 0; i < na; i++) {
+      while (j < nb && b[j] < a[i]) {
+        j++;
+      }
+      if (j >= nb || b[j] != a[i]) {
+        out[count++] = a[i];
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Fusionne deux listes d'index croissantes et disjointes.
+   */
+  private static int union(int[] a, int na, int[] b, int nb, int[] out) {
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while (i < na || j < nb) {
+      out[count++] = j >= nb || (i < na && a[i] < b[j]) ? a[i++] : b[j++];
+    }
+    return count;
+  }
+
+  // coût estimé d'une ligne passée à toutes les conditions
+  private static double sumCost(Predicate[] children) {
+    double cost = 0;
+    for (Predicate child : children) {
+      cost += child.cost();
+    }
+    return cost;
+  }
+
+  /**
+   * Conjonction adaptative. Une évaluation ligne par ligne sur
+   * REORDER_SAMPLE_MASK + 1, et chaque lot vectorisé, est mesurée : pour
+   * chaque condition évaluée, le nombre de lignes reçues et retenues et le
+   * temps passé. Tous les REORDER_PERIOD relevés, les conditions sont triées
+   * par coût par ligne écartée, c / (1 - p), c étant le coût par ligne et p la
+   * part des lignes retenues : c'est l'ordre optimal pour des conditions
+   * indépendantes. Les mesures sont ensuite divisées par deux, pour suivre une
+   * distribution qui change au cours d'un long parcours.
+   */
+  private static final class And extends Predicate {
+    private static final int REORDER_SAMPLE_MASK = 63;
+    private static final int REORDER_PERIOD = 32;
+
+    private final Predicate[] children;
+    // ordre d'évaluation (index dans children), remplacé d'un bloc
+    private volatile int[] order;
+    // mesures par condition, protégées par le verrou du noeud ; le temps n'est
+    // relevé que sur les lots (timedRows lignes)
+    private final long[] rowsIn;
+    private final long[] rowsOut;
+    private final long[] nanos;
+    private final long[] timedRows;
+    private final double[] costs; // coût estimé de chaque condition
+    private int samples;
+    // compteur d'évaluations pour l'échantillonnage ; les incréments perdus
+    // entre threads ne font que décaler un relevé
+    private int tick;
+
+    And(Predicate[] children) {
+      this.children = children;
+      this.order = new int[children.length];
+      for (int i = 0; i < children.length; i++) {
+        order[i] = i;
+      }
+      this.rowsIn = new long[children.length];
+      this.rowsOut = new long[children.length];
+      this.nanos = new long[children.length];
+      this.timedRows = new long[children.length];
+      this.costs = new double[children.length];
+      for (int i = 0; i < children.length; i++) {
+        costs[i] = children[i].cost();
+      }
+    }
+
+    @Override
+    List<Predicate> getConjuncts() {
+      int[] current = order;
+      Predicate[] conjuncts = new Predicate[current.length];
+      for (int i = 0; i < current.length; i++) {
+        conjuncts[i] = children[current[i]];
+      }
+      return List.of(conjuncts);
+    }
+
+    private boolean sampled() {
+      return DBParams.AdaptivePredicateOrder && (++tick & REORDER_SAMPLE_MASK) == 0;
+    }
+
+    /**
+     * Ajoute un relevé aux mesures et réordonne les conditions quand il y en
+     * a assez.
+     *
+     * @param in   Les lignes reçues par chaque condition, dans l'ordre de
+     *             children.
+     * @param out  Les lignes retenues par chaque condition.
+     * @param time Le temps passé dans chaque condition, en nanosecondes, ou
+     *             null si le relevé n'est pas chronométré.
+     */
+    private synchronized void observe(long[] in, long[] out, long[] time) {
+      for (int i = 0; i < children.length; i++) {
+        rowsIn[i] += in[i];
+        rowsOut[i] += out[i];
+        if (time != null) {
+          nanos[i] += time[i];
+          timedRows[i] += in[i];
+        }
+      }
+      if (++samples < REORDER_PERIOD) {
+        return;
+      }
+      samples = 0;
+      // sans chronométrage complet, toutes les conditions sont comparées sur
+      // leur coût estimé, pour ne pas mêler les deux unités
+      boolean timed = true;
+      for (int i = 0; i < children.length; i++) {
+        timed &= rowsIn[i] == 0 || timedRows[i] > 0;
+      }
+      double[] rank = new double[children.length];
+      Integer[] sorted = new Integer[children.length];
+      for (int i = 0; i < children.length; i++) {
+        sorted[i] = order[i];
+        double cost = timed && timedRows[i] > 0 ? (double) nanos[i] / timedRows[i] : costs[i];
+        // une condition jamais atteinte garde sa place, derrière les autres
+        rank[i] = rowsIn[i] == 0 ? Double.MAX_VALUE
+            : cost / Math.max(1e-6, 1 - (double) rowsOut[i] / rowsIn[i]);
+        rowsIn[i] /= 2;
+        rowsOut[i] /= 2;
+        nanos[i] /= 2;
+        timedRows[i] /= 2;
+      }
+      Arrays.sort(sorted, (a, b) -> Double.compare(rank[a], rank[b]));
+      int[] next = new int[children.length];
+      for (int i = 0; i < next.length; i++) {
+        next[i] = sorted[i];
+      }
+      order = next;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      for (Predicate child : children) {
+        child.addColumns(used);
+      }
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      double fraction = 1;
+      for (Predicate child : children) {
+        fraction *= child.selectivity(stats);
+      }
+      return fraction;
+    }
+
+    @Override
+    double cost() {
+      return sumCost(children);
+    }
+
+    @Override
+    public boolean test(Record record) {
+      int[] current = order;
+      if (sampled()) {
+        return measuredTest(record, current);
+      }
+      for (int i : current) {
+        if (!children[i].test(record)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean measuredTest(Record record, int[] current) {
+      // une ligne seule ne se chronomètre pas : seul le taux de réussite est relevé
+      long[] in = new long[children.length];
+      long[] out = new long[children.length];
+      boolean result = true;
+      for (int k = 0; k < current.length && result; k++) {
+        int i = current[k];
+        result = children[i].test(record);
+        in[i] = 1;
+        out[i] = result ? 1 : 0;
+      }
+      observe(in, out, null);
+      return result;
+    }
+
+    @Override
+    public boolean test(RecordView view) throws IOException, PageNotFoundException {
+      int[] current = order;
+      if (sampled()) {
+        return measuredTest(view, current);
+      }
+      for (int i : current) {
+        if (!children[i].test(view)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean measuredTest(RecordView view, int[] current) throws IOException, PageNotFoundException {
+      // une ligne seule ne se chronomètre pas : seul le taux de réussite est relevé
+      long[] in = new long[children.length];
+      long[] out = new long[children.length];
+      boolean result = true;
+      for (int k = 0; k < current.length && result; k++) {
+        int i = current[k];
+        result = children[i].test(view);
+        in[i] = 1;
+        out[i] = result ? 1 : 0;
+      }
+      observe(in, out, null);
+      return result;
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      int[] current = order;
+      if (!DBParams.AdaptivePredicateOrder) {
+        // chaque fils ne voit que les lignes retenues par les précédents
+        for (int k = 0; k < current.length && n > 0; k++) {
+          n = children[current[k]].filter(batch, sel, n);
+        }
+        return n;
+      }
+      // un lot suffit à amortir la mesure : chacun est relevé
+      long[] in = new long[children.length];
+      long[] out = new long[children.length];
+      long[] time = new long[children.length];
+      for (int k = 0; k < current.length && n > 0; k++) {
+        int i = current[k];
+        long start = System.nanoTime();
+        in[i] = n;
+        n = children[i].filter(batch, sel, n);
+        time[i] = System.nanoTime() - start;
+        out[i] = n;
+      }
+      observe(in, out, time);
+      return n;
+    }
+
+    @Override
+    boolean mayMatchRange(double[] mins, double[] maxs) {
+      for (Predicate child : children) {
+        if (!child.mayMatchRange(mins, maxs)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class Or extends Predicate {
+    private final Predicate[] children;
+
+    Or(Predicate[] children) {
+      this.children = children;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      for (Predicate child : children) {
+        child.addColumns(used);
+      }
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      double none = 1;
+      for (Predicate child : children) {
+        none *= 1 - child.selectivity(stats);
+      }
+      return 1 - none;
+    }
+
+    @Override
+    double cost() {
+      return sumCost(children);
+    }
+
+    @Override
+    public boolean test(Record record) {
+      for (Predicate child : children) {
+        if (child.test(record)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public boolean test(RecordView view) throws IOException, PageNotFoundException {
+      for (Predicate child : children) {
+        if (child.test(view)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      // chaque fils ne voit que les lignes que les précédents n'ont pas retenues
+      int[] remaining = Arrays.copyOf(sel, n);
+      int remainingCount = n;
+      int[] accepted = new int[n];
+      int acceptedCount = 0;
+      int[] matched = new int[n];
+      int[] scratch = new int[n];
+      for (int i = 0; i < children.length && remainingCount > 0; i++) {
+        System.arraycopy(remaining, 0, matched, 0, remainingCount);
+        int m = children[i].filter(batch, matched, remainingCount);
+        if (m == 0) {
+          continue;
+        }
+        acceptedCount = union(accepted, acceptedCount, matched, m, scratch);
+        System.arraycopy(scratch, 0, accepted, 0, acceptedCount);
+        remainingCount = difference(remaining, remainingCount, matched, m, scratch);
+        System.arraycopy(scratch, 0, remaining, 0, remainingCount);
+      }
+      System.arraycopy(accepted, 0, sel, 0, acceptedCount);
+      return acceptedCount;
+    }
+
+    @Override
+    boolean mayMatchRange(double[] mins, double[] maxs) {
+      for (Predicate child : children) {
+        if (child.mayMatchRange(mins, maxs)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class Not extends Predicate {
+    private final Predicate child;
+
+    Not(Predicate child) {
+      this.child = child;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      child.addColumns(used);
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      return 1 - child.selectivity(stats);
+    }
+
+    @Override
+    double cost() {
+      return child.cost();
+    }
+
+    @Override
+    public boolean test(Record record) {
+      return !child.test(record);
+    }
+
+    @Override
+    public boolean test(RecordView view) throws IOException, PageNotFoundException {
+      return !child.test(view);
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      int[] matched = Arrays.copyOf(sel, n);
+      int m = child.filter(batch, matched, n);
+      return difference(Arrays.copyOf(sel, n), n, matched, m, sel);
+    }
+  }
+
+  /**
+   * Comparaison d'une colonne INT ou FLOAT à une constante.
+   */
+  private static final class NumericCompare extends Predicate {
+    private final int col;
+    private final boolean isInt;
+    private final int op;
+    private final double value;
+
+    NumericCompare(int col, boolean isInt, int op, double value) {
+      this.col = col;
+      this.isInt = isInt;
+      this.op = op;
+      this.value = value;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      used[col] = true;
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      return stats == null ? defaultSelectivity(op) : stats.getColumn(col).compareFraction(op, value);
+    }
+
+    private boolean compare(double x) {
+      switch (op) {
+        case EQ:
+          return x == value;
+        case NE:
+          return x != value;
+        case LT:
+          return x < value;
+        case LE:
+          return x <= value;
+        case GT:
+          return x > value;
+        default:
+          return x >= value;
+      }
+    }
+
+    @Override
+    public boolean test(Record record) {
+      return compare(isInt ? record.getInt(col) : record.getFloat(col));
+    }
+
+    @Override
+    public boolean test(RecordView view) {
+      return compare(isInt ? view.getInt(col) : view.getFloat(col));
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      return isInt ? filterInts(batch.getInts(col), sel, n) : filterFloats(batch.getFloats(col), sel, n);
+    }
+
+    private int filterInts(int[] values, int[] sel, int n) {
+      double v = value;
+      int out = 0;
+      switch (op) {
+        case EQ:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] == v) sel[out++] = sel[k];
+          }
+          break;
+        case NE:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] != v) sel[out++] = sel[k];
+          }
+          break;
+        case LT:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] < v) sel[out++] = sel[k];
+          }
+          break;
+        case LE:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] <= v) sel[out++] = sel[k];
+          }
+          break;
+        case GT:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] > v) sel[out++] = sel[k];
+          }
+          break;
+        default:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] >= v) sel[out++] = sel[k];
+          }
+      }
+      return out;
+    }
+
+    private int filterFloats(float[] values, int[] sel, int n) {
+      float v = (float) value;
+      int out = 0;
+      switch (op) {
+        case EQ:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] == v) sel[out++] = sel[k];
+          }
+          break;
+        case NE:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] != v) sel[out++] = sel[k];
+          }
+          break;
+        case LT:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] < v) sel[out++] = sel[k];
+          }
+          break;
+        case LE:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] <= v) sel[out++] = sel[k];
+          }
+          break;
+        case GT:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] > v) sel[out++] = sel[k];
+          }
+          break;
+        default:
+          for (int k = 0; k < n; k++) {
+            if (values[sel[k]] >= v) sel[out++] = sel[k];
+          }
+      }
+      return out;
+    }
+
+    @Override
+    boolean mayMatchRange(double[] mins, double[] maxs) {
+      double min = mins[col];
+      double max = maxs[col];
+      if (min > max) {
+        return false; // aucune ligne insérée dans la page
+      }
+      switch (op) {
+        case EQ:
+          return min <= value && value <= max;
+        case NE:
+          return !(min == value && max == value);
+        case LT:
+          return min < value;
+        case LE:
+          return min <= value;
+        case GT:
+          return max > value;
+        default:
+          return max >= value;
+      }
+    }
+  }
+
+  /**
+   * Test low &lt;= colonne &lt;= high sur une colonne INT ou FLOAT.
+   */
+  private static final class NumericBetween extends Predicate {
+    private final int col;
+    private final boolean isInt;
+    private final double low;
+    private final double high;
+
+    NumericBetween(int col, boolean isInt, double low, double high) {
+      this.col = col;
+      this.isInt = isInt;
+      this.low = low;
+      this.high = high;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      used[col] = true;
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      if (stats == null) {
+        return DEFAULT_RANGE_SELECTIVITY;
+      }
+      ColumnStatistics column = stats.getColumn(col);
+      return Math.max(0, column.compareFraction(LE, high) - column.compareFraction(LT, low));
+    }
+
+    @Override
+    public boolean test(Record record) {
+      double x = isInt ? record.getInt(col) : record.getFloat(col);
+      return low <= x && x <= high;
+    }
+
+    @Override
+    public boolean test(RecordView view) {
+      double x = isInt ? view.getInt(col) : view.getFloat(col);
+      return low <= x && x <= high;
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      int out = 0;
+      if (isInt) {
+        int[] values = batch.getInts(col);
+        for (int k = 0; k < n; k++) {
+          int x = values[sel[k]];
+          if (low <= x && x <= high) sel[out++] = sel[k];
+        }
+      } else {
+        float[] values = batch.getFloats(col);
+        float lo = (float) low;
+        float hi = (float) high;
+        for (int k = 0; k < n; k++) {
+          float x = values[sel[k]];
+          if (lo <= x && x <= hi) sel[out++] = sel[k];
+        }
+      }
+      return out;
+    }
+
+    @Override
+    boolean mayMatchRange(double[] mins, double[] maxs) {
+      return mins[col] <= maxs[col] && mins[col] <= high && maxs[col] >= low;
+    }
+  }
+
+  /**
+   * Appartenance d'une colonne INT ou FLOAT à une courte liste de valeurs.
+   */
+  private static final class NumericIn extends Predicate {
+    private final int col;
+    private final boolean isInt;
+    private final double[] values;
+
+    NumericIn(int col, boolean isInt, double[] values) {
+      this.col = col;
+      this.isInt = isInt;
+      this.values = values;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      used[col] = true;
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      double equal = stats == null ? DEFAULT_EQUAL_SELECTIVITY : stats.getColumn(col).equalFraction();
+      return Math.min(1, values.length * equal);
+    }
+
+    private boolean contains(double x) {
+      for (double value : values) {
+        if (x == value) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    double cost() {
+      return NUMERIC_COST * values.length;
+    }
+
+    @Override
+    public boolean test(Record record) {
+      return contains(isInt ? record.getInt(col) : record.getFloat(col));
+    }
+
+    @Override
+    public boolean test(RecordView view) {
+      return contains(isInt ? view.getInt(col) : view.getFloat(col));
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      int out = 0;
+      if (isInt) {
+        int[] column = batch.getInts(col);
+        for (int k = 0; k < n; k++) {
+          if (contains(column[sel[k]])) sel[out++] = sel[k];
+        }
+      } else {
+        float[] column = batch.getFloats(col);
+        for (int k = 0; k < n; k++) {
+          if (contains(column[sel[k]])) sel[out++] = sel[k];
+        }
+      }
+      return out;
+    }
+
+    @Override
+    boolean mayMatchRange(double[] mins, double[] maxs) {
+      for (double value : values) {
+        if (mins[col] <= value && value <= maxs[col]) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Appartenance d'une colonne encodée par dictionnaire à une liste de codes :
+   * les chaînes ne sont jamais décodées.
+   */
+  private static final class CodeIn extends Predicate {
+    private final int col;
+    private final StringDictionary dictionary;
+    private final int[] codes;
+
+    CodeIn(int col, StringDictionary dictionary, int[] codes) {
+      this.col = col;
+      this.dictionary = dictionary;
+      this.codes = codes;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      used[col] = true;
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      double equal = stats == null ? DEFAULT_EQUAL_SELECTIVITY : stats.getColumn(col).equalFraction();
+      // un code -1 désigne une valeur absente du dictionnaire
+      return Math.min(1, Arrays.stream(codes).filter(c -> c >= 0).count() * equal);
+    }
+
+    private boolean contains(int code) {
+      for (int c : codes) {
+        if (code == c) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    double cost() {
+      return NUMERIC_COST * codes.length;
+    }
+
+    @Override
+    public boolean test(Record record) {
+      String value = record.getString(col);
+      return value != null && contains(dictionary.getCode(value));
+    }
+
+    @Override
+    public boolean test(RecordView view) {
+      return contains(view.getCode(col));
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      int[] column = batch.getInts(col);
+      int out = 0;
+      for (int k = 0; k < n; k++) {
+        if (contains(column[sel[k]])) sel[out++] = sel[k];
+      }
+      return out;
+    }
+  }
+
+  /**
+   * Comparaison d'une colonne de chaînes à une constante, dans l'ordre de
+   * String.compareTo.
+   */
+  private static final class StringCompare extends Predicate {
+    private final int col;
+    private final int op;
+    private final String value;
+
+    StringCompare(int col, int op, String value) {
+      this.col = col;
+      this.op = op;
+      this.value = value;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      used[col] = true;
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      return stats == null ? defaultSelectivity(op) : stats.getColumn(col).compareFraction(op, value);
+    }
+
+    @Override
+    double cost() {
+      return STRING_COST;
+    }
+
+    @Override
+    public boolean test(Record record) {
+      String x = record.getString(col);
+      return x != null && matches(op, x.compareTo(value));
+    }
+
+    @Override
+    public boolean test(RecordView view) throws IOException, PageNotFoundException {
+      return matches(op, view.getString(col).compareTo(value));
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      int out = 0;
+      for (int k = 0; k < n; k++) {
+        if (matches(op, batch.getString(col, sel[k]).compareTo(value))) sel[out++] = sel[k];
+      }
+      return out;
+    }
+  }
+
+  /**
+   * Comparaison de deux colonnes : numérique si les deux sont des nombres,
+   * lexicographique si les deux sont des chaînes.
+   */
+  private static final class ColumnCompare extends Predicate {
+    private final int left;
+    private final int leftType;
+    private final int op;
+    private final int right;
+    private final int rightType;
+    private final boolean numeric;
+
+    ColumnCompare(int left, int leftType, int op, int right, int rightType) {
+      this.left = left;
+      this.leftType = leftType;
+      this.op = op;
+      this.right = right;
+      this.rightType = rightType;
+      this.numeric = leftType == RecordLayout.INT || leftType == RecordLayout.FLOAT;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      used[left] = true;
+      used[right] = true;
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      if (op != EQ && op != NE) {
+        return DEFAULT_RANGE_SELECTIVITY;
+      }
+      double equal = stats == null ? DEFAULT_EQUAL_SELECTIVITY
+          : 1.0 / Math.max(stats.getColumn(left).getDistinctCount(), stats.getColumn(right).getDistinctCount());
+      return op == EQ ? equal : 1 - equal;
+    }
+
+    private static double number(Record record, int col, int type) {
+      return type == RecordLayout.INT ? record.getInt(col) : record.getFloat(col);
+    }
+
+    private static double number(RecordView view, int col, int type) {
+      return type == RecordLayout.INT ? view.getInt(col) : view.getFloat(col);
+    }
+
+    @Override
+    double cost() {
+      return numeric ? NUMERIC_COST : 2 * STRING_COST;
+    }
+
+    @Override
+    public boolean test(Record record) {
+      if (numeric) {
+        return matches(op, Double.compare(number(record, left, leftType), number(record, right, rightType)));
+      }
+      String x = record.getString(left);
+      String y = record.getString(right);
+      return x != null && y != null && matches(op, x.compareTo(y));
+    }
+
+    @Override
+    public boolean test(RecordView view) throws IOException, PageNotFoundException {
+      if (numeric) {
+        return matches(op, Double.compare(number(view, left, leftType), number(view, right, rightType)));
+      }
+      return matches(op, view.getString(left).compareTo(view.getString(right)));
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      int out = 0;
+      for (int k = 0; k < n; k++) {
+        int row = sel[k];
+        int c;
+        if (numeric) {
+          double x = leftType == RecordLayout.INT ? batch.getInts(left)[row] : batch.getFloats(left)[row];
+          double y = rightType == RecordLayout.INT ? batch.getInts(right)[row] : batch.getFloats(right)[row];
+          c = Double.compare(x, y);
+        } else {
+          c = batch.getString(left, row).compareTo(batch.getString(right, row));
+        }
+        if (matches(op, c)) sel[out++] = row;
+      }
+      return out;
+    }
+  }
+
+  /**
+   * Appartenance d'une colonne de chaînes non encodée à une liste de valeurs.
+   */
+  private static final class StringIn extends Predicate {
+    private final int col;
+    private final Set<String> values;
+
+    StringIn(int col, Set<String> values) {
+      this.col = col;
+      this.values = values;
+    }
+
+    @Override
+    void addColumns(boolean[] used) {
+      used[col] = true;
+    }
+
+    @Override
+    double selectivity(TableStatistics stats) {
+      double equal = stats == null ? DEFAULT_EQUAL_SELECTIVITY : stats.getColumn(col).equalFraction();
+      return Math.min(1, values.size() * equal);
+    }
+
+    @Override
+    double cost() {
+      return STRING_COST;
+    }
+
+    @Override
+    public boolean test(Record record) {
+      return values.contains(record.getString(col));
+    }
+
+    @Override
+    public boolean test(RecordView view) throws IOException, PageNotFoundException {
+      return values.contains(view.getString(col));
+    }
+
+    @Override
+    int filter(ColumnBatch batch, int[] sel, int n) {
+      String[] column = batch.getStrings(col);
+      int out = 0;
+      for (int k = 0; k < n; k++) {
+        if (values.contains(column[sel[k]])) sel[out++] = sel[k];
+      }
+      return out;
+    }
+  }
+}
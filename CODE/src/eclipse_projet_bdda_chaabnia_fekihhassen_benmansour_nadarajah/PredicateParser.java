@@ -0,0 +1,299 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Analyse une clause WHERE et la compile en Predicate pour une table.
+ * Grammaire reconnue (les mots-clés sont insensibles à la casse) :
+ *
+ * <pre>
+ * expr       := terme (OR terme)*
+ * terme      := facteur (AND facteur)*
+ * facteur    := NOT facteur | ( expr ) | condition
+ * condition  := colonne op valeur
+ *             | colonne op colonne
+ *             | colonne [NOT] IN ( valeur, valeur, ... )
+ *             | colonne [NOT] BETWEEN valeur AND valeur
+ * op         := = | &lt;&gt; | != | &lt; | &lt;= | &gt; | &gt;=
+ * </pre>
+ *
+ * Une valeur peut être entourée de guillemets simples ou doubles, pour
+ * contenir des espaces ou un mot-clé. Une valeur sans guillemets qui est le
+ * nom d'une colonne désigne cette colonne.
+ */
+public class PredicateParser {
+  private final TableInfo tabInfo;
+  private final UnaryOperator<String> columns;
+  private final List<String> tokens;
+  private final List<Boolean> quoted;
+  private int position;
+
+  private PredicateParser(String where, TableInfo tabInfo, UnaryOperator<String> columns) {
+    this.tabInfo = tabInfo;
+    this.columns = columns;
+    this.tokens = new ArrayList<>();
+    this.quoted = new ArrayList<>();
+    tokenize(where);
+  }
+
+  /**
+   * Compile une clause WHERE (sans le mot-clé WHERE) pour une table.
+   *
+   * @param where   La clause, par exemple "A>9 AND (B=x OR C IN (1,2))".
+   * @param tabInfo La table sur laquelle porte la clause.
+   * @return Le prédicat compilé, ou null si la clause est vide.
+   * @throws IllegalArgumentException Si la clause est mal formée, porte sur une
+   *                                  colonne inconnue ou compare une colonne
+   *                                  numérique à une valeur non numérique.
+   */
+  public static Predicate parse(String where, TableInfo tabInfo) {
+    return parse(where, tabInfo, UnaryOperator.identity());
+  }
+
+  /**
+   * Compile une clause WHERE dont les noms de colonnes sont traduits avant
+   * d'être cherchés dans la table, par exemple pour une requête sur plusieurs
+   * tables où une colonne s'écrit qualifiée ou non.
+   *
+   * @param where   La clause.
+   * @param tabInfo La table sur laquelle porte la clause.
+   * @param columns Traduit un nom écrit dans la clause en nom de colonne de la
+   *                table ; lève IllegalArgumentException pour une colonne
+   *                inconnue.
+   * @return Le prédicat compilé, ou null si la clause est vide.
+   * @throws IllegalArgumentException Si la clause est mal formée ou porte sur
+   *                                  une colonne inconnue.
+   */
+  public static Predicate parse(String where, TableInfo tabInfo, UnaryOperator<String> columns) {
+    if (where == null || where.trim().isEmpty()) {
+      return null;
+    }
+    PredicateParser parser = new PredicateParser(where, tabInfo, columns);
+    Predicate predicate = parser.parseExpression();
+    if (parser.position < parser.tokens.size()) {
+      throw new IllegalArgumentException("Condition mal formée près de : " + parser.tokens.get(parser.position));
+    }
+    return predicate;
+  }
+
+  /**
+   * Découpe une clause en conditions reliées par AND au premier niveau, sans
+   * les compiler. Le AND d'un BETWEEN et ceux qui sont entre parenthèses ne
+   * coupent pas la clause ; si elle contient un OR au premier niveau, elle
+   * forme une seule condition.
+   *
+   * @param where La clause.
+   * @return Le texte de chaque condition.
+   */
+  static List<String> splitConjuncts(String where) {
+    List<String> conjuncts = new ArrayList<>();
+    int depth = 0;
+    int start = 0;
+    boolean between = false;
+    int i = 0;
+    while (i < where.length()) {
+      char c = where.charAt(i);
+      if (c == '\'' || c == '"') {
+        int end = where.indexOf(c, i + 1);
+        i = end == -1 ? where.length() : end + 1;
+      } else if (Character.isLetter(c)) {
+        int end = i;
+        while (end < where.length() && isWordChar(where.charAt(end))) {
+          end++;
+        }
+        String word = where.substring(i, end);
+        if (depth == 0 && (i == 0 || !isWordChar(where.charAt(i - 1)))) {
+          if (word.equalsIgnoreCase("OR")) {
+            return List.of(where.trim());
+          } else if (word.equalsIgnoreCase("BETWEEN")) {
+            between = true;
+          } else if (word.equalsIgnoreCase("AND") && between) {
+            between = false;
+          } else if (word.equalsIgnoreCase("AND")) {
+            conjuncts.add(where.substring(start, i).trim());
+            start = end;
+          }
+        }
+        i = end;
+      } else {
+        if (c == '(') {
+          depth++;
+        } else if (c == ')') {
+          depth--;
+        }
+        i++;
+      }
+    }
+    conjuncts.add(where.substring(start).trim());
+    return conjuncts;
+  }
+
+  /**
+   * Masque le contenu des chaînes entre apostrophes ou guillemets, pour y
+   * chercher des mots-clés sans trouver ceux d'une constante. Les positions
+   * sont conservées ; une chaîne non fermée va jusqu'à la fin du texte.
+   *
+   * @param text Le texte d'une commande.
+   * @return Le texte dont chaque caractère entre guillemets est remplacé par
+   *         '_'.
+   */
+  static String maskLiterals(String text) {
+    char[] chars = text.toCharArray();
+    int i = 0;
+    while (i < chars.length) {
+      char c = chars[i];
+      if (c == '\'' || c == '"') {
+        int end = text.indexOf(c, i + 1);
+        end = end == -1 ? chars.length : end;
+        for (int k = i + 1; k < end; k++) {
+          chars[k] = '_';
+        }
+        i = end + 1;
+      } else {
+        i++;
+      }
+    }
+    return new String(chars);
+  }
+
+  private static boolean isWordChar(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+  }
+
+  private void tokenize(String where) {
+    int i = 0;
+    while (i < where.length()) {
+      char c = where.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '\'' || c == '"') {
+        int end = where.indexOf(c, i + 1);
+        if (end == -1) {
+          throw new IllegalArgumentException("Guillemet non fermé dans : " + where);
+        }
+        add(where.substring(i + 1, end), true);
+        i = end + 1;
+      } else if (c == '(' || c == ')' || c == ',') {
+        add(String.valueOf(c), false);
+        i++;
+      } else if (c == '<' || c == '>' || c == '=' || c == '!') {
+        String two = i + 1 < where.length() ? where.substring(i, i + 2) : "";
+        if (two.equals("<>") || two.equals("<=") || two.equals(">=") || two.equals("!=")) {
+          add(two, false);
+          i += 2;
+        } else {
+          add(String.valueOf(c), false);
+          i++;
+        }
+      } else {
+        int start = i;
+        while (i < where.length() && !Character.isWhitespace(where.charAt(i))
+            && "()<>=!,'\"".indexOf(where.charAt(i)) == -1) {
+          i++;
+        }
+        add(where.substring(start, i), false);
+      }
+    }
+  }
+
+  private void add(String token, boolean isQuoted) {
+    tokens.add(token);
+    quoted.add(isQuoted);
+  }
+
+  private boolean peekKeyword(String keyword) {
+    return position < tokens.size() && !quoted.get(position) && tokens.get(position).equalsIgnoreCase(keyword);
+  }
+
+  private boolean acceptKeyword(String keyword) {
+    if (peekKeyword(keyword)) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  private void expect(String token) {
+    if (!acceptKeyword(token)) {
+      throw new IllegalArgumentException(
+          "'" + token + "' attendu" + (position < tokens.size() ? " au lieu de : " + tokens.get(position) : ""));
+    }
+  }
+
+  private String next() {
+    if (position >= tokens.size()) {
+      throw new IllegalArgumentException("Condition incomplète");
+    }
+    return tokens.get(position++);
+  }
+
+  private String findColumn(String name) {
+    try {
+      String column = columns.apply(name);
+      return tabInfo.getLayout().getColumnIndex(column) >= 0 ? column : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private Predicate parseExpression() {
+    List<Predicate> terms = new ArrayList<>();
+    terms.add(parseTerm());
+    while (acceptKeyword("OR")) {
+      terms.add(parseTerm());
+    }
+    return Predicate.or(terms.toArray(new Predicate[0]));
+  }
+
+  private Predicate parseTerm() {
+    List<Predicate> factors = new ArrayList<>();
+    factors.add(parseFactor());
+    while (acceptKeyword("AND")) {
+      factors.add(parseFactor());
+    }
+    return Predicate.and(factors.toArray(new Predicate[0]));
+  }
+
+  private Predicate parseFactor() {
+    if (acceptKeyword("NOT")) {
+      return Predicate.not(parseFactor());
+    }
+    if (acceptKeyword("(")) {
+      Predicate inner = parseExpression();
+      expect(")");
+      return inner;
+    }
+    return parseCondition();
+  }
+
+  private Predicate parseCondition() {
+    String column = columns.apply(next());
+    boolean negated = acceptKeyword("NOT");
+    Predicate condition;
+    if (acceptKeyword("IN")) {
+      expect("(");
+      List<String> values = new ArrayList<>();
+      values.add(next());
+      while (acceptKeyword(",")) {
+        values.add(next());
+      }
+      expect(")");
+      condition = Predicate.in(tabInfo, column, values);
+    } else if (acceptKeyword("BETWEEN")) {
+      String low = next();
+      expect("AND");
+      condition = Predicate.between(tabInfo, column, low, next());
+    } else if (negated) {
+      throw new IllegalArgumentException("IN ou BETWEEN attendu après NOT pour la colonne " + column);
+    } else {
+      String operator = next();
+      String other = position < tokens.size() && !quoted.get(position) ? findColumn(tokens.get(position)) : null;
+      String value = next();
+      condition = other != null ? Predicate.columnComparison(tabInfo, column, operator, other)
+          : Predicate.comparison(tabInfo, column, operator, value);
+    }
+    return negated ? Predicate.not(condition) : condition;
+  }
+}
@@ -0,0 +1,231 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enveloppe d'un opérateur qui mesure son exécution pour EXPLAIN ANALYZE : le
+ * nombre d'ouvertures et d'enregistrements produits, les pages obtenues du
+ * BufferManager (trouvées dans le tampon ou lues sur le disque) et le temps
+ * passé dans open, next et close.
+ * Les mesures sont inclusives : elles comprennent le travail des fils. Les
+ * compteurs du BufferManager étant globaux, ils comptent aussi les pages
+ * lues par les threads d'un parcours parallèle ; le temps CPU, lui, ne couvre
+ * que le thread de la requête.
+ */
+public class ProfiledOperator implements Operator {
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private final Operator operator;
+  private final List<Operator> children;
+  private long loops;
+  private long rows;
+  private long hits;
+  private long misses;
+  private long wallNanos;
+  private long cpuNanos;
+  // début de la mesure en cours
+  private long startWall;
+  private long startCpu;
+  private long startHits;
+  private long startMisses;
+
+  /**
+   * Enveloppe un opérateur. Ses fils doivent déjà être enveloppés pour être
+   * mesurés eux aussi.
+   *
+   * @param operator L'opérateur mesuré.
+   */
+  public ProfiledOperator(Operator operator) {
+    this.operator = operator;
+    this.children = operator.getChildren();
+  }
+
+  /**
+   * Temps CPU du thread courant, ou -1 si la JVM ne le mesure pas.
+   */
+  private static long cpuTime() {
+    return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+  }
+
+  private void start() {
+    BufferManager bm = BufferManager.getInstance();
+    startHits = bm.getHitCount();
+    startMisses = bm.getMissCount();
+    startCpu = cpuTime();
+    startWall = System.nanoTime();
+  }
+
+  private void stop() {
+    wallNanos += System.nanoTime() - startWall;
+    long cpu = cpuTime();
+    if (cpu >= 0 && startCpu >= 0 && cpuNanos >= 0) {
+      cpuNanos += cpu - startCpu;
+    } else {
+      cpuNanos = -1;
+    }
+    BufferManager bm = BufferManager.getInstance();
+    hits += bm.getHitCount() - startHits;
+    misses += bm.getMissCount() - startMisses;
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    loops++;
+    start();
+    try {
+      operator.open();
+    } finally {
+      stop();
+    }
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    start();
+    try {
+      Record record = operator.next();
+      if (record != null) {
+        rows++;
+      }
+      return record;
+    } finally {
+      stop();
+    }
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    start();
+    try {
+      operator.close();
+    } finally {
+      stop();
+    }
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return children;
+  }
+
+  @Override
+  public String describe() {
+    return operator.describe();
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return operator.getSchema();
+  }
+
+  /**
+   * Obtient le nombre d'ouvertures de l'opérateur (plusieurs pour l'entrée
+   * interne d'une jointure par boucles imbriquées).
+   *
+   * @return Le nombre d'ouvertures.
+   */
+  public long getLoops() {
+    return loops;
+  }
+
+  /**
+   * Obtient le nombre d'enregistrements produits, toutes ouvertures confondues.
+   *
+   * @return Le nombre d'enregistrements.
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  /**
+   * Obtient le nombre d'enregistrements reçus des fils mesurés.
+   *
+   * @return La somme des enregistrements produits par les fils.
+   */
+  public long getRowsIn() {
+    long total = 0;
+    for (ProfiledOperator child : profiledChildren()) {
+      total += child.getRows();
+    }
+    return total;
+  }
+
+  /**
+   * Obtient le nombre de pages trouvées dans le tampon.
+   *
+   * @return Le nombre de succès, fils compris.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Obtient le nombre de pages lues sur le disque.
+   *
+   * @return Le nombre de défauts, fils compris.
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Obtient le nombre de pages épinglées par l'opérateur lui-même, sans celles
+   * de ses fils mesurés.
+   *
+   * @return Le nombre de succès propres à l'opérateur.
+   */
+  public long getOwnHits() {
+    long own = hits;
+    for (ProfiledOperator child : profiledChildren()) {
+      own -= child.getHits();
+    }
+    return own;
+  }
+
+  /**
+   * Obtient le nombre de pages lues sur le disque par l'opérateur lui-même,
+   * sans celles de ses fils mesurés.
+   *
+   * @return Le nombre de défauts propres à l'opérateur.
+   */
+  public long getOwnMisses() {
+    long own = misses;
+    for (ProfiledOperator child : profiledChildren()) {
+      own -= child.getMisses();
+    }
+    return own;
+  }
+
+  private List<ProfiledOperator> profiledChildren() {
+    List<ProfiledOperator> profiled = new ArrayList<>();
+    for (Operator child : children) {
+      if (child instanceof ProfiledOperator) {
+        profiled.add((ProfiledOperator) child);
+      }
+    }
+    return profiled;
+  }
+
+  /**
+   * Obtient le temps écoulé dans l'opérateur.
+   *
+   * @return Le temps en nanosecondes, fils compris.
+   */
+  public long getWallNanos() {
+    return wallNanos;
+  }
+
+  /**
+   * Obtient le temps CPU du thread de la requête passé dans l'opérateur.
+   *
+   * @return Le temps en nanosecondes, fils compris, ou -1 s'il n'est pas
+   *         mesurable.
+   */
+  public long getCpuNanos() {
+    return cpuNanos;
+  }
+}
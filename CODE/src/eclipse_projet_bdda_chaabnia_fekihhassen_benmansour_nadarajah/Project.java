@@ -0,0 +1,59 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Opérateur de projection : ne garde que certaines colonnes des
+ * enregistrements du fils, dans l'ordre demandé. Sur une table, il vaut mieux
+ * confier la projection au parcours (SeqScan, BatchScan), qui ne décode alors
+ * que les colonnes utiles ; cet opérateur sert au-dessus des autres.
+ */
+public class Project implements Operator {
+  private final Operator child;
+  private final Projection projection;
+
+  /**
+   * Crée une projection au-dessus d'un opérateur.
+   *
+   * @param child       L'opérateur qui produit les enregistrements.
+   * @param columnNames Les noms des colonnes à garder.
+   * @throws IllegalArgumentException Si une colonne n'existe pas dans le schéma
+   *                                  du fils.
+   */
+  public Project(Operator child, List<String> columnNames) {
+    this.child = child;
+    this.projection = new Projection(child.getSchema(), columnNames);
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    child.open();
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    Record record = child.next();
+    return record == null ? null : projection.project(record);
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    child.close();
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return List.of(child);
+  }
+
+  @Override
+  public String describe() {
+    return "Project " + Operator.columnList(projection.getSchema());
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return projection.getSchema();
+  }
+}
@@ -0,0 +1,131 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liste des colonnes demandées par une requête, résolue une seule fois pour une
+ * table : l'index de chaque colonne dans la table et le schéma des
+ * enregistrements produits. Elle est confiée au parcours pour que seules ces
+ * colonnes soient décodées, et seulement pour les lignes retenues.
+ */
+public class Projection {
+  private final TableInfo schema;
+  private final int[] columns;
+
+  /**
+   * Résout une liste de colonnes pour une table.
+   *
+   * @param tabInfo     La table parcourue.
+   * @param columnNames Les noms des colonnes à produire, dans l'ordre.
+   * @throws IllegalArgumentException Si une colonne n'existe pas dans la table.
+   */
+  public Projection(TableInfo tabInfo, List<String> columnNames) {
+    RecordLayout layout = tabInfo.getLayout();
+    ArrayList<ColInfo> cols = new ArrayList<>();
+    this.columns = new int[columnNames.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = layout.getColumnIndex(columnNames.get(i));
+      if (columns[i] < 0) {
+        throw new IllegalArgumentException("Colonne inconnue : " + columnNames.get(i));
+      }
+      cols.add(tabInfo.getColInfoList().get(columns[i]));
+    }
+    this.schema = new TableInfo(tabInfo.getNom_relation(), cols, null);
+  }
+
+  /**
+   * Obtient le schéma des enregistrements produits : une table temporaire, sans
+   * page d'en-tête, qui reprend les colonnes projetées.
+   *
+   * @return Le schéma projeté.
+   */
+  public TableInfo getSchema() {
+    return schema;
+  }
+
+  /**
+   * Obtient l'index dans la table de chaque colonne projetée.
+   *
+   * @return Les index des colonnes, dans l'ordre de la projection.
+   */
+  int[] getColumns() {
+    return columns;
+  }
+
+  /**
+   * Marque les colonnes de la table utilisées par la projection.
+   *
+   * @param used Un indicateur par colonne de la table, complété sur place.
+   */
+  void addColumns(boolean[] used) {
+    for (int col : columns) {
+      used[col] = true;
+    }
+  }
+
+  /**
+   * Construit l'enregistrement projeté à partir d'une vue sur la page : seules
+   * les colonnes projetées sont décodées.
+   *
+   * @param view La vue sur l'enregistrement retenu.
+   * @return L'enregistrement projeté.
+   * @throws IOException           En cas d'erreur lors de la lecture d'une page
+   *                               de débordement.
+   * @throws PageNotFoundException Si une page de débordement n'a pas été
+   *                               trouvée.
+   */
+  public Record project(RecordView view) throws IOException, PageNotFoundException {
+    Record record = new Record(schema);
+    for (int i = 0; i < columns.length; i++) {
+      int col = columns[i];
+      if (view.isInt(col)) {
+        record.setInt(i, view.getInt(col));
+      } else if (view.isFloat(col)) {
+        record.setFloat(i, view.getFloat(col));
+      } else {
+        record.setString(i, view.getString(col));
+      }
+    }
+    return record;
+  }
+
+  /**
+   * Construit l'enregistrement projeté à partir d'un enregistrement complet.
+   *
+   * @param source L'enregistrement de la table.
+   * @return L'enregistrement projeté.
+   */
+  public Record project(Record source) {
+    Record record = new Record(schema);
+    for (int i = 0; i < columns.length; i++) {
+      record.copyValue(i, source, columns[i]);
+    }
+    return record;
+  }
+
+  /**
+   * Construit l'enregistrement projeté à partir d'une ligne d'un lot.
+   *
+   * @param batch Le lot, rangé selon le schéma de la table.
+   * @param row   L'index de la ligne dans le lot.
+   * @return L'enregistrement projeté.
+   */
+  public Record project(ColumnBatch batch, int row) {
+    RecordLayout layout = batch.getSchema().getLayout();
+    Record record = new Record(schema);
+    for (int i = 0; i < columns.length; i++) {
+      int col = columns[i];
+      int type = layout.getType(col);
+      if (type == RecordLayout.INT) {
+        record.setInt(i, batch.getInts(col)[row]);
+      } else if (type == RecordLayout.FLOAT) {
+        record.setFloat(i, batch.getFloats(col)[row]);
+      } else {
+        record.setString(i, batch.getString(col, row));
+      }
+    }
+    return record;
+  }
+}
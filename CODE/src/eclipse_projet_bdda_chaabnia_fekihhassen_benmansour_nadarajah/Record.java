@@ -1,15 +1,30 @@
 package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
 
-import java.nio.ByteBuffer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
- * Représente un enregistrement de données associé à une table.
+ * Représente un enregistrement de données associé à une table. Les valeurs sont
+ * stockées avec leur type : un tableau d'entiers pour les colonnes INT, un
+ * tableau de flottants pour les colonnes FLOAT et un tableau de chaînes pour
+ * les colonnes STRING et VARSTRING. Elles ne sont converties en texte que pour
+ * l'affichage. Le format binaire d'un enregistrement est décrit par
+ * RecordLayout : les VARSTRING n'occupent que la longueur de leur encodage
+ * UTF-8, et une très grande valeur peut être rangée dans des pages de
+ * débordement (OverflowPages).
  */
 public class Record {
     private TableInfo tabInfo;
-    private ArrayList<String> recvalues;
-    private int size;
+    private RecordLayout layout;
+    private int[] intValues;
+    private float[] floatValues;
+    private String[] stringValues;
+    private byte[][] encodedStrings; // encodage UTF-8 des chaînes, calculé à la demande
+    private PageId[] overflowPageIds; // première page de débordement de chaque VARSTRING, ou null
+    private int[] overflowPrefixLengths; // octets de chaque valeur débordée gardés dans la page
+    private int valueCount; // nombre de valeurs ajoutées avec addValue
 
     /**
      * Initialise un nouvel enregistrement de données associé à la table spécifiée.
@@ -19,46 +34,13 @@ public class Record {
      */
     public Record(TableInfo tabInfo) {
         this.tabInfo = tabInfo;
-        this.recvalues = new ArrayList<>();
-
-    }
-
-    /**
-     * Calcule la taille de l'enregistrement en octets.
-     *
-     * @return La taille de l'enregistrement.
-     */
-    private int calculateSize() {
-        int recordSize = 0;
-
-        for (int i = 0; i < recvalues.size(); i++) {
-            String colType = tabInfo.getColInfoList().get(i).getType();
-
-            if (colType.startsWith("VARSTRING")) {
-                int length = Integer.parseInt(colType.substring(10, colType.length() - 1));
-                recordSize += Integer.BYTES + length * Character.BYTES;
-            } else if (colType.toUpperCase().startsWith("STRING")) {
-                if (colType.contains("(") && colType.contains(")")) {
-                    int length = Integer.parseInt(colType.substring(colType.indexOf("(") + 1, colType.indexOf(")")));
-                    recordSize += length * Character.BYTES;
-                } else {
-                    recordSize += recvalues.get(i).length() * Character.BYTES + Character.BYTES;
-                }
-            } else {
-                switch (colType) {
-                    case "INT":
-                        recordSize += Integer.BYTES;
-                        break;
-                    case "FLOAT":
-                        recordSize += Float.BYTES;
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Type de colonne inconnu : " + colType);
-                }
-            }
-        }
-
-        return recordSize;
+        this.layout = tabInfo.getLayout();
+        int colCount = layout.getColumnCount();
+        this.intValues = new int[colCount];
+        this.floatValues = new float[colCount];
+        this.stringValues = new String[colCount];
+        this.encodedStrings = new byte[colCount][];
+        this.valueCount = 0;
     }
 
     /**
@@ -70,80 +52,234 @@ public class Record {
      * @return Le nombre d'octets écrits dans le tampon.
      */
     public int writeToBuffer(byte[] buff, int pos) {
-        int offset = pos;
-
-        for (String value : recvalues) {
-
-            String type = tabInfo.getColInfoList().get(recvalues.indexOf(value)).getType();
-            byte[] bytesToWrite;
-
-            if (type.startsWith("VARSTRING")) {
-
-                int length = Integer.parseInt(type.substring(10, type.length() - 1));
-                bytesToWrite = value.getBytes();
-                System.arraycopy(bytesToWrite, 0, buff, offset, bytesToWrite.length);
-                offset += length;
-
-            } else if (type.equals("INT")) {
-
-                int intValue = Integer.parseInt(value);
-                bytesToWrite = ByteBuffer.allocate(Integer.BYTES).putInt(intValue).array();
-                System.arraycopy(bytesToWrite, 0, buff, offset, bytesToWrite.length);
-                offset += Integer.BYTES;
-
-            } else if (type.equals("FLOAT")) {
-
-                float floatValue = Float.parseFloat(value);
-                bytesToWrite = ByteBuffer.allocate(Float.BYTES).putFloat(floatValue).array();
-                System.arraycopy(bytesToWrite, 0, buff, offset, bytesToWrite.length);
-                offset += Float.BYTES;
+        int varPos = layout.getVarDataStart();
+
+        for (int i = 0; i < stringValues.length; i++) {
+            int offset = pos + layout.getOffset(i);
+            switch (layout.getType(i)) {
+                case RecordLayout.INT:
+                    putInt(buff, offset, intValues[i]);
+                    break;
+                case RecordLayout.FLOAT:
+                    putInt(buff, offset, Float.floatToRawIntBits(floatValues[i]));
+                    break;
+                case RecordLayout.DICTIONARY:
+                    putInt(buff, offset, layout.getDictionary(i).encode(stringValues[i]));
+                    break;
+                case RecordLayout.STRING:
+                    // chaîne complétée par des 0 jusqu'à la largeur de la colonne
+                    byte[] fixedBytes = getEncodedString(i);
+                    System.arraycopy(fixedBytes, 0, buff, offset, fixedBytes.length);
+                    Arrays.fill(buff, offset + fixedBytes.length, offset + layout.getWidth(i), (byte) 0);
+                    break;
+                default:
+                    // début de la chaîne dans la table d'offsets, puis ses octets
+                    byte[] varBytes = getEncodedString(i);
+                    PageId overflowPageId = getOverflowPageId(i);
+                    if (overflowPageId == null) {
+                        putInt(buff, offset, varPos);
+                        System.arraycopy(varBytes, 0, buff, pos + varPos, varBytes.length);
+                        varPos += varBytes.length;
+                    } else {
+                        // préfixe puis pointeur vers la chaîne de débordement
+                        int prefixLength = OverflowPages.getPrefixLength(varBytes);
+                        putInt(buff, offset, varPos | OverflowPages.OVERFLOW_FLAG);
+                        System.arraycopy(varBytes, 0, buff, pos + varPos, prefixLength);
+                        int pointer = pos + varPos + prefixLength;
+                        putInt(buff, pointer, varBytes.length);
+                        putInt(buff, pointer + 4, overflowPageId.getFileIdx());
+                        putInt(buff, pointer + 8, overflowPageId.getPageIdx());
+                        varPos += prefixLength + OverflowPages.POINTER_SIZE;
+                    }
+                    putInt(buff, offset + Integer.BYTES, varPos);
             }
         }
 
-        return offset - pos;
+        return varPos;
     }
 
     /**
      * Lit les données de l'enregistrement à partir d'un tampon de bytes à partir de
-     * la position spécifiée.
+     * la position spécifiée. Une valeur rangée dans des pages de débordement
+     * reste à null jusqu'à l'appel de loadOverflowValues.
      *
      * @param buff Le tampon de bytes à partir duquel lire les données.
      * @param pos  La position de départ dans le tampon.
      * @return Le nombre d'octets lus à partir du tampon.
      */
     public int readFromBuffer(byte[] buff, int pos) {
-        int offset = pos;
-        recvalues.clear();
+        for (int i = 0; i < stringValues.length; i++) {
+            int offset = pos + layout.getOffset(i);
+            encodedStrings[i] = null;
+            setOverflow(i, null, 0);
+            switch (layout.getType(i)) {
+                case RecordLayout.INT:
+                    intValues[i] = getInt(buff, offset);
+                    break;
+                case RecordLayout.FLOAT:
+                    floatValues[i] = Float.intBitsToFloat(getInt(buff, offset));
+                    break;
+                case RecordLayout.DICTIONARY:
+                    stringValues[i] = layout.getDictionary(i).decode(getInt(buff, offset));
+                    break;
+                case RecordLayout.STRING:
+                    stringValues[i] = decodeString(buff, offset, layout.getWidth(i));
+                    break;
+                default:
+                    int start = getInt(buff, offset);
+                    int end = getInt(buff, offset + Integer.BYTES) & ~OverflowPages.OVERFLOW_FLAG;
+                    if ((start & OverflowPages.OVERFLOW_FLAG) == 0) {
+                        stringValues[i] = new String(buff, pos + start, end - start, StandardCharsets.UTF_8);
+                    } else {
+                        // seul le préfixe est copié, la suite est lue par loadOverflowValues
+                        start &= ~OverflowPages.OVERFLOW_FLAG;
+                        int pointer = pos + end - OverflowPages.POINTER_SIZE;
+                        int prefixLength = end - OverflowPages.POINTER_SIZE - start;
+                        byte[] bytes = new byte[getInt(buff, pointer)];
+                        System.arraycopy(buff, pos + start, bytes, 0, prefixLength);
+                        encodedStrings[i] = bytes;
+                        stringValues[i] = null;
+                        setOverflow(i, new PageId(getInt(buff, pointer + 4), getInt(buff, pointer + 8)), prefixLength);
+                    }
+            }
+        }
 
-        for (ColInfo colInfo : tabInfo.getColInfoList()) {
-            String colType = colInfo.getType();
-            byte[] bytesToRead;
+        valueCount = stringValues.length;
+        if (!layout.hasVariableColumns()) {
+            return layout.getVarDataStart();
+        }
+        // la dernière entrée de la table d'offsets est la fin de l'enregistrement
+        return getInt(buff, pos + layout.getVarDataStart() - Integer.BYTES);
+    }
 
-            if (colType.startsWith("VARSTRING")) {
+    /**
+     * Lit dans les pages de débordement la fin des valeurs qui y sont rangées.
+     *
+     * @throws IOException           En cas d'erreur lors de l'accès au disque.
+     * @throws PageNotFoundException Si une page de débordement n'a pas été
+     *                               trouvée.
+     */
+    public void loadOverflowValues() throws IOException, PageNotFoundException {
+        if (overflowPageIds == null) {
+            return;
+        }
+        for (int i = 0; i < overflowPageIds.length; i++) {
+            if (overflowPageIds[i] != null && stringValues[i] == null) {
+                OverflowPages.read(overflowPageIds[i], encodedStrings[i], overflowPrefixLengths[i]);
+                stringValues[i] = new String(encodedStrings[i], StandardCharsets.UTF_8);
+            }
+        }
+    }
 
-                int length = Integer.parseInt(colType.substring(10, colType.length() - 1));
-                bytesToRead = new byte[length];
-                System.arraycopy(buff, offset, bytesToRead, 0, length);
-                recvalues.add(new String(bytesToRead));
-                offset += length;
+    /**
+     * Obtient la première page de débordement d'une valeur.
+     *
+     * @param col L'index de la colonne.
+     * @return La première page de la chaîne, ou null si la valeur est dans la
+     *         page de données.
+     */
+    PageId getOverflowPageId(int col) {
+        return overflowPageIds == null ? null : overflowPageIds[col];
+    }
 
-            } else if (colType.equals("INT")) {
+    /**
+     * Indique que la fin d'une valeur VARSTRING est rangée dans une chaîne de
+     * pages de débordement.
+     *
+     * @param col          L'index de la colonne.
+     * @param firstPageId  La première page de la chaîne, ou null si la valeur
+     *                     reste dans la page de données.
+     * @param prefixLength Le nombre d'octets gardés dans la page de données.
+     */
+    void setOverflow(int col, PageId firstPageId, int prefixLength) {
+        if (overflowPageIds == null) {
+            if (firstPageId == null) {
+                return;
+            }
+            overflowPageIds = new PageId[stringValues.length];
+            overflowPrefixLengths = new int[stringValues.length];
+        }
+        overflowPageIds[col] = firstPageId;
+        overflowPrefixLengths[col] = prefixLength;
+    }
 
-                bytesToRead = new byte[Integer.BYTES];
-                System.arraycopy(buff, offset, bytesToRead, 0, Integer.BYTES);
-                recvalues.add(String.valueOf(ByteBuffer.wrap(bytesToRead).getInt()));
-                offset += Integer.BYTES;
+    /**
+     * Oublie toutes les chaînes de débordement : les valeurs seront réécrites
+     * dans la page de données, ou débordées à nouveau.
+     */
+    void clearOverflow() {
+        overflowPageIds = null;
+        overflowPrefixLengths = null;
+    }
 
-            } else if (colType.equals("FLOAT")) {
+    byte[] getEncodedString(int col) {
+        if (encodedStrings[col] == null) {
+            encodedStrings[col] = encodeString(stringValues[col], layout.getWidth(col));
+        }
+        return encodedStrings[col];
+    }
 
-                bytesToRead = new byte[Float.BYTES];
-                System.arraycopy(buff, offset, bytesToRead, 0, Float.BYTES);
-                recvalues.add(String.valueOf(ByteBuffer.wrap(bytesToRead).getFloat()));
-                offset += Float.BYTES;
-            }
+    /**
+     * Encode une chaîne en UTF-8, tronquée à la largeur maximale de la colonne
+     * sans couper de caractère.
+     *
+     * @param value     La chaîne à encoder.
+     * @param maxLength La largeur maximale en octets.
+     * @return Les octets de la chaîne.
+     */
+    static byte[] encodeString(String value, int maxLength) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= maxLength) {
+            return bytes;
+        }
+        int length = maxLength;
+        while (length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
         }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Écrit un entier en big-endian dans un tableau d'octets, comme
+     * ByteBuffer.putInt.
+     *
+     * @param buff  Le tableau d'octets.
+     * @param pos   La position d'écriture.
+     * @param value La valeur à écrire.
+     */
+    static void putInt(byte[] buff, int pos, int value) {
+        buff[pos] = (byte) (value >>> 24);
+        buff[pos + 1] = (byte) (value >>> 16);
+        buff[pos + 2] = (byte) (value >>> 8);
+        buff[pos + 3] = (byte) value;
+    }
+
+    /**
+     * Lit un entier big-endian dans un tableau d'octets, comme ByteBuffer.getInt.
+     *
+     * @param buff Le tableau d'octets.
+     * @param pos  La position de lecture.
+     * @return La valeur lue.
+     */
+    static int getInt(byte[] buff, int pos) {
+        return (buff[pos] << 24) | ((buff[pos + 1] & 0xFF) << 16) | ((buff[pos + 2] & 0xFF) << 8)
+                | (buff[pos + 3] & 0xFF);
+    }
 
-        return offset - pos;
+    /**
+     * Décode une chaîne UTF-8 de largeur fixe en ignorant les 0 de remplissage.
+     *
+     * @param buff   Le tableau d'octets.
+     * @param pos    La position de la chaîne.
+     * @param length La largeur de la colonne.
+     * @return La chaîne décodée.
+     */
+    static String decodeString(byte[] buff, int pos, int length) {
+        int end = pos + length;
+        while (end > pos && buff[end - 1] == 0) {
+            end--;
+        }
+        return new String(buff, pos, end - pos, StandardCharsets.UTF_8);
     }
 
     /**
@@ -164,24 +300,153 @@ public class Record {
      */
     public void setTabInfo(TableInfo tabInfo) {
         this.tabInfo = tabInfo;
+        this.layout = tabInfo.getLayout();
+    }
+
+    /**
+     * Obtient la valeur entière d'une colonne INT.
+     *
+     * @param col L'index de la colonne.
+     * @return La valeur de la colonne.
+     */
+    public int getInt(int col) {
+        return intValues[col];
+    }
+
+    /**
+     * Obtient la valeur d'une colonne FLOAT.
+     *
+     * @param col L'index de la colonne.
+     * @return La valeur de la colonne.
+     */
+    public float getFloat(int col) {
+        return floatValues[col];
+    }
+
+    /**
+     * Obtient la valeur d'une colonne STRING ou VARSTRING.
+     *
+     * @param col L'index de la colonne.
+     * @return La valeur de la colonne.
+     */
+    public String getString(int col) {
+        return stringValues[col];
+    }
+
+    /**
+     * Définit la valeur d'une colonne INT.
+     *
+     * @param col   L'index de la colonne.
+     * @param value La nouvelle valeur.
+     */
+    public void setInt(int col, int value) {
+        intValues[col] = value;
+        valueCount = Math.max(valueCount, col + 1);
+    }
+
+    /**
+     * Définit la valeur d'une colonne FLOAT.
+     *
+     * @param col   L'index de la colonne.
+     * @param value La nouvelle valeur.
+     */
+    public void setFloat(int col, float value) {
+        floatValues[col] = value;
+        valueCount = Math.max(valueCount, col + 1);
+    }
+
+    /**
+     * Définit la valeur d'une colonne STRING ou VARSTRING.
+     *
+     * @param col   L'index de la colonne.
+     * @param value La nouvelle valeur.
+     */
+    public void setString(int col, String value) {
+        stringValues[col] = value;
+        encodedStrings[col] = null;
+        setOverflow(col, null, 0);
+        valueCount = Math.max(valueCount, col + 1);
+    }
+
+    /**
+     * Copie une valeur d'un autre enregistrement, sans passer par sa
+     * représentation textuelle. Les deux colonnes doivent être du même type.
+     *
+     * @param col    L'index de la colonne à définir.
+     * @param source L'enregistrement d'où vient la valeur.
+     * @param srcCol L'index de la colonne dans l'enregistrement source.
+     */
+    public void copyValue(int col, Record source, int srcCol) {
+        int type = source.layout.getType(srcCol);
+        if (type == RecordLayout.INT) {
+            setInt(col, source.intValues[srcCol]);
+        } else if (type == RecordLayout.FLOAT) {
+            setFloat(col, source.floatValues[srcCol]);
+        } else {
+            setString(col, source.stringValues[srcCol]);
+        }
+    }
+
+    /**
+     * Définit la valeur d'une colonne à partir de sa représentation textuelle,
+     * convertie selon le type de la colonne.
+     *
+     * @param col   L'index de la colonne.
+     * @param value La valeur sous forme de texte.
+     * @throws NumberFormatException Si la valeur ne correspond pas au type
+     *                               numérique de la colonne.
+     */
+    public void setValueFromString(int col, String value) {
+        int type = layout.getType(col);
+        if (type == RecordLayout.INT) {
+            setInt(col, Integer.parseInt(value));
+        } else if (type == RecordLayout.FLOAT) {
+            setFloat(col, Float.parseFloat(value));
+        } else {
+            setString(col, value);
+        }
     }
 
     /**
-     * Obtient les valeurs de l'enregistrement.
+     * Obtient la représentation textuelle d'une valeur, pour l'affichage.
+     *
+     * @param col L'index de la colonne.
+     * @return La valeur sous forme de texte.
+     */
+    public String getValueAsString(int col) {
+        int type = layout.getType(col);
+        if (type == RecordLayout.INT) {
+            return String.valueOf(intValues[col]);
+        } else if (type == RecordLayout.FLOAT) {
+            return String.valueOf(floatValues[col]);
+        }
+        return stringValues[col];
+    }
+
+    /**
+     * Obtient les valeurs de l'enregistrement sous forme de texte, pour
+     * l'affichage. La liste est construite à chaque appel.
      *
      * @return Les valeurs de l'enregistrement.
      */
     public ArrayList<String> getRecvalues() {
+        ArrayList<String> recvalues = new ArrayList<>(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            recvalues.add(getValueAsString(i));
+        }
         return recvalues;
     }
 
     /**
-     * Définit les valeurs de l'enregistrement.
+     * Définit les valeurs de l'enregistrement à partir de leur représentation
+     * textuelle.
      *
      * @param recvalues Les nouvelles valeurs de l'enregistrement.
      */
     public void setRecvalues(ArrayList<String> recvalues) {
-        this.recvalues = recvalues;
+        for (int i = 0; i < recvalues.size(); i++) {
+            setValueFromString(i, recvalues.get(i));
+        }
     }
 
     // public void addValue(String value) {
@@ -190,13 +455,21 @@ public class Record {
     // }
 
     /**
-     * Ajoute une valeur à l'enregistrement.
+     * Ajoute une valeur à l'enregistrement, dans la colonne suivante. Un Integer
+     * ou un Float est stocké tel quel, toute autre valeur est convertie selon le
+     * type de la colonne.
      *
      * @param value La valeur à ajouter.
      */
     public void addValue(Object value) {
-        this.recvalues.add(String.valueOf(value));
-        this.size = calculateSize(); // on recalcule la taille apres chaque ajout
+        int col = valueCount;
+        if (value instanceof Integer) {
+            setInt(col, (Integer) value);
+        } else if (value instanceof Float) {
+            setFloat(col, (Float) value);
+        } else {
+            setValueFromString(col, String.valueOf(value));
+        }
     }
 
     /**
@@ -205,14 +478,22 @@ public class Record {
      * @return La taille de l'enregistrement.
      */
     public int getSize() {
+        int size = layout.getVarDataStart();
+        for (int i = 0; i < stringValues.length; i++) {
+            if (layout.getType(i) == RecordLayout.VARSTRING) {
+                byte[] bytes = getEncodedString(i);
+                size += getOverflowPageId(i) == null ? bytes.length
+                        : OverflowPages.getPrefixLength(bytes) + OverflowPages.POINTER_SIZE;
+            }
+        }
         return size;
     }
 
     public void printRecordDetails() {
         // System.out.println("Details du record:");
-        for (String value : recvalues) {
-            System.out.println("Valeur: " + value);
+        for (int i = 0; i < valueCount; i++) {
+            System.out.println("Valeur: " + getValueAsString(i));
         }
     }
 
-}
\ No newline at end of file
+}
@@ -2,14 +2,20 @@ package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.List;
 
 /**
  * Un itérateur pour parcourir les enregistrements dans une page de données
- * associée à une table.
+ * associée à une table. Il peut ne renvoyer que les enregistrements qui
+ * satisfont un prédicat. Le prédicat est évalué sur une RecordView qui lit
+ * directement la page épinglée : seules les colonnes des conditions sont
+ * décodées, et un Record n'est construit que pour les enregistrements retenus.
  */
 public class RecordIterator {
   private final TableInfo tabInfo;
   private final PageId pageId;
+  private final Predicate predicate;
+  private final RecordView view;
   private ByteBuffer dataPageBuffer;
   private int currentOffset;
 
@@ -21,8 +27,34 @@ public class RecordIterator {
    * @param pageId  Le PageId de la page de données à parcourir.
    */
   public RecordIterator(TableInfo tabInfo, PageId pageId) {
+    this(tabInfo, pageId, (Predicate) null);
+  }
+
+  /**
+   * Initialise un nouvel itérateur qui ne renvoie que les enregistrements de la
+   * page satisfaisant toutes les conditions.
+   *
+   * @param tabInfo    L'information sur la table associée à la page de données.
+   * @param pageId     Le PageId de la page de données à parcourir.
+   * @param conditions Les conditions reliées par AND, ou null pour tout renvoyer.
+   */
+  public RecordIterator(TableInfo tabInfo, PageId pageId, List<SelectCondition> conditions) {
+    this(tabInfo, pageId, Predicate.compile(conditions, tabInfo));
+  }
+
+  /**
+   * Initialise un nouvel itérateur qui ne renvoie que les enregistrements de la
+   * page satisfaisant un prédicat déjà compilé.
+   *
+   * @param tabInfo   L'information sur la table associée à la page de données.
+   * @param pageId    Le PageId de la page de données à parcourir.
+   * @param predicate Le prédicat, ou null pour tout renvoyer.
+   */
+  public RecordIterator(TableInfo tabInfo, PageId pageId, Predicate predicate) {
     this.tabInfo = tabInfo;
     this.pageId = pageId;
+    this.predicate = predicate;
+    this.view = new RecordView(tabInfo);
     this.dataPageBuffer = null;
     this.currentOffset = 0;
   }
@@ -36,35 +68,67 @@ public class RecordIterator {
    * @throws PageNotFoundException Si la page n'a pas pu être trouvée.
    */
   public Record getNextRecord() throws IOException, PageNotFoundException {
+    RecordView next = getNextView();
+    return next == null ? null : next.toRecord();
+  }
+
+  /**
+   * Positionne la vue de l'itérateur sur le prochain enregistrement de la page,
+   * sans rien copier. La vue renvoyée est toujours la même et n'est valide que
+   * jusqu'au prochain appel.
+   *
+   * @return La vue sur le prochain enregistrement, ou null s'il n'y en a plus.
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si la page n'a pas pu être trouvée.
+   */
+  public RecordView getNextView() throws IOException, PageNotFoundException {
     if (dataPageBuffer == null) {
       BufferManager bm = BufferManager.getInstance();
       dataPageBuffer = bm.getPage(pageId);
     }
 
+    boolean pax = tabInfo.getFormat() == PageFormat.PAX;
     int pageSize = DBParams.SGBDPageSize;
-    int recordCount = dataPageBuffer.getInt(pageSize - 8);
+    int recordCount = pax ? PaxPage.getRowCount(dataPageBuffer) : dataPageBuffer.getInt(pageSize - 8);
+
+    while (currentOffset < recordCount) {
+      int row = currentOffset;
+      currentOffset++;
 
-    if (currentOffset < recordCount) {
-      int slotStart = dataPageBuffer.getInt(pageSize - (8 + (currentOffset + 1) * 8));
-      int slotSize = dataPageBuffer.getInt(pageSize - (8 + (currentOffset + 1) * 8) + 4);
+      // saute les enregistrements supprimés
+      if (pax) {
+        if (!PaxPage.isLive(dataPageBuffer, row)) {
+          continue;
+        }
+        view.moveTo(dataPageBuffer, row);
+      } else {
+        int slotStart = dataPageBuffer.getInt(pageSize - (8 + (row + 1) * 8));
+        if (slotStart == FileManager.TOMBSTONE) {
+          continue;
+        }
+        view.moveTo(dataPageBuffer, slotStart);
+      }
 
-      ByteBuffer recordBuffer = ByteBuffer.allocate(slotSize);
-      int oldLimit = dataPageBuffer.limit();
-      dataPageBuffer.position(slotStart);
-      dataPageBuffer.limit(slotStart + slotSize);
-      recordBuffer.put(dataPageBuffer);
-      dataPageBuffer.limit(oldLimit);
-      recordBuffer.flip();
+      if (predicate == null || predicate.test(view)) {
+        return view;
+      }
+    }
 
-      Record record = new Record(tabInfo);
-      record.readFromBuffer(recordBuffer.array(), 0);
+    close();
+    return null;
+  }
 
-      currentOffset++;
-      return record;
-    } else {
-      close();
+  /**
+   * Obtient l'identifiant du dernier enregistrement renvoyé par getNextRecord.
+   *
+   * @return L'identifiant du dernier enregistrement lu, ou null si aucun
+   *         enregistrement n'a encore été lu.
+   */
+  public RecordId getCurrentRecordId() {
+    if (currentOffset == 0) {
       return null;
     }
+    return new RecordId(pageId, currentOffset);
   }
 
   /**
@@ -87,4 +151,4 @@ public class RecordIterator {
   public void reset() {
     currentOffset = 0;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,220 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Disposition compilée du schéma d'une table : le code du type, la largeur
+ * maximale et la position de chaque colonne dans un enregistrement. Elle est
+ * calculée une seule fois par TableInfo, pour que la sérialisation et
+ * l'évaluation des conditions n'analysent plus les chaînes de type comme
+ * "VARSTRING(20)" à chaque valeur.
+ * Un enregistrement NSM commence par une partie fixe (INT, FLOAT et STRING(n)
+ * aux positions données par getOffset), suivie d'une table d'offsets (int) pour
+ * les colonnes VARSTRING : l'entrée k donne le début de la k-ième chaîne
+ * variable et la dernière entrée la fin de l'enregistrement, les positions
+ * étant relatives au début de l'enregistrement. Viennent ensuite les octets
+ * UTF-8 des chaînes variables, sans remplissage.
+ * Une colonne de chaînes encodée par dictionnaire est de type DICTIONARY et
+ * occupe 4 octets dans la partie fixe, quelle que soit sa largeur déclarée.
+ */
+public class RecordLayout {
+  static final int INT = 0;
+  static final int FLOAT = 1;
+  static final int STRING = 2;
+  static final int VARSTRING = 3;
+  static final int DICTIONARY = 4; // chaîne stockée par son code dans le dictionnaire
+
+  private final int[] types;
+  private final int[] widths;
+  private final int[] offsets;
+  private final StringDictionary[] dictionaries;
+  private final int fixedSize;
+  private final int varDataStart;
+  private final int maxRecordSize;
+  private final int rowWidth;
+  private final Map<String, Integer> columnIndexes;
+
+  /**
+   * Compile la disposition d'une liste de colonnes.
+   *
+   * @param cols Les colonnes de la table, dans l'ordre.
+   * @throws IllegalArgumentException Si un type de colonne est inconnu.
+   */
+  RecordLayout(List<ColInfo> cols) {
+    this.types = new int[cols.size()];
+    this.widths = new int[cols.size()];
+    this.offsets = new int[cols.size()];
+    this.dictionaries = new StringDictionary[cols.size()];
+    this.columnIndexes = new HashMap<>();
+
+    int offset = 0;
+    int varCount = 0;
+    int varWidths = 0;
+    for (int i = 0; i < cols.size(); i++) {
+      String type = cols.get(i).getType();
+      if (type.equals("INT")) {
+        types[i] = INT;
+        widths[i] = Integer.BYTES;
+      } else if (type.equals("FLOAT")) {
+        types[i] = FLOAT;
+        widths[i] = Float.BYTES;
+      } else if (type.toUpperCase().startsWith("VARSTRING")) {
+        types[i] = VARSTRING;
+        widths[i] = parseLength(type);
+      } else if (type.toUpperCase().startsWith("STRING")) {
+        types[i] = STRING;
+        widths[i] = parseLength(type);
+      } else {
+        throw new IllegalArgumentException("Type de colonne inconnu : " + type);
+      }
+      if (cols.get(i).getDictionary() != null) {
+        types[i] = DICTIONARY;
+        widths[i] = Integer.BYTES;
+        dictionaries[i] = cols.get(i).getDictionary();
+      }
+      if (types[i] == VARSTRING) {
+        varCount++;
+        varWidths += widths[i];
+      } else {
+        offsets[i] = offset;
+        offset += widths[i];
+      }
+      columnIndexes.putIfAbsent(cols.get(i).getName(), i);
+    }
+
+    // les colonnes VARSTRING pointent sur leur entrée de la table d'offsets
+    int tablePos = offset;
+    for (int i = 0; i < cols.size(); i++) {
+      if (types[i] == VARSTRING) {
+        offsets[i] = tablePos;
+        tablePos += Integer.BYTES;
+      }
+    }
+
+    this.fixedSize = offset;
+    this.varDataStart = varCount == 0 ? offset : offset + (varCount + 1) * Integer.BYTES;
+    this.maxRecordSize = varDataStart + varWidths;
+    this.rowWidth = offset + varWidths;
+  }
+
+  private static int parseLength(String type) {
+    if (!type.contains("(") || !type.contains(")")) {
+      throw new IllegalArgumentException("Longueur manquante pour le type : " + type);
+    }
+    return Integer.parseInt(type.substring(type.indexOf("(") + 1, type.indexOf(")")).trim());
+  }
+
+  /**
+   * Obtient le nombre de colonnes.
+   *
+   * @return Le nombre de colonnes.
+   */
+  public int getColumnCount() {
+    return types.length;
+  }
+
+  /**
+   * Obtient le code du type d'une colonne (INT, FLOAT, STRING, VARSTRING ou
+   * DICTIONARY).
+   *
+   * @param col L'index de la colonne.
+   * @return Le code du type.
+   */
+  public int getType(int col) {
+    return types[col];
+  }
+
+  /**
+   * Indique si une colonne contient des chaînes de caractères.
+   *
+   * @param col L'index de la colonne.
+   * @return True pour une colonne STRING ou VARSTRING, encodée ou non.
+   */
+  public boolean isString(int col) {
+    return types[col] >= STRING;
+  }
+
+  /**
+   * Obtient le dictionnaire d'une colonne de type DICTIONARY.
+   *
+   * @param col L'index de la colonne.
+   * @return Le dictionnaire, ou null pour une colonne non encodée.
+   */
+  public StringDictionary getDictionary(int col) {
+    return dictionaries[col];
+  }
+
+  /**
+   * Obtient la largeur maximale en octets d'une valeur de la colonne.
+   *
+   * @param col L'index de la colonne.
+   * @return La largeur de la colonne.
+   */
+  public int getWidth(int col) {
+    return widths[col];
+  }
+
+  /**
+   * Obtient la position d'une colonne depuis le début de l'enregistrement, ou
+   * pour une colonne VARSTRING celle de son entrée dans la table d'offsets.
+   *
+   * @param col L'index de la colonne.
+   * @return La position de la colonne.
+   */
+  public int getOffset(int col) {
+    return offsets[col];
+  }
+
+  /**
+   * Indique si la table a des colonnes VARSTRING, donc des enregistrements de
+   * taille variable.
+   *
+   * @return True si les enregistrements ont une table d'offsets.
+   */
+  public boolean hasVariableColumns() {
+    return varDataStart != fixedSize;
+  }
+
+  /**
+   * Obtient la position du début des chaînes variables, juste après la table
+   * d'offsets.
+   *
+   * @return La taille de la partie fixe et de la table d'offsets.
+   */
+  public int getVarDataStart() {
+    return varDataStart;
+  }
+
+  /**
+   * Obtient la taille maximale d'un enregistrement NSM, quand toutes les
+   * chaînes variables occupent leur largeur maximale.
+   *
+   * @return La taille maximale d'un enregistrement.
+   */
+  public int getMaxRecordSize() {
+    return maxRecordSize;
+  }
+
+  /**
+   * Obtient la largeur d'une ligne dans une page PAX, où chaque colonne occupe
+   * toujours sa largeur maximale.
+   *
+   * @return La somme des largeurs des colonnes.
+   */
+  public int getRowWidth() {
+    return rowWidth;
+  }
+
+  /**
+   * Obtient l'index d'une colonne à partir de son nom.
+   *
+   * @param name Le nom de la colonne.
+   * @return L'index de la colonne, ou -1 si elle n'existe pas.
+   */
+  public int getColumnIndex(String name) {
+    Integer index = columnIndexes.get(name);
+    return index == null ? -1 : index;
+  }
+}
@@ -0,0 +1,164 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Une vue sur un enregistrement directement dans le buffer d'une page épinglée,
+ * sans copie. La même vue est repositionnée d'un enregistrement à l'autre
+ * pendant un parcours, et une valeur n'est décodée que lorsqu'on la demande. Un
+ * Record complet n'est construit, avec toRecord, que pour les enregistrements
+ * retenus.
+ * La vue n'est valide que tant que la page reste épinglée et n'est pas
+ * modifiée.
+ */
+public class RecordView {
+  private final TableInfo tabInfo;
+  private final boolean pax;
+  private final RecordLayout layout;
+  private ByteBuffer page;
+  private int position; // début du slot (NSM) ou index de la ligne (PAX)
+
+  /**
+   * Crée une vue, non encore positionnée, sur les enregistrements de la table.
+   *
+   * @param tabInfo Les informations de la table.
+   */
+  public RecordView(TableInfo tabInfo) {
+    this.tabInfo = tabInfo;
+    this.pax = tabInfo.getFormat() == PageFormat.PAX;
+    this.layout = tabInfo.getLayout();
+  }
+
+  /**
+   * Positionne la vue sur un enregistrement de la page.
+   *
+   * @param page     Le buffer de la page, épinglé.
+   * @param position Le début du slot pour une page NSM, l'index de la ligne pour
+   *                 une page PAX.
+   */
+  void moveTo(ByteBuffer page, int position) {
+    this.page = page;
+    this.position = position;
+  }
+
+  private int getColumnPosition(int col) {
+    if (pax) {
+      return page.getInt(12 + 4 * col) + position * layout.getWidth(col);
+    }
+    return position + layout.getOffset(col);
+  }
+
+  /**
+   * Obtient les informations de la table de l'enregistrement.
+   *
+   * @return Les informations de la table.
+   */
+  public TableInfo getTabInfo() {
+    return tabInfo;
+  }
+
+  /**
+   * Décode la valeur d'une colonne INT.
+   *
+   * @param col L'index de la colonne.
+   * @return La valeur de la colonne.
+   */
+  public int getInt(int col) {
+    return page.getInt(getColumnPosition(col));
+  }
+
+  /**
+   * Décode la valeur d'une colonne FLOAT.
+   *
+   * @param col L'index de la colonne.
+   * @return La valeur de la colonne.
+   */
+  public float getFloat(int col) {
+    return page.getFloat(getColumnPosition(col));
+  }
+
+  /**
+   * Décode la valeur d'une colonne STRING ou VARSTRING. Les pages de
+   * débordement d'une valeur ne sont lues que si cette colonne est demandée.
+   *
+   * @param col L'index de la colonne.
+   * @return La valeur de la colonne.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page de débordement n'a pas été
+   *                               trouvée.
+   */
+  public String getString(int col) throws IOException, PageNotFoundException {
+    if (layout.getType(col) == RecordLayout.DICTIONARY) {
+      return layout.getDictionary(col).decode(getCode(col));
+    }
+    if (!pax && layout.getType(col) == RecordLayout.VARSTRING) {
+      // début et fin de la chaîne dans la table d'offsets
+      int entry = position + layout.getOffset(col);
+      int start = page.getInt(entry);
+      int end = page.getInt(entry + Integer.BYTES) & ~OverflowPages.OVERFLOW_FLAG;
+      if ((start & OverflowPages.OVERFLOW_FLAG) != 0) {
+        start &= ~OverflowPages.OVERFLOW_FLAG;
+        int pointer = position + end - OverflowPages.POINTER_SIZE;
+        int prefixLength = end - OverflowPages.POINTER_SIZE - start;
+        byte[] bytes = new byte[page.getInt(pointer)];
+        System.arraycopy(page.array(), position + start, bytes, 0, prefixLength);
+        OverflowPages.read(new PageId(page.getInt(pointer + 4), page.getInt(pointer + 8)), bytes, prefixLength);
+        return new String(bytes, StandardCharsets.UTF_8);
+      }
+      return new String(page.array(), position + start, end - start, StandardCharsets.UTF_8);
+    }
+    return Record.decodeString(page.array(), getColumnPosition(col), layout.getWidth(col));
+  }
+
+  /**
+   * Lit le code d'une colonne encodée par dictionnaire, sans décoder la chaîne.
+   *
+   * @param col L'index de la colonne.
+   * @return Le code de la valeur.
+   */
+  public int getCode(int col) {
+    return page.getInt(getColumnPosition(col));
+  }
+
+  /**
+   * Indique si une colonne est de type INT.
+   *
+   * @param col L'index de la colonne.
+   * @return True pour une colonne INT.
+   */
+  public boolean isInt(int col) {
+    return layout.getType(col) == RecordLayout.INT;
+  }
+
+  /**
+   * Indique si une colonne est de type FLOAT.
+   *
+   * @param col L'index de la colonne.
+   * @return True pour une colonne FLOAT.
+   */
+  public boolean isFloat(int col) {
+    return layout.getType(col) == RecordLayout.FLOAT;
+  }
+
+  /**
+   * Construit un Record indépendant de la page avec toutes les valeurs de
+   * l'enregistrement courant.
+   *
+   * @return Le Record construit.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page de débordement n'a pas été
+   *                               trouvée.
+   */
+  public Record toRecord() throws IOException, PageNotFoundException {
+    Record record = new Record(tabInfo);
+    if (pax) {
+      PaxPage.readColumns(page, record, position, null);
+    } else {
+      record.readFromBuffer(page.array(), position);
+      record.loadOverflowValues();
+    }
+    return record;
+  }
+}
@@ -0,0 +1,40 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+
+/**
+ * Destination des enregistrements produits par la racine d'un plan
+ * d'exécution (affichage, fichier, ...).
+ */
+public interface ResultSink {
+
+  /**
+   * Prépare la destination avant le premier enregistrement.
+   *
+   * @param schema Le schéma des enregistrements qui vont arriver.
+   * @throws IOException Si une erreur d'entrée/sortie se produit.
+   */
+  void open(TableInfo schema) throws IOException;
+
+  /**
+   * Reçoit un enregistrement du résultat.
+   *
+   * @param record L'enregistrement produit.
+   * @throws IOException Si une erreur d'entrée/sortie se produit.
+   */
+  void consume(Record record) throws IOException;
+
+  /**
+   * Termine le résultat, après le dernier enregistrement.
+   *
+   * @throws IOException Si une erreur d'entrée/sortie se produit.
+   */
+  void close() throws IOException;
+
+  /**
+   * Obtient le nombre d'enregistrements reçus.
+   *
+   * @return Le nombre d'enregistrements reçus depuis open.
+   */
+  int getCount();
+}
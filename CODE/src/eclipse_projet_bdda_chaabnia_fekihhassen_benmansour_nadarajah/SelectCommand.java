@@ -1,19 +1,50 @@
 package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
  * Commande pour effectuer une requête SELECT sur une table de la base de
- * données.
+ * données : SELECT * FROM nom_table [WHERE condition] ou
+ * SELECT col1, col2 FROM nom_table [WHERE condition]. La liste peut contenir
+ * des fonctions d'agrégation (COUNT, SUM, AVG, MIN, MAX), avec une clause
+ * GROUP BY col1, col2 facultative. Le résultat peut être trié par
+ * ORDER BY col1 [ASC|DESC], col2 ... et limité à ses n premières lignes par
+ * LIMIT n. Plusieurs tables séparées par des virgules
+ * sont jointes sur les égalités de colonnes de la clause WHERE
+ * (voir JoinPlanner). Le résultat est affiché, ou écrit dans un fichier par
+ * INTO CSV fichier ou INTO BINARY fichier (voir CsvSink et BinarySink).
  */
 public class SelectCommand {
-  private String relationName;
-  private FileManager fileManager;
-  private ArrayList<SelectCondition> conditions; // New field to store the conditions
+  // clauses reconnues après FROM, dans n'importe quel ordre
+  private static final String[] CLAUSES = { " WHERE ", " GROUP BY ", " ORDER BY ", " LIMIT ", " INTO " };
+  // chemins d'accès d'un parcours de table
+  static final int SEQ_SCAN = 0;
+  static final int PARALLEL_SCAN = 1;
+  static final int BATCH_SCAN = 2;
+  // coût du démarrage d'un thread de parcours, relatif à la lecture d'une page
+  private static final double THREAD_COST = 1;
+  // part du coût d'une ligne qui reste quand elle est filtrée dans un lot
+  private static final double BATCH_ROW_FACTOR = 0.25;
+
+  private List<String> relationNames;
+  private List<String> columnNames; // null pour SELECT *
+  private List<Aggregate> aggregates = new ArrayList<>();
+  private List<String> groupBy; // null sans agrégation
+  private List<String> orderBy; // null sans tri
+  private boolean[] descending;
+  private int limit = -1; // -1 sans LIMIT
+  private String outputFormat; // CSV ou BINARY, null pour l'affichage
+  private String outputPath;
+  private String whereClause; // compilée à l'exécution, pour le schéma de la table
+  private Predicate predicate;
+  private Projection projection;
+  private JoinPlanner joinPlanner; // null pour une seule table
   private boolean condition = false;
 
   /**
@@ -23,70 +54,211 @@ public class SelectCommand {
    * @throws IllegalArgumentException Si la commande est mal formée.
    */
   public SelectCommand(String command) {
-    String[] commandParts = command.split(" ");
-    if (commandParts.length < 4) {
+    String trimmed = command.trim();
+    // les mots-clés sont cherchés hors des constantes entre guillemets
+    String upper = PredicateParser.maskLiterals(trimmed).toUpperCase();
+    int fromIndex = upper.indexOf(" FROM ");
+    if (!upper.startsWith("SELECT ") || fromIndex == -1) {
       throw new IllegalArgumentException("Commande mal formée");
     }
-    this.relationName = commandParts[3];
-    this.fileManager = FileManager.getInstance();
 
-    for (String elements : commandParts) {
-      if (elements.equals("WHERE")) {
-        this.condition = true;
-        break;
+    String selectList = trimmed.substring(7, fromIndex).trim();
+    if (!selectList.equals("*")) {
+      this.columnNames = new ArrayList<>();
+      for (String item : selectList.split(",")) {
+        if (item.trim().isEmpty()) {
+          throw new IllegalArgumentException("Liste de colonnes mal formée : " + selectList);
+        }
+        Aggregate aggregate = Aggregate.parse(item);
+        if (aggregate != null) {
+          aggregates.add(aggregate);
+        }
+        columnNames.add(aggregate != null ? aggregate.toString() : item.trim());
       }
     }
 
-    if (this.condition) {
-      String conditionsStr = command.substring(command.indexOf("WHERE") + 6).trim();
-      this.conditions = parseConditions(conditionsStr);
+    String fromPart = getClause(trimmed, upper, fromIndex, " FROM ");
+    if (fromPart.isEmpty()) {
+      throw new IllegalArgumentException("Commande mal formée");
+    }
+    this.relationNames = new ArrayList<>();
+    for (String table : fromPart.split(",")) {
+      if (table.trim().isEmpty()) {
+        throw new IllegalArgumentException("Liste de tables mal formée : " + fromPart);
+      }
+      relationNames.add(table.trim().split("\\s+")[0]);
     }
-  }
 
-  private ArrayList<SelectCondition> parseConditions(String conditionsStr) {
-    ArrayList<SelectCondition> parsedConditions = new ArrayList<>();
+    this.whereClause = getClause(trimmed, upper, upper.indexOf(" WHERE ", fromIndex), " WHERE ");
+    this.condition = whereClause != null;
 
-    if (!conditionsStr.isEmpty()) {
-      String[] conditionsSplit = conditionsStr.split(" AND ");
-      for (String conditionStr : conditionsSplit) {
-        parsedConditions.add(parseEachCondition(conditionStr.trim()));
+    String groupPart = getClause(trimmed, upper, upper.indexOf(" GROUP BY ", fromIndex), " GROUP BY ");
+    if (groupPart != null || !aggregates.isEmpty()) {
+      if (columnNames == null) {
+        throw new IllegalArgumentException("SELECT * n'est pas permis avec GROUP BY");
+      }
+      this.groupBy = new ArrayList<>();
+      if (groupPart != null) {
+        for (String name : groupPart.split(",")) {
+          if (name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Clause GROUP BY mal formée : " + groupPart);
+          }
+          groupBy.add(name.trim());
+        }
       }
-    } else {
-      parsedConditions.add(new SelectCondition());
     }
 
-    return parsedConditions;
-  }
+    String orderPart = getClause(trimmed, upper, upper.indexOf(" ORDER BY ", fromIndex), " ORDER BY ");
+    if (orderPart != null) {
+      String[] items = orderPart.split(",");
+      this.orderBy = new ArrayList<>();
+      this.descending = new boolean[items.length];
+      for (int i = 0; i < items.length; i++) {
+        String item = items[i].trim();
+        String upperItem = item.toUpperCase();
+        if (upperItem.endsWith(" DESC") || upperItem.endsWith(" ASC")) {
+          descending[i] = upperItem.endsWith(" DESC");
+          item = item.substring(0, item.lastIndexOf(' ')).trim();
+        }
+        if (item.isEmpty()) {
+          throw new IllegalArgumentException("Clause ORDER BY mal formée : " + orderPart);
+        }
+        Aggregate aggregate = Aggregate.parse(item);
+        orderBy.add(aggregate != null ? aggregate.toString() : item);
+      }
+    }
 
-  private SelectCondition parseEachCondition(String conditionStr) {
-    String[] parts = conditionStr.split("=|<|>|<=|>=|<>", 2); // Split only on the first occurrence
-    if (parts.length < 2) {
-      // Handle invalid condition
-      throw new IllegalArgumentException("Invalid condition: " + conditionStr);
+    String limitPart = getClause(trimmed, upper, upper.indexOf(" LIMIT ", fromIndex), " LIMIT ");
+    if (limitPart != null) {
+      try {
+        this.limit = Integer.parseInt(limitPart);
+      } catch (NumberFormatException e) {
+        this.limit = -1;
+      }
+      if (limit < 0) {
+        throw new IllegalArgumentException("Clause LIMIT mal formée : " + limitPart);
+      }
     }
 
-    String columnName = parts[0].trim();
-    String rest = parts[1].trim();
+    String intoPart = getClause(trimmed, upper, upper.indexOf(" INTO ", fromIndex), " INTO ");
+    if (intoPart != null) {
+      String[] parts = intoPart.split("\\s+", 2);
+      this.outputFormat = parts[0].toUpperCase();
+      if (parts.length < 2 || !(outputFormat.equals("CSV") || outputFormat.equals("BINARY"))) {
+        throw new IllegalArgumentException("Clause INTO mal formée : " + intoPart);
+      }
+      this.outputPath = parts[1].trim();
+    }
+  }
 
-    // Extract the operator
-    String operator = "";
-    if (conditionStr.contains("=")) {
-      operator = "=";
-    } else if (conditionStr.contains("<>")) {
-      operator = "<>";
-    } else if (conditionStr.contains("<=")) {
-      operator = "<=";
-    } else if (conditionStr.contains(">=")) {
-      operator = ">=";
-    } else if (conditionStr.contains("<")) {
-      operator = "<";
-    } else if (conditionStr.contains(">")) {
-      operator = ">";
+  /**
+   * Remplace les noms de colonnes de la requête par leur nom qualifié, pour une
+   * requête sur plusieurs tables, puis vérifie que chaque colonne simple d'une
+   * agrégation est dans le GROUP BY.
+   *
+   * @param columns Traduit un nom écrit dans la requête.
+   * @throws IllegalArgumentException Si une colonne est inconnue ou n'est pas
+   *                                  dans le GROUP BY.
+   */
+  private void resolveColumns(UnaryOperator<String> columns) {
+    if (columnNames != null) {
+      List<Aggregate> resolved = new ArrayList<>();
+      for (Aggregate aggregate : aggregates) {
+        String column = aggregate.getColumnName();
+        resolved.add(new Aggregate(aggregate.getFunction(), column == null ? null : columns.apply(column)));
+      }
+      int next = 0;
+      for (int i = 0; i < columnNames.size(); i++) {
+        boolean isAggregate = Aggregate.parse(columnNames.get(i)) != null;
+        columnNames.set(i, isAggregate ? resolved.get(next++).toString() : columns.apply(columnNames.get(i)));
+      }
+      aggregates = resolved;
+    }
+    if (groupBy != null) {
+      groupBy.replaceAll(columns);
+      for (String name : columnNames) {
+        if (Aggregate.parse(name) == null && !groupBy.contains(name)) {
+          throw new IllegalArgumentException(
+              "La colonne " + name + " doit apparaître dans GROUP BY ou dans une agrégation");
+        }
+      }
+    }
+    if (orderBy != null) {
+      for (int i = 0; i < orderBy.size(); i++) {
+        Aggregate aggregate = Aggregate.parse(orderBy.get(i));
+        if (aggregate == null) {
+          orderBy.set(i, columns.apply(orderBy.get(i)));
+          continue;
+        }
+        if (groupBy == null) {
+          throw new IllegalArgumentException("Agrégation " + aggregate + " dans ORDER BY sans GROUP BY");
+        }
+        String column = aggregate.getColumnName();
+        aggregate = new Aggregate(aggregate.getFunction(), column == null ? null : columns.apply(column));
+        String name = aggregate.toString();
+        orderBy.set(i, name);
+        // une agrégation qui ne sert qu'au tri est calculée, puis retirée par la projection finale
+        if (aggregates.stream().noneMatch(a -> a.toString().equals(name))) {
+          aggregates.add(aggregate);
+        }
+      }
     }
+  }
 
-    String value = rest.substring(operator.length()).trim();
+  /**
+   * Obtient les colonnes lues par la requête au-dessus des parcours et des
+   * jointures.
+   *
+   * @return Les noms des colonnes, ou null si toutes sont demandées.
+   */
+  private List<String> getUsedColumns() {
+    if (columnNames == null) {
+      return null;
+    }
+    if (groupBy == null) {
+      List<String> used = new ArrayList<>(columnNames);
+      if (orderBy != null) {
+        for (String name : orderBy) {
+          if (!used.contains(name)) {
+            used.add(name);
+          }
+        }
+      }
+      return used;
+    }
+    List<String> used = new ArrayList<>(groupBy);
+    for (Aggregate aggregate : aggregates) {
+      if (aggregate.getColumnName() != null && !used.contains(aggregate.getColumnName())) {
+        used.add(aggregate.getColumnName());
+      }
+    }
+    return used;
+  }
 
-    return new SelectCondition(columnName, operator, value);
+  /**
+   * Extrait le texte d'une clause, jusqu'au début de la clause suivante.
+   *
+   * @param trimmed La commande.
+   * @param upper   La commande en majuscules, constantes masquées, pour
+   *                chercher les mots-clés.
+   * @param start   La position du mot-clé de la clause, ou -1 si elle est
+   *                absente.
+   * @param keyword Le mot-clé, entouré d'espaces.
+   * @return Le texte de la clause, ou null si elle est absente.
+   */
+  private static String getClause(String trimmed, String upper, int start, String keyword) {
+    if (start == -1) {
+      return null;
+    }
+    int from = start + keyword.length();
+    int end = trimmed.length();
+    for (String other : CLAUSES) {
+      int position = upper.indexOf(other, from);
+      if (position != -1 && position < end) {
+        end = position;
+      }
+    }
+    return trimmed.substring(from, end).trim();
   }
 
   /**
@@ -100,44 +272,26 @@ public class SelectCommand {
     System.out.println("SELECT command...");
 
     try {
-      TableInfo tableInfo = DataBaseInfo.getInstance().getTableInfo(relationName);
-
-      if (tableInfo == null) {
-        System.out.println("La Table \"" + relationName + "\" n'existe pas.");
+      List<TableInfo> tables = getTables();
+      if (tables == null) {
         return;
       }
-
-      // System.out.println("Fetching all records from table \"" + relationName +
-      // "\"...");
-      System.out.println(
-          "Nombre de colonnes de la table " + tableInfo.getNom_relation() + " est  = " + tableInfo.getNb_colonnes());
-      System.out.println(
-          "Column names = " + tableInfo.getColInfoList().stream().map(ColInfo::getName).collect(Collectors.toList()));
-      System.out.println("Header page id = " + tableInfo.getHeaderPageId());
-
-      // Get all records using fileManager
-      List<Record> allRecords = fileManager.GetAllRecords(tableInfo);
-      // System.out.println("Number of records fetched from fileManager = " +
-      // allRecords.size());
-
-      List<Record> records = new ArrayList<>(allRecords);
-
-      if (this.condition) {
-        // System.out.println("Applying conditions...");
-        records = records.stream()
-            .filter(record -> {
-              System.out.println("Checking conditions for record: " + record);
-              boolean satisfies = satisfiesConditions(record);
-              System.out.println("Does record satisfy conditions? " + satisfies);
-              return satisfies;
-            })
-            .collect(Collectors.toList());
+      for (TableInfo tableInfo : tables) {
+        // System.out.println("Fetching all records from table \"" + relationName +
+        // "\"...");
+        System.out.println(
+            "Nombre de colonnes de la table " + tableInfo.getNom_relation() + " est  = " + tableInfo.getNb_colonnes());
+        System.out.println(
+            "Column names = " + tableInfo.getColInfoList().stream().map(ColInfo::getName).collect(Collectors.toList()));
+        System.out.println("Header page id = " + tableInfo.getHeaderPageId());
       }
 
-      // System.out.println("Printing records...");
-      printRecords(records);
-
-      // System.out.println("Total records = " + records.size());
+      Operator plan = plan(tables, UnaryOperator.identity());
+      ResultSink sink = createSink();
+      run(plan, sink);
+      if (outputPath != null) {
+        System.out.println(sink.getCount() + " enregistrement(s) écrit(s) dans " + outputPath + ".");
+      }
     } catch (IOException e) {
       System.out.println("An IOException occurred while executing the SELECT command: " + e.getMessage());
     } catch (PageNotFoundException e) {
@@ -145,26 +299,198 @@ public class SelectCommand {
     }
   }
 
-  private void printRecords(List<Record> records) {
-    // System.out.println("Printing records that satisfy the conditions...");
-    for (Record record : records) {
-      if (satisfiesConditions(record)) {
-        ArrayList<String> values = record.getRecvalues();
-        for (String value : values) {
-          System.out.print(value + " ; ");
-        }
-        System.out.println(".");
+  /**
+   * Cherche les tables du FROM dans le catalogue.
+   *
+   * @return Les tables, dans l'ordre du FROM, ou null si l'une d'elles
+   *         n'existe pas (un message est alors affiché).
+   */
+  List<TableInfo> getTables() {
+    List<TableInfo> tables = new ArrayList<>();
+    for (String relationName : relationNames) {
+      TableInfo tableInfo = DataBaseInfo.getInstance().getTableInfo(relationName);
+      if (tableInfo == null) {
+        System.out.println("La Table \"" + relationName + "\" n'existe pas.");
+        return null;
       }
+      tables.add(tableInfo);
+    }
+    return tables;
+  }
+
+  /**
+   * Résout les colonnes de la requête, compile ses conditions et construit son
+   * plan.
+   *
+   * @param tables Les tables du FROM.
+   * @param wrap   Appliquée à chaque opérateur créé, fils compris, pour
+   *               l'envelopper (EXPLAIN ANALYZE), ou l'identité.
+   * @return La racine du plan.
+   * @throws IOException           En cas d'erreur d'entrée/sortie.
+   * @throws PageNotFoundException Si une page n'est pas trouvée.
+   */
+  Operator plan(List<TableInfo> tables, UnaryOperator<Operator> wrap) throws IOException, PageNotFoundException {
+    if (tables.size() > 1) {
+      joinPlanner = new JoinPlanner(tables, whereClause);
+      resolveColumns(joinPlanner::qualify);
+    } else {
+      resolveColumns(UnaryOperator.identity());
+      // la clause est compilée une seule fois pour toute la requête, et le
+      // parcours ne décode que les colonnes utiles
+      predicate = this.condition ? PredicateParser.parse(whereClause, tables.get(0)) : null;
+      List<String> used = getUsedColumns();
+      projection = used == null ? null : new Projection(tables.get(0), used);
     }
+    return buildPlan(tables, wrap);
   }
 
-  private boolean satisfiesConditions(Record record) {
-    for (SelectCondition condition : conditions) {
-      if (!condition.isSatisfiedBy(record)) {
-        return false;
+  /**
+   * Construit le plan d'exécution de la requête. Le prédicat et la projection
+   * sont confiés au parcours : il exclut des pages grâce à leur zone map, évalue
+   * le prédicat sur les octets des pages et ne décode les colonnes demandées
+   * que pour les lignes retenues. Sur plusieurs tables, les jointures sont
+   * planifiées par le JoinPlanner. Une agrégation puis un tri sont placés
+   * au-dessus, suivis si besoin d'une projection qui rétablit la liste du
+   * SELECT. Avec LIMIT, le tri ne garde que les meilleurs enregistrements
+   * (TopN) ; sans tri, une Limit arrête le plan dès qu'elle est atteinte.
+   *
+   * @param tables Les tables interrogées.
+   * @param wrap   Appliquée à chaque opérateur créé.
+   * @return La racine du plan.
+   * @throws IOException           En cas d'erreur d'entrée/sortie.
+   * @throws PageNotFoundException Si une page n'est pas trouvée.
+   */
+  Operator buildPlan(List<TableInfo> tables, UnaryOperator<Operator> wrap) throws IOException, PageNotFoundException {
+    Operator plan;
+    if (joinPlanner == null) {
+      plan = wrap.apply(buildScan(tables.get(0), predicate, projection));
+    } else {
+      plan = joinPlanner.buildPlan(getUsedColumns(), wrap);
+    }
+    if (groupBy != null) {
+      plan = wrap.apply(new HashAggregate(plan, groupBy, aggregates, DBParams.AggregationMaxGroups));
+    }
+    if (orderBy != null) {
+      plan = wrap.apply(limit >= 0 ? new TopN(plan, orderBy, descending, limit) : new Sort(plan, orderBy, descending));
+    } else if (limit >= 0) {
+      plan = wrap.apply(new Limit(plan, limit));
+    }
+    if (columnNames == null) {
+      return plan;
+    }
+    List<String> produced = plan.getSchema().getColInfoList().stream().map(ColInfo::getName)
+        .collect(Collectors.toList());
+    return produced.equals(columnNames) ? plan : wrap.apply(new Project(plan, columnNames));
+  }
+
+  /**
+   * Construit le parcours d'une table par le chemin d'accès le moins coûteux
+   * (voir scanCosts).
+   *
+   * @param tableInfo  La table parcourue.
+   * @param predicate  Le prédicat compilé pour la table, ou null.
+   * @param projection Les colonnes à produire, ou null pour toutes.
+   * @return L'opérateur de parcours.
+   * @throws IOException           En cas d'erreur d'entrée/sortie.
+   * @throws PageNotFoundException Si une page n'est pas trouvée.
+   */
+  static Operator buildScan(TableInfo tableInfo, Predicate predicate, Projection projection)
+      throws IOException, PageNotFoundException {
+    double[] costs = scanCosts(tableInfo, predicate);
+    int path = SEQ_SCAN;
+    for (int p = 0; p < costs.length; p++) {
+      if (costs[p] < costs[path]) {
+        path = p;
       }
     }
+    if (path == BATCH_SCAN) {
+      return new Materialize(new BatchScan(tableInfo, predicate, projection), projection);
+    }
+    if (path == PARALLEL_SCAN) {
+      return new ParallelSeqScan(tableInfo, predicate, projection, DBParams.ScanParallelism);
+    }
+    return new SeqScan(tableInfo, predicate, projection);
+  }
 
-    return true;
+  /**
+   * Estime le coût de chaque chemin d'accès à une table, dans l'unité du
+   * JoinPlanner : la lecture d'une page. Tous lisent les pages que la zone map
+   * ne permet pas d'écarter ; ils diffèrent par le coût des lignes.
+   * <ul>
+   * <li>SEQ_SCAN évalue le prédicat ligne à ligne.</li>
+   * <li>PARALLEL_SCAN partage ce travail entre DBParams.ScanParallelism
+   * threads, mais paie le démarrage de chacun ; les lectures passent toutes
+   * par le BufferManager et ne sont pas divisées.</li>
+   * <li>BATCH_SCAN filtre des lots de colonnes pour une fraction du coût d'une
+   * ligne, puis reconstruit un enregistrement par ligne retenue : il gagne
+   * sur les prédicats sélectifs, et perd quand presque tout est retenu.</li>
+   * </ul>
+   * Un chemin désactivé (DBParams.VectorizedExecution à false, ou
+   * DBParams.ScanParallelism à 1) a un coût infini.
+   *
+   * @param tableInfo La table parcourue.
+   * @param predicate Le prédicat compilé pour la table, ou null.
+   * @return Le coût de chaque chemin, indexé par SEQ_SCAN, PARALLEL_SCAN et
+   *         BATCH_SCAN.
+   * @throws IOException           En cas d'erreur d'entrée/sortie.
+   * @throws PageNotFoundException Si une page n'est pas trouvée.
+   */
+  static double[] scanCosts(TableInfo tableInfo, Predicate predicate) throws IOException, PageNotFoundException {
+    TableStatistics stats = tableInfo.getStatistics();
+    double pages = FileManager.getInstance().getDataPages(tableInfo, predicate).size();
+    double rowsPerPage = stats != null && stats.getPageCount() > 0
+        ? (double) stats.getRowCount() / stats.getPageCount()
+        : (double) DBParams.SGBDPageSize / tableInfo.getLayout().getMaxRecordSize();
+    double rows = pages * rowsPerPage;
+    double selectivity = predicate == null ? 1 : predicate.selectivity(stats);
+    int threads = DBParams.ScanParallelism;
+
+    double[] costs = new double[3];
+    costs[SEQ_SCAN] = pages + JoinPlanner.ROW_COST * rows;
+    costs[PARALLEL_SCAN] = threads <= 1 ? Double.POSITIVE_INFINITY
+        : pages + JoinPlanner.ROW_COST * rows / threads + THREAD_COST * threads;
+    costs[BATCH_SCAN] = !DBParams.VectorizedExecution ? Double.POSITIVE_INFINITY
+        : pages + JoinPlanner.ROW_COST * rows * (BATCH_ROW_FACTOR + selectivity);
+    return costs;
+  }
+
+  /**
+   * Exécute un plan en flux : chaque enregistrement produit par la racine est
+   * transmis aussitôt à la destination. Le plan et la destination sont fermés
+   * même en cas d'erreur.
+   *
+   * @param plan La racine du plan.
+   * @param sink La destination des résultats.
+   * @throws IOException           En cas d'erreur d'entrée/sortie.
+   * @throws PageNotFoundException Si une page n'est pas trouvée.
+   */
+  static void run(Operator plan, ResultSink sink) throws IOException, PageNotFoundException {
+    plan.open();
+    try {
+      sink.open(plan.getSchema());
+      try {
+        Record record;
+        while ((record = plan.next()) != null) {
+          sink.consume(record);
+        }
+      } finally {
+        sink.close();
+      }
+    } finally {
+      plan.close();
+    }
+  }
+
+  /**
+   * Crée la destination du résultat demandée par la clause INTO.
+   *
+   * @return La destination : l'affichage sans clause INTO.
+   */
+  ResultSink createSink() {
+    if (outputFormat == null) {
+      return new ConsoleSink();
+    }
+    Path path = Paths.get(outputPath);
+    return outputFormat.equals("CSV") ? new CsvSink(path) : new BinarySink(path);
   }
-}
\ No newline at end of file
+}
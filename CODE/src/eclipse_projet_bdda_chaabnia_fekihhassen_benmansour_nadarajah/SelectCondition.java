@@ -1,10 +1,12 @@
 package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
 
-import java.util.List;
+import java.util.ArrayList;
 
 /**
  * Représente une condition pour une requête SELECT sur une table de la base de
- * données.
+ * données, telle qu'analysée depuis la clause WHERE. Elle n'est pas évaluée
+ * directement : elle est compilée en Predicate (voir Predicate.compile), qui
+ * résout une seule fois la colonne et le type de chaque comparaison.
  */
 public class SelectCondition {
   private String columnName; // the name of the column to compare with
@@ -34,6 +36,45 @@ public class SelectCondition {
     this.value = null;
   }
 
+  /**
+   * Analyse la partie WHERE d'une commande (sans le mot-clé WHERE) en une liste
+   * de conditions reliées par AND.
+   *
+   * @param conditionsStr Les conditions sous forme de chaîne de caractères.
+   * @return La liste des conditions.
+   * @throws IllegalArgumentException Si une condition est mal formée.
+   */
+  public static ArrayList<SelectCondition> parseConditions(String conditionsStr) {
+    ArrayList<SelectCondition> parsedConditions = new ArrayList<>();
+
+    if (!conditionsStr.isEmpty()) {
+      String[] conditionsSplit = conditionsStr.split(" AND ");
+      for (String conditionStr : conditionsSplit) {
+        parsedConditions.add(parseEachCondition(conditionStr.trim()));
+      }
+    } else {
+      parsedConditions.add(new SelectCondition());
+    }
+
+    return parsedConditions;
+  }
+
+  private static SelectCondition parseEachCondition(String conditionStr) {
+    // les opérateurs de deux caractères sont testés avant ceux d'un caractère
+    String[] operators = { "<>", "<=", ">=", "=", "<", ">" };
+    for (String operator : operators) {
+      int index = conditionStr.indexOf(operator);
+      if (index > 0) {
+        String columnName = conditionStr.substring(0, index).trim();
+        String value = conditionStr.substring(index + operator.length()).trim();
+        return new SelectCondition(columnName, operator, value);
+      }
+    }
+
+    // Handle invalid condition
+    throw new IllegalArgumentException("Invalid condition: " + conditionStr);
+  }
+
   // Getters for the attributes
   public String getColumnName() {
     return columnName;
@@ -46,59 +87,4 @@ public class SelectCondition {
   public String getValue() {
     return value;
   }
-
-  /**
-   * Vérifie si un enregistrement satisfait cette condition.
-   *
-   * @param record L'enregistrement à vérifier.
-   * @return True si l'enregistrement satisfait la condition, sinon False.
-   */
-  public boolean isSatisfiedBy(Record record) {
-    // Get the value of the column in the record
-    int columnIndex = -1;
-    List<ColInfo> tableCols = record.getTabInfo().getColInfoList();
-    for (int i = 0; i < tableCols.size(); i++) {
-      if (tableCols.get(i).getName().equals(columnName)) {
-        columnIndex = i;
-        break;
-      }
-    }
-
-    if (columnIndex == -1) {
-      // Handle the case where the column does not exist in the record
-      System.out.println("The column " + columnName + " does not exist in the record");
-      return false;
-    } else {
-      System.out.println("The column " + columnName + " exists in the record");
-    }
-
-    String columnValue = record.getRecvalues().get(columnIndex);
-    if (columnValue == null) {
-      // Handle the case where the column value is null
-      System.out.println(
-          "The column " + columnName + " has a null value in the record because of a certain problem");
-      return false;
-    } else {
-      System.out.println(
-          "The column " + columnName + " has a non-null value in the record because of a certain problem");
-    }
-
-    // Compare the value with the condition
-    switch (operator) {
-      case "=":
-        return columnValue.equals(value);
-      case "<":
-        return columnValue.compareTo(value) < 0;
-      case ">":
-        return columnValue.compareTo(value) > 0;
-      case "<=":
-        return columnValue.compareTo(value) <= 0;
-      case ">=":
-        return columnValue.compareTo(value) >= 0;
-      case "!=":
-        return !columnValue.equals(value);
-      default:
-        return false;
-    }
-  }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Opérateur de parcours séquentiel d'une table. Le prédicat qui lui est confié
+ * est évalué directement sur les pages par le TableScan ; un Record n'est
+ * construit que pour les lignes retenues, et seulement avec les colonnes de la
+ * projection.
+ */
+public class SeqScan implements Operator {
+  private final TableInfo tabInfo;
+  private final Predicate predicate;
+  private final Projection projection;
+  private TableScan scan;
+
+  /**
+   * Crée un parcours de toute la table.
+   *
+   * @param tabInfo Les informations de la table à parcourir.
+   */
+  public SeqScan(TableInfo tabInfo) {
+    this(tabInfo, null);
+  }
+
+  /**
+   * Crée un parcours de la table qui ne renvoie que les enregistrements
+   * satisfaisant le prédicat. Les pages exclues par leur zone map ne sont pas
+   * lues.
+   *
+   * @param tabInfo   Les informations de la table à parcourir.
+   * @param predicate Le prédicat compilé pour la table, ou null.
+   */
+  public SeqScan(TableInfo tabInfo, Predicate predicate) {
+    this(tabInfo, predicate, null);
+  }
+
+  /**
+   * Crée un parcours filtré qui ne produit que certaines colonnes.
+   *
+   * @param tabInfo    Les informations de la table à parcourir.
+   * @param predicate  Le prédicat compilé pour la table, ou null.
+   * @param projection Les colonnes à produire, ou null pour toutes.
+   */
+  public SeqScan(TableInfo tabInfo, Predicate predicate, Projection projection) {
+    this.tabInfo = tabInfo;
+    this.predicate = predicate;
+    this.projection = projection;
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    List<PageId> dataPageIds = FileManager.getInstance().getDataPages(tabInfo, predicate);
+    scan = new TableScan(tabInfo, dataPageIds, predicate);
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    RecordView view = scan.getNextView();
+    if (view == null) {
+      return null;
+    }
+    return projection == null ? view.toRecord() : projection.project(view);
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    if (scan != null) {
+      scan.close();
+      scan = null;
+    }
+  }
+
+  @Override
+  public String describe() {
+    return "SeqScan " + tabInfo.getNom_relation() + (predicate != null ? " [filtre]" : "")
+        + (projection != null ? " " + Operator.columnList(projection.getSchema()) : "");
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return projection == null ? tabInfo : projection.getSchema();
+  }
+}
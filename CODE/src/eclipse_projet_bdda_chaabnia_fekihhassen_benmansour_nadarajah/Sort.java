@@ -0,0 +1,133 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Opérateur de tri (ORDER BY) : consomme tous les enregistrements du fils dans
+ * un ExternalSorter, qui déborde sur le disque au-delà de
+ * DBParams.SortMemoryPages pages, puis les renvoie dans l'ordre demandé.
+ */
+public class Sort implements Operator {
+  private final Operator child;
+  private final Comparator<Record> comparator;
+  private final String order; // pour EXPLAIN
+  private ExternalSorter sorter;
+
+  /**
+   * Crée un tri au-dessus d'un opérateur.
+   *
+   * @param child       L'opérateur qui produit les enregistrements.
+   * @param columnNames Les colonnes du tri, de la plus importante à la moins
+   *                    importante.
+   * @param descending  Pour chaque colonne, true pour l'ordre décroissant.
+   * @throws IllegalArgumentException Si une colonne n'existe pas dans le schéma
+   *                                  du fils.
+   */
+  public Sort(Operator child, List<String> columnNames, boolean[] descending) {
+    this.child = child;
+    RecordLayout layout = child.getSchema().getLayout();
+    int[] columns = new int[columnNames.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = layout.getColumnIndex(columnNames.get(i));
+      if (columns[i] < 0) {
+        throw new IllegalArgumentException("Colonne inconnue : " + columnNames.get(i));
+      }
+    }
+    this.comparator = comparator(layout, columns, descending);
+    this.order = orderList(columnNames, descending);
+  }
+
+  /**
+   * Écrit les colonnes d'un tri comme dans la clause ORDER BY.
+   *
+   * @param columnNames Les colonnes du tri.
+   * @param descending  Pour chaque colonne, true pour l'ordre décroissant, ou
+   *                    null.
+   * @return La liste, entre crochets.
+   */
+  static String orderList(List<String> columnNames, boolean[] descending) {
+    List<String> items = new ArrayList<>();
+    for (int i = 0; i < columnNames.size(); i++) {
+      items.add(columnNames.get(i) + (descending != null && descending[i] ? " DESC" : ""));
+    }
+    return items.toString();
+  }
+
+  /**
+   * Construit l'ordre sur des colonnes d'un schéma : les nombres selon leur
+   * valeur, les chaînes dans l'ordre lexicographique.
+   *
+   * @param layout     La disposition des enregistrements comparés.
+   * @param columns    Les index des colonnes, de la plus importante à la moins
+   *                   importante.
+   * @param descending Pour chaque colonne, true pour l'ordre décroissant, ou
+   *                   null pour un ordre croissant partout.
+   * @return Le comparateur.
+   */
+  static Comparator<Record> comparator(RecordLayout layout, int[] columns, boolean[] descending) {
+    int[] types = new int[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      types[i] = layout.getType(columns[i]);
+    }
+    return (a, b) -> {
+      for (int i = 0; i < columns.length; i++) {
+        int col = columns[i];
+        int c;
+        if (types[i] == RecordLayout.INT) {
+          c = Integer.compare(a.getInt(col), b.getInt(col));
+        } else if (types[i] == RecordLayout.FLOAT) {
+          c = Float.compare(a.getFloat(col), b.getFloat(col));
+        } else {
+          c = a.getString(col).compareTo(b.getString(col));
+        }
+        if (c != 0) {
+          return descending != null && descending[i] ? -c : c;
+        }
+      }
+      return 0;
+    };
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    child.open();
+    sorter = new ExternalSorter(child.getSchema(), comparator, DBParams.SortMemoryPages);
+    Record record;
+    while ((record = child.next()) != null) {
+      sorter.add(record);
+    }
+    sorter.finish();
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    return sorter.next();
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    if (sorter != null) {
+      sorter.close();
+      sorter = null;
+    }
+    child.close();
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return List.of(child);
+  }
+
+  @Override
+  public String describe() {
+    return "Sort " + order;
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return child.getSchema();
+  }
+}
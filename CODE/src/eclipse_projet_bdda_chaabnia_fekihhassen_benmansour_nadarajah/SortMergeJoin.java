@@ -0,0 +1,189 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opérateur de jointure par tri-fusion sur une ou plusieurs égalités de
+ * colonnes. Les deux entrées sont triées sur leurs clés par un ExternalSorter,
+ * puis parcourues ensemble : seuls les enregistrements de droite d'une même
+ * clé sont gardés en mémoire, le temps d'y joindre ceux de gauche.
+ * Les enregistrements produits sont rangés comme ceux d'une HashJoin (colonnes
+ * de gauche puis de droite, sous leur nom qualifié), dans l'ordre des clés.
+ */
+public class SortMergeJoin implements Operator {
+  private final Operator left;
+  private final Operator right;
+  private final TableInfo schema;
+  private final int[] leftKeys;
+  private final int[] rightKeys;
+  private final int[] leftTypes;
+  private final int[] rightTypes;
+
+  private ExternalSorter leftSorter;
+  private ExternalSorter rightSorter;
+  private Record leftRecord;
+  private Record rightRecord;
+  private final List<Record> group = new ArrayList<>(); // enregistrements de droite de la clé courante
+  private int groupIndex;
+
+  /**
+   * Crée une jointure par tri-fusion.
+   *
+   * @param left      L'entrée gauche.
+   * @param right     L'entrée droite.
+   * @param leftKeys  Les noms qualifiés des colonnes de jointure à gauche.
+   * @param rightKeys Les colonnes à droite, dans le même ordre.
+   * @throws IllegalArgumentException Si une colonne n'existe pas ou si une clé
+   *                                  compare une chaîne à un nombre.
+   */
+  public SortMergeJoin(Operator left, Operator right, List<String> leftKeys, List<String> rightKeys) {
+    this.left = left;
+    this.right = right;
+    this.schema = JoinPlanner.joinSchema(left.getSchema(), right.getSchema());
+    this.leftKeys = new int[leftKeys.size()];
+    this.rightKeys = new int[leftKeys.size()];
+    this.leftTypes = new int[leftKeys.size()];
+    this.rightTypes = new int[leftKeys.size()];
+    for (int i = 0; i < this.leftKeys.length; i++) {
+      this.leftKeys[i] = JoinPlanner.columnIndex(left.getSchema(), leftKeys.get(i));
+      this.rightKeys[i] = JoinPlanner.columnIndex(right.getSchema(), rightKeys.get(i));
+      leftTypes[i] = left.getSchema().getLayout().getType(this.leftKeys[i]);
+      rightTypes[i] = right.getSchema().getLayout().getType(this.rightKeys[i]);
+      if (isNumeric(leftTypes[i]) != isNumeric(rightTypes[i])) {
+        throw new IllegalArgumentException(
+            "Jointure impossible entre " + leftKeys.get(i) + " et " + rightKeys.get(i) + " : types incompatibles");
+      }
+    }
+  }
+
+  private static boolean isNumeric(int type) {
+    return type == RecordLayout.INT || type == RecordLayout.FLOAT;
+  }
+
+  private static double numericValue(Record record, int col, int type) {
+    return type == RecordLayout.INT ? record.getInt(col) : record.getFloat(col);
+  }
+
+  /**
+   * Compare les clés d'un enregistrement de gauche et d'un enregistrement de
+   * droite ; les nombres sont comparés quel que soit leur type.
+   */
+  private int compareKeys(Record l, Record r) {
+    for (int i = 0; i < leftKeys.length; i++) {
+      int c;
+      if (isNumeric(leftTypes[i])) {
+        c = Double.compare(numericValue(l, leftKeys[i], leftTypes[i]), numericValue(r, rightKeys[i], rightTypes[i]));
+      } else {
+        c = l.getString(leftKeys[i]).compareTo(r.getString(rightKeys[i]));
+      }
+      if (c != 0) {
+        return c;
+      }
+    }
+    return 0;
+  }
+
+  private static ExternalSorter sort(Operator input, int[] keys) throws IOException, PageNotFoundException {
+    ExternalSorter sorter = new ExternalSorter(input.getSchema(),
+        Sort.comparator(input.getSchema().getLayout(), keys, null), DBParams.SortMemoryPages);
+    input.open();
+    Record record;
+    while ((record = input.next()) != null) {
+      sorter.add(record);
+    }
+    sorter.finish();
+    return sorter;
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    leftSorter = sort(left, leftKeys);
+    rightSorter = sort(right, rightKeys);
+    leftRecord = leftSorter.next();
+    rightRecord = rightSorter.next();
+    group.clear();
+    groupIndex = 0;
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    while (true) {
+      if (groupIndex < group.size()) {
+        return join(leftRecord, group.get(groupIndex++));
+      }
+      if (!group.isEmpty()) {
+        // l'enregistrement de gauche suivant peut avoir la même clé
+        leftRecord = leftSorter.next();
+        if (leftRecord != null && compareKeys(leftRecord, group.get(0)) == 0) {
+          groupIndex = 0;
+          continue;
+        }
+        group.clear();
+      }
+      if (leftRecord == null || rightRecord == null) {
+        return null;
+      }
+
+      int c = compareKeys(leftRecord, rightRecord);
+      if (c < 0) {
+        leftRecord = leftSorter.next();
+      } else if (c > 0) {
+        rightRecord = rightSorter.next();
+      } else {
+        do {
+          group.add(rightRecord);
+          rightRecord = rightSorter.next();
+        } while (rightRecord != null && compareKeys(leftRecord, rightRecord) == 0);
+        groupIndex = 0;
+      }
+    }
+  }
+
+  private Record join(Record leftRow, Record rightRow) {
+    Record record = new Record(schema);
+    int leftCount = leftRow.getTabInfo().getNb_colonnes();
+    for (int col = 0; col < leftCount; col++) {
+      record.copyValue(col, leftRow, col);
+    }
+    for (int col = 0; col < rightRow.getTabInfo().getNb_colonnes(); col++) {
+      record.copyValue(leftCount + col, rightRow, col);
+    }
+    return record;
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    for (ExternalSorter sorter : new ExternalSorter[] { leftSorter, rightSorter }) {
+      if (sorter != null) {
+        sorter.close();
+      }
+    }
+    leftSorter = null;
+    rightSorter = null;
+    group.clear();
+    left.close();
+    right.close();
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return List.of(left, right);
+  }
+
+  @Override
+  public String describe() {
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < leftKeys.length; i++) {
+      keys.add(schema.getColInfoList().get(leftKeys[i]).getName() + " = "
+          + schema.getColInfoList().get(left.getSchema().getNb_colonnes() + rightKeys[i]).getName());
+    }
+    return "SortMergeJoin " + keys;
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return schema;
+  }
+}
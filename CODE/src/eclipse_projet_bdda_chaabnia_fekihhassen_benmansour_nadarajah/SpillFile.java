@@ -0,0 +1,152 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fichier temporaire d'un opérateur qui déborde de sa mémoire (agrégation,
+ * jointure, tri). Les lignes sont écrites les unes après les autres dans des
+ * pages allouées par le DiskManager, puis relues dans le même ordre. Les pages
+ * sont écrites et lues directement par le DiskManager, sans passer par le
+ * BufferManager : un opérateur peut ainsi remplir plusieurs fichiers à la fois
+ * sans épingler de frame.
+ * Disposition d'une page : nombre de lignes (int), puis chaque ligne précédée
+ * de sa longueur (int).
+ */
+public class SpillFile {
+  private static final int HEADER_SIZE = 4;
+
+  private final List<PageId> pageIds;
+  private final ByteBuffer buffer; // page en cours d'écriture
+  private int pageRows;
+  private long rowCount;
+
+  /**
+   * Crée un fichier temporaire vide.
+   */
+  public SpillFile() {
+    this.pageIds = new ArrayList<>();
+    this.buffer = ByteBuffer.allocate(DBParams.SGBDPageSize);
+    this.buffer.position(HEADER_SIZE);
+  }
+
+  /**
+   * Obtient la taille maximale d'une ligne.
+   *
+   * @return Le nombre d'octets que peut contenir une ligne.
+   */
+  public static int getMaxRowSize() {
+    return DBParams.SGBDPageSize - HEADER_SIZE - Integer.BYTES;
+  }
+
+  /**
+   * Ajoute une ligne à la fin du fichier.
+   *
+   * @param row    Les octets de la ligne.
+   * @param length Le nombre d'octets à écrire.
+   * @throws IllegalArgumentException Si la ligne ne tient pas dans une page.
+   */
+  public void append(byte[] row, int length) {
+    if (length > getMaxRowSize()) {
+      throw new IllegalArgumentException("Ligne trop grande pour une page temporaire : " + length + " octets");
+    }
+    if (buffer.remaining() < Integer.BYTES + length) {
+      flush();
+    }
+    buffer.putInt(length);
+    buffer.put(row, 0, length);
+    pageRows++;
+    rowCount++;
+  }
+
+  private void flush() {
+    if (pageRows == 0) {
+      return;
+    }
+    buffer.putInt(0, pageRows);
+    DiskManager dm = DiskManager.getInstance();
+    PageId pageId = dm.allocatePage();
+    dm.writePage(pageId, buffer);
+    pageIds.add(pageId);
+    buffer.clear();
+    buffer.position(HEADER_SIZE);
+    pageRows = 0;
+  }
+
+  /**
+   * Obtient le nombre de lignes écrites.
+   *
+   * @return Le nombre de lignes du fichier.
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Obtient le nombre de pages écrites sur le disque.
+   *
+   * @return Le nombre de pages du fichier.
+   */
+  public int getPageCount() {
+    return pageIds.size();
+  }
+
+  /**
+   * Termine l'écriture et ouvre le fichier en lecture, depuis la première ligne.
+   *
+   * @return Un lecteur des lignes du fichier.
+   */
+  public Reader read() {
+    flush();
+    return new Reader();
+  }
+
+  /**
+   * Rend au DiskManager toutes les pages du fichier.
+   */
+  public void free() {
+    DiskManager dm = DiskManager.getInstance();
+    for (PageId pageId : pageIds) {
+      dm.deallocatePage(pageId);
+    }
+    pageIds.clear();
+    buffer.clear();
+    buffer.position(HEADER_SIZE);
+    pageRows = 0;
+    rowCount = 0;
+  }
+
+  /**
+   * Lecteur séquentiel d'un fichier temporaire, qui ne garde qu'une page en
+   * mémoire.
+   */
+  public class Reader {
+    private int pageIndex;
+    private ByteBuffer page;
+    private int remainingRows;
+
+    /**
+     * Positionne le lecteur sur la prochaine ligne.
+     *
+     * @return Un buffer sur les octets de la ligne, de la position à la limite,
+     *         valide jusqu'au prochain appel ; null à la fin du fichier.
+     */
+    public ByteBuffer next() {
+      while (remainingRows == 0) {
+        if (pageIndex >= pageIds.size()) {
+          return null;
+        }
+        page = DiskManager.getInstance().readPage(pageIds.get(pageIndex++));
+        remainingRows = page.getInt(0);
+        page.position(HEADER_SIZE);
+      }
+      int length = page.getInt();
+      ByteBuffer row = page.slice();
+      row.limit(length);
+      page.position(page.position() + length);
+      remainingRows--;
+      return row;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionnaire d'une colonne de chaînes encodée par dictionnaire. Chaque valeur
+ * distincte reçoit un code entier, attribué dans l'ordre d'apparition, et les
+ * pages ne stockent que ce code sur 4 octets. Le dictionnaire appartient à la
+ * colonne (ColInfo) et vit donc avec le schéma de la table.
+ * Les lectures (getCode, decode) ne prennent pas de verrou, pour ne pas
+ * ralentir les parcours parallèles ; seul l'ajout d'une valeur est synchronisé.
+ */
+public class StringDictionary {
+  private final int maxLength;
+  private final Map<String, Integer> codes;
+  private volatile String[] values; // republié après chaque ajout
+  private int size;
+
+  /**
+   * Crée un dictionnaire vide.
+   *
+   * @param maxLength La largeur maximale en octets UTF-8 d'une valeur de la
+   *                  colonne.
+   */
+  public StringDictionary(int maxLength) {
+    this.maxLength = maxLength;
+    this.codes = new ConcurrentHashMap<>();
+    this.values = new String[16];
+    this.size = 0;
+  }
+
+  /**
+   * Obtient le code d'une valeur en l'ajoutant au dictionnaire si besoin. La
+   * valeur est d'abord tronquée à la largeur de la colonne, comme pour une
+   * colonne non encodée.
+   *
+   * @param value La valeur à encoder.
+   * @return Le code de la valeur.
+   */
+  public synchronized int encode(String value) {
+    String stored = value;
+    if (value.getBytes(StandardCharsets.UTF_8).length > maxLength) {
+      stored = new String(Record.encodeString(value, maxLength), StandardCharsets.UTF_8);
+    }
+    Integer code = codes.get(stored);
+    if (code == null) {
+      String[] current = values;
+      if (size == current.length) {
+        current = Arrays.copyOf(current, size * 2);
+      }
+      current[size] = stored;
+      code = size;
+      size++;
+      values = current;
+      codes.put(stored, code);
+    }
+    return code;
+  }
+
+  /**
+   * Obtient le code d'une valeur sans la rajouter.
+   *
+   * @param value La valeur cherchée.
+   * @return Le code de la valeur, ou -1 si elle n'est pas dans le dictionnaire.
+   */
+  public int getCode(String value) {
+    Integer code = codes.get(value);
+    return code == null ? -1 : code;
+  }
+
+  /**
+   * Obtient la valeur correspondant à un code.
+   *
+   * @param code Le code lu dans une page.
+   * @return La valeur de la colonne.
+   */
+  public String decode(int code) {
+    return values[code];
+  }
+
+  /**
+   * Obtient le nombre de valeurs distinctes du dictionnaire.
+   *
+   * @return La taille du dictionnaire.
+   */
+  public synchronized int size() {
+    return size;
+  }
+}
@@ -0,0 +1,105 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.Arrays;
+
+/**
+ * Dictionnaire à adressage ouvert (sondage linéaire) qui associe à chaque
+ * chaîne distincte un identifiant, attribué dans l'ordre d'ajout à partir de 0.
+ * Les chaînes et leurs hachages sont rangés dans des tableaux indexés par
+ * l'identifiant : une recherche ne crée aucun objet.
+ */
+class StringIdTable {
+  private int[] slots; // identifiant + 1, 0 pour une case libre
+  private int mask;
+  private int[] hashes;
+  private String[] strings;
+  private int size;
+
+  /**
+   * Crée un dictionnaire vide.
+   */
+  StringIdTable() {
+    this.slots = new int[64];
+    this.mask = slots.length - 1;
+    this.hashes = new int[32];
+    this.strings = new String[32];
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Cherche l'identifiant d'une chaîne.
+   *
+   * @param value La chaîne.
+   * @return Son identifiant, ou -1 si elle n'a pas été ajoutée.
+   */
+  int find(String value) {
+    int hash = hash(value);
+    int slot = hash & mask;
+    while (slots[slot] != 0) {
+      int id = slots[slot] - 1;
+      if (hashes[id] == hash && strings[id].equals(value)) {
+        return id;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Obtient l'identifiant d'une chaîne, en l'ajoutant si elle est nouvelle.
+   *
+   * @param value La chaîne.
+   * @return Son identifiant.
+   */
+  int add(String value) {
+    int id = find(value);
+    if (id != -1) {
+      return id;
+    }
+    if (size == strings.length) {
+      hashes = Arrays.copyOf(hashes, size * 2);
+      strings = Arrays.copyOf(strings, size * 2);
+    }
+    id = size++;
+    hashes[id] = hash(value);
+    strings[id] = value;
+
+    // la table des cases reste remplie au plus à moitié
+    if (size * 2 > slots.length) {
+      slots = new int[slots.length * 2];
+      mask = slots.length - 1;
+      for (int i = 0; i < size - 1; i++) {
+        place(i);
+      }
+    }
+    place(id);
+    return id;
+  }
+
+  private void place(int id) {
+    int slot = hashes[id] & mask;
+    while (slots[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots[slot] = id + 1;
+  }
+
+  /**
+   * Obtient la chaîne d'un identifiant.
+   *
+   * @param id L'identifiant, renvoyé par add.
+   * @return La chaîne.
+   */
+  String get(int id) {
+    return strings[id];
+  }
+
+  // les bits de poids faible de String.hashCode varient peu entre chaînes proches
+  private static int hash(String value) {
+    int h = value.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
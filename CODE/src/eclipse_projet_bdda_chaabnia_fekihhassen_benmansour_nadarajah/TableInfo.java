@@ -10,6 +10,9 @@ public class TableInfo {
     private int nb_colonnes;
     private ArrayList<ColInfo> colInfoList;
     private PageId headerPageId;
+    private PageFormat format = PageFormat.NSM;
+    private RecordLayout layout; // compilée à la première utilisation
+    private TableStatistics statistics; // null tant que la table n'a pas été analysée
 
     /**
      * Crée une instance de TableInfo avec le nom de relation, le nombre de colonnes
@@ -103,6 +106,22 @@ public class TableInfo {
      */
     public void setColInfoList(ArrayList<ColInfo> colInfoList) {
         this.colInfoList = colInfoList;
+        this.layout = null;
+    }
+
+    /**
+     * Obtient la disposition compilée des colonnes de la table. Elle est
+     * recalculée si des colonnes ont été ajoutées depuis.
+     *
+     * @return La disposition des colonnes.
+     */
+    public RecordLayout getLayout() {
+        RecordLayout current = layout;
+        if (current == null || current.getColumnCount() != colInfoList.size()) {
+            current = new RecordLayout(colInfoList);
+            layout = current;
+        }
+        return current;
     }
 
     /**
@@ -123,16 +142,54 @@ public class TableInfo {
         this.headerPageId = headerPageId;
     }
 
+    /**
+     * Obtient le format de stockage des pages de données de la table.
+     *
+     * @return Le format des pages.
+     */
+    public PageFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Définit le format de stockage des pages de données de la table.
+     *
+     * @param format Le format des pages à définir.
+     */
+    public void setFormat(PageFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Obtient les statistiques collectées par la dernière commande ANALYZE.
+     *
+     * @return Les statistiques, ou null si la table n'a pas été analysée.
+     */
+    public TableStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Définit les statistiques de la table.
+     *
+     * @param statistics Les statistiques à garder.
+     */
+    public void setStatistics(TableStatistics statistics) {
+        this.statistics = statistics;
+    }
+
     /**
      * Affiche les informations de la table, y compris le nom de la table, le nombre
      * de colonnes et les informations de colonnes.
      */
     public void printTableInfo() {
         System.out.println("Nom de la relation: " + nom_relation);
+        System.out.println("Format: " + format);
         // System.out.println("N: " + nb_colonnes);
         System.out.println("Colonnes:");
         for (ColInfo colInfo : colInfoList) {
-            System.out.println("  Nom: " + colInfo.getName() + ", Type: " + colInfo.getType());
+            System.out.println("  Nom: " + colInfo.getName() + ", Type: " + colInfo.getType()
+                    + (colInfo.getDictionary() != null ? " (dictionnaire)" : ""));
         }
     }
 
@@ -0,0 +1,130 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Un itérateur pour parcourir tous les enregistrements d'une table, page de
+ * données après page de données. Il s'appuie sur un RecordIterator par page et
+ * ne garde jamais plus d'une page épinglée dans le BufferManager.
+ */
+public class TableScan {
+  private final TableInfo tabInfo;
+  private final List<PageId> dataPageIds;
+  private final Predicate predicate;
+  private int currentPageIndex;
+  private RecordIterator currentIterator;
+
+  /**
+   * Initialise un nouveau parcours de la table spécifiée.
+   *
+   * @param tabInfo L'information sur la table à parcourir.
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si la page d'en-tête n'a pas pu être trouvée.
+   */
+  public TableScan(TableInfo tabInfo) throws IOException, PageNotFoundException {
+    this(tabInfo, FileManager.getInstance().getDataPages(tabInfo));
+  }
+
+  /**
+   * Initialise un nouveau parcours limité aux pages de données spécifiées.
+   *
+   * @param tabInfo     L'information sur la table à parcourir.
+   * @param dataPageIds Les pages de données à parcourir, dans l'ordre.
+   */
+  public TableScan(TableInfo tabInfo, List<PageId> dataPageIds) {
+    this(tabInfo, dataPageIds, (Predicate) null);
+  }
+
+  /**
+   * Initialise un nouveau parcours limité aux pages de données spécifiées, qui
+   * ne renvoie que les enregistrements satisfaisant toutes les conditions.
+   *
+   * @param tabInfo     L'information sur la table à parcourir.
+   * @param dataPageIds Les pages de données à parcourir, dans l'ordre.
+   * @param conditions  Les conditions reliées par AND, ou null pour tout
+   *                    renvoyer.
+   */
+  public TableScan(TableInfo tabInfo, List<PageId> dataPageIds, List<SelectCondition> conditions) {
+    this(tabInfo, dataPageIds, Predicate.compile(conditions, tabInfo));
+  }
+
+  /**
+   * Initialise un nouveau parcours limité aux pages de données spécifiées, qui
+   * ne renvoie que les enregistrements satisfaisant un prédicat compilé une
+   * seule fois pour tout le parcours.
+   *
+   * @param tabInfo     L'information sur la table à parcourir.
+   * @param dataPageIds Les pages de données à parcourir, dans l'ordre.
+   * @param predicate   Le prédicat, ou null pour tout renvoyer.
+   */
+  public TableScan(TableInfo tabInfo, List<PageId> dataPageIds, Predicate predicate) {
+    this.tabInfo = tabInfo;
+    this.dataPageIds = dataPageIds;
+    this.predicate = predicate;
+    this.currentPageIndex = 0;
+    this.currentIterator = null;
+  }
+
+  /**
+   * Obtient le prochain enregistrement de la table, s'il existe. La page
+   * courante est libérée dès qu'elle est entièrement parcourue.
+   *
+   * @return Le prochain enregistrement, ou null s'il n'y en a plus.
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si une page n'a pas pu être trouvée.
+   */
+  public Record getNextRecord() throws IOException, PageNotFoundException {
+    RecordView view = getNextView();
+    return view == null ? null : view.toRecord();
+  }
+
+  /**
+   * Positionne une vue sur le prochain enregistrement de la table, sans le
+   * copier. La vue n'est valide que jusqu'au prochain appel.
+   *
+   * @return La vue sur le prochain enregistrement, ou null s'il n'y en a plus.
+   * @throws IOException           Si une erreur d'entrée/sortie se produit.
+   * @throws PageNotFoundException Si une page n'a pas pu être trouvée.
+   */
+  public RecordView getNextView() throws IOException, PageNotFoundException {
+    while (true) {
+      if (currentIterator == null) {
+        if (currentPageIndex >= dataPageIds.size()) {
+          return null;
+        }
+        currentIterator = new RecordIterator(tabInfo, dataPageIds.get(currentPageIndex), predicate);
+        currentPageIndex++;
+      }
+
+      RecordView view = currentIterator.getNextView();
+      if (view != null) {
+        return view;
+      }
+      // getNextView a déjà libéré la page parcourue
+      currentIterator = null;
+    }
+  }
+
+  /**
+   * Obtient l'identifiant du dernier enregistrement renvoyé par getNextRecord ou getNextView.
+   *
+   * @return L'identifiant du dernier enregistrement lu, ou null.
+   */
+  public RecordId getCurrentRecordId() {
+    return currentIterator == null ? null : currentIterator.getCurrentRecordId();
+  }
+
+  /**
+   * Ferme le parcours et libère la page courante si elle est encore épinglée.
+   *
+   * @throws PageNotFoundException Si la page n'a pas pu être trouvée.
+   */
+  public void close() throws PageNotFoundException {
+    if (currentIterator != null) {
+      currentIterator.close();
+      currentIterator = null;
+    }
+    currentPageIndex = dataPageIds.size();
+  }
+}
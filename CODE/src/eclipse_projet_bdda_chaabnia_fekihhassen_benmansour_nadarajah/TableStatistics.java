@@ -0,0 +1,183 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Statistiques d'une table, collectées par ANALYZE et gardées dans son
+ * TableInfo : le nombre d'enregistrements et de pages de données, et les
+ * statistiques de chaque colonne. La table est lue une fois en entier ; le
+ * nombre de valeurs distinctes de chaque colonne est compté exactement tant
+ * qu'il reste petit, puis estimé par HyperLogLog, et les histogrammes sont construits sur un échantillon uniforme de
+ * DBParams.AnalyzeSampleRows lignes (échantillonnage par réservoir).
+ */
+public class TableStatistics {
+  static final int HISTOGRAM_BUCKETS = 32;
+  // 2^10 registres HyperLogLog par colonne : environ 3 % d'erreur
+  private static final int HLL_BITS = 10;
+  private static final int HLL_REGISTERS = 1 << HLL_BITS;
+  // hachages distincts gardés par colonne avant de s'en remettre au sketch
+  private static final int EXACT_DISTINCT_LIMIT = 4096;
+
+  private final long rowCount;
+  private final int pageCount;
+  private final ColumnStatistics[] columns;
+
+  TableStatistics(long rowCount, int pageCount, ColumnStatistics[] columns) {
+    this.rowCount = rowCount;
+    this.pageCount = pageCount;
+    this.columns = columns;
+  }
+
+  /**
+   * Lit toute une table et calcule ses statistiques.
+   *
+   * @param tabInfo La table.
+   * @return Les statistiques de la table.
+   * @throws IOException           En cas d'erreur lors de l'accès au disque.
+   * @throws PageNotFoundException Si une page n'a pas été trouvée.
+   */
+  public static TableStatistics collect(TableInfo tabInfo) throws IOException, PageNotFoundException {
+    RecordLayout layout = tabInfo.getLayout();
+    int columnCount = layout.getColumnCount();
+    int sampleSize = Math.max(1, DBParams.AnalyzeSampleRows);
+    byte[][] registers = new byte[columnCount][HLL_REGISTERS];
+    List<Set<Long>> exact = new ArrayList<>();
+    double[][] numbers = new double[columnCount][];
+    String[][] strings = new String[columnCount][];
+    for (int col = 0; col < columnCount; col++) {
+      exact.add(new HashSet<>());
+      if (layout.isString(col)) {
+        strings[col] = new String[sampleSize];
+      } else {
+        numbers[col] = new double[sampleSize];
+      }
+    }
+
+    List<PageId> pages = FileManager.getInstance().getDataPages(tabInfo);
+    TableScan scan = new TableScan(tabInfo, pages);
+    Random random = new Random(tabInfo.getNom_relation().hashCode());
+    long rows = 0;
+    try {
+      RecordView view;
+      while ((view = scan.getNextView()) != null) {
+        // réservoir : la ligne n remplace une ligne de l'échantillon avec une
+        // probabilité sampleSize / n
+        int slot = rows < sampleSize ? (int) rows : (int) (random.nextDouble() * (rows + 1));
+        rows++;
+        for (int col = 0; col < columnCount; col++) {
+          long hash;
+          if (strings[col] != null) {
+            String value = view.getString(col);
+            hash = value.hashCode();
+            if (slot < sampleSize) {
+              strings[col][slot] = value;
+            }
+          } else {
+            double value = view.isInt(col) ? view.getInt(col) : view.getFloat(col);
+            hash = Double.doubleToLongBits(value == 0 ? 0 : value);
+            if (slot < sampleSize) {
+              numbers[col][slot] = value;
+            }
+          }
+          hash = mix(hash);
+          addToSketch(registers[col], hash);
+          Set<Long> seen = exact.get(col);
+          if (seen != null && seen.add(hash) && seen.size() > EXACT_DISTINCT_LIMIT) {
+            exact.set(col, null);
+          }
+        }
+      }
+    } finally {
+      scan.close();
+    }
+
+    int sampled = (int) Math.min(rows, sampleSize);
+    ColumnStatistics[] columns = new ColumnStatistics[columnCount];
+    for (int col = 0; col < columnCount; col++) {
+      Set<Long> seen = exact.get(col);
+      long distinct = seen != null ? seen.size() : Math.min(rows, estimateDistinct(registers[col]));
+      if (strings[col] != null) {
+        columns[col] = ColumnStatistics.ofStrings(distinct, Arrays.copyOf(strings[col], sampled),
+            HISTOGRAM_BUCKETS);
+      } else {
+        columns[col] = ColumnStatistics.ofNumbers(distinct, Arrays.copyOf(numbers[col], sampled),
+            HISTOGRAM_BUCKETS);
+      }
+    }
+    return new TableStatistics(rows, pages.size(), columns);
+  }
+
+  /** Mélange final 64 bits de MurmurHash3. */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  /**
+   * Ajoute une valeur, par son hachage mélangé, au sketch HyperLogLog d'une
+   * colonne : les bits de poids fort choisissent le registre, qui garde le
+   * plus grand rang du premier bit à 1 parmi les autres.
+   */
+  private static void addToSketch(byte[] registers, long hash) {
+    int register = (int) (hash >>> (64 - HLL_BITS));
+    int rank = Long.numberOfLeadingZeros((hash << HLL_BITS) | (1L << (HLL_BITS - 1))) + 1;
+    if (rank > registers[register]) {
+      registers[register] = (byte) rank;
+    }
+  }
+
+  private static long estimateDistinct(byte[] registers) {
+    double sum = 0;
+    int zeros = 0;
+    for (byte rank : registers) {
+      sum += Math.pow(2, -rank);
+      if (rank == 0) {
+        zeros++;
+      }
+    }
+    double m = registers.length;
+    double estimate = 0.7213 / (1 + 1.079 / m) * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      // petites cardinalités : comptage linéaire des registres vides
+      estimate = m * Math.log(m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  /**
+   * Obtient le nombre d'enregistrements de la table lors de l'analyse.
+   *
+   * @return Le nombre d'enregistrements.
+   */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Obtient le nombre de pages de données de la table lors de l'analyse.
+   *
+   * @return Le nombre de pages.
+   */
+  public int getPageCount() {
+    return pageCount;
+  }
+
+  /**
+   * Obtient les statistiques d'une colonne.
+   *
+   * @param col L'index de la colonne dans la table.
+   * @return Les statistiques de la colonne.
+   */
+  public ColumnStatistics getColumn(int col) {
+    return columns[col];
+  }
+}
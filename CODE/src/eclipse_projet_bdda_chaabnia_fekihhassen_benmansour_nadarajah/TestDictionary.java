@@ -0,0 +1,55 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestDictionary {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testDictionary();
+	}
+
+	private static void testDictionary() throws Exception {
+		System.out.println("Test dictionnaire:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Colonne1", "INT"));
+		cols.add(new ColInfo("Colonne2", "STRING(20)"));
+		cols.get(1).enableDictionary();
+		TableInfo dictTable = new TableInfo("DictTable", cols, fm.createNewHeaderPage());
+
+		String[] statuts = { "actif", "inactif", "suspendu" };
+		for (int i = 0; i < 300; i++) {
+			Record record = new Record(dictTable);
+			record.addValue(i);
+			record.addValue(statuts[i % 3]);
+			fm.InsertRecordIntoTable(record);
+		}
+
+		// chaque ligne ne stocke que le code de sa valeur
+		boolean testPassed = cols.get(1).getDictionary().size() == 3;
+		testPassed &= new Record(dictTable).getSize() == 8;
+		testPassed &= countMatches(dictTable, "Colonne2=inactif") == 100;
+		testPassed &= countMatches(dictTable, "Colonne2<>inactif") == 200;
+		testPassed &= countMatches(dictTable, "Colonne2=inconnu") == 0;
+		testPassed &= countMatches(dictTable, "Colonne2>inactif") == 100;
+		testPassed &= fm.GetAllRecords(dictTable).get(4).getString(1).equals("inactif");
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static int countMatches(TableInfo table, String where) throws Exception {
+		List<SelectCondition> conditions = SelectCondition.parseConditions(where);
+		TableScan scan = new TableScan(table, FileManager.getInstance().getDataPages(table, conditions), conditions);
+		int count = 0;
+		while (scan.getNextView() != null) {
+			count++;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,62 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestExplain {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testExplain();
+	}
+
+	private static void testExplain() throws Exception {
+		System.out.println("Test explain analyze:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Id", "INT"));
+		cols.add(new ColInfo("Name", "VARSTRING(10)"));
+		TableInfo table = new TableInfo("Profiled", cols, fm.createNewHeaderPage());
+		for (int i = 0; i < 2000; i++) {
+			Record record = new Record(table);
+			record.addValue(i);
+			record.addValue("n" + i);
+			fm.InsertRecordIntoTable(record);
+		}
+
+		boolean testPassed = true;
+		ProfiledOperator scan = new ProfiledOperator(new SeqScan(table));
+		ProfiledOperator filter = new ProfiledOperator(new Filter(scan, PredicateParser.parse("Id < 500", table)));
+		testPassed &= TestOperators.drain(filter).size() == 500;
+		testPassed &= filter.getRows() == 500 && filter.getRowsIn() == 2000 && scan.getRows() == 2000;
+		testPassed &= filter.getLoops() == 1 && filter.getChildren().get(0) == scan;
+		// les pages sont épinglées par le parcours, pas par le filtre
+		int pages = fm.getDataPages(table).size();
+		testPassed &= scan.getOwnHits() + scan.getOwnMisses() >= pages;
+		testPassed &= filter.getOwnHits() == 0 && filter.getOwnMisses() == 0;
+		testPassed &= filter.getHits() == scan.getHits() && filter.getWallNanos() >= scan.getWallNanos();
+		testPassed &= filter.describe().equals("Filter") && scan.describe().startsWith("SeqScan Profiled");
+
+		// le planificateur enveloppe aussi les parcours et les jointures
+		ArrayList<ColInfo> keyCols = new ArrayList<>();
+		keyCols.add(new ColInfo("Key", "INT"));
+		TableInfo keys = new TableInfo("ProfiledKeys", keyCols, fm.createNewHeaderPage());
+		for (int i = 0; i < 10; i++) {
+			Record record = new Record(keys);
+			record.addValue(i * 3);
+			fm.InsertRecordIntoTable(record);
+		}
+		JoinPlanner planner = new JoinPlanner(List.of(table, keys), "Profiled.Id = ProfiledKeys.Key");
+		Operator plan = planner.buildPlan(null, ProfiledOperator::new);
+		testPassed &= TestOperators.drain(plan).size() == 10 && plan instanceof ProfiledOperator;
+		testPassed &= ((ProfiledOperator) plan).getRows() == 10;
+		for (Operator child : plan.getChildren()) {
+			testPassed &= child instanceof ProfiledOperator;
+		}
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
@@ -0,0 +1,128 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestExternalSorter {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testExternalSort();
+		testTopN();
+	}
+
+	private static void testExternalSort() throws Exception {
+		System.out.println("Test tri externe:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("N", "INT"));
+		cols.add(new ColInfo("V", "FLOAT"));
+		cols.add(new ColInfo("S", "VARSTRING(10)"));
+		TableInfo table = new TableInfo("SortTable", cols, fm.createNewHeaderPage());
+		Random random = new Random(42);
+		for (int i = 0; i < 6000; i++) {
+			Record record = new Record(table);
+			record.addValue(random.nextInt(500));
+			record.addValue(random.nextFloat());
+			record.addValue("s" + random.nextInt(100000));
+			fm.InsertRecordIntoTable(record);
+		}
+		List<Record> all = TestOperators.drain(new SeqScan(table));
+		List<Record> expected = new ArrayList<>(all);
+		expected.sort((a, b) -> a.getInt(0) != b.getInt(0) ? Integer.compare(b.getInt(0), a.getInt(0))
+				: a.getString(2).compareTo(b.getString(2)));
+
+		boolean testPassed = true;
+		int memoryPages = DBParams.SortMemoryPages;
+		// 3 pages : des runs de 3 pages, fusionnés deux par deux en plusieurs passes
+		for (int pages : new int[] { memoryPages, 3 }) {
+			DBParams.SortMemoryPages = pages;
+			List<Record> sorted = TestOperators
+					.drain(new Sort(new SeqScan(table), List.of("N", "S"), new boolean[] { true, false }));
+			testPassed &= sorted.size() == expected.size();
+			for (int i = 0; i < sorted.size() && i < expected.size(); i++) {
+				testPassed &= sorted.get(i).getRecvalues().equals(expected.get(i).getRecvalues());
+			}
+		}
+
+		ExternalSorter sorter = new ExternalSorter(table, Sort.comparator(table.getLayout(), new int[] { 1 }, null), 3);
+		for (Record record : all) {
+			sorter.add(record);
+		}
+		sorter.finish();
+		// chaque enregistrement d'un run compte ses objets Java, bien plus que ses octets
+		testPassed &= sorter.getSpilledRunCount() > 2
+				&& sorter.getSpilledRunCount() >= all.size() * 100L / (3 * DBParams.SGBDPageSize);
+		float previous = -1;
+		int count = 0;
+		Record record;
+		while ((record = sorter.next()) != null) {
+			testPassed &= record.getFloat(1) >= previous;
+			previous = record.getFloat(1);
+			count++;
+		}
+		sorter.close();
+		testPassed &= count == all.size();
+
+		// la jointure par tri-fusion trouve les mêmes paires que la jointure par hachage
+		List<String> keys = List.of("SortTable.N");
+		int hashed = TestOperators.drain(new HashJoin(new SeqScan(table, PredicateParser.parse("N < 40", table)),
+				new SeqScan(table, PredicateParser.parse("N < 60", table)), keys, keys, true, 100000)).size();
+		List<Record> merged = TestOperators.drain(new SortMergeJoin(
+				new SeqScan(table, PredicateParser.parse("N < 40", table)),
+				new SeqScan(table, PredicateParser.parse("N < 60", table)), keys, keys));
+		testPassed &= hashed > 0 && merged.size() == hashed;
+		for (int i = 0; i < merged.size(); i++) {
+			testPassed &= merged.get(i).getInt(0) == merged.get(i).getInt(3);
+			testPassed &= i == 0 || merged.get(i - 1).getInt(0) <= merged.get(i).getInt(0);
+		}
+		DBParams.SortMemoryPages = memoryPages;
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testTopN() throws Exception {
+		System.out.println("Test top-N:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Ts", "INT"));
+		cols.add(new ColInfo("Id", "INT"));
+		TableInfo table = new TableInfo("Events", cols, fm.createNewHeaderPage());
+		Random random = new Random(7);
+		for (int i = 0; i < 3000; i++) {
+			Record record = new Record(table);
+			record.addValue(random.nextInt(200)); // beaucoup d'égalités
+			record.addValue(i);
+			fm.InsertRecordIntoTable(record);
+		}
+
+		boolean testPassed = true;
+		boolean[] descending = { true };
+		List<Record> sorted = TestOperators.drain(new Sort(new SeqScan(table), List.of("Ts"), descending));
+		for (int k : new int[] { 0, 1, 100, 5000 }) {
+			List<Record> top = TestOperators.drain(new TopN(new SeqScan(table), List.of("Ts"), descending, k));
+			testPassed &= top.size() == Math.min(k, sorted.size());
+			for (int i = 0; i < top.size(); i++) {
+				testPassed &= top.get(i).getRecvalues().equals(sorted.get(i).getRecvalues());
+			}
+		}
+
+		// la limite atteinte, le parcours est fermé et sa page libérée
+		Limit limit = new Limit(new SeqScan(table), 10);
+		limit.open();
+		int count = 0;
+		while (count < 10 && limit.next() != null) {
+			count++;
+		}
+		testPassed &= count == 10 && BufferManager.getInstance().getPinnedFrameCount() == 0;
+		testPassed &= limit.next() == null;
+		limit.close();
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
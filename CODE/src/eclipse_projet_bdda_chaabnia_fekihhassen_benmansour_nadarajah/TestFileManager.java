@@ -0,0 +1,405 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestFileManager {
+	private static TableInfo tableInfo;
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		createTable();
+		testGetRecord();
+		testRecordView();
+		testZoneMaps();
+		testDeleteUpdateVacuum();
+		testTableScan();
+		testTypedValues();
+		testRecordLayout();
+		testVarString();
+		testOverflow();
+	}
+
+	private static void createTable() throws Exception {
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Colonne1", "INT"));
+		cols.add(new ColInfo("Colonne2", "FLOAT"));
+		cols.add(new ColInfo("Colonne3", "VARSTRING(10)"));
+		PageId headerPageId = FileManager.getInstance().createNewHeaderPage();
+		tableInfo = new TableInfo("TestTable", cols, headerPageId);
+	}
+
+	private static Record newRecord(int a, float b, String c) {
+		Record record = new Record(tableInfo);
+		record.addValue(a);
+		record.addValue(b);
+		record.addValue(c);
+		return record;
+	}
+
+	private static void testGetRecord() throws Exception {
+		System.out.println("Test getRecord:");
+		FileManager fm = FileManager.getInstance();
+
+		// suffisamment de records pour remplir plusieurs pages
+		List<RecordId> rids = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			rids.add(fm.InsertRecordIntoTable(newRecord(i, i * 1.5f, "v" + i)));
+		}
+
+		boolean testPassed = fm.getDataPages(tableInfo).size() > 1;
+		for (int i = 0; i < rids.size(); i++) {
+			Record record = fm.getRecord(tableInfo, rids.get(i));
+			if (record == null || !record.getRecvalues().get(0).equals(String.valueOf(i))) {
+				System.out.println("Record " + i + " incorrect : " + record);
+				testPassed = false;
+			}
+		}
+
+		// un slot hors de la page ne doit rien renvoyer
+		RecordId invalid = new RecordId(rids.get(0).getPageId(), 10000);
+		if (fm.getRecord(tableInfo, invalid) != null) {
+			testPassed = false;
+		}
+
+		if (fm.GetAllRecords(tableInfo).size() != rids.size()) {
+			testPassed = false;
+		}
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testRecordView() throws Exception {
+		System.out.println("Test RecordView:");
+		List<Record> records = FileManager.getInstance().GetAllRecords(tableInfo);
+
+		// les valeurs sont décodées directement depuis les pages épinglées
+		TableScan scan = new TableScan(tableInfo);
+		RecordView view;
+		int i = 0;
+		boolean testPassed = true;
+		while ((view = scan.getNextView()) != null) {
+			Record record = records.get(i++);
+			testPassed &= view.getInt(0) == record.getInt(0) && view.getFloat(1) == record.getFloat(1)
+					&& view.getString(2).equals(record.getString(2));
+		}
+		testPassed &= i == records.size();
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testZoneMaps() throws Exception {
+		System.out.println("Test zone maps:");
+		FileManager fm = FileManager.getInstance();
+
+		// les valeurs de Colonne1 croissent avec les pages : seule la fin de la
+		// table peut satisfaire la condition
+		Predicate predicate = Predicate.compile(SelectCondition.parseConditions("Colonne1>250"), tableInfo);
+		List<PageId> pages = fm.getDataPages(tableInfo, predicate);
+
+		boolean testPassed = pages.size() < fm.getDataPages(tableInfo).size() && countMatches(pages, predicate) == 49;
+		testPassed &= fm.getDataPages(tableInfo, SelectCondition.parseConditions("Colonne1<0")).isEmpty();
+
+		// les pages écartées ne contiennent aucun record qui satisfait la
+		// condition : 9 < 10 bien que "9" > "10"
+		for (String where : new String[] { "Colonne1<9", "Colonne1>=100", "Colonne1=7" }) {
+			Predicate condition = Predicate.compile(SelectCondition.parseConditions(where), tableInfo);
+			testPassed &= countMatches(fm.getDataPages(tableInfo, condition), condition)
+					== countMatches(fm.getDataPages(tableInfo), condition);
+		}
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static int countMatches(List<PageId> pages, Predicate predicate) throws Exception {
+		int count = 0;
+		TableScan scan = new TableScan(tableInfo, pages);
+		Record record;
+		while ((record = scan.getNextRecord()) != null) {
+			if (predicate.test(record)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static void testDeleteUpdateVacuum() throws Exception {
+		System.out.println("Test delete/update/vacuum:");
+		FileManager fm = FileManager.getInstance();
+		boolean testPassed = true;
+
+		List<Record> before = fm.GetAllRecords(tableInfo);
+		List<RecordId> rids = new ArrayList<>();
+		for (PageId pageId : fm.getDataPages(tableInfo)) {
+			RecordIterator iterator = new RecordIterator(tableInfo, pageId);
+			while (iterator.getNextRecord() != null) {
+				rids.add(iterator.getCurrentRecordId());
+			}
+		}
+
+		// supprime un record sur deux, les autres RecordId restent valides
+		for (int i = 0; i < rids.size(); i += 2) {
+			testPassed &= fm.deleteRecord(tableInfo, rids.get(i));
+		}
+		testPassed &= !fm.deleteRecord(tableInfo, rids.get(0));
+		testPassed &= fm.getRecord(tableInfo, rids.get(0)) == null;
+		testPassed &= fm.GetAllRecords(tableInfo).size() == before.size() / 2;
+
+		RecordId updated = fm.updateRecord(newRecord(-1, 0f, "maj"), rids.get(1));
+		testPassed &= fm.getRecord(tableInfo, updated).getRecvalues().get(0).equals("-1");
+		testPassed &= fm.getRecord(tableInfo, rids.get(3)).getRecvalues().get(0).equals("3");
+
+		// une fois la table vidée, VACUUM rend toutes ses pages
+		for (int i = 1; i < rids.size(); i += 2) {
+			fm.deleteRecord(tableInfo, rids.get(i));
+		}
+		int pageCount = fm.getDataPages(tableInfo).size();
+		testPassed &= fm.vacuum(tableInfo) == pageCount;
+		testPassed &= fm.getDataPages(tableInfo).isEmpty();
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testVarString() throws Exception {
+		System.out.println("Test VARSTRING:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Colonne1", "VARSTRING(100)"));
+		cols.add(new ColInfo("Colonne2", "INT"));
+		cols.add(new ColInfo("Colonne3", "VARSTRING(5)"));
+		TableInfo varTable = new TableInfo("VarTable", cols, fm.createNewHeaderPage());
+
+		Record shortRecord = new Record(varTable);
+		shortRecord.addValue("a");
+		shortRecord.addValue(1);
+		shortRecord.addValue("héllo wörld");
+		Record longRecord = new Record(varTable);
+		longRecord.addValue("x".repeat(100));
+		longRecord.addValue(2);
+		longRecord.addValue("b");
+
+		// seuls les octets UTF-8 sont stockés, tronqués à la largeur de la colonne
+		boolean testPassed = shortRecord.getSize() < longRecord.getSize();
+		RecordId shortId = fm.InsertRecordIntoTable(shortRecord);
+		RecordId longId = fm.InsertRecordIntoTable(longRecord);
+		Record read = fm.getRecord(varTable, shortId);
+		testPassed &= read.getString(0).equals("a") && read.getInt(1) == 1 && read.getString(2).equals("héll");
+
+		// une chaîne qui s'allonge est déplacée dans la page
+		Record updated = new Record(varTable);
+		updated.addValue("y".repeat(60));
+		updated.addValue(3);
+		updated.addValue("c");
+		RecordId updatedId = fm.updateRecord(updated, shortId);
+		testPassed &= fm.getRecord(varTable, updatedId).getString(0).equals("y".repeat(60));
+		testPassed &= fm.getRecord(varTable, longId).getString(0).equals("x".repeat(100));
+
+		TableScan scan = new TableScan(varTable, fm.getDataPages(varTable),
+				SelectCondition.parseConditions("Colonne3=b"));
+		RecordView view = scan.getNextView();
+		testPassed &= view != null && view.getInt(1) == 2 && scan.getNextView() == null;
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testOverflow() throws Exception {
+		System.out.println("Test débordement:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Colonne1", "INT"));
+		cols.add(new ColInfo("Colonne2", "VARSTRING(20000)"));
+		TableInfo wideTable = new TableInfo("WideTable", cols, fm.createNewHeaderPage());
+
+		// des valeurs plus grandes qu'une page, réparties sur plusieurs pages de
+		// débordement
+		List<RecordId> rids = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Record record = new Record(wideTable);
+			record.addValue(i);
+			record.addValue(i % 2 == 0 ? ("é" + i).repeat(3000) : "court" + i);
+			rids.add(fm.InsertRecordIntoTable(record));
+		}
+
+		Record read = fm.getRecord(wideTable, rids.get(4));
+		boolean testPassed = read.getString(1).equals("é4".repeat(3000));
+		testPassed &= fm.getRecord(wideTable, rids.get(5)).getString(1).equals("court5");
+		testPassed &= fm.getDataPages(wideTable).size() == 1;
+
+		// la condition ne lit que Colonne1, la valeur débordée n'est lue qu'à la demande
+		TableScan scan = new TableScan(wideTable, fm.getDataPages(wideTable),
+				SelectCondition.parseConditions("Colonne1=6"));
+		RecordView view = scan.getNextView();
+		testPassed &= view != null && view.getString(1).equals("é6".repeat(3000));
+		scan.close();
+
+		read.setString(1, "x".repeat(15000));
+		RecordId updated = fm.updateRecord(read, rids.get(4));
+		testPassed &= fm.getRecord(wideTable, updated).getString(1).equals("x".repeat(15000));
+		testPassed &= fm.deleteRecord(wideTable, rids.get(2));
+		testPassed &= fm.GetAllRecords(wideTable).size() == 9;
+
+		// une mise à jour vers un slot supprimé échoue : les pages de débordement de
+		// la nouvelle version sont rendues et les autres enregistrements sont intacts
+		Record failed = fm.getRecord(wideTable, rids.get(6));
+		failed.setString(1, "y".repeat(12000));
+		try {
+			fm.updateRecord(failed, rids.get(2));
+			testPassed = false;
+		} catch (IOException e) {
+			testPassed &= failed.getOverflowPageId(1) == null;
+		}
+		testPassed &= fm.getRecord(wideTable, rids.get(6)).getString(1).equals("é6".repeat(3000));
+		testPassed &= fm.getRecord(wideTable, updated).getString(1).equals("x".repeat(15000));
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testTableScan() throws Exception {
+		System.out.println("Test TableScan:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Id", "INT"));
+		cols.add(new ColInfo("Name", "VARSTRING(10)"));
+		TableInfo table = new TableInfo("Scanned", cols, fm.createNewHeaderPage());
+
+		// une table sans page de données ne renvoie rien
+		TableScan emptyScan = new TableScan(table);
+		boolean testPassed = emptyScan.getNextRecord() == null;
+		emptyScan.close();
+
+		List<RecordId> rids = new ArrayList<>();
+		for (int i = 0; i < 600; i++) {
+			Record record = new Record(table);
+			record.addValue(i);
+			record.addValue("s" + i);
+			rids.add(fm.InsertRecordIntoTable(record));
+		}
+		List<PageId> pages = fm.getDataPages(table);
+		testPassed &= pages.size() > 2;
+
+		// la deuxième page est entièrement vidée, un record sur trois est
+		// supprimé ailleurs : le parcours saute les slots supprimés et la page
+		// vide
+		PageId emptied = pages.get(1);
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < rids.size(); i++) {
+			if (rids.get(i).getPageId().equals(emptied) || i % 3 == 0) {
+				fm.deleteRecord(table, rids.get(i));
+			} else {
+				expected.add(i);
+			}
+		}
+		TableScan scan = new TableScan(table);
+		List<Integer> seen = new ArrayList<>();
+		Record record;
+		while ((record = scan.getNextRecord()) != null) {
+			int id = Integer.parseInt(record.getRecvalues().get(0));
+			seen.add(id);
+			RecordId current = scan.getCurrentRecordId();
+			testPassed &= current.getPageId().equals(rids.get(id).getPageId())
+					&& current.getSlotIdx() == rids.get(id).getSlotIdx();
+			testPassed &= record.getRecvalues().get(1).trim().equals("s" + id);
+		}
+		testPassed &= scan.getNextRecord() == null;
+		scan.close();
+		seen.sort(null);
+		testPassed &= seen.equals(expected);
+
+		// un parcours limité à certaines pages ne lit que celles-ci
+		TableScan partial = new TableScan(table, pages.subList(0, 1));
+		int count = 0;
+		while ((record = partial.getNextRecord()) != null) {
+			testPassed &= rids.get(Integer.parseInt(record.getRecvalues().get(0))).getPageId().equals(pages.get(0));
+			count++;
+		}
+		partial.close();
+		testPassed &= count > 0;
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testTypedValues() throws Exception {
+		System.out.println("Test valeurs typées:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("I", "INT"));
+		cols.add(new ColInfo("F", "FLOAT"));
+		cols.add(new ColInfo("S", "STRING(6)"));
+		cols.add(new ColInfo("V", "VARSTRING(8)"));
+		TableInfo table = new TableInfo("Typed", cols, fm.createNewHeaderPage());
+
+		boolean testPassed = true;
+		int[] ints = { 0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE };
+		float[] floats = { 0f, -2.5f, Float.MIN_VALUE, 1e30f };
+		String[] strings = { "", "a", "abcdef", "x y" };
+		for (int k = 0; k < ints.length; k++) {
+			Record record = new Record(table);
+			record.addValue(ints[k]);
+			record.addValue(floats[k]);
+			record.addValue(strings[k]);
+			record.addValue(strings[3 - k]);
+
+			// aller-retour par un tampon, à une position quelconque
+			byte[] buff = new byte[128];
+			int written = record.writeToBuffer(buff, 7);
+			Record read = new Record(table);
+			testPassed &= read.readFromBuffer(buff, 7) == written;
+			testPassed &= read.getInt(0) == ints[k] && Float.compare(read.getFloat(1), floats[k]) == 0;
+			testPassed &= read.getString(2).equals(strings[k]) && read.getString(3).equals(strings[3 - k]);
+			testPassed &= read.getRecvalues().equals(record.getRecvalues());
+
+			// aller-retour par une page de données
+			Record stored = fm.getRecord(table, fm.InsertRecordIntoTable(record));
+			testPassed &= stored.getInt(0) == ints[k] && Float.compare(stored.getFloat(1), floats[k]) == 0;
+			testPassed &= stored.getString(2).equals(strings[k]) && stored.getString(3).equals(strings[3 - k]);
+		}
+
+		// les valeurs textuelles sont converties selon le type de la colonne
+		Record record = new Record(table);
+		record.setValueFromString(0, "42");
+		record.setValueFromString(1, "1.25");
+		record.setValueFromString(2, "12");
+		testPassed &= record.getInt(0) == 42 && record.getFloat(1) == 1.25f && record.getString(2).equals("12");
+		testPassed &= record.getValueAsString(0).equals("42") && record.getValueAsString(1).equals("1.25");
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testRecordLayout() throws Exception {
+		System.out.println("Test RecordLayout:");
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("I", "INT"));
+		cols.add(new ColInfo("F", "FLOAT"));
+		cols.add(new ColInfo("S", "STRING(6)"));
+		cols.add(new ColInfo("J", "INT"));
+		TableInfo table = new TableInfo("Layout", cols, FileManager.getInstance().createNewHeaderPage());
+
+		// la disposition est compilée une fois par table
+		RecordLayout layout = table.getLayout();
+		boolean testPassed = table.getLayout() == layout && layout.getColumnCount() == 4;
+		testPassed &= layout.getType(0) == RecordLayout.INT && layout.getType(1) == RecordLayout.FLOAT
+				&& layout.getType(2) == RecordLayout.STRING && layout.isString(2) && !layout.isString(3);
+		testPassed &= layout.getWidth(0) == 4 && layout.getWidth(1) == 4 && layout.getWidth(2) == 6;
+		testPassed &= layout.getOffset(0) == 0 && layout.getOffset(1) == 4 && layout.getOffset(2) == 8
+				&& layout.getOffset(3) == 14;
+		testPassed &= layout.getColumnIndex("J") == 3 && layout.getColumnIndex("X") == -1;
+
+		// les valeurs sont écrites aux positions de la disposition
+		Record record = new Record(table);
+		record.addValue(7);
+		record.addValue(2.5f);
+		record.addValue("abc");
+		record.addValue(-9);
+		byte[] buff = new byte[64];
+		testPassed &= record.writeToBuffer(buff, 0) == 18;
+		testPassed &= Record.getInt(buff, layout.getOffset(3)) == -9
+				&& Float.intBitsToFloat(Record.getInt(buff, layout.getOffset(1))) == 2.5f;
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
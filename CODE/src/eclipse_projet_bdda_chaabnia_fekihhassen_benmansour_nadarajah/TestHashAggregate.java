@@ -0,0 +1,109 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TestHashAggregate {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testAggregate();
+	}
+
+	private static void testAggregate() throws Exception {
+		System.out.println("Test agrégation:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("A", "INT"));
+		cols.add(new ColInfo("G", "INT"));
+		cols.add(new ColInfo("S", "VARSTRING(6)"));
+		cols.add(new ColInfo("F", "FLOAT"));
+		TableInfo table = new TableInfo("AggTable", cols, fm.createNewHeaderPage());
+		Map<String, int[]> expected = new HashMap<>(); // nombre, somme de A, max de A
+		for (int i = 0; i < 3000; i++) {
+			Record record = new Record(table);
+			record.addValue(i);
+			record.addValue(i % 700);
+			record.addValue("g" + (i % 50));
+			record.addValue(i / 4f);
+			fm.InsertRecordIntoTable(record);
+			int[] group = expected.computeIfAbsent((i % 700) + "/g" + (i % 50), k -> new int[3]);
+			group[0]++;
+			group[1] += i;
+			group[2] = Math.max(group[2], i);
+		}
+
+		boolean testPassed = true;
+		List<Aggregate> aggregates = List.of(Aggregate.parse("COUNT(*)"), Aggregate.parse("SUM(A)"),
+				Aggregate.parse("max(A)"), Aggregate.parse("AVG(F)"));
+		// une limite de 16 groupes oblige à déborder dans des partitions temporaires
+		for (int maxGroups : new int[] { 100000, 16 }) {
+			Predicate predicate = PredicateParser.parse("A<2800", table);
+			List<Record> rows = TestOperators.drain(new HashAggregate(new SeqScan(table, predicate),
+					List.of("G", "S"), aggregates, maxGroups));
+			testPassed &= rows.size() == 700;
+			Set<String> seen = new HashSet<>();
+			for (Record row : rows) {
+				String key = row.getInt(0) + "/" + row.getString(1);
+				int[] group = expected.get(key);
+				int count = group[0] - (row.getInt(0) < 200 ? 1 : 0); // lignes A>=2800
+				testPassed &= seen.add(key) && row.getInt(2) == count;
+				testPassed &= row.getTabInfo().getColInfoList().get(3).getName().equals("SUM(A)");
+				testPassed &= count == group[0] ? row.getFloat(3) == group[1] && row.getInt(4) == group[2]
+						: row.getInt(4) < 2800;
+			}
+		}
+
+		// COUNT(*) seul, sans colonne décodée ni regroupement, même sur une entrée vide
+		Projection none = new Projection(table, List.of());
+		Operator counted = new Materialize(new BatchScan(table, null, none), none);
+		List<Record> total = TestOperators.drain(new HashAggregate(counted, List.of(),
+				List.of(Aggregate.parse("COUNT(*)")), 16));
+		List<Record> empty = TestOperators.drain(new HashAggregate(
+				new SeqScan(table, PredicateParser.parse("A<0", table)), List.of(),
+				List.of(Aggregate.parse("COUNT(*)"), Aggregate.parse("SUM(F)")), 16));
+		testPassed &= total.size() == 1 && total.get(0).getInt(0) == 3000;
+		testPassed &= empty.size() == 1 && empty.get(0).getInt(0) == 0 && empty.get(0).getFloat(1) == 0f;
+
+		// des milliers de chaînes distinctes, dont la plupart passent par les partitions
+		ArrayList<ColInfo> keyCols = new ArrayList<>();
+		keyCols.add(new ColInfo("K", "VARSTRING(6)"));
+		TableInfo keys = new TableInfo("AggKeys", keyCols, fm.createNewHeaderPage());
+		for (int i = 0; i < 4000; i++) {
+			Record record = new Record(keys);
+			record.addValue("k" + (i % 2000));
+			fm.InsertRecordIntoTable(record);
+		}
+		List<Record> distinct = TestOperators.drain(new HashAggregate(new SeqScan(keys), List.of("K"),
+				List.of(Aggregate.parse("COUNT(*)")), 16));
+		Set<String> distinctKeys = new HashSet<>();
+		for (Record row : distinct) {
+			testPassed &= row.getString(0).startsWith("k") && distinctKeys.add(row.getString(0)) && row.getInt(1) == 2;
+		}
+		testPassed &= distinctKeys.size() == 2000;
+
+		// la somme d'une colonne INT dépasse la capacité d'un INT
+		ArrayList<ColInfo> bigCols = new ArrayList<>();
+		bigCols.add(new ColInfo("V", "INT"));
+		TableInfo bigTable = new TableInfo("AggBig", bigCols, fm.createNewHeaderPage());
+		for (int i = 0; i < 3; i++) {
+			Record record = new Record(bigTable);
+			record.addValue(2000000000);
+			fm.InsertRecordIntoTable(record);
+		}
+		Record sum = TestOperators.drain(new HashAggregate(new SeqScan(bigTable), List.of(),
+				List.of(Aggregate.parse("SUM(V)"), Aggregate.parse("MAX(V)")), 16)).get(0);
+		testPassed &= sum.getTabInfo().getColInfoList().get(0).getType().equals("FLOAT")
+				&& sum.getFloat(0) == 6e9f && sum.getInt(1) == 2000000000;
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
@@ -0,0 +1,135 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestJoin {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testHashJoin();
+		testBlockNestedLoopJoin();
+	}
+
+	private static void testHashJoin() throws Exception {
+		System.out.println("Test jointure par hachage:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> factCols = new ArrayList<>();
+		factCols.add(new ColInfo("Id", "INT"));
+		factCols.add(new ColInfo("Dim", "INT"));
+		factCols.add(new ColInfo("Label", "VARSTRING(8)"));
+		TableInfo fact = new TableInfo("Fact", factCols, fm.createNewHeaderPage());
+		ArrayList<ColInfo> dimCols = new ArrayList<>();
+		dimCols.add(new ColInfo("Key", "FLOAT"));
+		dimCols.add(new ColInfo("Name", "VARSTRING(8)"));
+		TableInfo dim = new TableInfo("Dim", dimCols, fm.createNewHeaderPage());
+		for (int i = 0; i < 2000; i++) {
+			Record record = new Record(fact);
+			record.addValue(i);
+			record.addValue(i % 300);
+			record.addValue("f" + i);
+			fm.InsertRecordIntoTable(record);
+		}
+		// les clés 0 à 249 existent, deux fois pour les multiples de 10
+		for (int k = 0; k < 250; k++) {
+			for (int copy = 0; copy < (k % 10 == 0 ? 2 : 1); copy++) {
+				Record record = new Record(dim);
+				record.addValue((float) k);
+				record.addValue("n" + k);
+				fm.InsertRecordIntoTable(record);
+			}
+		}
+		int expected = 0;
+		for (int i = 0; i < 2000; i++) {
+			int k = i % 300;
+			expected += k >= 250 ? 0 : k % 10 == 0 ? 2 : 1;
+		}
+
+		boolean testPassed = true;
+		// une limite de 50 enregistrements construits oblige à partitionner
+		for (int maxBuildRows : new int[] { 100000, 50 }) {
+			for (boolean buildLeft : new boolean[] { true, false }) {
+				List<Record> rows = TestOperators.drain(new HashJoin(new SeqScan(fact), new SeqScan(dim),
+						List.of("Fact.Dim"), List.of("Dim.Key"), buildLeft, maxBuildRows));
+				testPassed &= rows.size() == expected;
+				for (Record row : rows) {
+					testPassed &= row.getInt(1) == (int) row.getFloat(3)
+							&& row.getString(4).equals("n" + row.getInt(1));
+				}
+				testPassed &= rows.isEmpty()
+						|| rows.get(0).getTabInfo().getColInfoList().get(4).getName().equals("Dim.Name");
+			}
+		}
+
+		// conditions confiées aux parcours et condition évaluée après la jointure
+		JoinPlanner planner = new JoinPlanner(List.of(fact, dim),
+				"Fact.Dim = Key AND Id < 1000 AND (Label = f7 OR Name = n20)");
+		int filtered = TestOperators.drain(planner.buildPlan(List.of("Fact.Id"))).size();
+		testPassed &= filtered == 1 + 8; // f7 et les 4 Id < 1000 de clé 20, deux fois
+		testPassed &= planner.qualify("Name").equals("Dim.Name");
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testBlockNestedLoopJoin() throws Exception {
+		System.out.println("Test jointure par boucles imbriquées:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> outerCols = new ArrayList<>();
+		outerCols.add(new ColInfo("X", "INT"));
+		outerCols.add(new ColInfo("Tag", "VARSTRING(8)"));
+		TableInfo outer = new TableInfo("Low", outerCols, fm.createNewHeaderPage());
+		ArrayList<ColInfo> innerCols = new ArrayList<>();
+		innerCols.add(new ColInfo("Y", "FLOAT"));
+		TableInfo inner = new TableInfo("High", innerCols, fm.createNewHeaderPage());
+		for (int i = 0; i < 1500; i++) {
+			Record record = new Record(outer);
+			record.addValue(i % 400);
+			record.addValue("t" + i);
+			fm.InsertRecordIntoTable(record);
+		}
+		for (int i = 0; i < 60; i++) {
+			Record record = new Record(inner);
+			record.addValue(i * 7.5f);
+			fm.InsertRecordIntoTable(record);
+		}
+		int expected = 0;
+		for (int i = 0; i < 1500; i++) {
+			for (int j = 0; j < 60; j++) {
+				expected += i % 400 >= 100 && i % 400 < j * 7.5f ? 1 : 0;
+			}
+		}
+
+		boolean testPassed = true;
+		int frameCount = DBParams.FrameCount;
+		// 2 frames : un bloc d'une page ; 8 frames : des blocs de plusieurs pages
+		for (int frames : new int[] { frameCount, 8 }) {
+			DBParams.FrameCount = frames;
+			for (boolean outerIsLeft : new boolean[] { true, false }) {
+				TableInfo joined = outerIsLeft ? JoinPlanner.joinSchema(outer, inner)
+						: JoinPlanner.joinSchema(inner, outer);
+				Predicate condition = PredicateParser.parse("Low.X < High.Y", joined);
+				List<Record> rows = TestOperators.drain(new BlockNestedLoopJoin(outer,
+						PredicateParser.parse("X >= 100", outer), null, new SeqScan(inner), outerIsLeft, condition));
+				testPassed &= rows.size() == expected;
+				for (Record row : rows) {
+					int x = row.getInt(outerIsLeft ? 0 : 1);
+					testPassed &= x >= 100 && x < row.getFloat(outerIsLeft ? 2 : 0);
+				}
+				testPassed &= BufferManager.getInstance().getPinnedFrameCount() == 0;
+			}
+		}
+		DBParams.FrameCount = frameCount;
+
+		// sans égalité, le planificateur joint les tables par boucles imbriquées
+		JoinPlanner planner = new JoinPlanner(List.of(outer, inner), "X < Y AND X >= 100");
+		testPassed &= TestOperators.drain(planner.buildPlan(List.of("Low.Tag"))).size() == expected;
+		Operator crossJoin = new JoinPlanner(List.of(inner, outer), null).buildPlan(null);
+		testPassed &= TestOperators.drain(crossJoin).size() == 1500 * 60;
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
@@ -0,0 +1,147 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestOperators {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testOperators();
+		testVectorized();
+		testProjection();
+	}
+
+	private static void testOperators() throws Exception {
+		System.out.println("Test opérateurs:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Colonne1", "INT"));
+		cols.add(new ColInfo("Colonne2", "FLOAT"));
+		cols.add(new ColInfo("Colonne3", "VARSTRING(10)"));
+		TableInfo opTable = new TableInfo("OpTable", cols, fm.createNewHeaderPage());
+		for (int i = 0; i < 400; i++) {
+			Record record = new Record(opTable);
+			record.addValue(i);
+			record.addValue(i * 0.5f);
+			record.addValue("op" + i);
+			fm.InsertRecordIntoTable(record);
+		}
+
+		Predicate predicate = PredicateParser.parse("Colonne1>99", opTable);
+		Operator plan = new Project(new Filter(new SeqScan(opTable), predicate), List.of("Colonne3", "Colonne1"));
+		List<Record> rows = drain(plan);
+		boolean testPassed = rows.size() == 300;
+		testPassed &= plan.getSchema().getNb_colonnes() == 2;
+		testPassed &= rows.get(0).getString(0).equals("op100") && rows.get(0).getInt(1) == 100;
+
+		// la limite arrête le parcours parallèle avant la fin de la table
+		rows = drain(new Limit(new ParallelSeqScan(opTable, predicate, 4), 5));
+		testPassed &= rows.size() == 5 && rows.get(4).getInt(0) == 104;
+		testPassed &= drain(new SeqScan(opTable, PredicateParser.parse("Colonne1<0", opTable))).isEmpty();
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testVectorized() throws Exception {
+		System.out.println("Test vectorisé:");
+		FileManager fm = FileManager.getInstance();
+		boolean testPassed = true;
+		for (PageFormat format : PageFormat.values()) {
+			ArrayList<ColInfo> cols = new ArrayList<>();
+			cols.add(new ColInfo("Colonne1", "INT"));
+			cols.add(new ColInfo("Colonne2", "FLOAT"));
+			cols.add(new ColInfo("Colonne3", "VARSTRING(10)"));
+			cols.add(new ColInfo("Colonne4", "STRING(8)"));
+			cols.get(3).enableDictionary();
+			TableInfo vecTable = new TableInfo("VecTable" + format, cols, fm.createNewHeaderPage());
+			vecTable.setFormat(format);
+			List<RecordId> rids = new ArrayList<>();
+			for (int i = 0; i < 3000; i++) {
+				Record record = new Record(vecTable);
+				record.addValue(i);
+				record.addValue(i * 0.25f);
+				record.addValue("v" + i);
+				record.addValue(i % 2 == 0 ? "pair" : "impair");
+				rids.add(fm.InsertRecordIntoTable(record));
+			}
+			fm.deleteRecord(vecTable, rids.get(2500));
+
+			// plusieurs lots de 1024 lignes, comparés au parcours ligne par ligne
+			String[] wheres = { "Colonne1>=1200 AND Colonne4=pair", "Colonne2<10.5", "Colonne3>v2990",
+					"Colonne4<>impair AND Colonne1>2400" };
+			for (String where : wheres) {
+				Predicate predicate = PredicateParser.parse(where, vecTable);
+				List<Record> rows = drain(
+						new Materialize(new BatchFilter(new BatchScan(vecTable, predicate), predicate)));
+				List<Record> expected = drain(new SeqScan(vecTable, predicate));
+				testPassed &= rows.size() == expected.size();
+				for (int i = 0; i < rows.size() && i < expected.size(); i++) {
+					testPassed &= rows.get(i).getRecvalues().equals(expected.get(i).getRecvalues());
+				}
+			}
+			testPassed &= drain(new Materialize(new BatchScan(vecTable, null))).size() == 2999;
+		}
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testProjection() throws Exception {
+		System.out.println("Test projection:");
+		FileManager fm = FileManager.getInstance();
+		boolean testPassed = true;
+		for (PageFormat format : PageFormat.values()) {
+			ArrayList<ColInfo> cols = new ArrayList<>();
+			cols.add(new ColInfo("A", "INT"));
+			cols.add(new ColInfo("B", "FLOAT"));
+			cols.add(new ColInfo("C", "VARSTRING(12)"));
+			cols.add(new ColInfo("D", "STRING(8)"));
+			cols.add(new ColInfo("E", "INT"));
+			cols.get(3).enableDictionary();
+			TableInfo wide = new TableInfo("ProjTable" + format, cols, fm.createNewHeaderPage());
+			wide.setFormat(format);
+			for (int i = 0; i < 2500; i++) {
+				Record record = new Record(wide);
+				record.addValue(i);
+				record.addValue(i / 2f);
+				record.addValue("c" + i);
+				record.addValue(i % 2 == 0 ? "x" : "y");
+				record.addValue(-i);
+				fm.InsertRecordIntoTable(record);
+			}
+
+			// la colonne du prédicat n'est pas dans la projection
+			Predicate predicate = PredicateParser.parse("E<=-1000 AND D=y", wide);
+			Projection projection = new Projection(wide, List.of("C", "A"));
+			List<Record> expected = drain(new Project(new Filter(new SeqScan(wide), predicate), List.of("C", "A")));
+			List<List<Record>> results = List.of(drain(new SeqScan(wide, predicate, projection)),
+					drain(new ParallelSeqScan(wide, predicate, projection, 3)),
+					drain(new Materialize(new BatchScan(wide, predicate, projection), projection)));
+			testPassed &= expected.size() == 750;
+			for (List<Record> rows : results) {
+				testPassed &= rows.size() == expected.size();
+				for (int i = 0; i < rows.size() && i < expected.size(); i++) {
+					testPassed &= rows.get(i).getRecvalues().equals(expected.get(i).getRecvalues());
+				}
+			}
+			testPassed &= results.get(2).get(0).getTabInfo().getNb_colonnes() == 2;
+		}
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	static List<Record> drain(Operator plan) throws Exception {
+		List<Record> rows = new ArrayList<>();
+		plan.open();
+		Record record;
+		while ((record = plan.next()) != null) {
+			rows.add(record);
+		}
+		plan.close();
+		return rows;
+	}
+}
@@ -0,0 +1,70 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestParallelScan {
+	private static TableInfo tableInfo;
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		createTable();
+		testParallelScan();
+	}
+
+	private static void createTable() throws Exception {
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Colonne1", "INT"));
+		cols.add(new ColInfo("Colonne2", "FLOAT"));
+		cols.add(new ColInfo("Colonne3", "VARSTRING(10)"));
+		FileManager fm = FileManager.getInstance();
+		tableInfo = new TableInfo("TestTable", cols, fm.createNewHeaderPage());
+		// suffisamment de records pour remplir plusieurs pages
+		for (int i = 0; i < 300; i++) {
+			Record record = new Record(tableInfo);
+			record.addValue(i);
+			record.addValue(i * 1.5f);
+			record.addValue("v" + i);
+			fm.InsertRecordIntoTable(record);
+		}
+	}
+
+	private static void testParallelScan() throws Exception {
+		System.out.println("Test parallel scan:");
+		List<Record> sequential = FileManager.getInstance().GetAllRecords(tableInfo);
+
+		List<Record> ordered = new ArrayList<>();
+		new ParallelTableScan(tableInfo, 4, true).scan(record -> true, ordered::add);
+
+		List<Record> unordered = new ArrayList<>();
+		new ParallelTableScan(tableInfo, 4, false).scan(
+				record -> Integer.parseInt(record.getRecvalues().get(0)) % 2 == 0, unordered::add);
+
+		boolean testPassed = ordered.size() == sequential.size() && unordered.size() == sequential.size() / 2;
+		for (int i = 0; testPassed && i < sequential.size(); i++) {
+			testPassed = sequential.get(i).getRecvalues().equals(ordered.get(i).getRecvalues());
+		}
+
+		// un parcours lancé avec un autre degré de parallélisme pendant qu'un
+		// premier est en cours n'interrompt pas celui-ci
+		List<Record> outer = new ArrayList<>();
+		List<Record> inner = new ArrayList<>();
+		new ParallelTableScan(tableInfo, 2, false).scan(record -> true, record -> {
+			if (outer.isEmpty()) {
+				try {
+					new ParallelTableScan(tableInfo, 3, true).scan(r -> true, inner::add);
+				} catch (Exception e) {
+					throw new RuntimeException(e);
+				}
+			}
+			outer.add(record);
+		});
+		testPassed &= outer.size() == sequential.size() && inner.size() == sequential.size();
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
@@ -0,0 +1,61 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestPax {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testPax();
+	}
+
+	private static Record newRecord(TableInfo table, int a, float b, String c) {
+		Record record = new Record(table);
+		record.addValue(a);
+		record.addValue(b);
+		record.addValue(c);
+		return record;
+	}
+
+	private static void testPax() throws Exception {
+		System.out.println("Test PAX:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Colonne1", "INT"));
+		cols.add(new ColInfo("Colonne2", "FLOAT"));
+		cols.add(new ColInfo("Colonne3", "VARSTRING(10)"));
+		TableInfo paxTable = new TableInfo("PaxTable", cols, fm.createNewHeaderPage());
+		paxTable.setFormat(PageFormat.PAX);
+
+		List<RecordId> rids = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			rids.add(fm.InsertRecordIntoTable(newRecord(paxTable, i, i * 1.5f, "v" + i)));
+		}
+
+		boolean testPassed = fm.getDataPages(paxTable).size() > 1;
+		testPassed &= fm.getRecord(paxTable, rids.get(123)).getRecvalues().get(1).equals("184.5");
+		testPassed &= fm.deleteRecord(paxTable, rids.get(123));
+		testPassed &= fm.getRecord(paxTable, rids.get(123)) == null;
+		fm.updateRecord(newRecord(paxTable, -5, 0f, "maj"), rids.get(7));
+
+		// la zone map ne garde que la page de la ligne 450, dont seule la
+		// colonne filtrée est lue avant que la ligne soit retenue
+		List<SelectCondition> conditions = SelectCondition.parseConditions("Colonne1=450");
+		List<PageId> pages = fm.getDataPages(paxTable, conditions);
+		TableScan scan = new TableScan(paxTable, pages, conditions);
+		int count = 0;
+		Record record;
+		while ((record = scan.getNextRecord()) != null) {
+			testPassed &= record.getRecvalues().get(2).startsWith("v450");
+			count++;
+		}
+		testPassed &= count == 1 && pages.size() == 1;
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
@@ -0,0 +1,164 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+
+public class TestPredicate {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testPredicates();
+		testAdaptiveAnd();
+		testFloatConstants();
+	}
+
+	private static void testPredicates() throws Exception {
+		System.out.println("Test prédicats:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("A", "INT"));
+		cols.add(new ColInfo("B", "FLOAT"));
+		cols.add(new ColInfo("C", "VARSTRING(12)"));
+		cols.add(new ColInfo("D", "STRING(8)"));
+		cols.get(3).enableDictionary();
+		TableInfo predTable = new TableInfo("PredTable", cols, fm.createNewHeaderPage());
+		String[] couleurs = { "rouge", "vert", "bleu" };
+		for (int i = 0; i < 2000; i++) {
+			Record record = new Record(predTable);
+			record.addValue(i);
+			record.addValue(i / 4f);
+			record.addValue("nom " + i);
+			record.addValue(couleurs[i % 3]);
+			fm.InsertRecordIntoTable(record);
+		}
+
+		// chaque clause est comparée à un calcul direct sur les valeurs insérées
+		Object[][] cases = {
+				{ "A>9 AND A<=10", 1 },
+				{ "A<5 OR A>=1995", 10 },
+				{ "NOT (A>=100) AND D=rouge", 34 },
+				{ "A IN (1, 2, 3, 5000) OR C='nom 1999'", 4 },
+				{ "B BETWEEN 10 AND 20 AND D IN (vert, violet)", 14 },
+				{ "A NOT BETWEEN 10 AND 1999", 10 },
+				{ "(D<>bleu OR A=2) AND NOT A NOT IN (0, 1, 2)", 3 },
+				{ "C>='nom 5' AND C<'nom 6'", 111 },
+				{ "d = vert", 0 } };
+		boolean testPassed = true;
+		for (Object[] c : cases) {
+			String where = c[0].toString();
+			Predicate predicate;
+			try {
+				predicate = PredicateParser.parse(where, predTable);
+			} catch (IllegalArgumentException e) {
+				// les noms de colonnes restent sensibles à la casse
+				testPassed &= where.startsWith("d ");
+				continue;
+			}
+			int expected = (Integer) c[1];
+			int rows = TestOperators.drain(new SeqScan(predTable, predicate)).size();
+			int batch = TestOperators
+					.drain(new Materialize(new BatchFilter(new BatchScan(predTable, predicate), predicate))).size();
+			int records = TestOperators.drain(new Filter(new SeqScan(predTable), predicate)).size();
+			testPassed &= rows == expected && batch == expected && records == expected;
+		}
+
+		try {
+			PredicateParser.parse("A>x", predTable);
+			testPassed = false;
+		} catch (IllegalArgumentException e) {
+			// une colonne INT n'est pas comparée à du texte
+		}
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testAdaptiveAnd() throws Exception {
+		System.out.println("Test AND adaptatif:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Id", "INT"));
+		cols.add(new ColInfo("Name", "VARSTRING(10)"));
+		TableInfo table = new TableInfo("Adaptive", cols, fm.createNewHeaderPage());
+		for (int i = 0; i < 5000; i++) {
+			Record record = new Record(table);
+			record.addValue(i);
+			record.addValue("n" + (i % 100));
+			fm.InsertRecordIntoTable(record);
+		}
+
+		boolean testPassed = true;
+		// la première condition écrite ne rejette rien : elle doit passer après
+		// la seconde, ligne par ligne comme par lots
+		Predicate always = PredicateParser.parse("Id >= 0", table);
+		Predicate rare = PredicateParser.parse("Name = n7", table);
+		Predicate and = Predicate.and(new Predicate[] { always, rare });
+		testPassed &= and.getConjuncts().get(0) == always;
+		testPassed &= TestOperators.drain(new SeqScan(table, and)).size() == 50;
+		testPassed &= and.getConjuncts().get(0) == rare;
+
+		Predicate batchAnd = Predicate.and(new Predicate[] { always, rare });
+		for (int run = 0; run < 10; run++) {
+			testPassed &= TestOperators.drain(new Materialize(new BatchScan(table, batchAnd, null))).size() == 50;
+		}
+		testPassed &= batchAnd.getConjuncts().get(0) == rare;
+
+		// ligne par ligne, le coût vient de la forme de la condition : la
+		// comparaison de chaînes, plus chère et presque toujours vraie, passe après
+		TableInfo parity = new TableInfo("AdaptiveCost", cols, fm.createNewHeaderPage());
+		for (int i = 0; i < 5000; i++) {
+			Record record = new Record(parity);
+			record.addValue(i % 2);
+			record.addValue("n" + (i % 100));
+			fm.InsertRecordIntoTable(record);
+		}
+		Predicate string = PredicateParser.parse("Name <> n7", parity);
+		Predicate half = PredicateParser.parse("Id = 0", parity);
+		Predicate costAnd = Predicate.and(new Predicate[] { string, half });
+		testPassed &= string.cost() > half.cost() && costAnd.cost() == string.cost() + half.cost();
+		testPassed &= TestOperators.drain(new SeqScan(parity, costAnd)).size() == 2500;
+		testPassed &= costAnd.getConjuncts().get(0) == half;
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testFloatConstants() throws Exception {
+		System.out.println("Test constantes FLOAT:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("F", "FLOAT"));
+		TableInfo table = new TableInfo("FloatConst", cols, fm.createNewHeaderPage());
+		float[] values = { 1.1f, 0.3f, 3.7f };
+		for (float value : values) {
+			Record record = new Record(table);
+			record.addValue(value);
+			fm.InsertRecordIntoTable(record);
+		}
+
+		// 1.1, 0.3 et 3.7 ne sont pas représentables : la constante doit être
+		// arrondie comme la valeur stockée
+		Object[][] cases = {
+				{ "F = 1.1", 1 },
+				{ "F <= 0.3", 1 },
+				{ "F > 0.3", 2 },
+				{ "F <> 3.7", 2 },
+				{ "F IN (1.1, 3.7)", 2 },
+				{ "F BETWEEN 0.3 AND 1.1", 2 } };
+		boolean testPassed = true;
+		for (Object[] c : cases) {
+			Predicate predicate = PredicateParser.parse(c[0].toString(), table);
+			int expected = (Integer) c[1];
+			int rows = TestOperators.drain(new SeqScan(table, predicate)).size();
+			int batch = TestOperators
+					.drain(new Materialize(new BatchFilter(new BatchScan(table, predicate), predicate))).size();
+			int records = TestOperators.drain(new Filter(new SeqScan(table), predicate)).size();
+			// la zone map de la page ne doit pas l'écarter
+			int pages = fm.getDataPages(table, predicate).size();
+			testPassed &= rows == expected && batch == expected && records == expected && pages == 1;
+		}
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
@@ -0,0 +1,94 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestResultSink {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testResultSinks();
+	}
+
+	private static void testResultSinks() throws Exception {
+		System.out.println("Test destinations du résultat:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("Id", "INT"));
+		cols.add(new ColInfo("Price", "FLOAT"));
+		cols.add(new ColInfo("Label", "VARSTRING(20)"));
+		TableInfo table = new TableInfo("Sinks", cols, fm.createNewHeaderPage());
+		int rows = 5000; // plusieurs tampons pleins
+		for (int i = 0; i < rows; i++) {
+			Record record = new Record(table);
+			record.addValue(i);
+			record.addValue(i + 0.5f);
+			record.addValue(i == 1 ? "a,\"b\"" : "é" + i);
+			fm.InsertRecordIntoTable(record);
+		}
+
+		boolean testPassed = true;
+		PrintStream stdout = System.out;
+		ByteArrayOutputStream captured = new ByteArrayOutputStream();
+		ConsoleSink console = new ConsoleSink();
+		System.setOut(new PrintStream(captured, true, "UTF-8"));
+		try {
+			SelectCommand.run(new SeqScan(table), console);
+		} finally {
+			System.setOut(stdout);
+		}
+		String[] lines = captured.toString("UTF-8").split(System.lineSeparator());
+		testPassed &= console.getCount() == rows && lines.length == rows;
+		testPassed &= lines[0].equals("0 ; 0.5 ; é0 ; .") && lines[rows - 1].equals("4999 ; 4999.5 ; é4999 ; .");
+
+		Path csv = Files.createTempFile("sinks", ".csv");
+		CsvSink csvSink = new CsvSink(csv);
+		SelectCommand.run(new SeqScan(table), csvSink);
+		List<String> csvLines = Files.readAllLines(csv, StandardCharsets.UTF_8);
+		testPassed &= csvSink.getCount() == rows && csvLines.size() == rows + 1;
+		testPassed &= csvLines.get(0).equals("Id,Price,Label") && csvLines.get(1).equals("0,0.5,é0");
+		testPassed &= csvLines.get(2).equals("1,1.5,\"a,\"\"b\"\"\"");
+		testPassed &= new String(Files.readAllBytes(csv), StandardCharsets.UTF_8).endsWith("4999,4999.5,é4999\r\n");
+		Files.delete(csv);
+
+		Path binary = Files.createTempFile("sinks", ".bin");
+		SelectCommand.run(new SeqScan(table), new BinarySink(binary));
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(binary));
+		Files.delete(binary);
+		testPassed &= in.getInt() == BinarySink.MAGIC && in.getShort() == 3;
+		testPassed &= in.get() == BinarySink.INT && readBinaryString(in).equals("Id");
+		testPassed &= in.get() == BinarySink.FLOAT && readBinaryString(in).equals("Price");
+		testPassed &= in.get() == BinarySink.STRING && readBinaryString(in).equals("Label");
+		for (int i = 0; i < rows; i++) {
+			testPassed &= in.getInt() == i && in.getFloat() == i + 0.5f;
+			testPassed &= readBinaryString(in).equals(i == 1 ? "a,\"b\"" : "é" + i);
+		}
+		testPassed &= !in.hasRemaining();
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static String readBinaryString(ByteBuffer in) {
+		int length = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.get();
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		byte[] bytes = new byte[length];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
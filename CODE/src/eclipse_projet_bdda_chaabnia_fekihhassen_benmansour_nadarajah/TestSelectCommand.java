@@ -0,0 +1,95 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestSelectCommand {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testAccessPaths();
+		testQuotedClauses();
+	}
+
+	private static void testAccessPaths() throws Exception {
+		System.out.println("Test choix du chemin d'accès:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("A", "INT"));
+		cols.add(new ColInfo("B", "INT"));
+		TableInfo small = new TableInfo("PathSmall", cols, fm.createNewHeaderPage());
+		TableInfo large = new TableInfo("PathLarge", cols, fm.createNewHeaderPage());
+		for (int i = 0; i < 20000; i++) {
+			for (TableInfo table : i < 200 ? new TableInfo[] { small, large } : new TableInfo[] { large }) {
+				Record record = new Record(table);
+				record.addValue(i);
+				record.addValue(i % 7);
+				fm.InsertRecordIntoTable(record);
+			}
+		}
+		small.setStatistics(TableStatistics.collect(small));
+		large.setStatistics(TableStatistics.collect(large));
+
+		int parallelism = DBParams.ScanParallelism;
+		boolean vectorized = DBParams.VectorizedExecution;
+		boolean testPassed = true;
+		try {
+			DBParams.ScanParallelism = 4;
+			DBParams.VectorizedExecution = true;
+			// petite table : démarrer des threads ou reconstruire chaque ligne coûte plus que le travail
+			testPassed &= SelectCommand.buildScan(small, null, null) instanceof SeqScan;
+			// prédicat sélectif : les lots filtrent à moindre coût et peu de lignes sont reconstruites
+			testPassed &= SelectCommand.buildScan(small, PredicateParser.parse("B=3 AND A>=50", small),
+					null) instanceof Materialize;
+			// grande table entièrement lue : le travail par ligne est partagé entre les threads
+			testPassed &= SelectCommand.buildScan(large, null, null) instanceof ParallelSeqScan;
+			DBParams.ScanParallelism = 1;
+			testPassed &= SelectCommand.buildScan(large, null, null) instanceof SeqScan;
+			DBParams.VectorizedExecution = false;
+			testPassed &= SelectCommand.buildScan(small, PredicateParser.parse("B=3 AND A>=50", small),
+					null) instanceof SeqScan;
+		} finally {
+			DBParams.ScanParallelism = parallelism;
+			DBParams.VectorizedExecution = vectorized;
+		}
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+
+	private static void testQuotedClauses() throws Exception {
+		System.out.println("Test mots-clés entre guillemets:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> cols = new ArrayList<>();
+		cols.add(new ColInfo("A", "INT"));
+		cols.add(new ColInfo("B", "VARSTRING(12)"));
+		TableInfo table = new TableInfo("Quoted", cols, fm.createNewHeaderPage());
+		DataBaseInfo.getInstance().addTableInfo(table);
+		String[] labels = { "x LIMIT 2", "y ORDER BY", "z INTO CSV", "w WHERE" };
+		for (int i = 0; i < labels.length; i++) {
+			Record record = new Record(table);
+			record.addValue(i);
+			record.addValue(labels[i]);
+			fm.InsertRecordIntoTable(record);
+		}
+
+		boolean testPassed = true;
+		SelectCommand select = new SelectCommand("SELECT * FROM Quoted WHERE B = 'x LIMIT 2'");
+		List<Record> rows = TestOperators.drain(select.plan(select.getTables(), op -> op));
+		testPassed &= rows.size() == 1 && rows.get(0).getInt(0) == 0;
+
+		select = new SelectCommand(
+				"SELECT A FROM Quoted WHERE B = 'y ORDER BY' OR B = \"z INTO CSV\" ORDER BY A DESC LIMIT 1");
+		rows = TestOperators.drain(select.plan(select.getTables(), op -> op));
+		testPassed &= rows.size() == 1 && rows.get(0).getInt(0) == 2 && select.createSink() instanceof ConsoleSink;
+
+		select = new SelectCommand("select A from Quoted where B <> 'w WHERE' order by A");
+		rows = TestOperators.drain(select.plan(select.getTables(), op -> op));
+		testPassed &= rows.size() == 3 && rows.get(2).getInt(0) == 2;
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
@@ -0,0 +1,84 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestStatistics {
+
+	public static void main(String[] args) throws Exception {
+		DBParams.DBPath = "BD\\";
+		DBParams.SGBDPageSize = 4096;
+		DBParams.DMFileCount = 4;
+		DBParams.FrameCount = 2;
+
+		testStatistics();
+	}
+
+	private static void testStatistics() throws Exception {
+		System.out.println("Test statistiques:");
+		FileManager fm = FileManager.getInstance();
+		ArrayList<ColInfo> factCols = new ArrayList<>();
+		factCols.add(new ColInfo("X", "INT"));
+		factCols.add(new ColInfo("V", "INT"));
+		factCols.add(new ColInfo("S", "VARSTRING(6)"));
+		TableInfo fact = new TableInfo("StatFact", factCols, fm.createNewHeaderPage());
+		for (int i = 0; i < 6000; i++) {
+			Record record = new Record(fact);
+			record.addValue(i % 500);
+			record.addValue(i);
+			record.addValue("v" + (i % 50));
+			fm.InsertRecordIntoTable(record);
+		}
+		ArrayList<ColInfo> midCols = new ArrayList<>();
+		midCols.add(new ColInfo("Id", "INT"));
+		midCols.add(new ColInfo("Ref", "INT"));
+		TableInfo mid = new TableInfo("StatMid", midCols, fm.createNewHeaderPage());
+		ArrayList<ColInfo> smallCols = new ArrayList<>();
+		smallCols.add(new ColInfo("K", "INT"));
+		TableInfo small = new TableInfo("StatSmall", smallCols, fm.createNewHeaderPage());
+		for (int i = 0; i < 100; i++) {
+			Record record = new Record(mid);
+			record.addValue(i);
+			record.addValue(i % 10);
+			fm.InsertRecordIntoTable(record);
+		}
+		for (int i = 0; i < 10; i++) {
+			Record record = new Record(small);
+			record.addValue(i);
+			fm.InsertRecordIntoTable(record);
+		}
+
+		boolean testPassed = true;
+		TableStatistics stats = TableStatistics.collect(fact);
+		testPassed &= stats.getRowCount() == 6000 && stats.getPageCount() == fm.getDataPages(fact).size();
+		testPassed &= stats.getColumn(0).getDistinctCount() == 500 && stats.getColumn(2).getDistinctCount() == 50;
+		// au-delà du comptage exact, l'estimation HyperLogLog reste à quelques pour cent
+		testPassed &= Math.abs(stats.getColumn(1).getDistinctCount() - 6000) < 600;
+		testPassed &= stats.getColumn(1).getMin() == 0 && stats.getColumn(1).getMax() == 5999;
+		testPassed &= Math.abs(PredicateParser.parse("V < 1500", fact).selectivity(stats) - 0.25) < 0.03;
+		testPassed &= Math.abs(PredicateParser.parse("X = 7", fact).selectivity(stats) - 1.0 / 500) < 1e-9;
+		testPassed &= PredicateParser.parse("V > 9000", fact).selectivity(stats) == 0;
+		testPassed &= Math.abs(PredicateParser.parse("S <= v25", fact).selectivity(stats) - 0.37) < 0.1;
+
+		// StatFact et StatSmall ne sont reliées par aucune égalité : le
+		// planificateur passe par StatMid au lieu d'un produit cartésien
+		fact.setStatistics(stats);
+		mid.setStatistics(TableStatistics.collect(mid));
+		small.setStatistics(TableStatistics.collect(small));
+		JoinPlanner planner = new JoinPlanner(List.of(fact, small, mid),
+				"StatFact.X = StatMid.Id AND StatMid.Ref = StatSmall.K AND K < 5");
+		Operator plan = planner.buildPlan(null);
+		List<Record> rows = TestOperators.drain(plan);
+		// X < 100 et X % 10 < 5 : 50 valeurs de X, 12 lignes chacune
+		testPassed &= rows.size() == 50 * 12;
+		for (Record row : rows) {
+			testPassed &= row.getInt(0) == row.getInt(4) && row.getInt(5) == row.getInt(3) && row.getInt(3) < 5;
+		}
+		List<ColInfo> cols = plan.getSchema().getColInfoList();
+		testPassed &= cols.get(0).getName().equals("StatFact.X") && cols.get(3).getName().equals("StatSmall.K")
+				&& cols.get(5).getName().equals("StatMid.Ref");
+		testPassed &= !(plan instanceof BlockNestedLoopJoin);
+
+		System.out.println(testPassed ? "Test Reussi." : "Test Echoué.");
+	}
+}
@@ -0,0 +1,118 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Opérateur de tri limité (ORDER BY ... LIMIT k) : seuls les k meilleurs
+ * enregistrements du fils sont gardés, dans un tas borné dont la racine est le
+ * moins bon d'entre eux. Un enregistrement moins bon que la racine est écarté
+ * par une seule comparaison ; sinon il la remplace. Le tri coûte ainsi
+ * O(n log k) comparaisons et O(k) enregistrements en mémoire, sans rien écrire
+ * sur le disque. À égalité, le premier enregistrement lu passe devant, comme
+ * avec Sort.
+ */
+public class TopN implements Operator {
+  private final Operator child;
+  private final Comparator<Record> comparator;
+  private final int limit;
+  private final String order; // pour EXPLAIN
+  private Record[] result;
+  private int index;
+
+  /**
+   * Crée un tri limité au-dessus d'un opérateur.
+   *
+   * @param child       L'opérateur qui produit les enregistrements.
+   * @param columnNames Les colonnes du tri, de la plus importante à la moins
+   *                    importante.
+   * @param descending  Pour chaque colonne, true pour l'ordre décroissant.
+   * @param limit       Le nombre maximal d'enregistrements à renvoyer.
+   * @throws IllegalArgumentException Si une colonne n'existe pas dans le schéma
+   *                                  du fils.
+   */
+  public TopN(Operator child, List<String> columnNames, boolean[] descending, int limit) {
+    this.child = child;
+    this.limit = limit;
+    RecordLayout layout = child.getSchema().getLayout();
+    int[] columns = new int[columnNames.size()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = layout.getColumnIndex(columnNames.get(i));
+      if (columns[i] < 0) {
+        throw new IllegalArgumentException("Colonne inconnue : " + columnNames.get(i));
+      }
+    }
+    this.comparator = Sort.comparator(layout, columns, descending);
+    this.order = Sort.orderList(columnNames, descending);
+  }
+
+  /** Un enregistrement du tas, avec son rang d'arrivée pour départager les égalités. */
+  private static final class Entry {
+    final Record record;
+    final long sequence;
+
+    Entry(Record record, long sequence) {
+      this.record = record;
+      this.sequence = sequence;
+    }
+  }
+
+  private int compare(Entry a, Entry b) {
+    int c = comparator.compare(a.record, b.record);
+    return c != 0 ? c : Long.compare(a.sequence, b.sequence);
+  }
+
+  @Override
+  public void open() throws IOException, PageNotFoundException {
+    child.open();
+    // la racine du tas est l'enregistrement le moins bon
+    PriorityQueue<Entry> heap = new PriorityQueue<>(Math.max(1, Math.min(limit, 1024)), (a, b) -> compare(b, a));
+    long sequence = 0;
+    if (limit > 0) {
+      Record record;
+      while ((record = child.next()) != null) {
+        Entry entry = new Entry(record, sequence++);
+        if (heap.size() < limit) {
+          heap.add(entry);
+        } else if (compare(entry, heap.peek()) < 0) {
+          heap.poll();
+          heap.add(entry);
+        }
+      }
+    }
+    // le tas rend les enregistrements du moins bon au meilleur
+    result = new Record[heap.size()];
+    for (int i = result.length - 1; i >= 0; i--) {
+      result[i] = heap.poll().record;
+    }
+    index = 0;
+  }
+
+  @Override
+  public Record next() throws IOException, PageNotFoundException {
+    return index < result.length ? result[index++] : null;
+  }
+
+  @Override
+  public void close() throws PageNotFoundException {
+    result = null;
+    child.close();
+  }
+
+  @Override
+  public List<Operator> getChildren() {
+    return List.of(child);
+  }
+
+  @Override
+  public String describe() {
+    return "TopN " + limit + " " + order;
+  }
+
+  @Override
+  public TableInfo getSchema() {
+    return child.getSchema();
+  }
+}
@@ -0,0 +1,101 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Commande pour modifier les enregistrements d'une table qui satisfont les
+ * conditions d'une clause WHERE :
+ * UPDATE nom_table SET col1=val1, col2=val2 WHERE condition.
+ */
+public class UpdateCommand {
+  private String relationName;
+  private Map<String, String> assignments; // nom de colonne -> nouvelle valeur
+  private String whereClause; // null si la commande n'a pas de WHERE
+
+  /**
+   * Crée une instance de la commande UPDATE en analysant la commande fournie.
+   *
+   * @param command La commande UPDATE sous forme de chaîne de caractères.
+   * @throws IllegalArgumentException Si la commande est mal formée.
+   */
+  public UpdateCommand(String command) {
+    String[] commandParts = command.trim().split("\\s+");
+    int setIndex = command.indexOf(" SET ");
+    if (commandParts.length < 4 || setIndex == -1) {
+      throw new IllegalArgumentException("Commande mal formée");
+    }
+    this.relationName = commandParts[1];
+
+    int whereIndex = command.indexOf(" WHERE ");
+    String assignmentsStr;
+    if (whereIndex != -1) {
+      assignmentsStr = command.substring(setIndex + 5, whereIndex);
+      this.whereClause = command.substring(whereIndex + 7).trim();
+    } else {
+      assignmentsStr = command.substring(setIndex + 5);
+    }
+
+    this.assignments = new HashMap<>();
+    for (String assignment : assignmentsStr.split(",")) {
+      String[] parts = assignment.split("=", 2);
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Affectation mal formée : " + assignment.trim());
+      }
+      assignments.put(parts[0].trim(), parts[1].trim());
+    }
+  }
+
+  /**
+   * Exécute la mise à jour. Les enregistrements concernés sont d'abord tous
+   * repérés, puis modifiés, afin qu'un enregistrement déplacé dans une autre
+   * page ne soit pas traité deux fois.
+   */
+  public void execute() {
+    try {
+      TableInfo tableInfo = DataBaseInfo.getInstance().getTableInfo(relationName);
+
+      if (tableInfo == null) {
+        System.out.println("La Table \"" + relationName + "\" n'existe pas.");
+        return;
+      }
+
+      List<ColInfo> cols = tableInfo.getColInfoList();
+      for (String colName : assignments.keySet()) {
+        if (cols.stream().noneMatch(col -> col.getName().equals(colName))) {
+          throw new IllegalArgumentException("Colonne inconnue : " + colName);
+        }
+      }
+
+      FileManager fileManager = FileManager.getInstance();
+      int updated = 0;
+      Predicate predicate = PredicateParser.parse(whereClause, tableInfo);
+      for (RecordId recordId : DeleteCommand.findMatchingRecords(tableInfo, predicate)) {
+        Record oldRecord = fileManager.getRecord(tableInfo, recordId);
+        if (oldRecord == null) {
+          continue;
+        }
+
+        // l'enregistrement lu est une copie : on le modifie sur place
+        Record newRecord = oldRecord;
+        for (int i = 0; i < cols.size(); i++) {
+          String value = assignments.get(cols.get(i).getName());
+          if (value != null) {
+            newRecord.setValueFromString(i, value);
+          }
+        }
+
+        fileManager.updateRecord(newRecord, recordId);
+        updated++;
+      }
+
+      System.out.println(updated + " enregistrement(s) modifié(s) dans " + relationName + ".");
+    } catch (IOException e) {
+      System.out.println("An IOException occurred while executing the UPDATE command: " + e.getMessage());
+    } catch (PageNotFoundException e) {
+      System.out.println("A PageNotFoundException occurred while executing the UPDATE command: " + e.getMessage());
+    }
+  }
+}
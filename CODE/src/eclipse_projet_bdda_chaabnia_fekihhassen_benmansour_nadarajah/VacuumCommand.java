@@ -0,0 +1,54 @@
+package eclipse_projet_bdda_chaabnia_fekihhassen_benmansour_nadarajah;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Commande pour compacter les pages d'une table (ou de toutes les tables) et
+ * rendre au DiskManager les pages vidées par des suppressions :
+ * VACUUM [nom_table].
+ */
+public class VacuumCommand {
+  private String relationName; // null pour toutes les tables
+
+  /**
+   * Crée une instance de la commande VACUUM en analysant la commande fournie.
+   *
+   * @param command La commande VACUUM sous forme de chaîne de caractères.
+   */
+  public VacuumCommand(String command) {
+    String[] commandParts = command.trim().split("\\s+");
+    this.relationName = commandParts.length > 1 ? commandParts[1] : null;
+  }
+
+  /**
+   * Exécute le nettoyage sur la ou les tables concernées.
+   */
+  public void execute() {
+    try {
+      DataBaseInfo databaseInfo = DataBaseInfo.getInstance();
+      List<TableInfo> tables = new ArrayList<>();
+
+      if (relationName == null) {
+        tables.addAll(databaseInfo.getTableInfoList());
+      } else {
+        TableInfo tableInfo = databaseInfo.getTableInfo(relationName);
+        if (tableInfo == null) {
+          System.out.println("La Table \"" + relationName + "\" n'existe pas.");
+          return;
+        }
+        tables.add(tableInfo);
+      }
+
+      for (TableInfo tableInfo : tables) {
+        int released = FileManager.getInstance().vacuum(tableInfo);
+        System.out.println("VACUUM " + tableInfo.getNom_relation() + " : " + released + " page(s) libérée(s).");
+      }
+    } catch (IOException e) {
+      System.out.println("An IOException occurred while executing the VACUUM command: " + e.getMessage());
+    } catch (PageNotFoundException e) {
+      System.out.println("A PageNotFoundException occurred while executing the VACUUM command: " + e.getMessage());
+    }
+  }
+}